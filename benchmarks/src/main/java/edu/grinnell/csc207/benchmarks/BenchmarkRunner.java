@@ -0,0 +1,31 @@
+package edu.grinnell.csc207.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the benchmarks with the gc profiler, so that every result shows
+ * the allocation rate as well as the throughput.
+ */
+public class BenchmarkRunner {
+  /**
+   * Run the benchmarks.
+   *
+   * @param args
+   *   The usual JMH command-line options (e.g., a benchmark pattern,
+   *   -p size=1000, -f 1).
+   *
+   * @throws Exception
+   *   If the options are invalid or the benchmarks fail.
+   */
+  public static void main(String[] args) throws Exception {
+    Options options = new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  } // main(String[])
+} // class BenchmarkRunner
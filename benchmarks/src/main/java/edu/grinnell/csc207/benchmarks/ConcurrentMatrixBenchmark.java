@@ -0,0 +1,118 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.ConcurrentMatrix;
+import edu.grinnell.csc207.util.MatrixDense;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for ConcurrentMatrix under contention. All threads share
+ * one matrix. Run with -t to see how reads scale with the number of
+ * threads; the mixed group adds one thread that inserts and deletes
+ * the last row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentMatrixBenchmark {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The width and height of the matrix.
+   */
+  static final int SIZE = 256;
+
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * How the matrix locks: "striped" or "optimistic".
+   */
+  @Param({"striped", "optimistic"})
+  String mode;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The shared matrix.
+   */
+  ConcurrentMatrix<Integer> matrix;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrix.
+   */
+  @Setup
+  public void setup() {
+    this.matrix = new ConcurrentMatrix<Integer>(new MatrixDense<Integer>(SIZE, SIZE, 0),
+        "optimistic".equals(this.mode));
+    this.matrix.fillRegion(0, 0, SIZE, SIZE, 1);
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Read a random cell, with every thread reading.
+   *
+   * @return the value.
+   */
+  @Benchmark
+  @Threads(4)
+  public Integer get() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return this.matrix.get(random.nextInt(SIZE), random.nextInt(SIZE));
+  } // get()
+
+  /**
+   * Read a random cell while another thread changes the shape.
+   *
+   * @return the value.
+   */
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(3)
+  public Integer mixedGet() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return this.matrix.get(random.nextInt(SIZE), random.nextInt(SIZE));
+  } // mixedGet()
+
+  /**
+   * Insert and delete the last row while other threads read.
+   */
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(1)
+  public void mixedInsertRow() {
+    this.matrix.insertRow(SIZE);
+    this.matrix.deleteRow(SIZE);
+  } // mixedInsertRow()
+} // class ConcurrentMatrixBenchmark
@@ -0,0 +1,215 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the hot paths of MatrixV0. Each trial starts from a
+ * size-by-size matrix in which a fraction density of the cells (chosen
+ * at random, with a fixed seed) hold something other than the default.
+ *
+ * <p>The structural benchmarks insert and then delete the same row (or
+ * column), so that the matrix keeps its shape from one call to the
+ * next; set writes back the value a cell already holds, so that the
+ * density stays put.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixBenchmark {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of cells we cycle through in get and set.
+   */
+  static final int PROBES = 1024;
+
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The width and height of the matrix.
+   */
+  @Param({"100", "1000"})
+  int size;
+
+  /**
+   * The fraction of cells that do not hold the default.
+   */
+  @Param({"0.01", "0.5"})
+  double density;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix under test.
+   */
+  Matrix<Integer> matrix;
+
+  /**
+   * The rows we probe.
+   */
+  int[] rows;
+
+  /**
+   * The columns we probe.
+   */
+  int[] cols;
+
+  /**
+   * The values of the cells we probe.
+   */
+  Integer[] vals;
+
+  /**
+   * The next probe.
+   */
+  int probe;
+
+  /**
+   * The value for the next fill, which alternates so that each fill
+   * changes the matrix.
+   */
+  int fill;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrix and choose the cells to probe.
+   */
+  @Setup
+  public void setup() {
+    Random random = new Random(207);
+    this.matrix = new MatrixV0<Integer>(this.size, this.size, 0);
+    long cells = (long) this.size * this.size;
+    for (long i = Math.round(cells * this.density); i > 0; i--) {
+      this.matrix.set(random.nextInt(this.size), random.nextInt(this.size),
+          1 + random.nextInt(100));
+    } // for
+    this.rows = new int[PROBES];
+    this.cols = new int[PROBES];
+    this.vals = new Integer[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      this.rows[i] = random.nextInt(this.size);
+      this.cols[i] = random.nextInt(this.size);
+      this.vals[i] = this.matrix.get(this.rows[i], this.cols[i]);
+    } // for
+  } // setup()
+
+  /**
+   * Move on to the next probe.
+   *
+   * @return the index of the probe to use.
+   */
+  int nextProbe() {
+    int i = this.probe;
+    this.probe = (i + 1) & (PROBES - 1);
+    return i;
+  } // nextProbe()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Read one cell.
+   *
+   * @return the value, so that it is not optimized away.
+   */
+  @Benchmark
+  public Integer get() {
+    int i = nextProbe();
+    return this.matrix.get(this.rows[i], this.cols[i]);
+  } // get()
+
+  /**
+   * Write one cell.
+   */
+  @Benchmark
+  public void set() {
+    int i = nextProbe();
+    this.matrix.set(this.rows[i], this.cols[i], this.vals[i]);
+  } // set()
+
+  /**
+   * Insert and then delete a row in the middle of the matrix.
+   */
+  @Benchmark
+  public void insertDeleteRow() {
+    this.matrix.insertRow(this.size / 2);
+    this.matrix.deleteRow(this.size / 2);
+  } // insertDeleteRow()
+
+  /**
+   * Insert and then delete a column in the middle of the matrix.
+   */
+  @Benchmark
+  public void insertDeleteCol() {
+    this.matrix.insertCol(this.size / 2);
+    this.matrix.deleteCol(this.size / 2);
+  } // insertDeleteCol()
+
+  /**
+   * Fill the middle quarter of the matrix.
+   */
+  @Benchmark
+  public void fillRegion() {
+    int quarter = this.size / 4;
+    this.fill = (this.fill == 1) ? 2 : 1;
+    this.matrix.fillRegion(quarter, quarter, 3 * quarter, 3 * quarter, this.fill);
+  } // fillRegion()
+
+  /**
+   * Fill the main diagonal.
+   */
+  @Benchmark
+  public void fillLine() {
+    this.fill = (this.fill == 1) ? 2 : 1;
+    this.matrix.fillLine(0, 0, 1, 1, this.size, this.size, this.fill);
+  } // fillLine()
+
+  /**
+   * Compute the hash code of the whole matrix.
+   *
+   * @return the hash code.
+   */
+  @Benchmark
+  public int hashCode() {
+    return this.matrix.hashCode();
+  } // hashCode()
+
+  /**
+   * Copy the matrix.
+   *
+   * @return the copy.
+   */
+  @Benchmark
+  public Matrix<Integer> cloneMatrix() {
+    return this.matrix.clone();
+  } // cloneMatrix()
+} // class MatrixBenchmark
@@ -0,0 +1,145 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.DoubleMatrix;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the numeric operations of DoubleMatrix, against the
+ * boxed, cell-by-cell reduce that every matrix offers. Each trial
+ * starts from two size-by-size matrices of random values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumericBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The width and height of the matrices.
+   */
+  @Param({"100", "1000"})
+  int size;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix we update.
+   */
+  DoubleMatrix a;
+
+  /**
+   * The matrix we combine with it.
+   */
+  DoubleMatrix b;
+
+  /**
+   * The value for the next fill, which alternates so that each fill
+   * changes the matrix.
+   */
+  double fill;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrices.
+   */
+  @Setup
+  public void setup() {
+    Random random = new Random(207);
+    this.a = new DoubleMatrix(this.size, this.size);
+    this.b = new DoubleMatrix(this.size, this.size);
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        this.a.setDouble(row, col, random.nextDouble());
+        this.b.setDouble(row, col, random.nextDouble());
+      } // for col
+    } // for row
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Add up the cells with the unboxed kernel.
+   *
+   * @return the sum, so that it is not optimized away.
+   */
+  @Benchmark
+  public double sum() {
+    return this.a.sum();
+  } // sum()
+
+  /**
+   * Add up the cells with the boxed reduce.
+   *
+   * @return the sum, so that it is not optimized away.
+   */
+  @Benchmark
+  public double sumBoxed() {
+    return this.a.reduce(0.0, (sum, val) -> sum + val, Double::sum);
+  } // sumBoxed()
+
+  /**
+   * Compute the dot product of the two matrices.
+   *
+   * @return the product, so that it is not optimized away.
+   */
+  @Benchmark
+  public double dot() {
+    return this.a.dot(this.b);
+  } // dot()
+
+  /**
+   * Find the largest cell.
+   *
+   * @return the largest cell, so that it is not optimized away.
+   */
+  @Benchmark
+  public double max() {
+    return this.a.max();
+  } // max()
+
+  /**
+   * Average the other matrix into the one we update, which keeps the
+   * values between 0 and 1.
+   */
+  @Benchmark
+  public void addScale() {
+    this.a.add(this.b);
+    this.a.scale(0.5);
+  } // addScale()
+
+  /**
+   * Fill the middle half of the rows, all the way across.
+   */
+  @Benchmark
+  public void fillRows() {
+    int quarter = this.size / 4;
+    this.fill = (this.fill == 1.0) ? 2.0 : 1.0;
+    this.a.fillRegion(quarter, 0, 3 * quarter, this.size, this.fill);
+  } // fillRows()
+} // class NumericBenchmark
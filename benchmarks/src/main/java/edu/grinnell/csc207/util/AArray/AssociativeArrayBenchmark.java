@@ -0,0 +1,180 @@
+package edu.grinnell.csc207.util.AArray;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the associative arrays. Lives in the AArray package so
+ * that it can reach the package-private find.
+ *
+ * <p>Each trial fills an array with size keys; the benchmarks then work
+ * on keys that are present, cycling through them in a fixed random
+ * order. remove puts the key back, so the array keeps its size.
+ * getOrDefault looks for keys that are missing, the common case in a
+ * sparse matrix.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssociativeArrayBenchmark {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of keys we cycle through.
+   */
+  static final int PROBES = 1024;
+
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The number of keys in the array.
+   */
+  @Param({"100", "10000"})
+  int size;
+
+  /**
+   * Which implementation to measure: the linear AssociativeArray or
+   * HashedAssociativeArray.
+   */
+  @Param({"linear", "hashed"})
+  String impl;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The array under test.
+   */
+  AssociativeArray<Integer, Integer> array;
+
+  /**
+   * The keys we probe.
+   */
+  Integer[] keys;
+
+  /**
+   * The next probe.
+   */
+  int probe;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the array and choose the keys to probe.
+   *
+   * @throws Exception
+   *   If the array rejects a key (which it should not).
+   */
+  @Setup
+  public void setup() throws Exception {
+    this.array = "hashed".equals(this.impl)
+        ? new HashedAssociativeArray<Integer, Integer>()
+        : new AssociativeArray<Integer, Integer>();
+    for (int i = 0; i < this.size; i++) {
+      this.array.set(i, i);
+    } // for
+    Random random = new Random(207);
+    this.keys = new Integer[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      this.keys[i] = random.nextInt(this.size);
+    } // for
+  } // setup()
+
+  /**
+   * Move on to the next key.
+   *
+   * @return the key.
+   */
+  Integer nextKey() {
+    Integer key = this.keys[this.probe];
+    this.probe = (this.probe + 1) & (PROBES - 1);
+    return key;
+  } // nextKey()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Overwrite an existing key.
+   *
+   * @throws Exception
+   *   If the key is rejected.
+   */
+  @Benchmark
+  public void set() throws Exception {
+    Integer key = nextKey();
+    this.array.set(key, key);
+  } // set()
+
+  /**
+   * Look up a key.
+   *
+   * @return the value.
+   *
+   * @throws Exception
+   *   If the key is missing.
+   */
+  @Benchmark
+  public Integer get() throws Exception {
+    return this.array.get(nextKey());
+  } // get()
+
+  /**
+   * Look up a missing key.
+   *
+   * @return the default.
+   */
+  @Benchmark
+  public Integer getOrDefault() {
+    return this.array.getOrDefault(nextKey() + this.size, -1);
+  } // getOrDefault()
+
+  /**
+   * Find the slot of a key.
+   *
+   * @return the slot.
+   *
+   * @throws Exception
+   *   If the key is missing.
+   */
+  @Benchmark
+  public int find() throws Exception {
+    return this.array.find(nextKey());
+  } // find()
+
+  /**
+   * Remove a key and put it back.
+   *
+   * @throws Exception
+   *   If the key is rejected.
+   */
+  @Benchmark
+  public void remove() throws Exception {
+    Integer key = nextKey();
+    this.array.remove(key);
+    this.array.set(key, key);
+  } // remove()
+} // class AssociativeArrayBenchmark
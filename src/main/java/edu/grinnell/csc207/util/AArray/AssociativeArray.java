@@ -2,6 +2,9 @@ package edu.grinnell.csc207.util.AArray;
 
 import static java.lang.reflect.Array.newInstance;
 
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
 /**
  * A basic implementation of Associative Arrays with keys of type K
  * and values of type V. Associative Arrays store key/value pairs
@@ -131,11 +134,9 @@ public class AssociativeArray<K, V> {
     } // raise exception in the case of NullKey
 
     KVPair<K, V> newpair = new KVPair<>(key, value);
-    int keyAddress;
+    int keyAddress = indexOf(key);
 
-    try {
-      keyAddress = find(key);
-    } catch (KeyNotFoundException e) {
+    if (keyAddress < 0) {
       this.size++;
 
       if (this.size >= this.pairs.length) {
@@ -149,7 +150,7 @@ public class AssociativeArray<K, V> {
     this.pairs[keyAddress] = newpair;
     return;
 
-  }
+  } // set(K, V)
 
   /**
    * updates the key of a stored value.
@@ -159,10 +160,8 @@ public class AssociativeArray<K, V> {
    * @throws KeyNotFoundException oldKey not found
    */
   public void updateKey(K oldKey, K newKey) throws KeyNotFoundException {
-    int keyloc;
-    try {
-      keyloc = find(oldKey);
-    } catch (KeyNotFoundException e) {
+    int keyloc = indexOf(oldKey);
+    if (keyloc < 0) {
       throw new KeyNotFoundException("the key to replace does not exist");
     } // what to do if key was not found
 
@@ -186,16 +185,76 @@ public class AssociativeArray<K, V> {
    *                              associative array.
    */
   public V get(K key) throws KeyNotFoundException {
-    int n;
-    try {
-      n = find(key);
-    } catch (KeyNotFoundException e) {
+    int n = indexOf(key);
+    if (n < 0) {
       throw new KeyNotFoundException("you searched for a key which does not exist");
     } // what to do if key was not found
     return this.pairs[n].val;
 
   } // get(K)
 
+  /**
+   * Get the value associated with key, or a default if key does not
+   * appear. Unlike get, a miss costs no more than a hit.
+   *
+   * @param key
+   *            A key
+   * @param def
+   *            The value to return if key does not appear.
+   *
+   * @return
+   *         The corresponding value, or def.
+   */
+  public V getOrDefault(K key, V def) {
+    int n = indexOf(key);
+    return (n < 0) ? def : this.pairs[n].val;
+  } // getOrDefault(K, V)
+
+  /**
+   * Get the value associated with key. If key does not appear, first
+   * compute a value for it and store that.
+   *
+   * @param key
+   *            A key
+   * @param fun
+   *            Computes the value of a missing key.
+   *
+   * @return
+   *         The value associated with key, which may be new.
+   *
+   * @throws NullKeyException
+   *                          If the client provides a null key.
+   */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> fun)
+      throws NullKeyException {
+    int n = indexOf(key);
+    if (n >= 0) {
+      return this.pairs[n].val;
+    } // if the key is already present
+    V val = fun.apply(key);
+    this.set(key, val);
+    return val;
+  } // computeIfAbsent(K, Function)
+
+  /**
+   * Find the index of key, for use with getKey.
+   *
+   * @param key
+   *            The key we're looking for.
+   *
+   * @return
+   *         The index of key, or -1 if key does not appear (or is null).
+   */
+  public int indexOf(K key) {
+    for (int i = 0; i < this.size; i++) {
+      KVPair<K, V> currentPair = this.pairs[i];
+      if (currentPair.key.equals(key)) {
+        return i;
+      } // if key is found return the index
+    } // loop looking for the value
+    return -1;
+  } // indexOf(K)
+
   /**
    * gets the key at a given index.
    * @param index the index to check
@@ -222,12 +281,7 @@ public class AssociativeArray<K, V> {
    * @return true if the key appears and false otherwise.
    */
   public boolean hasKey(K key) {
-    try {
-      find(key);
-    } catch (KeyNotFoundException e) {
-      return false;
-    } // catch if key was not found
-    return true;
+    return indexOf(key) >= 0;
   } // hasKey(K)
 
   /**
@@ -240,11 +294,8 @@ public class AssociativeArray<K, V> {
    */
   public void remove(K key) {
 
-    int keyAddress;
-
-    try {
-      keyAddress = find(key);
-    } catch (KeyNotFoundException e) {
+    int keyAddress = indexOf(key);
+    if (keyAddress < 0) {
       return;
     } // if the key wasnt found do nothing
     int cursor;
@@ -267,6 +318,19 @@ public class AssociativeArray<K, V> {
     return this.size;
   } // size()
 
+  /**
+   * Apply an action to every key/value pair, in no particular order.
+   * The action must not add or remove keys.
+   *
+   * @param action
+   *   The action, which receives each key and its value.
+   */
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    for (int i = 0; i < this.size; i++) {
+      action.accept(this.pairs[i].key, this.pairs[i].val);
+    } // for
+  } // forEach(BiConsumer)
+
   // +-----------------+---------------------------------------------
   // | Private Methods |
   // +-----------------+
@@ -293,13 +357,11 @@ public class AssociativeArray<K, V> {
    *                              array.
    */
   int find(K key) throws KeyNotFoundException {
-    for (int i = 0; i < this.size; i++) {
-      KVPair<K, V> currentPair = this.pairs[i];
-      if (currentPair.key.equals(key)) {
-        return i;
-      } // if key is found return the index
-    } // loop looking for the value
-    throw new KeyNotFoundException();
+    int index = indexOf(key);
+    if (index < 0) {
+      throw new KeyNotFoundException();
+    } // if the key was not found
+    return index;
   } // find(K)
 
 } // class AssociativeArray
@@ -0,0 +1,393 @@
+package edu.grinnell.csc207.util.AArray;
+
+import static java.lang.reflect.Array.newInstance;
+
+import java.util.function.BiConsumer;
+
+/**
+ * A hashed implementation of Associative Arrays with keys of type K
+ * and values of type V. Uses open addressing with linear probing, so
+ * lookups take expected constant time rather than the linear scan of
+ * the basic associative array.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class HashedAssociativeArray<K, V> extends AssociativeArray<K, V> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The fraction of slots (live or removed) we permit to be in use
+   * before we expand.
+   */
+  static final double LOAD_FACTOR = 0.75;
+
+  /**
+   * The marker left in a slot whose pair has been removed, so that
+   * probes for later keys continue past it.
+   */
+  @SuppressWarnings({ "rawtypes" })
+  static final KVPair TOMBSTONE = new KVPair();
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of slots that hold tombstones.
+   */
+  int removed;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new, empty hashed associative array.
+   */
+  public HashedAssociativeArray() {
+    this(DEFAULT_CAPACITY);
+  } // HashedAssociativeArray()
+
+  /**
+   * Create a new, empty hashed associative array with room for about
+   * expected pairs before it needs to expand.
+   *
+   * @param expected
+   *   The number of pairs we expect to store.
+   */
+  public HashedAssociativeArray(int expected) {
+    super();
+    int capacity = DEFAULT_CAPACITY;
+    while (capacity * LOAD_FACTOR <= expected) {
+      capacity *= 2;
+    } // grow the capacity until it fits the expected size
+    this.pairs = newTable(capacity);
+    this.size = 0;
+    this.removed = 0;
+  } // HashedAssociativeArray(int)
+
+  // +------------------+--------------------------------------------
+  // | Standard Methods |
+  // +------------------+
+
+  /**
+   * Create a copy of this HashedAssociativeArray. The copy has no
+   * tombstones, so we rehash each live pair rather than copying it to
+   * the same slot; otherwise a probe in the copy could stop at the
+   * empty slot a tombstone left and miss a key beyond it.
+   *
+   * @return a new copy of the array
+   */
+  public HashedAssociativeArray<K, V> clone() {
+    HashedAssociativeArray<K, V> newArray = new HashedAssociativeArray<>();
+    newArray.pairs = newTable(this.pairs.length);
+    for (int i = 0; i < this.pairs.length; i++) {
+      if (isLive(i)) {
+        newArray.pairs[-newArray.probe(this.pairs[i].key) - 1] = this.pairs[i].clone();
+      } // if
+    } // for
+    newArray.size = this.size;
+    newArray.removed = 0;
+    return newArray;
+  } // clone()
+
+  /**
+   * Convert the array to a string.
+   *
+   * @return a string of the form "{Key0:Value0, Key1:Value1, ... KeyN:ValueN}"
+   */
+  public String toString() {
+    StringBuilder returnStr = new StringBuilder("{");
+    for (int i = 0; i < this.pairs.length; i++) {
+      if (isLive(i)) {
+        if (returnStr.length() > 1) {
+          returnStr.append(", ");
+        } // if there is already a pair in the string
+        returnStr.append(this.pairs[i].toString());
+      } // if
+    } // for
+    return returnStr.append("}").toString();
+  } // toString()
+
+  // +----------------+----------------------------------------------
+  // | Public Methods |
+  // +----------------+
+
+  /**
+   * Set the value associated with key to value. Future calls to
+   * get(key) will return value.
+   *
+   * @param key
+   *   The key whose value we are seeting.
+   * @param value
+   *   The value of that key.
+   *
+   * @throws NullKeyException
+   *   If the client provides a null key.
+   */
+  @Override
+  public void set(K key, V value) throws NullKeyException {
+    if (key == null) {
+      throw new NullKeyException("null key was used");
+    } // raise exception in the case of NullKey
+
+    int slot = probe(key);
+    if (slot >= 0) {
+      this.pairs[slot].val = value;
+      return;
+    } // if the key is already present, just replace its value
+
+    if ((this.size + this.removed + 1) > this.pairs.length * LOAD_FACTOR) {
+      this.expand();
+      slot = probe(key);
+    } // Expand the array if needed
+
+    slot = -slot - 1;
+    if (this.pairs[slot] == TOMBSTONE) {
+      this.removed--;
+    } // if we are reusing a removed slot
+    this.pairs[slot] = new KVPair<>(key, value);
+    this.size++;
+  } // set(K, V)
+
+  /**
+   * Updates the key of a stored value. If newKey is already present,
+   * its value is replaced.
+   *
+   * @param oldKey the original key to update
+   * @param newKey the new key to use
+   * @throws KeyNotFoundException oldKey not found
+   */
+  @Override
+  public void updateKey(K oldKey, K newKey) throws KeyNotFoundException {
+    int slot = probe(oldKey);
+    if (slot < 0) {
+      throw new KeyNotFoundException("the key to replace does not exist");
+    } // if the key was not found
+    if (newKey == null) {
+      throw new KeyNotFoundException("the new key may not be null");
+    } // if the new key is null, before we lose the old pair
+
+    V val = this.pairs[slot].val;
+    this.removeSlot(slot);
+    try {
+      this.set(newKey, val);
+    } catch (NullKeyException e) {
+      // Cannot happen, since newKey is not null.
+      throw new KeyNotFoundException("the new key may not be null");
+    } // try/catch
+  } // updateKey(K, K)
+
+  /**
+   * Get the value associated with key.
+   *
+   * @param key
+   *   A key
+   *
+   * @return
+   *   The corresponding value
+   *
+   * @throws KeyNotFoundException
+   *   when the key is null or does not appear in the associative array.
+   */
+  @Override
+  public V get(K key) throws KeyNotFoundException {
+    int slot = probe(key);
+    if (slot < 0) {
+      throw new KeyNotFoundException("you searched for a key which does not exist");
+    } // if the key was not found
+    return this.pairs[slot].val;
+  } // get(K)
+
+  /**
+   * Determine if key appears in the associative array. Should
+   * return false for the null key, since it cannot appear.
+   *
+   * @param key
+   *   The key we're looking for.
+   *
+   * @return true if the key appears and false otherwise.
+   */
+  @Override
+  public boolean hasKey(K key) {
+    return probe(key) >= 0;
+  } // hasKey(K)
+
+  /**
+   * Find the slot that holds key, for use with getKey.
+   *
+   * @param key
+   *   The key we're looking for.
+   *
+   * @return
+   *   The slot of key, or -1 if key does not appear (or is null).
+   */
+  @Override
+  public int indexOf(K key) {
+    int slot = probe(key);
+    return (slot < 0) ? -1 : slot;
+  } // indexOf(K)
+
+  /**
+   * Gets the key stored in a given slot of the table.
+   *
+   * @param index the slot to check
+   * @return the key
+   * @throws IndexOutOfBoundsException if the slot is out of range or empty
+   */
+  @Override
+  public K getKey(int index) throws IndexOutOfBoundsException {
+    if ((index < 0) || (index >= this.pairs.length) || !isLive(index)) {
+      throw new IndexOutOfBoundsException(" this index not exist");
+    } // if the slot is out of range or empty
+    return this.pairs[index].key;
+  } // getKey(int)
+
+  /**
+   * Apply an action to every key/value pair, in no particular order.
+   * The action must not add or remove keys.
+   *
+   * @param action
+   *   The action, which receives each key and its value.
+   */
+  @Override
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    for (int i = 0; i < this.pairs.length; i++) {
+      if (isLive(i)) {
+        action.accept(this.pairs[i].key, this.pairs[i].val);
+      } // if
+    } // for
+  } // forEach(BiConsumer)
+
+  /**
+   * Remove the key/value pair associated with a key. Future calls
+   * to get(key) will throw an exception. If the key does not appear
+   * in the associative array, does nothing.
+   *
+   * @param key
+   *   The key to remove.
+   */
+  @Override
+  public void remove(K key) {
+    int slot = probe(key);
+    if (slot >= 0) {
+      this.removeSlot(slot);
+    } // if the key was found
+  } // remove(K)
+
+  // +-----------------+---------------------------------------------
+  // | Private Methods |
+  // +-----------------+
+
+  /**
+   * Expand the underlying table and rehash every live pair. If most of
+   * the used slots are tombstones, we rehash at the same capacity
+   * instead of doubling.
+   */
+  @Override
+  void expand() {
+    KVPair<K, V>[] old = this.pairs;
+    int capacity = old.length;
+    if (this.size >= this.removed) {
+      capacity *= 2;
+    } // if live pairs dominate the used slots
+    this.pairs = newTable(capacity);
+    this.removed = 0;
+    for (KVPair<K, V> pair : old) {
+      if ((pair != null) && (pair != TOMBSTONE)) {
+        this.pairs[-probe(pair.key) - 1] = pair;
+      } // if the slot holds a live pair
+    } // for
+  } // expand()
+
+  /**
+   * Probe the table for key. Returns the slot holding key if it is
+   * present; otherwise returns (-slot - 1), where slot is where key
+   * should be inserted.
+   *
+   * @param key
+   *   The key to look for.
+   *
+   * @return the slot of the key, or a negative insertion point.
+   */
+  int probe(K key) {
+    if (key == null) {
+      return -1;
+    } // null keys never appear (and never get inserted)
+
+    int mask = this.pairs.length - 1;
+    int slot = spread(key.hashCode()) & mask;
+    int firstRemoved = -1;
+    while (true) {
+      KVPair<K, V> pair = this.pairs[slot];
+      if (pair == null) {
+        return -((firstRemoved >= 0) ? firstRemoved : slot) - 1;
+      } else if (pair == TOMBSTONE) {
+        if (firstRemoved < 0) {
+          firstRemoved = slot;
+        } // if this is the first tombstone on the probe path
+      } else if (pair.key.equals(key)) {
+        return slot;
+      } // if/else
+      slot = (slot + 1) & mask;
+    } // while
+  } // probe(K)
+
+  /**
+   * Replace the pair in a slot with a tombstone.
+   *
+   * @param slot
+   *   The slot to clear.
+   */
+  @SuppressWarnings({ "unchecked" })
+  void removeSlot(int slot) {
+    this.pairs[slot] = TOMBSTONE;
+    this.size--;
+    this.removed++;
+  } // removeSlot(int)
+
+  /**
+   * Determine if a slot holds a live pair.
+   *
+   * @param slot
+   *   The slot to check.
+   *
+   * @return true if the slot holds a pair that has not been removed.
+   */
+  boolean isLive(int slot) {
+    return (this.pairs[slot] != null) && (this.pairs[slot] != TOMBSTONE);
+  } // isLive(int)
+
+  /**
+   * Mix the bits of a hash code so that keys whose hash codes differ
+   * only in the high bits still land in different slots.
+   *
+   * @param hash
+   *   The original hash code.
+   *
+   * @return the mixed hash code.
+   */
+  static int spread(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  } // spread(int)
+
+  /**
+   * Create an empty table of the given capacity.
+   *
+   * @param <K> the key type
+   * @param <V> the value type
+   * @param capacity
+   *   The number of slots, which must be a power of two.
+   *
+   * @return the new table.
+   */
+  @SuppressWarnings({ "unchecked" })
+  static <K, V> KVPair<K, V>[] newTable(int capacity) {
+    // Creating new arrays is sometimes a PITN.
+    return (KVPair<K, V>[]) newInstance(KVPair.class, capacity);
+  } // newTable(int)
+} // class HashedAssociativeArray
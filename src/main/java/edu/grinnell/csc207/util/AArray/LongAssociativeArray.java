@@ -0,0 +1,435 @@
+package edu.grinnell.csc207.util.AArray;
+
+import java.util.function.LongFunction;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A hashed associative array whose keys are primitive longs. Keys and
+ * values live in parallel arrays, so neither lookups nor updates
+ * allocate a key object or a key/value pair.
+ *
+ * @param <V> the value type
+ */
+public class LongAssociativeArray<V> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The default capacity of the initial arrays.
+   */
+  static final int DEFAULT_CAPACITY = 16;
+
+  /**
+   * The fraction of slots (live or removed) we permit to be in use
+   * before we expand.
+   */
+  static final double LOAD_FACTOR = 0.75;
+
+  /**
+   * The state of a slot that has never been used.
+   */
+  static final byte EMPTY = 0;
+
+  /**
+   * The state of a slot that holds a key/value pair.
+   */
+  static final byte LIVE = 1;
+
+  /**
+   * The state of a slot whose pair has been removed.
+   */
+  static final byte REMOVED = 2;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of key/value pairs.
+   */
+  int size;
+
+  /**
+   * The number of slots that hold removed pairs.
+   */
+  int removed;
+
+  /**
+   * The keys, indexed by slot.
+   */
+  long[] keys;
+
+  /**
+   * The values, indexed by slot.
+   */
+  Object[] vals;
+
+  /**
+   * The state (EMPTY, LIVE, or REMOVED) of each slot.
+   */
+  byte[] states;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new, empty associative array.
+   */
+  public LongAssociativeArray() {
+    this(DEFAULT_CAPACITY);
+  } // LongAssociativeArray()
+
+  /**
+   * Create a new, empty associative array with room for about expected
+   * pairs before it needs to expand.
+   *
+   * @param expected
+   *   The number of pairs we expect to store.
+   */
+  public LongAssociativeArray(int expected) {
+    int capacity = DEFAULT_CAPACITY;
+    while (capacity * LOAD_FACTOR <= expected) {
+      capacity *= 2;
+    } // grow the capacity until it fits the expected size
+    this.allocate(capacity);
+  } // LongAssociativeArray(int)
+
+  // +------------------+--------------------------------------------
+  // | Standard Methods |
+  // +------------------+
+
+  /**
+   * Create a copy of this LongAssociativeArray.
+   *
+   * @return a new copy of the array
+   */
+  public LongAssociativeArray<V> clone() {
+    LongAssociativeArray<V> newArray = new LongAssociativeArray<>();
+    newArray.keys = this.keys.clone();
+    newArray.vals = this.vals.clone();
+    newArray.states = this.states.clone();
+    newArray.size = this.size;
+    newArray.removed = this.removed;
+    return newArray;
+  } // clone()
+
+  /**
+   * Convert the array to a string.
+   *
+   * @return a string of the form "{Key0:Value0, Key1:Value1, ... KeyN:ValueN}"
+   */
+  public String toString() {
+    StringBuilder returnStr = new StringBuilder("{");
+    for (int i = 0; i < this.states.length; i++) {
+      if (this.states[i] == LIVE) {
+        if (returnStr.length() > 1) {
+          returnStr.append(", ");
+        } // if there is already a pair in the string
+        returnStr.append(this.keys[i]).append(":");
+        returnStr.append((this.vals[i] == null) ? "<null>" : this.vals[i]);
+      } // if
+    } // for
+    return returnStr.append("}").toString();
+  } // toString()
+
+  // +----------------+----------------------------------------------
+  // | Public Methods |
+  // +----------------+
+
+  /**
+   * Set the value associated with key to value. Future calls to
+   * get(key) will return value.
+   *
+   * @param key
+   *   The key whose value we are setting.
+   * @param value
+   *   The value of that key.
+   */
+  public void set(long key, V value) {
+    int slot = probe(key);
+    if (slot >= 0) {
+      this.vals[slot] = value;
+      return;
+    } // if the key is already present, just replace its value
+
+    if ((this.size + this.removed + 1) > this.states.length * LOAD_FACTOR) {
+      this.expand();
+      slot = probe(key);
+    } // Expand the arrays if needed
+
+    slot = -slot - 1;
+    if (this.states[slot] == REMOVED) {
+      this.removed--;
+    } // if we are reusing a removed slot
+    this.keys[slot] = key;
+    this.vals[slot] = value;
+    this.states[slot] = LIVE;
+    this.size++;
+  } // set(long, V)
+
+  /**
+   * Updates the key of a stored value. If newKey is already present,
+   * its value is replaced.
+   *
+   * @param oldKey the original key to update
+   * @param newKey the new key to use
+   * @throws KeyNotFoundException oldKey not found
+   */
+  public void updateKey(long oldKey, long newKey) throws KeyNotFoundException {
+    if (!moveKey(oldKey, newKey)) {
+      throw new KeyNotFoundException("the key to replace does not exist");
+    } // if the key was not found
+  } // updateKey(long, long)
+
+  /**
+   * Updates the key of a stored value, if there is one. If newKey is
+   * already present, its value is replaced. Unlike updateKey, a missing
+   * oldKey is reported without an exception.
+   *
+   * @param oldKey the original key to update
+   * @param newKey the new key to use
+   * @return true if oldKey was found and moved and false otherwise.
+   */
+  public boolean moveKey(long oldKey, long newKey) {
+    int slot = probe(oldKey);
+    if (slot < 0) {
+      return false;
+    } // if the key was not found
+
+    @SuppressWarnings({ "unchecked" })
+    V val = (V) this.vals[slot];
+    this.removeSlot(slot);
+    this.set(newKey, val);
+    return true;
+  } // moveKey(long, long)
+
+  /**
+   * Get the value associated with key.
+   *
+   * @param key
+   *   A key
+   *
+   * @return
+   *   The corresponding value
+   *
+   * @throws KeyNotFoundException
+   *   when the key does not appear in the associative array.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public V get(long key) throws KeyNotFoundException {
+    int slot = probe(key);
+    if (slot < 0) {
+      throw new KeyNotFoundException("you searched for a key which does not exist");
+    } // if the key was not found
+    return (V) this.vals[slot];
+  } // get(long)
+
+  /**
+   * Get the value associated with key, or a default if key does not
+   * appear. Unlike get, a miss costs no more than a hit.
+   *
+   * @param key
+   *   A key
+   * @param def
+   *   The value to return if key does not appear.
+   *
+   * @return
+   *   The corresponding value, or def.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public V getOrDefault(long key, V def) {
+    int slot = probe(key);
+    return (slot < 0) ? def : (V) this.vals[slot];
+  } // getOrDefault(long, V)
+
+  /**
+   * Get the value associated with key. If key does not appear, first
+   * compute a value for it and store that.
+   *
+   * @param key
+   *   A key
+   * @param fun
+   *   Computes the value of a missing key.
+   *
+   * @return
+   *   The value associated with key, which may be new.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public V computeIfAbsent(long key, LongFunction<? extends V> fun) {
+    int slot = probe(key);
+    if (slot >= 0) {
+      return (V) this.vals[slot];
+    } // if the key is already present
+    V val = fun.apply(key);
+    this.set(key, val);
+    return val;
+  } // computeIfAbsent(long, LongFunction)
+
+  /**
+   * Find the slot that holds key.
+   *
+   * @param key
+   *   The key we're looking for.
+   *
+   * @return
+   *   The slot of key, or -1 if key does not appear.
+   */
+  public int indexOf(long key) {
+    int slot = probe(key);
+    return (slot < 0) ? -1 : slot;
+  } // indexOf(long)
+
+  /**
+   * Determine if key appears in the associative array.
+   *
+   * @param key
+   *   The key we're looking for.
+   *
+   * @return true if the key appears and false otherwise.
+   */
+  public boolean hasKey(long key) {
+    return probe(key) >= 0;
+  } // hasKey(long)
+
+  /**
+   * Remove the key/value pair associated with a key. Future calls
+   * to get(key) will throw an exception. If the key does not appear
+   * in the associative array, does nothing.
+   *
+   * @param key
+   *   The key to remove.
+   */
+  public void remove(long key) {
+    int slot = probe(key);
+    if (slot >= 0) {
+      this.removeSlot(slot);
+    } // if the key was found
+  } // remove(long)
+
+  /**
+   * Determine how many key/value pairs are in the associative array.
+   *
+   * @return The number of key/value pairs in the array.
+   */
+  public int size() {
+    return this.size;
+  } // size()
+
+  /**
+   * Apply an action to every key/value pair, in no particular order.
+   * The action must not add or remove keys.
+   *
+   * @param action
+   *   The action, which receives each value and its key.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public void forEach(ObjLongConsumer<? super V> action) {
+    for (int i = 0; i < this.states.length; i++) {
+      if (this.states[i] == LIVE) {
+        action.accept((V) this.vals[i], this.keys[i]);
+      } // if
+    } // for
+  } // forEach(ObjLongConsumer)
+
+  // +-----------------+---------------------------------------------
+  // | Private Methods |
+  // +-----------------+
+
+  /**
+   * Replace the arrays with empty ones of the given capacity.
+   *
+   * @param capacity
+   *   The number of slots, which must be a power of two.
+   */
+  void allocate(int capacity) {
+    this.keys = new long[capacity];
+    this.vals = new Object[capacity];
+    this.states = new byte[capacity];
+    this.size = 0;
+    this.removed = 0;
+  } // allocate(int)
+
+  /**
+   * Expand the underlying arrays and rehash every live pair. If most of
+   * the used slots are removed ones, we rehash at the same capacity
+   * instead of doubling.
+   */
+  void expand() {
+    long[] oldKeys = this.keys;
+    Object[] oldVals = this.vals;
+    byte[] oldStates = this.states;
+    int capacity = oldStates.length;
+    if (this.size >= this.removed) {
+      capacity *= 2;
+    } // if live pairs dominate the used slots
+    int oldSize = this.size;
+    this.allocate(capacity);
+    for (int i = 0; i < oldStates.length; i++) {
+      if (oldStates[i] == LIVE) {
+        int slot = -probe(oldKeys[i]) - 1;
+        this.keys[slot] = oldKeys[i];
+        this.vals[slot] = oldVals[i];
+        this.states[slot] = LIVE;
+      } // if the slot holds a live pair
+    } // for
+    this.size = oldSize;
+  } // expand()
+
+  /**
+   * Probe the table for key. Returns the slot holding key if it is
+   * present; otherwise returns (-slot - 1), where slot is where key
+   * should be inserted.
+   *
+   * @param key
+   *   The key to look for.
+   *
+   * @return the slot of the key, or a negative insertion point.
+   */
+  int probe(long key) {
+    int mask = this.states.length - 1;
+    int slot = spread(key) & mask;
+    int firstRemoved = -1;
+    while (true) {
+      byte state = this.states[slot];
+      if (state == EMPTY) {
+        return -((firstRemoved >= 0) ? firstRemoved : slot) - 1;
+      } else if (state == REMOVED) {
+        if (firstRemoved < 0) {
+          firstRemoved = slot;
+        } // if this is the first removed slot on the probe path
+      } else if (this.keys[slot] == key) {
+        return slot;
+      } // if/else
+      slot = (slot + 1) & mask;
+    } // while
+  } // probe(long)
+
+  /**
+   * Mark a slot as removed.
+   *
+   * @param slot
+   *   The slot to clear.
+   */
+  void removeSlot(int slot) {
+    this.vals[slot] = null;
+    this.states[slot] = REMOVED;
+    this.size--;
+    this.removed++;
+  } // removeSlot(int)
+
+  /**
+   * Mix the bits of a key into a hash code, so that keys that differ
+   * only in their high (row) bits still land in different slots.
+   *
+   * @param key
+   *   The key to hash.
+   *
+   * @return the mixed hash code.
+   */
+  static int spread(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  } // spread(long)
+} // class LongAssociativeArray
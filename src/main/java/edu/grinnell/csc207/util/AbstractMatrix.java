@@ -0,0 +1,791 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A skeletal implementation of two-dimensional matrices. Supplies bounds
+ * checking and cell-by-cell versions of the bulk operations, so that
+ * implementations need only provide the core accessors and structural
+ * operations (and can override the rest when they have a faster way).
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public abstract class AbstractMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The default number of rows each bulk-operation task handles.
+   */
+  static final int DEFAULT_BAND_SIZE = 64;
+
+  /**
+   * The weight of row r in the hash code is ROW_WEIGHT^r.
+   */
+  static final int ROW_WEIGHT = 0x9E3779B1;
+
+  /**
+   * The weight of column c in the hash code is COL_WEIGHT^c.
+   */
+  static final int COL_WEIGHT = 0x85EBCA77;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of rows each bulk-operation task handles.
+   */
+  int bandSize = DEFAULT_BAND_SIZE;
+
+  // +----------------+----------------------------------------------
+  // | Bounds helpers |
+  // +----------------+
+
+  /**
+   * Make sure that (row, col) names a cell of the matrix.
+   *
+   * @param row
+   *   The row to check.
+   * @param col
+   *   The column to check.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of bounds.
+   */
+  void checkCell(int row, int col) {
+    if ((row < 0) || (col < 0) || (row >= this.height()) || (col >= this.width())) {
+      throw new IndexOutOfBoundsException(
+          String.format("(%d, %d) is outside a %dx%d matrix", row, col,
+              this.width(), this.height()));
+    } // if
+  } // checkCell(int, int)
+
+  /**
+   * Make sure that row names an existing row.
+   *
+   * @param row
+   *   The row to check.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or at least the height.
+   */
+  void checkRow(int row) {
+    if ((row < 0) || (row >= this.height())) {
+      throw new IndexOutOfBoundsException("Invalid row: " + row);
+    } // if
+  } // checkRow(int)
+
+  /**
+   * Make sure that col names an existing column.
+   *
+   * @param col
+   *   The column to check.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or at least the width.
+   */
+  void checkCol(int col) {
+    if ((col < 0) || (col >= this.width())) {
+      throw new IndexOutOfBoundsException("Invalid column: " + col);
+    } // if
+  } // checkCol(int)
+
+  /**
+   * Make sure that we can insert a row at position row.
+   *
+   * @param row
+   *   The row to check.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  void checkInsertRow(int row) {
+    if ((row < 0) || (row > this.height())) {
+      throw new IndexOutOfBoundsException("Invalid row: " + row);
+    } // if
+  } // checkInsertRow(int)
+
+  /**
+   * Make sure that we can insert a column at position col.
+   *
+   * @param col
+   *   The column to check.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  void checkInsertCol(int col) {
+    if ((col < 0) || (col > this.width())) {
+      throw new IndexOutOfBoundsException("Invalid column: " + col);
+    } // if
+  } // checkInsertCol(int)
+
+  /**
+   * Make sure that the rows [startRow, endRow) and columns
+   * [startCol, endCol) describe a region of the matrix.
+   *
+   * @param startRow
+   *   The top edge (inclusive).
+   * @param startCol
+   *   The left edge (inclusive).
+   * @param endRow
+   *   The bottom edge (exclusive).
+   * @param endCol
+   *   The right edge (exclusive).
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the region does not fit in the matrix.
+   */
+  void checkRegion(int startRow, int startCol, int endRow, int endCol) {
+    if ((startRow < 0) || (startCol < 0) || (endRow > this.height())
+        || (endCol > this.width()) || (startRow > endRow) || (startCol > endCol)) {
+      throw new IndexOutOfBoundsException(
+          String.format("Invalid region [%d,%d)x[%d,%d)", startRow, endRow,
+              startCol, endCol));
+    } // if
+  } // checkRegion(int, int, int, int)
+
+  // +--------------+------------------------------------------------
+  // | Hash helpers |
+  // +--------------+
+
+  /**
+   * Scramble the hash code of a cell's value, so that nearby values
+   * (such as small integers) make very different contributions.
+   *
+   * @param val
+   *   The value.
+   *
+   * @return the mixed hash, or 0 for null.
+   */
+  static int mix(Object val) {
+    if (val == null) {
+      return 0;
+    } // if
+    int h = val.hashCode() + 0x61C88647;
+    h ^= h >>> 16;
+    h *= 0x7FEB352D;
+    h ^= h >>> 15;
+    h *= 0x846CA68B;
+    h ^= h >>> 16;
+    return h;
+  } // mix(Object)
+
+  /**
+   * Raise a number to a power, with the usual int overflow.
+   *
+   * @param base
+   *   The base.
+   * @param exp
+   *   The exponent, which must not be negative.
+   *
+   * @return base^exp.
+   */
+  static int power(int base, int exp) {
+    int result = 1;
+    while (exp > 0) {
+      if ((exp & 1) != 0) {
+        result *= base;
+      } // if
+      base *= base;
+      exp >>>= 1;
+    } // while
+    return result;
+  } // power(int, int)
+
+  /**
+   * Add up the first n powers of a number, with the usual int overflow.
+   * A run of n equal cells starting at column c adds mix(value) *
+   * COL_WEIGHT^c * geometric(COL_WEIGHT, n) to its row's hash, so we
+   * can account for a fill without visiting its cells.
+   *
+   * @param base
+   *   The base.
+   * @param n
+   *   The number of powers, which must not be negative.
+   *
+   * @return 1 + base + base^2 + ... + base^(n-1).
+   */
+  static int geometric(int base, int n) {
+    int sum = 0;
+    int pow = 1;
+    for (int bit = Integer.highestOneBit(n); bit > 0; bit >>>= 1) {
+      sum *= 1 + pow;
+      pow *= pow;
+      if ((n & bit) != 0) {
+        sum = sum * base + 1;
+        pow *= base;
+      } // if
+    } // for
+    return sum;
+  } // geometric(int, int)
+
+  // +----------------+----------------------------------------------
+  // | Storage access |
+  // +----------------+
+
+  /**
+   * Get the element at the given row and column without checking
+   * bounds. The views, streams, equals, and hashCode all read through
+   * this method, so implementations that can reach their storage more
+   * directly than get should override it.
+   *
+   * @param row
+   *   The row of the element; must be in bounds.
+   * @param col
+   *   The column of the element; must be in bounds.
+   *
+   * @return the value at the specified location.
+   */
+  T cell(int row, int col) {
+    return this.get(row, col);
+  } // cell(int, int)
+
+  /**
+   * Apply an action to the cells of a row that may differ from the
+   * default, in column order. Every cell the action does not see holds
+   * the default. nonDefaultCells and MatrixWriter walk the matrix this
+   * way, so implementations that store only some cells should override
+   * it to visit just those; this version visits every cell.
+   *
+   * @param row
+   *   The row to walk; must be in bounds.
+   * @param action
+   *   The action, which receives each value and its column.
+   */
+  void forEachStoredInRow(int row, ObjIntConsumer<? super T> action) {
+    int width = this.width();
+    for (int col = 0; col < width; col++) {
+      action.accept(this.cell(row, col), col);
+    } // for
+  } // forEachStoredInRow(int, ObjIntConsumer)
+
+  /**
+   * Determine if different threads may call set on different rows at
+   * the same time. True only for implementations whose set writes a
+   * row's own storage and nothing shared.
+   *
+   * @return true if disjoint rows may be written concurrently.
+   */
+  boolean concurrentRowWrites() {
+    return false;
+  } // concurrentRowWrites()
+
+  /**
+   * Insert and delete many rows and columns at once. Row r of the
+   * result is row rows[r] of the current matrix, or a new row of
+   * defaults if rows[r] is -1; likewise for the columns. The rows (and
+   * columns) that survive must keep their current order. MatrixBatch
+   * uses this to apply a batch of structural edits in one step, so
+   * implementations that can move their cells in one pass should
+   * override it.
+   *
+   * @param rows
+   *   The old row for each new row, or -1.
+   * @param cols
+   *   The old column for each new column, or -1.
+   */
+  void remap(int[] rows, int[] cols) {
+    remapLines(this, rows, cols);
+  } // remap(int[], int[])
+
+  /**
+   * Insert and delete rows and columns as remap describes, with the
+   * fewest single-line edits.
+   *
+   * @param matrix
+   *   The matrix to change.
+   * @param rows
+   *   The old row for each new row, or -1.
+   * @param cols
+   *   The old column for each new column, or -1.
+   */
+  static void remapLines(Matrix<?> matrix, int[] rows, int[] cols) {
+    boolean[] keptRows = new boolean[matrix.height()];
+    for (int src : rows) {
+      if (src >= 0) {
+        keptRows[src] = true;
+      } // if
+    } // for
+    boolean[] keptCols = new boolean[matrix.width()];
+    for (int src : cols) {
+      if (src >= 0) {
+        keptCols[src] = true;
+      } // if
+    } // for
+    for (int row = keptRows.length - 1; row >= 0; row--) {
+      if (!keptRows[row]) {
+        matrix.deleteRow(row);
+      } // if
+    } // for
+    for (int col = keptCols.length - 1; col >= 0; col--) {
+      if (!keptCols[col]) {
+        matrix.deleteCol(col);
+      } // if
+    } // for
+    for (int row = 0; row < rows.length; row++) {
+      if (rows[row] < 0) {
+        matrix.insertRow(row);
+      } // if
+    } // for
+    for (int col = 0; col < cols.length; col++) {
+      if (cols[col] < 0) {
+        matrix.insertCol(col);
+      } // if
+    } // for
+  } // remapLines(Matrix<?>, int[], int[])
+
+  // +-------------------+-------------------------------------------
+  // | Default behaviors |
+  // +-------------------+
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    checkInsertRow(row);
+    if (vals.length != this.width()) {
+      throw new ArraySizeException();
+    } // if
+    this.insertRow(row);
+    for (int col = 0; col < vals.length; col++) {
+      this.set(row, col, vals[col]);
+    } // for
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    checkInsertCol(col);
+    if (vals.length != this.height()) {
+      throw new ArraySizeException();
+    } // if
+    this.insertCol(col);
+    for (int row = 0; row < vals.length; row++) {
+      this.set(row, col, vals[row]);
+    } // for
+  } // insertCol(int, T[])
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    checkRegion(startRow, startCol, endRow, endCol);
+    for (int row = startRow; row < endRow; row++) {
+      for (int col = startCol; col < endCol; col++) {
+        this.set(row, col, val);
+      } // for col
+    } // for row
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal). We keep stepping while
+   * each coordinate that changes has not yet reached its end.
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    checkCell(startRow, startCol);
+    if ((endRow < -1) || (endRow > this.height()) || (endCol < -1)
+        || (endCol > this.width()) || ((deltaRow == 0) && (deltaCol == 0))) {
+      throw new IndexOutOfBoundsException("Invalid line");
+    } // if
+    for (int row = startRow, col = startCol;
+        before(row, deltaRow, endRow) && before(col, deltaCol, endCol);
+        row += deltaRow, col += deltaCol) {
+      this.set(row, col, val);
+    } // for
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Determine if a coordinate moving by delta has yet to reach end.
+   *
+   * @param pos
+   *   The current coordinate.
+   * @param delta
+   *   How much the coordinate changes in each step.
+   * @param end
+   *   Where the coordinate stops (exclusive).
+   *
+   * @return true if we should keep going.
+   */
+  static boolean before(int pos, int delta, int end) {
+    if (delta > 0) {
+      return pos < end;
+    } else if (delta < 0) {
+      return pos > end;
+    } else {
+      return true;
+    } // if/else
+  } // before(int, int, int)
+
+  // +-------------------+-------------------------------------------
+  // | Views and streams |
+  // +-------------------+
+
+  /**
+   * Get a cursor over one row of the matrix, from left to right.
+   *
+   * @param row
+   *   The row to view.
+   *
+   * @return the cursor.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public LineView<T> rowView(int row) {
+    checkRow(row);
+    return new LineView<T>(this, true, row);
+  } // rowView(int)
+
+  /**
+   * Get a cursor over one column of the matrix, from top to bottom.
+   *
+   * @param col
+   *   The column to view.
+   *
+   * @return the cursor.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public LineView<T> colView(int col) {
+    checkCol(col);
+    return new LineView<T>(this, false, col);
+  } // colView(int)
+
+  /**
+   * Get a stream of the rows of the matrix, from top to bottom.
+   *
+   * @return a stream of row cursors.
+   */
+  public Stream<LineView<T>> rows() {
+    return IntStream.range(0, this.height()).mapToObj((row) -> new LineView<T>(this, true, row));
+  } // rows()
+
+  /**
+   * Get a stream of the cells of the matrix, in row-major order.
+   *
+   * @return a stream of cells, all represented by one reused MatrixCell.
+   */
+  public Stream<MatrixCell<T>> cells() {
+    return StreamSupport.stream(new CellSpliterator<T>(this, 0,
+        ((long) this.width()) * this.height()), false);
+  } // cells()
+
+  /**
+   * Get a stream of the cells of the matrix that differ from the
+   * default value, in row-major order.
+   *
+   * @return a stream of cells, all represented by one reused MatrixCell.
+   */
+  public Stream<MatrixCell<T>> nonDefaultCells() {
+    return StreamSupport.stream(new StoredCellSpliterator<T>(this, 0, this.height(),
+        this.defaultValue()), false);
+  } // nonDefaultCells()
+
+  /**
+   * Get a stream of the cells at some positions. Implementations that
+   * keep their cells in a hash table use this for nonDefaultCells.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param keys
+   *   The positions, as Index.pack(row, col), in increasing order.
+   * @param lookup
+   *   Finds the value at a position.
+   *
+   * @return a stream of cells, all represented by one reused MatrixCell.
+   */
+  static <T> Stream<MatrixCell<T>> cellsAt(long[] keys, LongFunction<T> lookup) {
+    MatrixCell<T> cell = new MatrixCell<T>(0, 0, null);
+    return Arrays.stream(keys).mapToObj((key) -> {
+      cell.row = Index.unpackRow(key);
+      cell.col = Index.unpackColumn(key);
+      cell.value = lookup.apply(key);
+      return cell;
+    });
+  } // cellsAt(long[], LongFunction)
+
+  // +-----------------+---------------------------------------------
+  // | Bulk operations |
+  // +-----------------+
+
+  /**
+   * Determine how many rows each task handles in the bulk operations.
+   *
+   * @return the number of rows per band.
+   */
+  public int bandSize() {
+    return this.bandSize;
+  } // bandSize()
+
+  /**
+   * Set how many rows each task handles in the bulk operations.
+   *
+   * @param rows
+   *   The number of rows per band.
+   *
+   * @throws IllegalArgumentException
+   *   If rows is less than 1.
+   */
+  public void setBandSize(int rows) {
+    if (rows < 1) {
+      throw new IllegalArgumentException("Invalid band size: " + rows);
+    } // if
+    this.bandSize = rows;
+  } // setBandSize(int)
+
+  /**
+   * Replace every cell with the result of applying a function to it.
+   *
+   * @param fun
+   *   The function to apply.
+   */
+  public void mapInPlace(Function<? super T, ? extends T> fun) {
+    int width = this.width();
+    Bands.forEach(0, this.height(), this.bandSize, this.concurrentRowWrites(),
+        (startRow, endRow) -> {
+          for (int row = startRow; row < endRow; row++) {
+            for (int col = 0; col < width; col++) {
+              this.set(row, col, fun.apply(this.cell(row, col)));
+            } // for col
+          } // for row
+        });
+  } // mapInPlace(Function)
+
+  /**
+   * Combine all the cells of the matrix, in parallel bands.
+   *
+   * @param <R>
+   *   The type of the result.
+   * @param identity
+   *   The starting value for each band.
+   * @param accumulator
+   *   Folds one cell into a partial result.
+   * @param combiner
+   *   Joins two partial results.
+   *
+   * @return the combined result.
+   */
+  public <R> R reduce(R identity, BiFunction<R, ? super T, R> accumulator,
+      BinaryOperator<R> combiner) {
+    int width = this.width();
+    return Bands.reduce(0, this.height(), this.bandSize, (startRow, endRow) -> {
+      R result = identity;
+      for (int row = startRow; row < endRow; row++) {
+        for (int col = 0; col < width; col++) {
+          result = accumulator.apply(result, this.cell(row, col));
+        } // for col
+      } // for row
+      return result;
+    }, combiner);
+  } // reduce(R, BiFunction, BinaryOperator)
+
+  /**
+   * Fill a rectangular region of the matrix, in parallel bands when the
+   * matrix allows it.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void parallelFillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    checkRegion(startRow, startCol, endRow, endCol);
+    Bands.forEach(startRow, endRow, this.bandSize, this.concurrentRowWrites(),
+        (start, end) -> this.fillRegion(start, startCol, end, endCol, val));
+  } // parallelFillRegion(int, int, int, int, T)
+
+  /**
+   * Apply an action to every cell, in parallel bands.
+   *
+   * @param action
+   *   The action.
+   */
+  public void forEachCell(Consumer<? super MatrixCell<T>> action) {
+    int width = this.width();
+    Bands.forEach(0, this.height(), this.bandSize, true, (startRow, endRow) -> {
+      MatrixCell<T> cell = new MatrixCell<T>(0, 0, null);
+      for (int row = startRow; row < endRow; row++) {
+        for (int col = 0; col < width; col++) {
+          cell.row = row;
+          cell.col = col;
+          cell.value = this.cell(row, col);
+          action.accept(cell);
+        } // for col
+      } // for row
+    });
+  } // forEachCell(Consumer)
+
+  // +------------------+--------------------------------------------
+  // | Standard methods |
+  // +------------------+
+
+  /**
+   * A make a copy of the matrix.
+   *
+   * @return a copy of the matrix.
+   */
+  public abstract Matrix<T> clone();
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   *   height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    } else if (!(other instanceof Matrix)) {
+      return false;
+    } // if/else
+    Matrix<?> that = (Matrix<?>) other;
+    if ((this.width() != that.width()) || (this.height() != that.height())) {
+      return false;
+    } else if (this.hashKnown() && (that instanceof AbstractMatrix)
+        && ((AbstractMatrix<?>) that).hashKnown() && (this.hashCode() != that.hashCode())) {
+      return false;
+    } // if/else
+    for (int row = 0; row < this.height(); row++) {
+      for (int col = 0; col < this.width(); col++) {
+        if (!Objects.equals(this.cell(row, col), that.get(row, col))) {
+          return false;
+        } // if
+      } // for col
+    } // for row
+    return true;
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix. Every implementation uses this
+   * formula (or keeps it up to date incrementally), so that equal
+   * matrices have equal hash codes no matter how they are stored.
+   *
+   * <p>The hash is width + 7 * height plus, for each cell, the mixed
+   * hash of its value times ROW_WEIGHT^row times COL_WEIGHT^col. Since
+   * the cells' terms are simply added, changing one cell changes the
+   * hash by the difference of two terms.</p>
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    int code = this.width() + 7 * this.height();
+    int rowWeight = 1;
+    for (int row = 0; row < this.height(); row++) {
+      code += rowWeight * this.rowHash(row);
+      rowWeight *= ROW_WEIGHT;
+    } // for
+    return code;
+  } // hashCode()
+
+  /**
+   * Compute one row's share of the hash code, before it is weighted by
+   * ROW_WEIGHT^row.
+   *
+   * @param row
+   *   The row.
+   *
+   * @return the sum of mix(value) * COL_WEIGHT^col over the row.
+   */
+  int rowHash(int row) {
+    int hash = 0;
+    int colWeight = 1;
+    for (int col = 0; col < this.width(); col++) {
+      hash += mix(this.cell(row, col)) * colWeight;
+      colWeight *= COL_WEIGHT;
+    } // for
+    return hash;
+  } // rowHash(int)
+
+  /**
+   * Determine if hashCode() can answer without looking at the cells.
+   * equals uses this to reject unequal matrices quickly.
+   *
+   * @return true if the hash code is known.
+   */
+  boolean hashKnown() {
+    return false;
+  } // hashKnown()
+} // class AbstractMatrix<T>
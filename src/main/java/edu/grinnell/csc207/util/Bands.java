@@ -0,0 +1,239 @@
+package edu.grinnell.csc207.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Helpers for running work over bands of rows on the common
+ * ForkJoinPool. A range of rows is split in half until each piece is
+ * at most bandSize rows; each piece is then handled by one task.
+ */
+class Bands {
+  // +------------+--------------------------------------------------
+  // | Interfaces |
+  // +------------+
+
+  /**
+   * Work to do on a band of rows.
+   */
+  interface BandAction {
+    /**
+     * Handle rows [startRow, endRow).
+     *
+     * @param startRow
+     *   The first row (inclusive).
+     * @param endRow
+     *   The last row (exclusive).
+     */
+    void run(int startRow, int endRow);
+  } // interface BandAction
+
+  /**
+   * Work on a band of rows that computes a result.
+   *
+   * @param <R>
+   *   The type of the result.
+   */
+  interface BandFunction<R> {
+    /**
+     * Handle rows [startRow, endRow).
+     *
+     * @param startRow
+     *   The first row (inclusive).
+     * @param endRow
+     *   The last row (exclusive).
+     *
+     * @return the result for those rows.
+     */
+    R run(int startRow, int endRow);
+  } // interface BandFunction<R>
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Run an action over rows [startRow, endRow) in bands.
+   *
+   * @param startRow
+   *   The first row (inclusive).
+   * @param endRow
+   *   The last row (exclusive).
+   * @param bandSize
+   *   The largest number of rows one task handles.
+   * @param parallel
+   *   True to run the bands in parallel and false to run the whole
+   *   range in the calling thread.
+   * @param action
+   *   The action.
+   */
+  static void forEach(int startRow, int endRow, int bandSize, boolean parallel,
+      BandAction action) {
+    if (!parallel || (endRow - startRow <= bandSize)) {
+      action.run(startRow, endRow);
+    } else {
+      ForkJoinPool.commonPool().invoke(new ActionTask(startRow, endRow, bandSize, action));
+    } // if/else
+  } // forEach(int, int, int, boolean, BandAction)
+
+  /**
+   * Compute a result for each band of rows [startRow, endRow) in
+   * parallel and combine the results in row order.
+   *
+   * @param <R>
+   *   The type of the result.
+   * @param startRow
+   *   The first row (inclusive).
+   * @param endRow
+   *   The last row (exclusive).
+   * @param bandSize
+   *   The largest number of rows one task handles.
+   * @param fun
+   *   Computes the result for one band.
+   * @param combiner
+   *   Combines the results of two adjacent bands.
+   *
+   * @return the combined result.
+   */
+  static <R> R reduce(int startRow, int endRow, int bandSize, BandFunction<R> fun,
+      BinaryOperator<R> combiner) {
+    if (endRow - startRow <= bandSize) {
+      return fun.run(startRow, endRow);
+    } // if
+    return ForkJoinPool.commonPool().invoke(
+        new FunctionTask<R>(startRow, endRow, bandSize, fun, combiner));
+  } // reduce(int, int, int, BandFunction<R>, BinaryOperator<R>)
+
+  // +-------+-------------------------------------------------------
+  // | Tasks |
+  // +-------+
+
+  /**
+   * A task that runs an action over a range of rows.
+   */
+  @SuppressWarnings("serial")
+  static class ActionTask extends RecursiveAction {
+    /**
+     * The first row (inclusive).
+     */
+    final int startRow;
+
+    /**
+     * The last row (exclusive).
+     */
+    final int endRow;
+
+    /**
+     * The largest number of rows one task handles.
+     */
+    final int bandSize;
+
+    /**
+     * The action.
+     */
+    final BandAction action;
+
+    /**
+     * Create a task.
+     *
+     * @param startRow
+     *   The first row (inclusive).
+     * @param endRow
+     *   The last row (exclusive).
+     * @param bandSize
+     *   The largest number of rows one task handles.
+     * @param action
+     *   The action.
+     */
+    ActionTask(int startRow, int endRow, int bandSize, BandAction action) {
+      this.startRow = startRow;
+      this.endRow = endRow;
+      this.bandSize = bandSize;
+      this.action = action;
+    } // ActionTask(int, int, int, BandAction)
+
+    @Override
+    protected void compute() {
+      if (this.endRow - this.startRow <= this.bandSize) {
+        this.action.run(this.startRow, this.endRow);
+      } else {
+        int mid = (this.startRow + this.endRow) >>> 1;
+        invokeAll(new ActionTask(this.startRow, mid, this.bandSize, this.action),
+            new ActionTask(mid, this.endRow, this.bandSize, this.action));
+      } // if/else
+    } // compute()
+  } // class ActionTask
+
+  /**
+   * A task that computes and combines results over a range of rows.
+   *
+   * @param <R>
+   *   The type of the result.
+   */
+  @SuppressWarnings("serial")
+  static class FunctionTask<R> extends RecursiveTask<R> {
+    /**
+     * The first row (inclusive).
+     */
+    final int startRow;
+
+    /**
+     * The last row (exclusive).
+     */
+    final int endRow;
+
+    /**
+     * The largest number of rows one task handles.
+     */
+    final int bandSize;
+
+    /**
+     * Computes the result for one band.
+     */
+    final BandFunction<R> fun;
+
+    /**
+     * Combines the results of two adjacent bands.
+     */
+    final BinaryOperator<R> combiner;
+
+    /**
+     * Create a task.
+     *
+     * @param startRow
+     *   The first row (inclusive).
+     * @param endRow
+     *   The last row (exclusive).
+     * @param bandSize
+     *   The largest number of rows one task handles.
+     * @param fun
+     *   Computes the result for one band.
+     * @param combiner
+     *   Combines the results of two adjacent bands.
+     */
+    FunctionTask(int startRow, int endRow, int bandSize, BandFunction<R> fun,
+        BinaryOperator<R> combiner) {
+      this.startRow = startRow;
+      this.endRow = endRow;
+      this.bandSize = bandSize;
+      this.fun = fun;
+      this.combiner = combiner;
+    } // FunctionTask(int, int, int, BandFunction<R>, BinaryOperator<R>)
+
+    @Override
+    protected R compute() {
+      if (this.endRow - this.startRow <= this.bandSize) {
+        return this.fun.run(this.startRow, this.endRow);
+      } // if
+      int mid = (this.startRow + this.endRow) >>> 1;
+      FunctionTask<R> left =
+          new FunctionTask<R>(this.startRow, mid, this.bandSize, this.fun, this.combiner);
+      left.fork();
+      R right =
+          new FunctionTask<R>(mid, this.endRow, this.bandSize, this.fun, this.combiner).compute();
+      return this.combiner.apply(left.join(), right);
+    } // compute()
+  } // class FunctionTask<R>
+} // class Bands
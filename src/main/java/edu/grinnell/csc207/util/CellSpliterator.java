@@ -0,0 +1,141 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over a range of cells of a matrix in row-major order,
+ * where cell i is at row i / width and column i % width. Each
+ * spliterator hands the same MatrixCell to its consumer for every cell,
+ * so a traversal allocates nothing per cell. Splitting halves the range,
+ * so parallel streams get one MatrixCell per piece.
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+class CellSpliterator<T> implements Spliterator<MatrixCell<T>> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * Ranges smaller than this are not worth splitting.
+   */
+  static final long MIN_SPLIT = 1024;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix we walk.
+   */
+  final AbstractMatrix<T> matrix;
+
+  /**
+   * The width of the matrix.
+   */
+  final int width;
+
+  /**
+   * The next cell to visit.
+   */
+  long pos;
+
+  /**
+   * The cell to stop at (exclusive).
+   */
+  final long end;
+
+  /**
+   * The cell we hand to consumers.
+   */
+  final MatrixCell<T> cell;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a spliterator over cells [pos, end).
+   *
+   * @param matrix
+   *   The matrix to walk.
+   * @param pos
+   *   The first cell (inclusive).
+   * @param end
+   *   The last cell (exclusive).
+   */
+  CellSpliterator(AbstractMatrix<T> matrix, long pos, long end) {
+    this.matrix = matrix;
+    this.width = matrix.width();
+    this.pos = pos;
+    this.end = end;
+    this.cell = new MatrixCell<T>(0, 0, null);
+  } // CellSpliterator(AbstractMatrix<T>, long, long)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  @Override
+  public boolean tryAdvance(Consumer<? super MatrixCell<T>> action) {
+    if (this.pos >= this.end) {
+      return false;
+    } // if
+    this.cell.row = (int) (this.pos / this.width);
+    this.cell.col = (int) (this.pos % this.width);
+    this.pos++;
+    this.cell.value = this.matrix.cell(this.cell.row, this.cell.col);
+    action.accept(this.cell);
+    return true;
+  } // tryAdvance(Consumer)
+
+  /**
+   * Visit the rest of the cells. Steps the row and column along instead
+   * of dividing for each cell.
+   *
+   * @param action
+   *   What to do with each cell.
+   */
+  @Override
+  public void forEachRemaining(Consumer<? super MatrixCell<T>> action) {
+    if (this.pos >= this.end) {
+      return;
+    } // if
+    int row = (int) (this.pos / this.width);
+    int col = (int) (this.pos % this.width);
+    for (long i = this.pos; i < this.end; i++) {
+      this.cell.row = row;
+      this.cell.col = col;
+      this.cell.value = this.matrix.cell(row, col);
+      action.accept(this.cell);
+      if (++col == this.width) {
+        col = 0;
+        row++;
+      } // if we reached the end of the row
+    } // for
+    this.pos = this.end;
+  } // forEachRemaining(Consumer)
+
+  @Override
+  public Spliterator<MatrixCell<T>> trySplit() {
+    long mid = this.pos + (this.end - this.pos) / 2;
+    if (mid - this.pos < MIN_SPLIT) {
+      return null;
+    } // if
+    CellSpliterator<T> prefix = new CellSpliterator<T>(this.matrix, this.pos, mid);
+    this.pos = mid;
+    return prefix;
+  } // trySplit()
+
+  @Override
+  public long estimateSize() {
+    return this.end - this.pos;
+  } // estimateSize()
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL | SIZED | SUBSIZED;
+  } // characteristics()
+} // class CellSpliterator<T>
@@ -0,0 +1,743 @@
+package edu.grinnell.csc207.util;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A matrix that many threads may share. It wraps another matrix (a
+ * MatrixDense unless the client supplies one) and guards it with two
+ * kinds of locks.
+ *
+ * <ul>
+ * <li>A StampedLock protects the shape. Cell operations hold a read
+ * stamp, so they may run together; structural operations (inserting
+ * and deleting rows and columns) and bulk operations hold the write
+ * stamp, so they run alone.</li>
+ * <li>An array of stripe locks protects the cells. Rows are grouped
+ * into bands of STRIPE_ROWS rows, and each band maps to one stripe, so
+ * threads working on different bands rarely wait for each other. The
+ * stripes are read/write locks: get takes the read lock and set the
+ * write lock, so readers of a band never wait for each other.</li>
+ * </ul>
+ *
+ * <p>Read-mostly clients may ask for optimistic mode instead. There,
+ * every change (including set) takes the write stamp, and get does not
+ * lock at all: it reads under an optimistic stamp and checks afterwards
+ * that no change happened in the meantime, retrying under a read stamp
+ * only if one did. Readers then never block each other or write to
+ * shared memory, at the cost of serializing writers.</p>
+ *
+ * <p>Striping is only safe when the wrapped matrix stores each row
+ * separately (see AbstractMatrix.concurrentRowWrites). For other
+ * matrices, such as MatrixV0, whose rows share one hash table, we use a
+ * single stripe, so writes are serialized but reads still run
+ * together. When the matrix does store each row separately, get skips
+ * the stripe entirely: the read stamp keeps the shape still, and
+ * reading a cell never changes the storage.</p>
+ *
+ * <p>The wrapped matrix belongs to this one; clients should not use it
+ * directly once they have wrapped it.</p>
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class ConcurrentMatrix<T> extends AbstractMatrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * log2 of the number of rows that share a stripe.
+   */
+  static final int STRIPE_SHIFT = 2;
+
+  /**
+   * The number of rows that share a stripe.
+   */
+  static final int STRIPE_ROWS = 1 << STRIPE_SHIFT;
+
+  /**
+   * The number of stripes for matrices that allow concurrent row
+   * writes. Must be a power of two.
+   */
+  static final int STRIPES = 64;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix that holds the cells.
+   */
+  final Matrix<T> base;
+
+  /**
+   * Protects the shape of the matrix (and, in optimistic mode, the
+   * cells).
+   */
+  final StampedLock structure;
+
+  /**
+   * Whether we are in optimistic mode.
+   */
+  final boolean optimistic;
+
+  /**
+   * Whether the wrapped matrix stores each row separately. Optimistic
+   * reads need this too, since a read that races with a write must not
+   * wander through half-updated shared structures.
+   */
+  final boolean rowSafe;
+
+  /**
+   * Protect the cells, one stripe per group of row bands.
+   */
+  final ReentrantReadWriteLock[] stripes;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public ConcurrentMatrix(int width, int height, T def) {
+    this(new MatrixDense<T>(width, height, def));
+  } // ConcurrentMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with
+   * null as the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public ConcurrentMatrix(int width, int height) {
+    this(width, height, null);
+  } // ConcurrentMatrix(int, int)
+
+  /**
+   * Make a matrix safe to share among threads, using striped locks.
+   *
+   * @param base
+   *   The matrix to wrap.
+   */
+  public ConcurrentMatrix(Matrix<T> base) {
+    this(base, false);
+  } // ConcurrentMatrix(Matrix<T>)
+
+  /**
+   * Make a matrix safe to share among threads.
+   *
+   * @param base
+   *   The matrix to wrap.
+   * @param optimistic
+   *   True for optimistic mode, which suits matrices that are read far
+   *   more often than they are changed; false for striped locks.
+   */
+  public ConcurrentMatrix(Matrix<T> base, boolean optimistic) {
+    this.base = base;
+    this.structure = new StampedLock();
+    this.optimistic = optimistic;
+    this.rowSafe = (base instanceof AbstractMatrix)
+        && ((AbstractMatrix<T>) base).concurrentRowWrites();
+    int count = this.rowSafe ? STRIPES : 1;
+    this.stripes = new ReentrantReadWriteLock[count];
+    for (int i = 0; i < count; i++) {
+      this.stripes[i] = new ReentrantReadWriteLock();
+    } // for
+  } // ConcurrentMatrix(Matrix<T>, boolean)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Find the stripe that protects a row.
+   *
+   * @param row
+   *   The row.
+   *
+   * @return the lock for that row's band.
+   */
+  ReentrantReadWriteLock stripe(int row) {
+    return this.stripes[(row >>> STRIPE_SHIFT) & (this.stripes.length - 1)];
+  } // stripe(int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    if (this.optimistic && this.rowSafe) {
+      long stamp = this.structure.tryOptimisticRead();
+      if (stamp != 0L) {
+        try {
+          T val = this.base.get(row, col);
+          if (this.structure.validate(stamp)) {
+            return val;
+          } // if
+        } catch (RuntimeException e) {
+          // A bad index, or a read that raced with a change of shape.
+          if (this.structure.validate(stamp)) {
+            throw e;
+          } // if
+        } // try/catch
+      } // if
+    } // if we may read optimistically
+    long stamp = this.structure.readLock();
+    try {
+      if (this.optimistic || this.rowSafe) {
+        return this.base.get(row, col);
+      } // if the read stamp is enough
+      checkCell(row, col);
+      ReentrantReadWriteLock.ReadLock lock = stripe(row).readLock();
+      lock.lock();
+      try {
+        return this.base.get(row, col);
+      } finally {
+        lock.unlock();
+      } // try/finally
+    } finally {
+      this.structure.unlockRead(stamp);
+    } // try/finally
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    if (this.optimistic) {
+      long stamp = this.structure.writeLock();
+      try {
+        this.base.set(row, col, val);
+      } finally {
+        this.structure.unlockWrite(stamp);
+      } // try/finally
+      return;
+    } // if
+    long stamp = this.structure.readLock();
+    try {
+      checkCell(row, col);
+      ReentrantReadWriteLock.WriteLock lock = stripe(row).writeLock();
+      lock.lock();
+      try {
+        this.base.set(row, col, val);
+      } finally {
+        lock.unlock();
+      } // try/finally
+    } finally {
+      this.structure.unlockRead(stamp);
+    } // try/finally
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    long stamp = this.structure.tryOptimisticRead();
+    int result = this.base.height();
+    if (!this.structure.validate(stamp)) {
+      stamp = this.structure.readLock();
+      try {
+        result = this.base.height();
+      } finally {
+        this.structure.unlockRead(stamp);
+      } // try/finally
+    } // if
+    return result;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    long stamp = this.structure.tryOptimisticRead();
+    int result = this.base.width();
+    if (!this.structure.validate(stamp)) {
+      stamp = this.structure.readLock();
+      try {
+        result = this.base.width();
+      } finally {
+        this.structure.unlockRead(stamp);
+      } // try/finally
+    } // if
+    return result;
+  } // width()
+
+  /**
+   * Get the default value of the matrix.
+   *
+   * @return the default value.
+   */
+  public T defaultValue() {
+    return this.base.defaultValue();
+  } // defaultValue()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    long stamp = this.structure.writeLock();
+    try {
+      this.base.insertRow(row);
+    } finally {
+      this.structure.unlockWrite(stamp);
+    } // try/finally
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    long stamp = this.structure.writeLock();
+    try {
+      this.base.insertRow(row, vals);
+    } finally {
+      this.structure.unlockWrite(stamp);
+    } // try/finally
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    long stamp = this.structure.writeLock();
+    try {
+      this.base.insertCol(col);
+    } finally {
+      this.structure.unlockWrite(stamp);
+    } // try/finally
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    long stamp = this.structure.writeLock();
+    try {
+      this.base.insertCol(col, vals);
+    } finally {
+      this.structure.unlockWrite(stamp);
+    } // try/finally
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    long stamp = this.structure.writeLock();
+    try {
+      this.base.deleteRow(row);
+    } finally {
+      this.structure.unlockWrite(stamp);
+    } // try/finally
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    long stamp = this.structure.writeLock();
+    try {
+      this.base.deleteCol(col);
+    } finally {
+      this.structure.unlockWrite(stamp);
+    } // try/finally
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix. With striped locks, each
+   * band of rows is filled under its own stripe, so readers of other
+   * bands need not wait, but the fill as a whole is not atomic.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (this.optimistic) {
+      long stamp = this.structure.writeLock();
+      try {
+        this.base.fillRegion(startRow, startCol, endRow, endCol, val);
+      } finally {
+        this.structure.unlockWrite(stamp);
+      } // try/finally
+      return;
+    } // if
+    long stamp = this.structure.readLock();
+    try {
+      checkRegion(startRow, startCol, endRow, endCol);
+      for (int row = startRow; row < endRow; ) {
+        int next = Math.min(endRow, ((row >>> STRIPE_SHIFT) + 1) << STRIPE_SHIFT);
+        ReentrantReadWriteLock.WriteLock lock = stripe(row).writeLock();
+        lock.lock();
+        try {
+          this.base.fillRegion(row, startCol, next, endCol, val);
+        } finally {
+          lock.unlock();
+        } // try/finally
+        row = next;
+      } // for
+    } finally {
+      this.structure.unlockRead(stamp);
+    } // try/finally
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal). Lines are short, so
+   * we simply lock the whole matrix.
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    long stamp = this.structure.writeLock();
+    try {
+      this.base.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+    } finally {
+      this.structure.unlockWrite(stamp);
+    } // try/finally
+  } // fillLine(int, int, int, int, int, int, T)
+
+  // +----------------+----------------------------------------------
+  // | Storage access |
+  // +----------------+
+
+  /**
+   * Get the element at the given row and column. Since the shape may
+   * change at any time, we check the bounds after all.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   */
+  @Override
+  T cell(int row, int col) {
+    return this.get(row, col);
+  } // cell(int, int)
+
+  /**
+   * Determine if different threads may call set on different rows at
+   * the same time. They may call it anywhere.
+   *
+   * @return true.
+   */
+  @Override
+  boolean concurrentRowWrites() {
+    return true;
+  } // concurrentRowWrites()
+
+  /**
+   * Insert and delete many rows and columns at once, while holding the
+   * write lock.
+   *
+   * @param rows
+   *   The old row for each new row, or -1.
+   * @param cols
+   *   The old column for each new column, or -1.
+   */
+  @Override
+  void remap(int[] rows, int[] cols) {
+    long stamp = this.structure.writeLock();
+    try {
+      if (this.base instanceof AbstractMatrix) {
+        ((AbstractMatrix<T>) this.base).remap(rows, cols);
+      } else {
+        remapLines(this.base, rows, cols);
+      } // if/else
+    } finally {
+      this.structure.unlockWrite(stamp);
+    } // try/finally
+  } // remap(int[], int[])
+
+  // +-----------------+---------------------------------------------
+  // | Bulk operations |
+  // +-----------------+
+
+  /**
+   * Determine how many rows each task handles in the bulk operations.
+   *
+   * @return the number of rows per band.
+   */
+  @Override
+  public int bandSize() {
+    return this.base.bandSize();
+  } // bandSize()
+
+  /**
+   * Set how many rows each task handles in the bulk operations.
+   *
+   * @param rows
+   *   The number of rows per band.
+   *
+   * @throws IllegalArgumentException
+   *   If rows is less than 1.
+   */
+  @Override
+  public void setBandSize(int rows) {
+    this.base.setBandSize(rows);
+  } // setBandSize(int)
+
+  /**
+   * Replace every cell with the result of applying a function to it.
+   * The whole matrix is locked while we work, so fun must not use this
+   * matrix.
+   *
+   * @param fun
+   *   The function to apply.
+   */
+  @Override
+  public void mapInPlace(Function<? super T, ? extends T> fun) {
+    long stamp = this.structure.writeLock();
+    try {
+      this.base.mapInPlace(fun);
+    } finally {
+      this.structure.unlockWrite(stamp);
+    } // try/finally
+  } // mapInPlace(Function)
+
+  /**
+   * Combine all the cells of a snapshot of the matrix, in parallel
+   * bands.
+   *
+   * @param <R>
+   *   The type of the result.
+   * @param identity
+   *   The starting value for each band.
+   * @param accumulator
+   *   Folds one cell into a partial result.
+   * @param combiner
+   *   Joins two partial results.
+   *
+   * @return the combined result.
+   */
+  @Override
+  public <R> R reduce(R identity, BiFunction<R, ? super T, R> accumulator,
+      BinaryOperator<R> combiner) {
+    return this.snapshot().reduce(identity, accumulator, combiner);
+  } // reduce(R, BiFunction, BinaryOperator)
+
+  /**
+   * Fill a rectangular region of the matrix, in parallel bands when the
+   * wrapped matrix allows it. The whole matrix is locked while we work.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void parallelFillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    long stamp = this.structure.writeLock();
+    try {
+      this.base.parallelFillRegion(startRow, startCol, endRow, endCol, val);
+    } finally {
+      this.structure.unlockWrite(stamp);
+    } // try/finally
+  } // parallelFillRegion(int, int, int, int, T)
+
+  /**
+   * Apply an action to every cell of a snapshot of the matrix, in
+   * parallel bands. The action may use this matrix, but will not see
+   * its own changes.
+   *
+   * @param action
+   *   The action.
+   */
+  @Override
+  public void forEachCell(Consumer<? super MatrixCell<T>> action) {
+    this.snapshot().forEachCell(action);
+  } // forEachCell(Consumer)
+
+  /**
+   * Copy the wrapped matrix while nothing may change it.
+   *
+   * @return the copy.
+   */
+  Matrix<T> snapshot() {
+    long stamp = this.structure.writeLock();
+    try {
+      return this.base.clone();
+    } finally {
+      this.structure.unlockWrite(stamp);
+    } // try/finally
+  } // snapshot()
+
+  // +------------------+--------------------------------------------
+  // | Standard methods |
+  // +------------------+
+
+  /**
+   * Make a copy of this matrix, which may be shared separately.
+   *
+   * @return a copy of the matrix.
+   */
+  public ConcurrentMatrix<T> clone() {
+    return new ConcurrentMatrix<T>(this.snapshot(), this.optimistic);
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object. We compare a
+   * snapshot, so other threads may change the matrix while we look.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   *   height, and equal elements; false otherwise.
+   */
+  @Override
+  public boolean equals(Object other) {
+    if (other instanceof ConcurrentMatrix) {
+      other = ((ConcurrentMatrix<?>) other).snapshot();
+    } // if
+    return this.snapshot().equals(other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    long stamp = this.structure.writeLock();
+    try {
+      return this.base.hashCode();
+    } finally {
+      this.structure.unlockWrite(stamp);
+    } // try/finally
+  } // hashCode()
+} // class ConcurrentMatrix<T>
@@ -28,8 +28,92 @@ public class Index {
     this.column = column;
   } // Index(int, int)
 
+  // +----------------+----------------------------------------------
+  // | Static Methods |
+  // +----------------+
 
+  /**
+   * Pack a row and column into a single long, with the row in the high
+   * 32 bits and the column in the low 32 bits. Lets callers key a table
+   * by position without allocating an Index.
+   *
+   * @param row the row
+   * @param column the column
+   * @return the packed key
+   */
+  public static long pack(int row, int column) {
+    return (((long) row) << 32) | (column & 0xFFFFFFFFL);
+  } // pack(int, int)
+
+  /**
+   * Extract the row from a packed key.
+   *
+   * @param key a key built by pack
+   * @return the row
+   */
+  public static int unpackRow(long key) {
+    return (int) (key >> 32);
+  } // unpackRow(long)
+
+  /**
+   * Extract the column from a packed key.
+   *
+   * @param key a key built by pack
+   * @return the column
+   */
+  public static int unpackColumn(long key) {
+    return (int) key;
+  } // unpackColumn(long)
+
+  /**
+   * Build an Index from a packed key.
+   *
+   * @param key a key built by pack
+   * @return the corresponding index
+   */
+  public static Index unpack(long key) {
+    return new Index(unpackRow(key), unpackColumn(key));
+  } // unpack(long)
 
+  // +------------------+--------------------------------------------
+  // | Standard Methods |
+  // +------------------+
+
+  /**
+   * Determine if this index refers to the same position as another.
+   *
+   * @param other the object to compare to
+   * @return true if other is an Index with the same row and column
+   */
+  @Override
+  public boolean equals(Object other) {
+    return (other instanceof Index)
+        && isIndex(((Index) other).row, ((Index) other).column);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code consistent with equals. Note that changing the
+   * row or column of an index that is stored as a key will lose it.
+   * Folding pack() directly would give row ^ column, so that (r, c) and
+   * (c, r) collide; we multiply first, as LongAssociativeArray does, so
+   * that each half affects all of the bits.
+   *
+   * @return the hash code
+   */
+  @Override
+  public int hashCode() {
+    return Long.hashCode(pack() * 0x9E3779B97F4A7C15L);
+  } // hashCode()
+
+  /**
+   * Convert the index to a string.
+   *
+   * @return a string of the form "(row, column)"
+   */
+  @Override
+  public String toString() {
+    return "(" + this.row + ", " + this.column + ")";
+  } // toString()
 
   // +----------------+----------------------------------------------
   // | Public Methods |
@@ -62,6 +146,12 @@ public class Index {
     return (this.column);
    }
 
-
-  
+  /**
+   * Pack this index into a single long.
+   *
+   * @return the packed key, as in pack(int, int)
+   */
+  public long pack() {
+    return pack(this.row, this.column);
+  } // pack()
 } // class AssociativeArray
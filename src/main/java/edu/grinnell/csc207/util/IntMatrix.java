@@ -0,0 +1,349 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Matrices of ints, stored unboxed in a single row-major int array.
+ * The Matrix methods box and unbox; getInt and setInt do not.
+ */
+public class IntMatrix extends PrimitiveMatrix<Integer> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The value used to fill new cells.
+   */
+  int def;
+
+  /**
+   * The cells, in row-major order.
+   */
+  int[] cells;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public IntMatrix(int width, int height, int def) {
+    super(width, height);
+    this.def = def;
+    this.cells = new int[width * height];
+    fillDefault(0, this.cells.length);
+  } // IntMatrix(int, int, int)
+
+  /**
+   * Create a new matrix of the specified width and height filled
+   * with zeros.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public IntMatrix(int width, int height) {
+    this(width, height, 0);
+  } // IntMatrix(int, int)
+
+  // +------------------+--------------------------------------------
+  // | Storage handling |
+  // +------------------+
+
+  @Override
+  Object storage() {
+    return this.cells;
+  } // storage()
+
+  @Override
+  void storage(Object cells) {
+    this.cells = (int[]) cells;
+  } // storage(Object)
+
+  @Override
+  Object newCells(int length) {
+    return new int[length];
+  } // newCells(int)
+
+  @Override
+  void fillDefault(int from, int to) {
+    Arrays.fill(this.cells, from, to, this.def);
+  } // fillDefault(int, int)
+
+  // +-------------------+-------------------------------------------
+  // | Unboxed accessors |
+  // +-------------------+
+
+  /**
+   * Get the int at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public int getInt(int row, int col) {
+    checkCell(row, col);
+    return this.cells[row * this.width + col];
+  } // getInt(int, int)
+
+  /**
+   * Set the int at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void setInt(int row, int col, int val) {
+    checkCell(row, col);
+    this.cells[row * this.width + col] = val;
+  } // setInt(int, int, int)
+
+  /**
+   * Fill a rectangular region of the matrix with an int.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      int val) {
+    checkRegion(startRow, startCol, endRow, endCol);
+    if ((startCol == 0) && (endCol == this.width)) {
+      Arrays.fill(this.cells, startRow * this.width, endRow * this.width, val);
+      return;
+    } // if the region is whole rows, and hence one stretch of the array
+    for (int row = startRow; row < endRow; row++) {
+      int start = row * this.width;
+      Arrays.fill(this.cells, start + startCol, start + endCol, val);
+    } // for
+  } // fillRegion(int, int, int, int, int)
+
+  // +--------------------+------------------------------------------
+  // | Numeric operations |
+  // +--------------------+
+
+  /**
+   * Add another matrix to this one, cell by cell.
+   *
+   * @param other
+   *   The matrix to add. Must have the same shape as this one.
+   *
+   * @throws IllegalArgumentException
+   *   If the matrices have different shapes.
+   */
+  public void add(IntMatrix other) {
+    checkShape(other);
+    NumericKernels.add(this.cells, other.cells, used());
+  } // add(IntMatrix)
+
+  /**
+   * Multiply this matrix by another one, cell by cell.
+   *
+   * @param other
+   *   The matrix to multiply by. Must have the same shape as this one.
+   *
+   * @throws IllegalArgumentException
+   *   If the matrices have different shapes.
+   */
+  public void multiply(IntMatrix other) {
+    checkShape(other);
+    NumericKernels.multiply(this.cells, other.cells, used());
+  } // multiply(IntMatrix)
+
+  /**
+   * Multiply every cell by a factor.
+   *
+   * @param factor
+   *   The factor.
+   */
+  public void scale(int factor) {
+    NumericKernels.scale(this.cells, factor, used());
+  } // scale(int)
+
+  /**
+   * Add up the cells.
+   *
+   * @return the sum of all the cells.
+   */
+  public long sum() {
+    return NumericKernels.sum(this.cells, used());
+  } // sum()
+
+  /**
+   * Find the smallest cell.
+   *
+   * @return the smallest value in the matrix.
+   *
+   * @throws NoSuchElementException
+   *   If the matrix has no cells.
+   */
+  public int min() {
+    checkNotEmpty();
+    return NumericKernels.min(this.cells, used());
+  } // min()
+
+  /**
+   * Find the largest cell.
+   *
+   * @return the largest value in the matrix.
+   *
+   * @throws NoSuchElementException
+   *   If the matrix has no cells.
+   */
+  public int max() {
+    checkNotEmpty();
+    return NumericKernels.max(this.cells, used());
+  } // max()
+
+  /**
+   * Compute the dot product of this matrix and another, treating each
+   * as one long vector of cells.
+   * The products and their sum are computed as longs.
+   *
+   * @param other
+   *   The other matrix. Must have the same shape as this one.
+   *
+   * @return the sum of the products of corresponding cells.
+   *
+   * @throws IllegalArgumentException
+   *   If the matrices have different shapes.
+   */
+  public long dot(IntMatrix other) {
+    checkShape(other);
+    return NumericKernels.dot(this.cells, other.cells, used());
+  } // dot(IntMatrix)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public Integer get(int row, int col) {
+    return getInt(row, col);
+  } // get(int, int)
+
+  /**
+   * Get the element at the given row and column, reading the array
+   * directly.
+   *
+   * @param row
+   *   The row of the element; must be in bounds.
+   * @param col
+   *   The column of the element; must be in bounds.
+   *
+   * @return the value at the specified location.
+   */
+  @Override
+  Integer cell(int row, int col) {
+    return this.cells[row * this.width + col];
+  } // cell(int, int)
+
+  /**
+   * Determine the value that fills new cells.
+   *
+   * @return the default value.
+   */
+  public Integer defaultValue() {
+    return this.def;
+  } // defaultValue()
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set. May not be null.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, Integer val) {
+    setInt(row, col, val);
+  } // set(int, int, Integer)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store. May not be null.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      Integer val) {
+    fillRegion(startRow, startCol, endRow, endCol, val.intValue());
+  } // fillRegion(int, int, int, int, Integer)
+
+  /**
+   * A make a copy of the matrix.
+   *
+   * @return a copy of the matrix.
+   */
+  public IntMatrix clone() {
+    return copyInto(new IntMatrix(0, 0, this.def));
+  } // clone()
+} // class IntMatrix
@@ -0,0 +1,157 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A cursor over one row or column of a matrix. Reads go straight to the
+ * matrix's storage (through AbstractMatrix.cell), so walking a line
+ * allocates nothing beyond the cursor itself. The cursor sees later
+ * calls to set, but not rows or columns that are inserted or deleted.
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class LineView<T> implements Iterator<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix we view.
+   */
+  final AbstractMatrix<T> matrix;
+
+  /**
+   * True if we view a row and false if we view a column.
+   */
+  final boolean isRow;
+
+  /**
+   * The row or column we view.
+   */
+  final int line;
+
+  /**
+   * The number of cells in the line.
+   */
+  final int size;
+
+  /**
+   * The position of the next cell that next() returns.
+   */
+  int pos;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a cursor at the start of a line. The caller checks that the
+   * line exists.
+   *
+   * @param matrix
+   *   The matrix to view.
+   * @param isRow
+   *   True to view a row and false to view a column.
+   * @param line
+   *   The row or column to view.
+   */
+  LineView(AbstractMatrix<T> matrix, boolean isRow, int line) {
+    this.matrix = matrix;
+    this.isRow = isRow;
+    this.line = line;
+    this.size = isRow ? matrix.width() : matrix.height();
+  } // LineView(AbstractMatrix<T>, boolean, int)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Determine if this cursor views a row.
+   *
+   * @return true for a row and false for a column.
+   */
+  public boolean isRow() {
+    return this.isRow;
+  } // isRow()
+
+  /**
+   * Determine which row or column this cursor views.
+   *
+   * @return the row or column number.
+   */
+  public int line() {
+    return this.line;
+  } // line()
+
+  /**
+   * Determine how many cells the line has.
+   *
+   * @return the number of cells.
+   */
+  public int size() {
+    return this.size;
+  } // size()
+
+  /**
+   * Get one cell of the line, without moving the cursor.
+   *
+   * @param i
+   *   The position of the cell within the line.
+   *
+   * @return the value in that cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If i is negative or at least the size of the line.
+   */
+  public T get(int i) {
+    if ((i < 0) || (i >= this.size)) {
+      throw new IndexOutOfBoundsException("Invalid position: " + i);
+    } // if
+    return this.isRow ? this.matrix.cell(this.line, i) : this.matrix.cell(i, this.line);
+  } // get(int)
+
+  /**
+   * Determine if there are more cells in the line.
+   *
+   * @return true if next() will return a value.
+   */
+  public boolean hasNext() {
+    return this.pos < this.size;
+  } // hasNext()
+
+  /**
+   * Get the next cell in the line.
+   *
+   * @return the value in that cell.
+   *
+   * @throws NoSuchElementException
+   *   If there are no cells left.
+   */
+  public T next() {
+    if (this.pos >= this.size) {
+      throw new NoSuchElementException();
+    } // if
+    int i = this.pos++;
+    return this.isRow ? this.matrix.cell(this.line, i) : this.matrix.cell(i, this.line);
+  } // next()
+
+  /**
+   * Determine the position of the cell that next() most recently
+   * returned.
+   *
+   * @return that position, or -1 if next() has not been called.
+   */
+  public int index() {
+    return this.pos - 1;
+  } // index()
+
+  /**
+   * Move the cursor back to the start of the line.
+   */
+  public void reset() {
+    this.pos = 0;
+  } // reset()
+} // class LineView<T>
@@ -0,0 +1,555 @@
+package edu.grinnell.csc207.util;
+
+import java.util.function.ObjLongConsumer;
+
+/**
+ * An immutable map from longs to values, stored as a hash array mapped
+ * trie. Each node covers five bits of the key's hash and keeps only the
+ * children it needs, so changing one key copies just the nodes on its
+ * path (about log32 n of them) and shares everything else with the
+ * previous version.
+ *
+ * <p>For a long run of changes, an Editor changes nodes that it created
+ * itself in place rather than copying them again on every change.</p>
+ *
+ * @param <V>
+ *   The type of the values.
+ */
+class LongTrie<V> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of hash bits each level of the trie consumes.
+   */
+  static final int BITS = 5;
+
+  /**
+   * Masks off one level's worth of hash bits.
+   */
+  static final int MASK = (1 << BITS) - 1;
+
+  /**
+   * An empty array of slots.
+   */
+  static final Object[] NO_SLOTS = new Object[0];
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * An interior node. Bit i of bitmap is set if the node has slot i, in
+   * which case slots[bitCount(bitmap below i)] holds a child Node or a
+   * chain of Entries whose keys all have the same hash.
+   */
+  static final class Node {
+    /**
+     * Which slots are present.
+     */
+    int bitmap;
+
+    /**
+     * The present slots, in order.
+     */
+    Object[] slots;
+
+    /**
+     * The editor that may change this node in place, if any.
+     */
+    final Object edit;
+
+    /**
+     * Create a node.
+     *
+     * @param edit
+     *   The editor that may change the node in place, or null.
+     * @param bitmap
+     *   Which slots are present.
+     * @param slots
+     *   The present slots.
+     */
+    Node(Object edit, int bitmap, Object[] slots) {
+      this.edit = edit;
+      this.bitmap = bitmap;
+      this.slots = slots;
+    } // Node(Object, int, Object[])
+  } // class Node
+
+  /**
+   * One key/value pair, linked to any others whose keys have the same
+   * hash.
+   */
+  static final class Entry {
+    /**
+     * The key.
+     */
+    final long key;
+
+    /**
+     * The hash of the key.
+     */
+    final int hash;
+
+    /**
+     * The value.
+     */
+    final Object val;
+
+    /**
+     * The next entry with the same hash, or null.
+     */
+    final Entry next;
+
+    /**
+     * Create an entry.
+     *
+     * @param key
+     *   The key.
+     * @param hash
+     *   The hash of the key.
+     * @param val
+     *   The value.
+     * @param next
+     *   The next entry with the same hash.
+     */
+    Entry(long key, int hash, Object val, Entry next) {
+      this.key = key;
+      this.hash = hash;
+      this.val = val;
+      this.next = next;
+    } // Entry(long, int, Object, Entry)
+  } // class Entry
+
+  /**
+   * A sequence of changes to a trie. Nodes the editor creates are
+   * changed in place by later changes in the same sequence; nodes it
+   * inherits are copied first, as usual.
+   *
+   * @param <V>
+   *   The type of the values.
+   */
+  static final class Editor<V> {
+    /**
+     * The root of the trie being built.
+     */
+    Node root;
+
+    /**
+     * The number of keys in the trie being built.
+     */
+    int size;
+
+    /**
+     * The token that marks the nodes this editor created, or null once
+     * the editor is done.
+     */
+    Object edit;
+
+    /**
+     * Start editing a trie.
+     *
+     * @param trie
+     *   The trie to start from; it is not changed.
+     * @param inPlace
+     *   True to change new nodes in place and false to copy on every
+     *   change.
+     */
+    Editor(LongTrie<V> trie, boolean inPlace) {
+      this.root = trie.root;
+      this.size = trie.size;
+      this.edit = inPlace ? new Object() : null;
+    } // Editor(LongTrie<V>, boolean)
+
+    /**
+     * Associate a value with a key.
+     *
+     * @param key
+     *   The key.
+     * @param val
+     *   The value.
+     */
+    void set(long key, V val) {
+      int hash = hash(key);
+      Node start = (this.root == null) ? new Node(this.edit, 0, NO_SLOTS) : this.root;
+      this.root = assoc(start, 0, hash, key, val);
+    } // set(long, V)
+
+    /**
+     * Remove a key, if it is present.
+     *
+     * @param key
+     *   The key.
+     */
+    void remove(long key) {
+      if (this.root != null) {
+        this.root = dissoc(this.root, 0, hash(key), key);
+      } // if
+    } // remove(long)
+
+    /**
+     * Finish editing. Later changes through this editor copy nodes
+     * rather than changing them, so the result stays immutable.
+     *
+     * @return the trie.
+     */
+    LongTrie<V> done() {
+      this.edit = null;
+      return new LongTrie<V>(this.root, this.size);
+    } // done()
+
+    /**
+     * Get a version of a node that we may change.
+     *
+     * @param node
+     *   The node.
+     *
+     * @return node itself, if this editor created it, or a copy.
+     */
+    Node editable(Node node) {
+      if ((this.edit != null) && (node.edit == this.edit)) {
+        return node;
+      } // if
+      return new Node(this.edit, node.bitmap, node.slots.clone());
+    } // editable(Node)
+
+    /**
+     * Give a node a new set of slots, in place if this editor created
+     * the node and in a new node otherwise.
+     *
+     * @param node
+     *   The node.
+     * @param bitmap
+     *   Which slots are present.
+     * @param slots
+     *   The present slots.
+     *
+     * @return node itself or the new node.
+     */
+    Node replaceSlots(Node node, int bitmap, Object[] slots) {
+      if ((this.edit != null) && (node.edit == this.edit)) {
+        node.bitmap = bitmap;
+        node.slots = slots;
+        return node;
+      } // if
+      return new Node(this.edit, bitmap, slots);
+    } // replaceSlots(Node, int, Object[])
+
+    /**
+     * Associate a value with a key below a node.
+     *
+     * @param node
+     *   The node.
+     * @param shift
+     *   Which hash bits the node covers.
+     * @param hash
+     *   The hash of the key.
+     * @param key
+     *   The key.
+     * @param val
+     *   The value.
+     *
+     * @return the node (or its replacement).
+     */
+    Node assoc(Node node, int shift, int hash, long key, Object val) {
+      int bit = 1 << ((hash >>> shift) & MASK);
+      int i = Integer.bitCount(node.bitmap & (bit - 1));
+      if ((node.bitmap & bit) == 0) {
+        Object[] slots = new Object[node.slots.length + 1];
+        System.arraycopy(node.slots, 0, slots, 0, i);
+        slots[i] = new Entry(key, hash, val, null);
+        System.arraycopy(node.slots, i, slots, i + 1, node.slots.length - i);
+        this.size++;
+        return replaceSlots(node, node.bitmap | bit, slots);
+      } // if the slot is empty
+
+      Object slot = node.slots[i];
+      Object replacement;
+      if (slot instanceof Node) {
+        replacement = assoc((Node) slot, shift + BITS, hash, key, val);
+      } else if (((Entry) slot).hash == hash) {
+        replacement = chainSet((Entry) slot, hash, key, val);
+      } else {
+        Entry chain = (Entry) slot;
+        Node child = new Node(this.edit, 1 << ((chain.hash >>> (shift + BITS)) & MASK),
+            new Object[] {chain});
+        replacement = assoc(child, shift + BITS, hash, key, val);
+      } // if/else
+      if (replacement == slot) {
+        return node;
+      } // if nothing changed
+      Node result = editable(node);
+      result.slots[i] = replacement;
+      return result;
+    } // assoc(Node, int, int, long, Object)
+
+    /**
+     * Associate a value with a key in a chain of entries with the same
+     * hash.
+     *
+     * @param chain
+     *   The chain.
+     * @param hash
+     *   The hash of the key.
+     * @param key
+     *   The key.
+     * @param val
+     *   The value.
+     *
+     * @return the new chain (or chain itself, if nothing changed).
+     */
+    Entry chainSet(Entry chain, int hash, long key, Object val) {
+      for (Entry e = chain; e != null; e = e.next) {
+        if (e.key == key) {
+          if (e.val == val) {
+            return chain;
+          } // if
+          return new Entry(key, hash, val, chainRemove(chain, key));
+        } // if
+      } // for
+      this.size++;
+      return new Entry(key, hash, val, chain);
+    } // chainSet(Entry, int, long, Object)
+
+    /**
+     * Remove a key from below a node.
+     *
+     * @param node
+     *   The node.
+     * @param shift
+     *   Which hash bits the node covers.
+     * @param hash
+     *   The hash of the key.
+     * @param key
+     *   The key.
+     *
+     * @return the node (or its replacement), or null if it is now empty.
+     */
+    Node dissoc(Node node, int shift, int hash, long key) {
+      int bit = 1 << ((hash >>> shift) & MASK);
+      if ((node.bitmap & bit) == 0) {
+        return node;
+      } // if the key is not here
+      int i = Integer.bitCount(node.bitmap & (bit - 1));
+      Object slot = node.slots[i];
+      Object replacement;
+      if (slot instanceof Node) {
+        replacement = dissoc((Node) slot, shift + BITS, hash, key);
+      } else {
+        replacement = chainRemove((Entry) slot, key);
+        if (replacement != slot) {
+          this.size--;
+        } // if we removed the key
+      } // if/else
+      if (replacement == slot) {
+        return node;
+      } else if (replacement != null) {
+        Node result = editable(node);
+        result.slots[i] = replacement;
+        return result;
+      } else if (node.bitmap == bit) {
+        return null;
+      } // if/else
+      Object[] slots = new Object[node.slots.length - 1];
+      System.arraycopy(node.slots, 0, slots, 0, i);
+      System.arraycopy(node.slots, i + 1, slots, i, slots.length - i);
+      return replaceSlots(node, node.bitmap & ~bit, slots);
+    } // dissoc(Node, int, int, long)
+  } // class Editor<V>
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The root of the trie, or null if the trie is empty.
+   */
+  final Node root;
+
+  /**
+   * The number of keys.
+   */
+  final int size;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create an empty trie.
+   */
+  LongTrie() {
+    this(null, 0);
+  } // LongTrie()
+
+  /**
+   * Create a trie from its parts.
+   *
+   * @param root
+   *   The root node.
+   * @param size
+   *   The number of keys.
+   */
+  LongTrie(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  } // LongTrie(Node, int)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Hash a key, mixing the high bits into the low ones.
+   *
+   * @param key
+   *   The key.
+   *
+   * @return the hash.
+   */
+  static int hash(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  } // hash(long)
+
+  /**
+   * Remove a key from a chain of entries.
+   *
+   * @param chain
+   *   The chain.
+   * @param key
+   *   The key.
+   *
+   * @return the new chain (or chain itself, if the key was missing).
+   */
+  static Entry chainRemove(Entry chain, long key) {
+    if (chain == null) {
+      return null;
+    } else if (chain.key == key) {
+      return chain.next;
+    } // if/else
+    Entry rest = chainRemove(chain.next, key);
+    return (rest == chain.next) ? chain : new Entry(chain.key, chain.hash, chain.val, rest);
+  } // chainRemove(Entry, long)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Get the value associated with a key.
+   *
+   * @param key
+   *   The key.
+   * @param def
+   *   What to return if the key is missing.
+   *
+   * @return the value, or def.
+   */
+  @SuppressWarnings({ "unchecked" })
+  V getOrDefault(long key, V def) {
+    int hash = hash(key);
+    Node node = this.root;
+    for (int shift = 0; node != null; shift += BITS) {
+      int bit = 1 << ((hash >>> shift) & MASK);
+      if ((node.bitmap & bit) == 0) {
+        return def;
+      } // if
+      Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+      if (!(slot instanceof Node)) {
+        for (Entry e = (Entry) slot; e != null; e = e.next) {
+          if (e.key == key) {
+            return (V) e.val;
+          } // if
+        } // for
+        return def;
+      } // if we reached the entries
+      node = (Node) slot;
+    } // for
+    return def;
+  } // getOrDefault(long, V)
+
+  /**
+   * Get a version of this trie with one more association.
+   *
+   * @param key
+   *   The key.
+   * @param val
+   *   The value.
+   *
+   * @return the new version.
+   */
+  LongTrie<V> set(long key, V val) {
+    Editor<V> editor = new Editor<V>(this, false);
+    editor.set(key, val);
+    return editor.done();
+  } // set(long, V)
+
+  /**
+   * Get a version of this trie without a key.
+   *
+   * @param key
+   *   The key.
+   *
+   * @return the new version.
+   */
+  LongTrie<V> remove(long key) {
+    Editor<V> editor = new Editor<V>(this, false);
+    editor.remove(key);
+    return editor.done();
+  } // remove(long)
+
+  /**
+   * Start a sequence of changes.
+   *
+   * @return an editor that starts from this trie.
+   */
+  Editor<V> edit() {
+    return new Editor<V>(this, true);
+  } // edit()
+
+  /**
+   * Determine how many keys the trie holds.
+   *
+   * @return the number of keys.
+   */
+  int size() {
+    return this.size;
+  } // size()
+
+  /**
+   * Apply an action to every key/value pair, in no particular order.
+   * The trie never changes, so the action may build a new version from
+   * it as it goes.
+   *
+   * @param action
+   *   The action, which receives each value and its key.
+   */
+  void forEach(ObjLongConsumer<? super V> action) {
+    if (this.root != null) {
+      forEach(this.root, action);
+    } // if
+  } // forEach(ObjLongConsumer)
+
+  /**
+   * Apply an action to every key/value pair below a node.
+   *
+   * @param node
+   *   The node.
+   * @param action
+   *   The action.
+   */
+  @SuppressWarnings({ "unchecked" })
+  void forEach(Node node, ObjLongConsumer<? super V> action) {
+    for (Object slot : node.slots) {
+      if (slot instanceof Node) {
+        forEach((Node) slot, action);
+      } else {
+        for (Entry e = (Entry) slot; e != null; e = e.next) {
+          action.accept((V) e.val, e.key);
+        } // for
+      } // if/else
+    } // for
+  } // forEach(Node, ObjLongConsumer)
+} // class LongTrie<V>
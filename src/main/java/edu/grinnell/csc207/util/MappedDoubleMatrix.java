@@ -0,0 +1,608 @@
+package edu.grinnell.csc207.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Matrices of doubles that live in a memory-mapped file rather than on
+ * the heap. Opening a matrix maps the file without reading it; the
+ * operating system pages cells in as we touch them and writes changed
+ * pages back, so a matrix may be far larger than the heap.
+ *
+ * <p>The file holds a HEADER-byte header (the magic number MAGIC, the
+ * width, the height, and the default value) followed by the cells as
+ * little-endian doubles in row-major order. A single mapping can cover
+ * at most 2 GB, so we map the cells in chunks of CHUNK_CELLS cells.</p>
+ *
+ * <p>Structural operations move cells within the file and resize it,
+ * so they take time proportional to the size of the matrix. Call
+ * close when done; the mappings themselves are released when they are
+ * garbage collected.</p>
+ */
+public class MappedDoubleMatrix extends AbstractMatrix<Double> implements Closeable {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The first four bytes of every matrix file ("MTXD").
+   */
+  static final int MAGIC = 0x4D545844;
+
+  /**
+   * The number of bytes before the first cell.
+   */
+  static final int HEADER = 32;
+
+  /**
+   * log2 of the number of cells in each mapped chunk.
+   */
+  static final int CHUNK_SHIFT = 27;
+
+  /**
+   * The number of cells in each mapped chunk (1 GB of doubles).
+   */
+  static final long CHUNK_CELLS = 1L << CHUNK_SHIFT;
+
+  /**
+   * Picks out a cell's position within its chunk.
+   */
+  static final long CHUNK_MASK = CHUNK_CELLS - 1;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The file.
+   */
+  final FileChannel channel;
+
+  /**
+   * The mapped header.
+   */
+  MappedByteBuffer header;
+
+  /**
+   * The mapped cells, CHUNK_CELLS at a time.
+   */
+  DoubleBuffer[] chunks;
+
+  /**
+   * The mappings behind the chunks, so that we can force them.
+   */
+  MappedByteBuffer[] mappings;
+
+  /**
+   * The number of columns (also the stride between rows).
+   */
+  int width;
+
+  /**
+   * The number of rows.
+   */
+  int height;
+
+  /**
+   * The value used to fill new cells.
+   */
+  final double def;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix file of the specified width and height with
+   * the given value as the default, replacing any existing file.
+   *
+   * @param file
+   *   Where to store the matrix.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws IOException
+   *   If the file cannot be created.
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public MappedDoubleMatrix(Path file, int width, int height, double def)
+      throws IOException {
+    if ((width < 0) || (height < 0)) {
+      throw new NegativeArraySizeException();
+    } // if
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    this.width = width;
+    this.height = height;
+    this.def = def;
+    this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+    this.header.order(ByteOrder.LITTLE_ENDIAN);
+    this.header.putInt(0, MAGIC);
+    this.header.putDouble(16, def);
+    writeHeader();
+    map((long) width * height);
+    if (Double.doubleToRawLongBits(def) != 0L) {
+      fillCells(0, (long) width * height, def);
+    } // if the fresh (zeroed) file does not already hold the default
+  } // MappedDoubleMatrix(Path, int, int, double)
+
+  /**
+   * Open an existing matrix file.
+   *
+   * @param file
+   *   The file.
+   *
+   * @throws IOException
+   *   If the file cannot be opened or is not a matrix file.
+   */
+  public MappedDoubleMatrix(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    if (this.channel.size() < HEADER) {
+      this.channel.close();
+      throw new IOException("Not a matrix file: " + file);
+    } // if
+    this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+    this.header.order(ByteOrder.LITTLE_ENDIAN);
+    this.width = this.header.getInt(4);
+    this.height = this.header.getInt(8);
+    this.def = this.header.getDouble(16);
+    long cells = (long) this.width * this.height;
+    if ((this.header.getInt(0) != MAGIC) || (this.width < 0) || (this.height < 0)
+        || (this.channel.size() < HEADER + cells * Double.BYTES)) {
+      this.channel.close();
+      throw new IOException("Not a matrix file: " + file);
+    } // if
+    map(cells);
+  } // MappedDoubleMatrix(Path)
+
+  // +------------------+--------------------------------------------
+  // | Storage handling |
+  // +------------------+
+
+  /**
+   * Record the dimensions in the header.
+   */
+  void writeHeader() {
+    this.header.putInt(4, this.width);
+    this.header.putInt(8, this.height);
+  } // writeHeader()
+
+  /**
+   * Map enough of the file to hold a number of cells, resizing the file
+   * to fit.
+   *
+   * @param cells
+   *   The number of cells.
+   */
+  void map(long cells) {
+    try {
+      long bytes = HEADER + cells * Double.BYTES;
+      if (this.channel.size() > bytes) {
+        this.channel.truncate(bytes);
+      } // if
+      int count = (int) ((cells + CHUNK_CELLS - 1) >>> CHUNK_SHIFT);
+      this.chunks = new DoubleBuffer[count];
+      this.mappings = new MappedByteBuffer[count];
+      for (int i = 0; i < count; i++) {
+        long first = (long) i << CHUNK_SHIFT;
+        long size = Math.min(CHUNK_CELLS, cells - first) * Double.BYTES;
+        this.mappings[i] = this.channel.map(FileChannel.MapMode.READ_WRITE,
+            HEADER + first * Double.BYTES, size);
+        this.chunks[i] = this.mappings[i].order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+      } // for
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } // try/catch
+  } // map(long)
+
+  /**
+   * Read a cell by its position in the file.
+   *
+   * @param index
+   *   The position of the cell.
+   *
+   * @return the value in that cell.
+   */
+  double read(long index) {
+    return this.chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+  } // read(long)
+
+  /**
+   * Write a cell by its position in the file.
+   *
+   * @param index
+   *   The position of the cell.
+   * @param val
+   *   The value to write.
+   */
+  void write(long index, double val) {
+    this.chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), val);
+  } // write(long, double)
+
+  /**
+   * Fill a run of cells.
+   *
+   * @param from
+   *   The first position to fill (inclusive).
+   * @param to
+   *   The last position to fill (exclusive).
+   * @param val
+   *   The value to store.
+   */
+  void fillCells(long from, long to, double val) {
+    for (long i = from; i < to; i++) {
+      write(i, val);
+    } // for
+  } // fillCells(long, long, double)
+
+  /**
+   * Move a run of cells, which may overlap its destination.
+   *
+   * @param from
+   *   The position of the first cell to move.
+   * @param to
+   *   Where the first cell goes.
+   * @param length
+   *   The number of cells to move.
+   */
+  void moveCells(long from, long to, long length) {
+    if (to < from) {
+      for (long i = 0; i < length; i++) {
+        write(to + i, read(from + i));
+      } // for
+    } else {
+      for (long i = length - 1; i >= 0; i--) {
+        write(to + i, read(from + i));
+      } // for
+    } // if/else
+  } // moveCells(long, long, long)
+
+  /**
+   * Find a cell in the file.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the position of the cell.
+   */
+  long index(int row, int col) {
+    return (long) row * this.width + col;
+  } // index(int, int)
+
+  /**
+   * Each row lives in its own stretch of the file, so disjoint rows
+   * may be written concurrently.
+   *
+   * @return true.
+   */
+  @Override
+  boolean concurrentRowWrites() {
+    return true;
+  } // concurrentRowWrites()
+
+  // +-------------------+-------------------------------------------
+  // | Unboxed accessors |
+  // +-------------------+
+
+  /**
+   * Get the double at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public double getDouble(int row, int col) {
+    checkCell(row, col);
+    return read(index(row, col));
+  } // getDouble(int, int)
+
+  /**
+   * Set the double at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void setDouble(int row, int col, double val) {
+    checkCell(row, col);
+    write(index(row, col), val);
+  } // setDouble(int, int, double)
+
+  /**
+   * Fill a rectangular region of the matrix with a double.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      double val) {
+    checkRegion(startRow, startCol, endRow, endCol);
+    for (int row = startRow; row < endRow; row++) {
+      fillCells(index(row, startCol), index(row, endCol), val);
+    } // for
+  } // fillRegion(int, int, int, int, double)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public Double get(int row, int col) {
+    return getDouble(row, col);
+  } // get(int, int)
+
+  /**
+   * Get the element at the given row and column, reading the file
+   * directly.
+   *
+   * @param row
+   *   The row of the element; must be in bounds.
+   * @param col
+   *   The column of the element; must be in bounds.
+   *
+   * @return the value at the specified location.
+   */
+  @Override
+  Double cell(int row, int col) {
+    return read(index(row, col));
+  } // cell(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set. May not be null.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, Double val) {
+    setDouble(row, col, val);
+  } // set(int, int, Double)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Determine the value that fills new cells.
+   *
+   * @return the default value.
+   */
+  public Double defaultValue() {
+    return this.def;
+  } // defaultValue()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    checkInsertRow(row);
+    long used = index(this.height, 0);
+    map(used + this.width);
+    moveCells(index(row, 0), index(row + 1, 0), used - index(row, 0));
+    fillCells(index(row, 0), index(row + 1, 0), this.def);
+    this.height++;
+    writeHeader();
+  } // insertRow(int)
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    checkInsertCol(col);
+    int oldWidth = this.width;
+    int newWidth = oldWidth + 1;
+    map((long) newWidth * this.height);
+    for (int row = this.height - 1; row >= 0; row--) {
+      long oldStart = (long) row * oldWidth;
+      long newStart = (long) row * newWidth;
+      moveCells(oldStart + col, newStart + col + 1, oldWidth - col);
+      write(newStart + col, this.def);
+      moveCells(oldStart, newStart, col);
+    } // for
+    this.width = newWidth;
+    writeHeader();
+  } // insertCol(int)
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    checkRow(row);
+    long used = index(this.height, 0);
+    moveCells(index(row + 1, 0), index(row, 0), used - index(row + 1, 0));
+    this.height--;
+    writeHeader();
+    map(used - this.width);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    checkCol(col);
+    int oldWidth = this.width;
+    int newWidth = oldWidth - 1;
+    for (int row = 0; row < this.height; row++) {
+      long oldStart = (long) row * oldWidth;
+      long newStart = (long) row * newWidth;
+      moveCells(oldStart, newStart, col);
+      moveCells(oldStart + col + 1, newStart + col, newWidth - col);
+    } // for
+    this.width = newWidth;
+    writeHeader();
+    map((long) newWidth * this.height);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store. May not be null.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      Double val) {
+    fillRegion(startRow, startCol, endRow, endCol, val.doubleValue());
+  } // fillRegion(int, int, int, int, Double)
+
+  // +-------+-------------------------------------------------------
+  // | Files |
+  // +-------+
+
+  /**
+   * Write any changed cells back to the file.
+   */
+  public void flush() {
+    this.header.force();
+    for (MappedByteBuffer mapping : this.mappings) {
+      mapping.force();
+    } // for
+  } // flush()
+
+  /**
+   * Write any changed cells back to the file and close it. The matrix
+   * may not be used afterwards.
+   *
+   * @throws IOException
+   *   If the file cannot be closed.
+   */
+  public void close() throws IOException {
+    flush();
+    this.channel.close();
+  } // close()
+
+  // +------------------+--------------------------------------------
+  // | Standard methods |
+  // +------------------+
+
+  /**
+   * Make a copy of the matrix in a temporary file, which is deleted
+   * when the program exits.
+   *
+   * @return a copy of the matrix.
+   */
+  public MappedDoubleMatrix clone() {
+    try {
+      Path file = Files.createTempFile("matrix", ".mtx");
+      file.toFile().deleteOnExit();
+      MappedDoubleMatrix copy = new MappedDoubleMatrix(file, 0, 0, this.def);
+      copy.width = this.width;
+      copy.height = this.height;
+      copy.writeHeader();
+      copy.map(index(this.height, 0));
+      for (int i = 0; i < this.chunks.length; i++) {
+        copy.chunks[i].put(0, this.chunks[i], 0, this.chunks[i].limit());
+      } // for
+      return copy;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } // try/catch
+  } // clone()
+} // class MappedDoubleMatrix
@@ -1,6 +1,11 @@
 package edu.grinnell.csc207.util;
 
 import java.io.PrintWriter;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Two-dimensional matrices.
@@ -34,44 +39,6 @@ public interface Matrix<T> extends Cloneable {
     } // if/else
   } // toString(Object)
 
-  /**
-   * Print the row separator in a matrix.
-   *
-   * @param pen
-   *   What we use for printing.
-   * @param cellWidth
-   *   The width of a cell.
-   * @param width
-   *   The width of the matrix.
-   */
-  static void printRowSeparator(PrintWriter pen, int cellWidth, int width) {
-    for (int i = 0; i < width; i++) {
-      pen.print("+" + "-".repeat(cellWidth));
-    } // for
-    pen.println("+");
-  } // printRowSeparator(PrintWriter, int, int)
-
-  /**
-   * Print a string centered in a cellWidth box.
-   *
-   * @param pen
-   *   What we use for printing.
-   * @param str
-   *   The string to print.
-   * @param cellWidth
-   *   The width of the box.
-   */
-  static void printCell(PrintWriter pen, String str, int cellWidth) {
-    int len = str.length();
-    if (len > cellWidth) {
-      pen.println(str.substring(0, cellWidth));
-    } else {
-      int left = (cellWidth - len) / 2;
-      int right = cellWidth - left - len;
-      pen.print(" ".repeat(left) + str + " ".repeat(right));
-    } // if/else
-  } // printCell
-
   /**
    * Print a matrix (without labels).
    *
@@ -99,50 +66,44 @@ public interface Matrix<T> extends Cloneable {
    */
   public static <T> void print(PrintWriter pen, Matrix<T> matrix,
       boolean includeLabels) {
-    int width = matrix.width();
-    int height = matrix.height();
-
-    // Find the maximum width of cells.
-    int cellWidth = 0;
-    for (int row = 0; row < height; row++) {
-      for (int col = 0; col < width; col++) {
-        T val = matrix.get(row, col);
-        int valWidth = toString(val).length();
-        cellWidth = Math.max(cellWidth, valWidth);
-      } // for col
-    } // for row
-
-    // Add some space on the sides
-    cellWidth += 2;
-
-    // Print everything out
-    if (includeLabels) {
-      pen.print(" ".repeat(4));
-      for (int col = 0; col < width; col++) {
-        printCell(pen, String.format("%2d", col), cellWidth + 1);
-      } // for
-      pen.println();
-    } // if
+    print(pen, matrix, includeLabels, 0, 0, matrix.height(), matrix.width());
+  } // print(PrintWriter, Matrix, boolean)
 
-    for (int row = 0; row < height; row++) {
-      if (includeLabels) {
-        pen.print(" ".repeat(4));
-      } // if
-      printRowSeparator(pen, cellWidth, width);
-      if (includeLabels) {
-        pen.printf(" %2d ", row);
-      } // if
-      for (int col = 0; col < width; col++) {
-        pen.print("|");
-        printCell(pen, toString(matrix.get(row, col)), cellWidth);
-      } // for col
-      pen.println("|");
-    } // for row
-    if (includeLabels) {
-      pen.print(" ".repeat(4));
+  /**
+   * Print part of a matrix: the rows [startRow, endRow) and columns
+   * [startCol, endCol). Labels give the rows' and columns' positions in
+   * the whole matrix.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param pen
+   *   The PrintWriter to use for printing.
+   * @param matrix
+   *   The matrix to print.
+   * @param includeLabels
+   *   Set to true if you want labels and false otherwise.
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public static <T> void print(PrintWriter pen, Matrix<T> matrix, boolean includeLabels,
+      int startRow, int startCol, int endRow, int endCol) {
+    if ((startRow < 0) || (startCol < 0) || (endRow > matrix.height())
+        || (endCol > matrix.width()) || (startRow > endRow) || (startCol > endCol)) {
+      throw new IndexOutOfBoundsException(
+          String.format("Invalid region [%d,%d)x[%d,%d)", startRow, endRow,
+              startCol, endCol));
     } // if
-    printRowSeparator(pen, cellWidth, width);
-  } // print(PrintWriter, Matrix)
+    new MatrixRenderer(pen, includeLabels).render(matrix, startRow, startCol, endRow, endCol);
+  } // print(PrintWriter, Matrix, boolean, int, int, int, int)
 
   // +--------------+------------------------------------------------
   // | Core methods |
@@ -329,4 +290,160 @@ public interface Matrix<T> extends Cloneable {
    * height, and equal elements; false otherwise.
    */
   public boolean equals(Object other);
+
+  // +-------------------+-------------------------------------------
+  // | Views and streams |
+  // +-------------------+
+
+  /**
+   * Determine the value that fills the cells of a new matrix (and of
+   * newly inserted rows and columns).
+   *
+   * @return the default value.
+   */
+  public T defaultValue();
+
+  /**
+   * Get a cursor over one row of the matrix, from left to right. The
+   * cursor reads through to the matrix, so it sees later calls to set,
+   * but it should not be used after rows or columns are inserted or
+   * deleted.
+   *
+   * @param row
+   *   The row to view.
+   *
+   * @return the cursor.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public LineView<T> rowView(int row);
+
+  /**
+   * Get a cursor over one column of the matrix, from top to bottom.
+   * The same caveats apply as for rowView.
+   *
+   * @param col
+   *   The column to view.
+   *
+   * @return the cursor.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public LineView<T> colView(int col);
+
+  /**
+   * Get a stream of the rows of the matrix, from top to bottom.
+   *
+   * @return a stream of row cursors.
+   */
+  public Stream<LineView<T>> rows();
+
+  /**
+   * Get a stream of the cells of the matrix, in row-major order. To
+   * avoid allocating an object per cell, the stream passes the same
+   * MatrixCell along each time, updated for the current cell; use
+   * MatrixCell.copy() to keep one.
+   *
+   * @return a stream of cells.
+   */
+  public Stream<MatrixCell<T>> cells();
+
+  /**
+   * Get a stream of the cells of the matrix whose values differ from
+   * the default value, in row-major order. As with cells(), the
+   * stream reuses a single MatrixCell.
+   *
+   * @return a stream of non-default cells.
+   */
+  public Stream<MatrixCell<T>> nonDefaultCells();
+
+  // +-----------------+---------------------------------------------
+  // | Bulk operations |
+  // +-----------------+
+
+  /**
+   * Determine how many rows each task handles in the bulk operations.
+   *
+   * @return the number of rows per band.
+   */
+  public int bandSize();
+
+  /**
+   * Set how many rows each task handles in the bulk operations. Smaller
+   * bands spread the work more evenly; larger ones cost less to
+   * schedule.
+   *
+   * @param rows
+   *   The number of rows per band.
+   *
+   * @throws IllegalArgumentException
+   *   If rows is less than 1.
+   */
+  public void setBandSize(int rows);
+
+  /**
+   * Replace every cell with the result of applying a function to it.
+   * Matrices whose rows can be written independently (such as
+   * MatrixDense) do the work in parallel bands, so the function may be
+   * called from several threads at once; others work sequentially.
+   *
+   * @param fun
+   *   The function to apply.
+   */
+  public void mapInPlace(Function<? super T, ? extends T> fun);
+
+  /**
+   * Combine all the cells of the matrix, in parallel bands. Each band
+   * starts from identity and folds its cells in row-major order with
+   * accumulator; the band results are then joined in row order with
+   * combiner. As with Stream.reduce, identity must be an identity for
+   * combiner and the functions must not depend on which thread runs
+   * them.
+   *
+   * @param <R>
+   *   The type of the result.
+   * @param identity
+   *   The starting value for each band.
+   * @param accumulator
+   *   Folds one cell into a partial result.
+   * @param combiner
+   *   Joins two partial results.
+   *
+   * @return the combined result.
+   */
+  public <R> R reduce(R identity, BiFunction<R, ? super T, R> accumulator,
+      BinaryOperator<R> combiner);
+
+  /**
+   * Fill a rectangular region of the matrix, in parallel bands when the
+   * matrix allows it and with fillRegion otherwise.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void parallelFillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val);
+
+  /**
+   * Apply an action to every cell, in parallel bands. Each band passes
+   * its own reused MatrixCell to the action, which must be safe to call
+   * from several threads at once.
+   *
+   * @param action
+   *   The action.
+   */
+  public void forEachCell(Consumer<? super MatrixCell<T>> action);
 } // interface Matrix<T>
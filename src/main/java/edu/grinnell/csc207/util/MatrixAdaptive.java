@@ -0,0 +1,523 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import edu.grinnell.csc207.util.AArray.LongAssociativeArray;
+
+/**
+ * An implementation of two-dimensional matrices that picks its
+ * representation by how full it is. It starts sparse, storing only the
+ * cells that differ from the default value, and switches to a dense
+ * array once more than PROMOTE_RATIO of the cells are non-default. It
+ * switches back once fewer than DEMOTE_RATIO are. The gap between the
+ * two ratios keeps a matrix near one threshold from flipping back and
+ * forth, so the cost of each switch is spread over many edits.
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class MatrixAdaptive<T> extends AbstractMatrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * Switch to the dense representation when more than this fraction of
+   * the cells are non-default.
+   */
+  static final double PROMOTE_RATIO = 0.5;
+
+  /**
+   * Switch to the sparse representation when fewer than this fraction
+   * of the cells are non-default.
+   */
+  static final double DEMOTE_RATIO = 0.25;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of columns.
+   */
+  int width;
+
+  /**
+   * The number of rows.
+   */
+  int height;
+
+  /**
+   * The default value.
+   */
+  T def;
+
+  /**
+   * The number of cells whose value is not equal to the default.
+   */
+  int nonDefault;
+
+  /**
+   * The non-default cells, keyed by Index.pack(row, col). Null while
+   * the matrix is dense.
+   */
+  LongAssociativeArray<T> sparse;
+
+  /**
+   * All of the cells. Null while the matrix is sparse.
+   */
+  MatrixDense<T> dense;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public MatrixAdaptive(int width, int height, T def) {
+    if ((width < 0) || (height < 0)) {
+      throw new NegativeArraySizeException();
+    } // if
+    this.width = width;
+    this.height = height;
+    this.def = def;
+    this.nonDefault = 0;
+    this.sparse = new LongAssociativeArray<T>();
+    this.dense = null;
+  } // MatrixAdaptive(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with
+   * null as the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public MatrixAdaptive(int width, int height) {
+    this(width, height, null);
+  } // MatrixAdaptive(int, int)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Determine if the matrix is currently using the dense representation.
+   *
+   * @return true if dense and false if sparse.
+   */
+  public boolean isDense() {
+    return this.dense != null;
+  } // isDense()
+
+  /**
+   * Determine if a value is equal to the default.
+   *
+   * @param val
+   *   The value to check.
+   *
+   * @return true if val equals the default.
+   */
+  boolean isDefault(Object val) {
+    return Objects.equals(val, this.def);
+  } // isDefault(Object)
+
+  /**
+   * Count the non-default cells in a region of the dense representation.
+   *
+   * @param startRow
+   *   The top edge (inclusive).
+   * @param startCol
+   *   The left edge (inclusive).
+   * @param endRow
+   *   The bottom edge (exclusive).
+   * @param endCol
+   *   The right edge (exclusive).
+   *
+   * @return the number of non-default cells.
+   */
+  int countDense(int startRow, int startCol, int endRow, int endCol) {
+    int count = 0;
+    for (int row = startRow; row < endRow; row++) {
+      int start = row * this.width;
+      for (int col = startCol; col < endCol; col++) {
+        if (!isDefault(this.dense.cells[start + col])) {
+          count++;
+        } // if
+      } // for col
+    } // for row
+    return count;
+  } // countDense(int, int, int, int)
+
+  /**
+   * Switch representations if the fill ratio has crossed a threshold.
+   */
+  void adapt() {
+    double cells = (double) this.width * this.height;
+    if (cells == 0) {
+      return;
+    } // if there are no cells
+    double ratio = this.nonDefault / cells;
+    if ((this.dense == null) && (ratio > PROMOTE_RATIO)) {
+      this.promote();
+    } else if ((this.dense != null) && (ratio < DEMOTE_RATIO)) {
+      this.demote();
+    } // if/else
+  } // adapt()
+
+  /**
+   * Switch to the dense representation.
+   */
+  void promote() {
+    MatrixDense<T> cells = new MatrixDense<T>(this.width, this.height, this.def);
+    this.sparse.forEach((val, key) ->
+        cells.cells[Index.unpackRow(key) * this.width + Index.unpackColumn(key)] = val);
+    this.dense = cells;
+    this.sparse = null;
+  } // promote()
+
+  /**
+   * Switch to the sparse representation.
+   */
+  void demote() {
+    LongAssociativeArray<T> cells = new LongAssociativeArray<T>(this.nonDefault);
+    for (int row = 0; row < this.height; row++) {
+      for (int col = 0; col < this.width; col++) {
+        T val = this.dense.get(row, col);
+        if (!isDefault(val)) {
+          cells.set(Index.pack(row, col), val);
+        } // if
+      } // for col
+    } // for row
+    this.sparse = cells;
+    this.dense = null;
+  } // demote()
+
+  /**
+   * Move the sparse cells after a row or column insertion or deletion.
+   * Cells in the edited line move by delta (or vanish, for a deletion).
+   * Takes time proportional to the number of non-default cells.
+   *
+   * @param rows
+   *   True if a row was edited and false if a column was.
+   * @param line
+   *   The row or column that was inserted or deleted.
+   * @param delta
+   *   1 for an insertion and -1 for a deletion.
+   */
+  void shiftSparse(boolean rows, int line, int delta) {
+    LongAssociativeArray<T> moved = new LongAssociativeArray<T>(this.sparse.size());
+    this.sparse.forEach((val, key) -> {
+      int row = Index.unpackRow(key);
+      int col = Index.unpackColumn(key);
+      int pos = rows ? row : col;
+      if ((delta < 0) && (pos == line)) {
+        return;
+      } else if (pos >= line) {
+        pos += (delta < 0) ? -1 : 1;
+      } // if/else
+      moved.set(rows ? Index.pack(pos, col) : Index.pack(row, pos), val);
+    });
+    this.sparse = moved;
+    this.nonDefault = moved.size();
+  } // shiftSparse(boolean, int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    checkCell(row, col);
+    return cell(row, col);
+  } // get(int, int)
+
+  /**
+   * Get the element at the given row and column without checking
+   * bounds.
+   *
+   * @param row
+   *   The row of the element; must be in bounds.
+   * @param col
+   *   The column of the element; must be in bounds.
+   *
+   * @return the value at the specified location.
+   */
+  @Override
+  @SuppressWarnings({ "unchecked" })
+  T cell(int row, int col) {
+    if (this.dense != null) {
+      return (T) this.dense.cells[row * this.width + col];
+    } // if
+    return this.sparse.getOrDefault(Index.pack(row, col), this.def);
+  } // cell(int, int)
+
+  /**
+   * Get a stream of the cells of the matrix that differ from the
+   * default value, in row-major order. While the matrix is sparse, we
+   * sort the stored keys instead of visiting every cell.
+   *
+   * @return a stream of cells, all represented by one reused MatrixCell.
+   */
+  @Override
+  public Stream<MatrixCell<T>> nonDefaultCells() {
+    if (this.dense != null) {
+      return super.nonDefaultCells();
+    } // if
+    long[] keys = new long[this.sparse.size()];
+    int[] count = new int[1];
+    this.sparse.forEach((val, key) -> keys[count[0]++] = key);
+    Arrays.sort(keys);
+    LongAssociativeArray<T> cells = this.sparse;
+    return cellsAt(keys, (key) -> cells.getOrDefault(key, this.def));
+  } // nonDefaultCells()
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    checkCell(row, col);
+    if (this.dense != null) {
+      int pos = row * this.width + col;
+      boolean wasDefault = isDefault(this.dense.cells[pos]);
+      this.dense.cells[pos] = val;
+      if (wasDefault != isDefault(val)) {
+        this.nonDefault += wasDefault ? 1 : -1;
+      } // if the cell changed between default and non-default
+    } else {
+      if (isDefault(val)) {
+        this.sparse.remove(Index.pack(row, col));
+      } else {
+        this.sparse.set(Index.pack(row, col), val);
+      } // if/else
+      this.nonDefault = this.sparse.size();
+    } // if/else
+    this.adapt();
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Determine the value that fills new cells.
+   *
+   * @return the default value.
+   */
+  public T defaultValue() {
+    return this.def;
+  } // defaultValue()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    checkInsertRow(row);
+    if (this.dense != null) {
+      this.dense.insertRow(row);
+    } else {
+      this.shiftSparse(true, row, 1);
+    } // if/else
+    this.height++;
+    this.adapt();
+  } // insertRow(int)
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    checkInsertCol(col);
+    if (this.dense != null) {
+      this.dense.insertCol(col);
+    } else {
+      this.shiftSparse(false, col, 1);
+    } // if/else
+    this.width++;
+    this.adapt();
+  } // insertCol(int)
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    checkRow(row);
+    if (this.dense != null) {
+      this.nonDefault -= countDense(row, 0, row + 1, this.width);
+      this.dense.deleteRow(row);
+    } else {
+      this.shiftSparse(true, row, -1);
+    } // if/else
+    this.height--;
+    this.adapt();
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    checkCol(col);
+    if (this.dense != null) {
+      this.nonDefault -= countDense(0, col, this.height, col + 1);
+      this.dense.deleteCol(col);
+    } else {
+      this.shiftSparse(false, col, -1);
+    } // if/else
+    this.width--;
+    this.adapt();
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix. A region big enough to
+   * push the matrix past PROMOTE_RATIO switches to the dense
+   * representation first, so it is filled with block moves.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    checkRegion(startRow, startCol, endRow, endCol);
+    long area = (long) (endRow - startRow) * (endCol - startCol);
+    if ((this.dense == null) && !isDefault(val)
+        && (this.nonDefault + area > PROMOTE_RATIO * this.width * this.height)) {
+      this.promote();
+    } // if the fill will make the matrix mostly full
+
+    if (this.dense != null) {
+      this.nonDefault -= countDense(startRow, startCol, endRow, endCol);
+      this.dense.fillRegion(startRow, startCol, endRow, endCol, val);
+      if (!isDefault(val)) {
+        this.nonDefault += (int) area;
+      } // if
+    } else if (!isDefault(val)) {
+      super.fillRegion(startRow, startCol, endRow, endCol, val);
+    } else if (area <= this.sparse.size()) {
+      for (int row = startRow; row < endRow; row++) {
+        for (int col = startCol; col < endCol; col++) {
+          this.sparse.remove(Index.pack(row, col));
+        } // for col
+      } // for row
+      this.nonDefault = this.sparse.size();
+    } else {
+      LongAssociativeArray<T> kept = new LongAssociativeArray<T>(this.sparse.size());
+      this.sparse.forEach((old, key) -> {
+        int row = Index.unpackRow(key);
+        int col = Index.unpackColumn(key);
+        if ((row < startRow) || (row >= endRow) || (col < startCol) || (col >= endCol)) {
+          kept.set(key, old);
+        } // if the cell is outside the region
+      });
+      this.sparse = kept;
+      this.nonDefault = kept.size();
+    } // if/else
+    this.adapt();
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * A make a copy of the matrix. Shares references to the elements.
+   *
+   * @return a copy of the matrix.
+   */
+  public MatrixAdaptive<T> clone() {
+    MatrixAdaptive<T> copy = new MatrixAdaptive<T>(this.width, this.height, this.def);
+    copy.nonDefault = this.nonDefault;
+    if (this.dense != null) {
+      copy.dense = this.dense.clone();
+      copy.sparse = null;
+    } else {
+      copy.sparse = this.sparse.clone();
+    } // if/else
+    return copy;
+  } // clone()
+} // class MatrixAdaptive<T>
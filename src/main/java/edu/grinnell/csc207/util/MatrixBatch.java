@@ -0,0 +1,660 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import edu.grinnell.csc207.util.AArray.LongAssociativeArray;
+
+/**
+ * A batch of edits to a matrix, recorded now and applied all at once.
+ * Each edit uses the coordinates the matrix would have if the earlier
+ * edits in the batch had already been made, just as if we were editing
+ * the matrix directly.
+ *
+ * <p>The batch gives every row and column an id that follows it through
+ * insertions and deletions, and records cells and fills by id. When we
+ * apply the batch, all of the insertions and deletions happen in one
+ * remap (see AbstractMatrix.remap), followed by the fills that survive
+ * and then the sets that survive. A fill drops the earlier fills it
+ * covers and the earlier sets it overwrites; a set replaces any
+ * earlier set of the same cell.</p>
+ *
+ * <p>To find what a new fill drops without looking at every earlier
+ * edit, we index the sets by row id and each fill by its first live
+ * row. A fill that covers an earlier one must cover that row, so it
+ * need only look at the fills and sets in its own rows.</p>
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class MatrixBatch<T> {
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * The rows (or the columns) of the matrix, as the batch would leave
+   * them.
+   */
+  static final class Lines {
+    /**
+     * The id of the line at each position.
+     */
+    int[] ids;
+
+    /**
+     * The number of lines.
+     */
+    int count;
+
+    /**
+     * The number of lines in the matrix, which have ids 0 .. original-1.
+     */
+    final int original;
+
+    /**
+     * The id to give the next new line.
+     */
+    int nextId;
+
+    /**
+     * The ids of the lines that have been deleted.
+     */
+    final BitSet dead = new BitSet();
+
+    /**
+     * Describe the lines of an unedited matrix.
+     *
+     * @param count
+     *   The number of lines.
+     */
+    Lines(int count) {
+      this.ids = new int[Math.max(count, 4)];
+      for (int i = 0; i < count; i++) {
+        this.ids[i] = i;
+      } // for
+      this.count = count;
+      this.original = count;
+      this.nextId = count;
+    } // Lines(int)
+
+    /**
+     * Insert a new line.
+     *
+     * @param pos
+     *   Where to insert it.
+     */
+    void insert(int pos) {
+      if (this.count == this.ids.length) {
+        this.ids = Arrays.copyOf(this.ids, this.count * 2);
+      } // if
+      System.arraycopy(this.ids, pos, this.ids, pos + 1, this.count - pos);
+      this.ids[pos] = this.nextId++;
+      this.count++;
+    } // insert(int)
+
+    /**
+     * Delete a line.
+     *
+     * @param pos
+     *   The position of the line.
+     */
+    void delete(int pos) {
+      this.dead.set(this.ids[pos]);
+      System.arraycopy(this.ids, pos + 1, this.ids, pos, this.count - pos - 1);
+      this.count--;
+    } // delete(int)
+
+    /**
+     * Determine if any line has been inserted or deleted.
+     *
+     * @return true if the lines differ from the matrix's.
+     */
+    boolean changed() {
+      return (this.nextId != this.original) || !this.dead.isEmpty();
+    } // changed()
+
+    /**
+     * Find the old line for each line, as remap wants.
+     *
+     * @return the old position of each line, or -1 for a new line.
+     */
+    int[] sources() {
+      int[] sources = Arrays.copyOf(this.ids, this.count);
+      for (int i = 0; i < this.count; i++) {
+        if (sources[i] >= this.original) {
+          sources[i] = -1;
+        } // if the line is new
+      } // for
+      return sources;
+    } // sources()
+
+    /**
+     * Find the position of each line.
+     *
+     * @return the position of the line with each id, or -1 if the line
+     *   has been deleted.
+     */
+    int[] positions() {
+      int[] positions = new int[this.nextId];
+      Arrays.fill(positions, -1);
+      for (int i = 0; i < this.count; i++) {
+        positions[this.ids[i]] = i;
+      } // for
+      return positions;
+    } // positions()
+
+    /**
+     * Determine if every line in a list is in a set or deleted.
+     *
+     * @param list
+     *   The ids of the lines.
+     * @param set
+     *   The ids in the set.
+     *
+     * @return true if no live line in the list is outside the set.
+     */
+    boolean within(int[] list, BitSet set) {
+      for (int id : list) {
+        if (!set.get(id) && !this.dead.get(id)) {
+          return false;
+        } // if
+      } // for
+      return true;
+    } // within(int[], BitSet)
+  } // class Lines
+
+  /**
+   * A recorded fill.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  static final class Fill<T> {
+    /**
+     * The ids of the rows, in order.
+     */
+    final int[] rows;
+
+    /**
+     * The ids of the columns, in order.
+     */
+    final int[] cols;
+
+    /**
+     * The value to store.
+     */
+    final T val;
+
+    /**
+     * The position in rows of the first row that has not been deleted.
+     */
+    int anchor;
+
+    /**
+     * Whether a later fill covers this one.
+     */
+    boolean dropped;
+
+    /**
+     * Record a fill.
+     *
+     * @param rows
+     *   The ids of the rows, in order.
+     * @param cols
+     *   The ids of the columns, in order.
+     * @param val
+     *   The value to store.
+     */
+    Fill(int[] rows, int[] cols, T val) {
+      this.rows = rows;
+      this.cols = cols;
+      this.val = val;
+    } // Fill(int[], int[], T)
+  } // class Fill<T>
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix we edit.
+   */
+  final Matrix<T> matrix;
+
+  /**
+   * The rows, as the batch would leave them.
+   */
+  Lines rows;
+
+  /**
+   * The columns, as the batch would leave them.
+   */
+  Lines cols;
+
+  /**
+   * The fills, oldest first. Fills that later fills cover are marked
+   * dropped.
+   */
+  ArrayList<Fill<T>> fills;
+
+  /**
+   * The fills that have not been dropped, keyed by the id of their
+   * anchor row.
+   */
+  LongAssociativeArray<ArrayList<Fill<T>>> fillsByRow;
+
+  /**
+   * The sets that have not been overwritten, keyed by
+   * Index.pack(row id, column id).
+   */
+  LongAssociativeArray<T> sets;
+
+  /**
+   * The column ids of those sets, keyed by row id.
+   */
+  LongAssociativeArray<BitSet> setsByRow;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Start an empty batch of edits to a matrix. The matrix must not
+   * change until we apply the batch.
+   *
+   * @param matrix
+   *   The matrix to edit.
+   */
+  public MatrixBatch(Matrix<T> matrix) {
+    this.matrix = matrix;
+    this.clear();
+  } // MatrixBatch(Matrix<T>)
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Make sure that (row, col) names a cell.
+   *
+   * @param row
+   *   The row to check.
+   * @param col
+   *   The column to check.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of bounds.
+   */
+  void checkCell(int row, int col) {
+    if ((row < 0) || (col < 0) || (row >= this.height()) || (col >= this.width())) {
+      throw new IndexOutOfBoundsException(
+          String.format("(%d, %d) is outside a %dx%d matrix", row, col,
+              this.width(), this.height()));
+    } // if
+  } // checkCell(int, int)
+
+  /**
+   * Make sure that pos names a line, or the place after the last line
+   * if we are inserting.
+   *
+   * @param pos
+   *   The position to check.
+   * @param lines
+   *   The rows or the columns.
+   * @param insert
+   *   True if we are inserting a line.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the position is out of bounds.
+   */
+  static void checkLine(int pos, Lines lines, boolean insert) {
+    if ((pos < 0) || (pos > lines.count) || ((pos == lines.count) && !insert)) {
+      throw new IndexOutOfBoundsException("Invalid line: " + pos);
+    } // if
+  } // checkLine(int, Lines, boolean)
+
+  /**
+   * Fill the runs of adjacent rows and columns that a fill covers.
+   *
+   * @param fill
+   *   The fill.
+   * @param rowPos
+   *   The position of each row id, or -1.
+   * @param colPos
+   *   The position of each column id, or -1.
+   */
+  void applyFill(Fill<T> fill, int[] rowPos, int[] colPos) {
+    int[] rowRuns = runs(fill.rows, rowPos);
+    int[] colRuns = runs(fill.cols, colPos);
+    for (int r = 0; r < rowRuns.length; r += 2) {
+      for (int c = 0; c < colRuns.length; c += 2) {
+        this.matrix.fillRegion(rowRuns[r], colRuns[c], rowRuns[r + 1], colRuns[c + 1],
+            fill.val);
+      } // for
+    } // for
+  } // applyFill(Fill<T>, int[], int[])
+
+  /**
+   * Break the surviving lines of a list into runs of adjacent
+   * positions.
+   *
+   * @param ids
+   *   The ids of the lines, in order.
+   * @param positions
+   *   The position of each id, or -1.
+   *
+   * @return the start (inclusive) and end (exclusive) of each run, one
+   *   after the other.
+   */
+  static int[] runs(int[] ids, int[] positions) {
+    int[] runs = new int[2 * ids.length];
+    int n = 0;
+    for (int id : ids) {
+      int pos = positions[id];
+      if (pos < 0) {
+        continue;
+      } else if ((n > 0) && (runs[n - 1] == pos)) {
+        runs[n - 1]++;
+      } else {
+        runs[n++] = pos;
+        runs[n++] = pos + 1;
+      } // if/else
+    } // for
+    return Arrays.copyOf(runs, n);
+  } // runs(int[], int[])
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Determine the number of rows the matrix will have.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.rows.count;
+  } // height()
+
+  /**
+   * Determine the number of columns the matrix will have.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.cols.count;
+  } // width()
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of bounds.
+   */
+  public MatrixBatch<T> set(int row, int col, T val) {
+    checkCell(row, col);
+    int rowId = this.rows.ids[row];
+    int colId = this.cols.ids[col];
+    this.sets.set(Index.pack(rowId, colId), val);
+    this.setsByRow.computeIfAbsent(rowId, (id) -> new BitSet()).set(colId);
+    return this;
+  } // set(int, int, T)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the region does not fit in the matrix.
+   */
+  public MatrixBatch<T> fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if ((startRow < 0) || (startCol < 0) || (endRow > this.height())
+        || (endCol > this.width()) || (startRow > endRow) || (startCol > endCol)) {
+      throw new IndexOutOfBoundsException(
+          String.format("Invalid region [%d,%d)x[%d,%d)", startRow, endRow,
+              startCol, endCol));
+    } // if
+    if ((startRow == endRow) || (startCol == endCol)) {
+      return this;
+    } // if the region is empty
+
+    Fill<T> fill = new Fill<T>(Arrays.copyOfRange(this.rows.ids, startRow, endRow),
+        Arrays.copyOfRange(this.cols.ids, startCol, endCol), val);
+    BitSet rowSet = new BitSet();
+    for (int id : fill.rows) {
+      rowSet.set(id);
+    } // for
+    BitSet colSet = new BitSet();
+    for (int id : fill.cols) {
+      colSet.set(id);
+    } // for
+
+    for (int rowId : fill.rows) {
+      ArrayList<Fill<T>> anchored = this.fillsByRow.getOrDefault(rowId, null);
+      if (anchored != null) {
+        anchored.removeIf((old) -> {
+          old.dropped = this.rows.within(old.rows, rowSet)
+              && this.cols.within(old.cols, colSet);
+          return old.dropped;
+        });
+      } // if earlier fills start in this row
+      BitSet setCols = this.setsByRow.getOrDefault(rowId, null);
+      if (setCols != null) {
+        for (int colId = setCols.nextSetBit(0); colId >= 0;
+            colId = setCols.nextSetBit(colId + 1)) {
+          if (colSet.get(colId)) {
+            this.sets.remove(Index.pack(rowId, colId));
+            setCols.clear(colId);
+          } // if the fill overwrites the cell
+        } // for
+      } // if there are sets in this row
+    } // for
+    anchor(fill);
+    this.fills.add(fill);
+    return this;
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Index a fill by its first live row, dropping it if all of its rows
+   * have been deleted.
+   *
+   * @param fill
+   *   The fill.
+   */
+  void anchor(Fill<T> fill) {
+    while ((fill.anchor < fill.rows.length) && this.rows.dead.get(fill.rows[fill.anchor])) {
+      fill.anchor++;
+    } // while
+    if (fill.anchor == fill.rows.length) {
+      fill.dropped = true;
+    } else {
+      this.fillsByRow.computeIfAbsent(fill.rows[fill.anchor], (id) -> new ArrayList<Fill<T>>())
+          .add(fill);
+    } // if/else
+  } // anchor(Fill<T>)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal). We keep stepping while
+   * each coordinate that changes has not yet reached its end.
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public MatrixBatch<T> fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    checkCell(startRow, startCol);
+    if ((endRow < -1) || (endRow > this.height()) || (endCol < -1)
+        || (endCol > this.width()) || ((deltaRow == 0) && (deltaCol == 0))) {
+      throw new IndexOutOfBoundsException("Invalid line");
+    } // if
+    for (int row = startRow, col = startCol;
+        AbstractMatrix.before(row, deltaRow, endRow)
+            && AbstractMatrix.before(col, deltaCol, endCol);
+        row += deltaRow, col += deltaCol) {
+      this.set(row, col, val);
+    } // for
+    return this;
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public MatrixBatch<T> insertRow(int row) {
+    checkLine(row, this.rows, true);
+    this.rows.insert(row);
+    return this;
+  } // insertRow(int)
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public MatrixBatch<T> insertCol(int col) {
+    checkLine(col, this.cols, true);
+    this.cols.insert(col);
+    return this;
+  } // insertCol(int)
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public MatrixBatch<T> deleteRow(int row) {
+    checkLine(row, this.rows, false);
+    int id = this.rows.ids[row];
+    this.rows.delete(row);
+    ArrayList<Fill<T>> anchored = this.fillsByRow.getOrDefault(id, null);
+    if (anchored != null) {
+      this.fillsByRow.remove(id);
+      for (Fill<T> fill : anchored) {
+        anchor(fill);
+      } // for
+    } // if fills started in the row
+    this.setsByRow.remove(id);
+    return this;
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public MatrixBatch<T> deleteCol(int col) {
+    checkLine(col, this.cols, false);
+    this.cols.delete(col);
+    return this;
+  } // deleteCol(int)
+
+  /**
+   * Make the recorded edits to the matrix, and start a new, empty
+   * batch.
+   */
+  public void apply() {
+    if (this.rows.changed() || this.cols.changed()) {
+      int[] rowSources = this.rows.sources();
+      int[] colSources = this.cols.sources();
+      if (this.matrix instanceof AbstractMatrix) {
+        ((AbstractMatrix<T>) this.matrix).remap(rowSources, colSources);
+      } else {
+        AbstractMatrix.remapLines(this.matrix, rowSources, colSources);
+      } // if/else
+    } // if the shape changes
+
+    int[] rowPos = this.rows.positions();
+    int[] colPos = this.cols.positions();
+    for (Fill<T> fill : this.fills) {
+      if (!fill.dropped) {
+        applyFill(fill, rowPos, colPos);
+      } // if
+    } // for
+    this.sets.forEach((val, key) -> {
+      int row = rowPos[Index.unpackRow(key)];
+      int col = colPos[Index.unpackColumn(key)];
+      if ((row >= 0) && (col >= 0)) {
+        this.matrix.set(row, col, val);
+      } // if the cell was not deleted
+    });
+    this.clear();
+  } // apply()
+
+  /**
+   * Forget the recorded edits.
+   */
+  public void clear() {
+    this.rows = new Lines(this.matrix.height());
+    this.cols = new Lines(this.matrix.width());
+    this.fills = new ArrayList<Fill<T>>();
+    this.fillsByRow = new LongAssociativeArray<ArrayList<Fill<T>>>();
+    this.sets = new LongAssociativeArray<T>();
+    this.setsByRow = new LongAssociativeArray<BitSet>();
+  } // clear()
+} // class MatrixBatch<T>
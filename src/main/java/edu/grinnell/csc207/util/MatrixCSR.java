@@ -0,0 +1,470 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An immutable snapshot of a matrix in Compressed Sparse Row form. The
+ * non-default cells of row r are at positions rowStarts[r] (inclusive)
+ * through rowStarts[r + 1] (exclusive) of cols and vals, sorted by
+ * column. Lookups binary search within a row, and walking a row touches
+ * only its stored cells.
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class MatrixCSR<T> extends AbstractMatrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of columns.
+   */
+  final int width;
+
+  /**
+   * The number of rows.
+   */
+  final int height;
+
+  /**
+   * The value of every cell that is not stored.
+   */
+  final T def;
+
+  /**
+   * Where each row's cells start in cols and vals. Has height + 1
+   * entries; the last is the number of stored cells.
+   */
+  final int[] rowStarts;
+
+  /**
+   * The column of each stored cell.
+   */
+  final int[] cols;
+
+  /**
+   * The value of each stored cell.
+   */
+  final Object[] vals;
+
+  /**
+   * The hash code, or 0 if it has not been computed. Like String, we
+   * keep no separate flag, so a thread that sees a nonzero hash also
+   * sees the right one, however the threads race. (A matrix whose hash
+   * really is 0 just recomputes it each time.)
+   */
+  int hash;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a snapshot from its parts.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The value of cells that are not stored.
+   * @param rowStarts
+   *   Where each row starts in cols and vals.
+   * @param cols
+   *   The column of each stored cell.
+   * @param vals
+   *   The value of each stored cell.
+   */
+  MatrixCSR(int width, int height, T def, int[] rowStarts, int[] cols, Object[] vals) {
+    this.width = width;
+    this.height = height;
+    this.def = def;
+    this.rowStarts = rowStarts;
+    this.cols = cols;
+    this.vals = vals;
+  } // MatrixCSR(int, int, T, int[], int[], Object[])
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Collects the stored cells of a new snapshot, a row at a time.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  static class Builder<T> implements ObjIntConsumer<T> {
+    /**
+     * The value that need not be stored.
+     */
+    final T def;
+
+    /**
+     * Where each row starts in cols and vals.
+     */
+    final int[] rowStarts;
+
+    /**
+     * The column of each stored cell.
+     */
+    int[] cols;
+
+    /**
+     * The value of each stored cell.
+     */
+    Object[] vals;
+
+    /**
+     * The number of stored cells.
+     */
+    int count;
+
+    /**
+     * Create a builder for a snapshot.
+     *
+     * @param height
+     *   The height of the snapshot.
+     * @param def
+     *   The value that need not be stored.
+     */
+    Builder(int height, T def) {
+      this.def = def;
+      this.rowStarts = new int[height + 1];
+      this.cols = new int[16];
+      this.vals = new Object[16];
+    } // Builder(int, T)
+
+    /**
+     * Start the next row.
+     *
+     * @param row
+     *   The row.
+     */
+    void startRow(int row) {
+      this.rowStarts[row] = this.count;
+    } // startRow(int)
+
+    /**
+     * Store a cell of the current row, unless it holds def. Cells must
+     * arrive in column order.
+     *
+     * @param val
+     *   The value of the cell.
+     * @param col
+     *   The column of the cell.
+     */
+    @Override
+    public void accept(T val, int col) {
+      if (!Objects.equals(val, this.def)) {
+        if (this.count == this.cols.length) {
+          this.cols = Arrays.copyOf(this.cols, this.count * 2);
+          this.vals = Arrays.copyOf(this.vals, this.count * 2);
+        } // if we need more room
+        this.cols[this.count] = col;
+        this.vals[this.count++] = val;
+      } // if
+    } // accept(T, int)
+
+    /**
+     * Build the snapshot.
+     *
+     * @param width
+     *   The width of the snapshot.
+     *
+     * @return the snapshot.
+     */
+    MatrixCSR<T> build(int width) {
+      int height = this.rowStarts.length - 1;
+      this.rowStarts[height] = this.count;
+      return new MatrixCSR<T>(width, height, this.def, this.rowStarts,
+          Arrays.copyOf(this.cols, this.count), Arrays.copyOf(this.vals, this.count));
+    } // build(int)
+  } // class Builder<T>
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Take a snapshot of a matrix, storing only the cells that are not
+   * equal to def. When def is the source's own default, we ask the
+   * source for just the cells it stores (see
+   * AbstractMatrix.forEachStoredInRow), so a sparse source takes time
+   * proportional to those cells rather than to its area.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param source
+   *   The matrix to snapshot.
+   * @param def
+   *   The value that need not be stored.
+   *
+   * @return the snapshot.
+   */
+  public static <T> MatrixCSR<T> freeze(Matrix<T> source, T def) {
+    int width = source.width();
+    int height = source.height();
+    Builder<T> builder = new Builder<T>(height, def);
+    boolean stored = (source instanceof AbstractMatrix)
+        && Objects.equals(def, source.defaultValue());
+    for (int row = 0; row < height; row++) {
+      builder.startRow(row);
+      if (stored) {
+        ((AbstractMatrix<T>) source).forEachStoredInRow(row, builder);
+      } else {
+        for (int col = 0; col < width; col++) {
+          builder.accept(source.get(row, col), col);
+        } // for col
+      } // if/else
+    } // for row
+    return builder.build(width);
+  } // freeze(Matrix<T>, T)
+
+  /**
+   * Take a snapshot of a matrix, storing only the non-null cells.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param source
+   *   The matrix to snapshot.
+   *
+   * @return the snapshot.
+   */
+  public static <T> MatrixCSR<T> freeze(Matrix<T> source) {
+    return freeze(source, null);
+  } // freeze(Matrix<T>)
+
+  // +------------------+--------------------------------------------
+  // | Sparse accessors |
+  // +------------------+
+
+  /**
+   * Determine how many cells are stored.
+   *
+   * @return the number of cells not equal to the default.
+   */
+  public int size() {
+    return this.rowStarts[this.height];
+  } // size()
+
+  /**
+   * Apply an action to each stored cell in a row, in column order.
+   *
+   * @param row
+   *   The row to walk.
+   * @param action
+   *   The action, which receives each value and its column.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void forEachInRow(int row, ObjIntConsumer<? super T> action) {
+    checkRow(row);
+    forEachStoredInRow(row, action);
+  } // forEachInRow(int, ObjIntConsumer)
+
+  /**
+   * Apply an action to each stored cell in a row, without checking the
+   * row. nonDefaultCells walks the snapshot this way.
+   *
+   * @param row
+   *   The row to walk; must be in bounds.
+   * @param action
+   *   The action, which receives each value and its column.
+   */
+  @Override
+  @SuppressWarnings({ "unchecked" })
+  void forEachStoredInRow(int row, ObjIntConsumer<? super T> action) {
+    for (int i = this.rowStarts[row]; i < this.rowStarts[row + 1]; i++) {
+      action.accept((T) this.vals[i], this.cols[i]);
+    } // for
+  } // forEachStoredInRow(int, ObjIntConsumer)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    checkCell(row, col);
+    return cell(row, col);
+  } // get(int, int)
+
+  /**
+   * Get the element at the given row and column without checking
+   * bounds.
+   *
+   * @param row
+   *   The row of the element; must be in bounds.
+   * @param col
+   *   The column of the element; must be in bounds.
+   *
+   * @return the value at the specified location.
+   */
+  @Override
+  @SuppressWarnings({ "unchecked" })
+  T cell(int row, int col) {
+    int i = Arrays.binarySearch(this.cols, this.rowStarts[row], this.rowStarts[row + 1], col);
+    return (i >= 0) ? (T) this.vals[i] : this.def;
+  } // cell(int, int)
+
+  /**
+   * Snapshots cannot be changed.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void set(int row, int col, T val) {
+    throw new UnsupportedOperationException("MatrixCSR is immutable");
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Determine the value that fills new cells.
+   *
+   * @return the default value.
+   */
+  public T defaultValue() {
+    return this.def;
+  } // defaultValue()
+
+  /**
+   * Snapshots cannot be changed.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void insertRow(int row) {
+    throw new UnsupportedOperationException("MatrixCSR is immutable");
+  } // insertRow(int)
+
+  /**
+   * Snapshots cannot be changed.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void insertCol(int col) {
+    throw new UnsupportedOperationException("MatrixCSR is immutable");
+  } // insertCol(int)
+
+  /**
+   * Snapshots cannot be changed.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void deleteRow(int row) {
+    throw new UnsupportedOperationException("MatrixCSR is immutable");
+  } // deleteRow(int)
+
+  /**
+   * Snapshots cannot be changed.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void deleteCol(int col) {
+    throw new UnsupportedOperationException("MatrixCSR is immutable");
+  } // deleteCol(int)
+
+  /**
+   * Snapshots cannot be changed, so the snapshot serves as its own copy.
+   *
+   * @return this matrix.
+   */
+  public MatrixCSR<T> clone() {
+    return this;
+  } // clone()
+
+  /**
+   * Compute a hash code for this matrix, using the formula from
+   * AbstractMatrix. A row of defaults contributes mix(def) *
+   * geometric(COL_WEIGHT, width), so we need only visit the stored
+   * cells. Since the snapshot never changes, we only compute it once.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    int code = this.hash;
+    if (code == 0) {
+      int mixDef = mix(this.def);
+      int defaultRow = mixDef * geometric(COL_WEIGHT, this.width);
+      code = this.width + 7 * this.height;
+      int rowWeight = 1;
+      for (int row = 0; row < this.height; row++) {
+        int rowHash = defaultRow;
+        for (int i = this.rowStarts[row]; i < this.rowStarts[row + 1]; i++) {
+          rowHash += (mix(this.vals[i]) - mixDef) * power(COL_WEIGHT, this.cols[i]);
+        } // for
+        code += rowWeight * rowHash;
+        rowWeight *= ROW_WEIGHT;
+      } // for
+      this.hash = code;
+    } // if
+    return code;
+  } // hashCode()
+
+  /**
+   * Determine if hashCode() can answer without looking at the cells.
+   *
+   * @return true once the hash code has been computed.
+   */
+  @Override
+  boolean hashKnown() {
+    return this.hash != 0;
+  } // hashKnown()
+} // class MatrixCSR<T>
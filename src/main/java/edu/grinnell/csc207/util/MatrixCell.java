@@ -0,0 +1,100 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * One cell of a matrix: its position and its value. The cell streams
+ * reuse a single MatrixCell for every cell they visit, so a cell is
+ * only valid until the stream moves on; use copy() to keep one.
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class MatrixCell<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The row of the cell.
+   */
+  int row;
+
+  /**
+   * The column of the cell.
+   */
+  int col;
+
+  /**
+   * The value in the cell.
+   */
+  T value;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   * @param value
+   *   The value in the cell.
+   */
+  public MatrixCell(int row, int col, T value) {
+    this.row = row;
+    this.col = col;
+    this.value = value;
+  } // MatrixCell(int, int, T)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Get the row of the cell.
+   *
+   * @return the row.
+   */
+  public int row() {
+    return this.row;
+  } // row()
+
+  /**
+   * Get the column of the cell.
+   *
+   * @return the column.
+   */
+  public int col() {
+    return this.col;
+  } // col()
+
+  /**
+   * Get the value in the cell.
+   *
+   * @return the value.
+   */
+  public T value() {
+    return this.value;
+  } // value()
+
+  /**
+   * Make a copy of the cell that will not change as a stream moves on.
+   *
+   * @return the copy.
+   */
+  public MatrixCell<T> copy() {
+    return new MatrixCell<T>(this.row, this.col, this.value);
+  } // copy()
+
+  /**
+   * Convert the cell to a string.
+   *
+   * @return the cell as "(row, col)=value".
+   */
+  @Override
+  public String toString() {
+    return "(" + this.row + ", " + this.col + ")=" + Matrix.toString(this.value);
+  } // toString()
+} // class MatrixCell<T>
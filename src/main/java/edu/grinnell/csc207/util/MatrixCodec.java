@@ -0,0 +1,102 @@
+package edu.grinnell.csc207.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A way to write the values of a matrix to a binary stream and read
+ * them back, for MatrixWriter and MatrixReader. Codecs never see null;
+ * the matrix format records null cells separately.
+ *
+ * @param <T>
+ *   The type of values the codec handles.
+ */
+public interface MatrixCodec<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * Integers, as four bytes each.
+   */
+  MatrixCodec<Integer> INTEGERS = new MatrixCodec<Integer>() {
+    public void write(DataOutput out, Integer val) throws IOException {
+      out.writeInt(val);
+    } // write(DataOutput, Integer)
+
+    public Integer read(DataInput in) throws IOException {
+      return in.readInt();
+    } // read(DataInput)
+  };
+
+  /**
+   * Longs, as eight bytes each.
+   */
+  MatrixCodec<Long> LONGS = new MatrixCodec<Long>() {
+    public void write(DataOutput out, Long val) throws IOException {
+      out.writeLong(val);
+    } // write(DataOutput, Long)
+
+    public Long read(DataInput in) throws IOException {
+      return in.readLong();
+    } // read(DataInput)
+  };
+
+  /**
+   * Doubles, as eight bytes each.
+   */
+  MatrixCodec<Double> DOUBLES = new MatrixCodec<Double>() {
+    public void write(DataOutput out, Double val) throws IOException {
+      out.writeDouble(val);
+    } // write(DataOutput, Double)
+
+    public Double read(DataInput in) throws IOException {
+      return in.readDouble();
+    } // read(DataInput)
+  };
+
+  /**
+   * Strings, in modified UTF-8 (so each must encode to at most 65535
+   * bytes).
+   */
+  MatrixCodec<String> STRINGS = new MatrixCodec<String>() {
+    public void write(DataOutput out, String val) throws IOException {
+      out.writeUTF(val);
+    } // write(DataOutput, String)
+
+    public String read(DataInput in) throws IOException {
+      return in.readUTF();
+    } // read(DataInput)
+  };
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Write one value.
+   *
+   * @param out
+   *   Where to write the value.
+   * @param val
+   *   The value, which is not null.
+   *
+   * @throws IOException
+   *   If the value cannot be written.
+   */
+  void write(DataOutput out, T val) throws IOException;
+
+  /**
+   * Read one value.
+   *
+   * @param in
+   *   Where to read the value from.
+   *
+   * @return the value.
+   *
+   * @throws IOException
+   *   If the value cannot be read.
+   */
+  T read(DataInput in) throws IOException;
+} // interface MatrixCodec<T>
@@ -0,0 +1,337 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * An implementation of two-dimensional matrices that stores every cell
+ * in a single flat array, in row-major order. Cell (row, col) lives at
+ * position row * width + col, so access is a bounds check and an array
+ * index, and inserting or deleting a row is one block move.
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class MatrixDense<T> extends AbstractMatrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of columns (also the stride between rows).
+   */
+  int width;
+
+  /**
+   * The number of rows.
+   */
+  int height;
+
+  /**
+   * The value used to fill new cells.
+   */
+  T def;
+
+  /**
+   * The cells, in row-major order. May have room for more rows than
+   * the matrix currently holds.
+   */
+  Object[] cells;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public MatrixDense(int width, int height, T def) {
+    if ((width < 0) || (height < 0)) {
+      throw new NegativeArraySizeException();
+    } // if
+    this.width = width;
+    this.height = height;
+    this.def = def;
+    this.cells = new Object[width * height];
+    Arrays.fill(this.cells, def);
+  } // MatrixDense(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with
+   * null as the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public MatrixDense(int width, int height) {
+    this(width, height, null);
+  } // MatrixDense(int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public T get(int row, int col) {
+    checkCell(row, col);
+    return (T) this.cells[row * this.width + col];
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    checkCell(row, col);
+    this.cells[row * this.width + col] = val;
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Determine the value that fills new cells.
+   *
+   * @return the default value.
+   */
+  public T defaultValue() {
+    return this.def;
+  } // defaultValue()
+
+  /**
+   * Get the element at the given row and column, reading the array
+   * directly.
+   *
+   * @param row
+   *   The row of the element; must be in bounds.
+   * @param col
+   *   The column of the element; must be in bounds.
+   *
+   * @return the value at the specified location.
+   */
+  @SuppressWarnings({ "unchecked" })
+  @Override
+  T cell(int row, int col) {
+    return (T) this.cells[row * this.width + col];
+  } // cell(int, int)
+
+  /**
+   * Each row lives in its own stretch of the array, so disjoint rows
+   * may be written concurrently.
+   *
+   * @return true.
+   */
+  @Override
+  boolean concurrentRowWrites() {
+    return true;
+  } // concurrentRowWrites()
+
+  /**
+   * Insert and delete many rows and columns at once, copying each
+   * surviving cell straight to its new place.
+   *
+   * @param rows
+   *   The old row for each new row, or -1.
+   * @param cols
+   *   The old column for each new column, or -1.
+   */
+  @Override
+  void remap(int[] rows, int[] cols) {
+    Object[] newCells = new Object[rows.length * cols.length];
+    int i = 0;
+    for (int src : rows) {
+      if (src < 0) {
+        Arrays.fill(newCells, i, i + cols.length, this.def);
+        i += cols.length;
+        continue;
+      } // if the row is new
+      int from = src * this.width;
+      for (int col : cols) {
+        newCells[i++] = (col < 0) ? this.def : this.cells[from + col];
+      } // for
+    } // for
+    this.cells = newCells;
+    this.width = cols.length;
+    this.height = rows.length;
+  } // remap(int[], int[])
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    checkInsertRow(row);
+    int used = this.height * this.width;
+    if (used + this.width > this.cells.length) {
+      this.cells = Arrays.copyOf(this.cells,
+          Math.max(used + this.width, this.cells.length * 2));
+    } // if we need room for another row
+    int from = row * this.width;
+    System.arraycopy(this.cells, from, this.cells, from + this.width, used - from);
+    Arrays.fill(this.cells, from, from + this.width, this.def);
+    this.height++;
+  } // insertRow(int)
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    checkInsertCol(col);
+    int newWidth = this.width + 1;
+    Object[] newCells = new Object[Math.max(this.cells.length, newWidth * this.height)];
+    for (int row = 0; row < this.height; row++) {
+      int oldStart = row * this.width;
+      int newStart = row * newWidth;
+      System.arraycopy(this.cells, oldStart, newCells, newStart, col);
+      newCells[newStart + col] = this.def;
+      System.arraycopy(this.cells, oldStart + col, newCells, newStart + col + 1,
+          this.width - col);
+    } // for
+    this.cells = newCells;
+    this.width = newWidth;
+  } // insertCol(int)
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    checkRow(row);
+    int used = this.height * this.width;
+    int from = (row + 1) * this.width;
+    System.arraycopy(this.cells, from, this.cells, from - this.width, used - from);
+    Arrays.fill(this.cells, used - this.width, used, null);
+    this.height--;
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    checkCol(col);
+    int newWidth = this.width - 1;
+    for (int row = 0; row < this.height; row++) {
+      int oldStart = row * this.width;
+      int newStart = row * newWidth;
+      System.arraycopy(this.cells, oldStart, this.cells, newStart, col);
+      System.arraycopy(this.cells, oldStart + col + 1, this.cells, newStart + col,
+          newWidth - col);
+    } // for
+    Arrays.fill(this.cells, newWidth * this.height, this.width * this.height, null);
+    this.width = newWidth;
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    checkRegion(startRow, startCol, endRow, endCol);
+    for (int row = startRow; row < endRow; row++) {
+      int start = row * this.width;
+      Arrays.fill(this.cells, start + startCol, start + endCol, val);
+    } // for
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * A make a copy of the matrix. Shares references to the elements.
+   *
+   * @return a copy of the matrix.
+   */
+  public MatrixDense<T> clone() {
+    MatrixDense<T> copy = new MatrixDense<T>(0, 0, this.def);
+    copy.width = this.width;
+    copy.height = this.height;
+    copy.cells = Arrays.copyOf(this.cells, this.width * this.height);
+    return copy;
+  } // clone()
+} // class MatrixDense<T>
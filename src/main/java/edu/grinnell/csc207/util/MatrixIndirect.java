@@ -0,0 +1,411 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import edu.grinnell.csc207.util.AArray.LongAssociativeArray;
+
+/**
+ * An implementation of two-dimensional matrices in which cells never
+ * move. Each cell is stored under a physical (row, column) pair, and
+ * two tables map the logical rows and columns that clients see to
+ * physical ones. Inserting or deleting a row just edits the row table,
+ * so it takes time proportional to the height (plus the width, to
+ * clear out a deleted row's cells) rather than to the number of cells.
+ * Columns work the same way.
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class MatrixIndirect<T> extends AbstractMatrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of columns.
+   */
+  int width;
+
+  /**
+   * The number of rows.
+   */
+  int height;
+
+  /**
+   * The default value.
+   */
+  T def;
+
+  /**
+   * The non-default cells, keyed by Index.pack(physical row, physical
+   * column).
+   */
+  LongAssociativeArray<T> cells;
+
+  /**
+   * The physical row of each logical row. Only the first height
+   * entries are meaningful.
+   */
+  int[] rows;
+
+  /**
+   * The physical column of each logical column. Only the first width
+   * entries are meaningful.
+   */
+  int[] cols;
+
+  /**
+   * The next physical row that has never been used.
+   */
+  int nextRow;
+
+  /**
+   * The next physical column that has never been used.
+   */
+  int nextCol;
+
+  /**
+   * Physical rows that were deleted (and cleared) and may be reused.
+   */
+  int[] freeRows;
+
+  /**
+   * The number of entries in freeRows.
+   */
+  int numFreeRows;
+
+  /**
+   * Physical columns that were deleted (and cleared) and may be reused.
+   */
+  int[] freeCols;
+
+  /**
+   * The number of entries in freeCols.
+   */
+  int numFreeCols;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public MatrixIndirect(int width, int height, T def) {
+    if ((width < 0) || (height < 0)) {
+      throw new NegativeArraySizeException();
+    } // if
+    this.width = width;
+    this.height = height;
+    this.def = def;
+    this.cells = new LongAssociativeArray<T>();
+    this.rows = identity(height);
+    this.cols = identity(width);
+    this.nextRow = height;
+    this.nextCol = width;
+    this.freeRows = new int[4];
+    this.freeCols = new int[4];
+  } // MatrixIndirect(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with
+   * null as the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public MatrixIndirect(int width, int height) {
+    this(width, height, null);
+  } // MatrixIndirect(int, int)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Build the table that maps each of n positions to itself.
+   *
+   * @param n
+   *   The number of positions.
+   *
+   * @return the table.
+   */
+  static int[] identity(int n) {
+    int[] table = new int[Math.max(n, 4)];
+    for (int i = 0; i < n; i++) {
+      table[i] = i;
+    } // for
+    return table;
+  } // identity(int)
+
+  /**
+   * Open a gap at position pos of the first len entries of table,
+   * growing the table if needed.
+   *
+   * @param table
+   *   The table.
+   * @param len
+   *   The number of meaningful entries.
+   * @param pos
+   *   Where to open the gap.
+   *
+   * @return the (possibly new) table.
+   */
+  static int[] openGap(int[] table, int len, int pos) {
+    if (len == table.length) {
+      table = Arrays.copyOf(table, len * 2);
+    } // if
+    System.arraycopy(table, pos, table, pos + 1, len - pos);
+    return table;
+  } // openGap(int[], int, int)
+
+  /**
+   * Add a value to a stack of free ids, growing it if needed.
+   *
+   * @param stack
+   *   The stack.
+   * @param len
+   *   The number of entries in the stack.
+   * @param id
+   *   The id to push.
+   *
+   * @return the (possibly new) stack.
+   */
+  static int[] push(int[] stack, int len, int id) {
+    if (len == stack.length) {
+      stack = Arrays.copyOf(stack, len * 2);
+    } // if
+    stack[len] = id;
+    return stack;
+  } // push(int[], int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    checkCell(row, col);
+    return cell(row, col);
+  } // get(int, int)
+
+  /**
+   * Get the element at the given row and column without checking
+   * bounds.
+   *
+   * @param row
+   *   The row of the element; must be in bounds.
+   * @param col
+   *   The column of the element; must be in bounds.
+   *
+   * @return the value at the specified location.
+   */
+  @Override
+  T cell(int row, int col) {
+    return this.cells.getOrDefault(Index.pack(this.rows[row], this.cols[col]), this.def);
+  } // cell(int, int)
+
+  /**
+   * Get a stream of the cells of the matrix that differ from the
+   * default value, in row-major order. We map each stored cell back to
+   * its logical position and sort those, which takes time proportional
+   * to the number of stored cells (plus the height and width) rather
+   * than to the area.
+   *
+   * @return a stream of cells, all represented by one reused MatrixCell.
+   */
+  @Override
+  public Stream<MatrixCell<T>> nonDefaultCells() {
+    int[] logicalRow = new int[this.nextRow];
+    for (int row = 0; row < this.height; row++) {
+      logicalRow[this.rows[row]] = row;
+    } // for
+    int[] logicalCol = new int[this.nextCol];
+    for (int col = 0; col < this.width; col++) {
+      logicalCol[this.cols[col]] = col;
+    } // for
+    long[] keys = new long[this.cells.size()];
+    int[] count = new int[1];
+    this.cells.forEach((val, key) -> keys[count[0]++] =
+        Index.pack(logicalRow[Index.unpackRow(key)], logicalCol[Index.unpackColumn(key)]));
+    Arrays.sort(keys);
+    return cellsAt(keys, (key) -> cell(Index.unpackRow(key), Index.unpackColumn(key)));
+  } // nonDefaultCells()
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    checkCell(row, col);
+    long key = Index.pack(this.rows[row], this.cols[col]);
+    if (Objects.equals(val, this.def)) {
+      this.cells.remove(key);
+    } else {
+      this.cells.set(key, val);
+    } // if/else
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Determine the value that fills new cells.
+   *
+   * @return the default value.
+   */
+  public T defaultValue() {
+    return this.def;
+  } // defaultValue()
+
+  /**
+   * Insert a row filled with the default value. Reuses a cleared
+   * physical row if there is one.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    checkInsertRow(row);
+    this.rows = openGap(this.rows, this.height, row);
+    this.rows[row] = (this.numFreeRows > 0) ? this.freeRows[--this.numFreeRows] : this.nextRow++;
+    this.height++;
+  } // insertRow(int)
+
+  /**
+   * Insert a column filled with the default value. Reuses a cleared
+   * physical column if there is one.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    checkInsertCol(col);
+    this.cols = openGap(this.cols, this.width, col);
+    this.cols[col] = (this.numFreeCols > 0) ? this.freeCols[--this.numFreeCols] : this.nextCol++;
+    this.width++;
+  } // insertCol(int)
+
+  /**
+   * Delete a row, clearing its cells so that its physical row can be
+   * reused.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    checkRow(row);
+    int physical = this.rows[row];
+    for (int col = 0; col < this.width; col++) {
+      this.cells.remove(Index.pack(physical, this.cols[col]));
+    } // for
+    this.freeRows = push(this.freeRows, this.numFreeRows++, physical);
+    System.arraycopy(this.rows, row + 1, this.rows, row, this.height - row - 1);
+    this.height--;
+  } // deleteRow(int)
+
+  /**
+   * Delete a column, clearing its cells so that its physical column
+   * can be reused.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    checkCol(col);
+    int physical = this.cols[col];
+    for (int row = 0; row < this.height; row++) {
+      this.cells.remove(Index.pack(this.rows[row], physical));
+    } // for
+    this.freeCols = push(this.freeCols, this.numFreeCols++, physical);
+    System.arraycopy(this.cols, col + 1, this.cols, col, this.width - col - 1);
+    this.width--;
+  } // deleteCol(int)
+
+  /**
+   * A make a copy of the matrix. Shares references to the elements.
+   *
+   * @return a copy of the matrix.
+   */
+  public MatrixIndirect<T> clone() {
+    MatrixIndirect<T> copy = new MatrixIndirect<T>(0, 0, this.def);
+    copy.width = this.width;
+    copy.height = this.height;
+    copy.cells = this.cells.clone();
+    copy.rows = this.rows.clone();
+    copy.cols = this.cols.clone();
+    copy.nextRow = this.nextRow;
+    copy.nextCol = this.nextCol;
+    copy.freeRows = this.freeRows.clone();
+    copy.numFreeRows = this.numFreeRows;
+    copy.freeCols = this.freeCols.clone();
+    copy.numFreeCols = this.numFreeCols;
+    return copy;
+  } // clone()
+} // class MatrixIndirect<T>
@@ -0,0 +1,621 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Loads sparse matrices from Matrix Market coordinate files and from
+ * raw coordinate (COO) files, straight into MatrixCSR snapshots.
+ *
+ * <p>We map the file and parse the bytes in place, without making a
+ * String per line or per number, into primitive arrays sized from the
+ * header. Two counting sorts (by column, then by row) put the entries
+ * in CSR order in linear time, so loading costs O(entries + width +
+ * height) however the file is ordered. Files larger than one mapping
+ * are parsed a WINDOW at a time.</p>
+ *
+ * <p>Matrix Market files must be in coordinate format with real,
+ * integer, or pattern values (pattern entries become 1.0), and general,
+ * symmetric, or skew-symmetric structure. Their indices start at 1.
+ * Raw coordinate files hold one "row col value" triple per line,
+ * indexed from 0; lines starting with % are comments in both. When an
+ * entry repeats, the last one wins. Entries of 0.0 are dropped, since
+ * 0.0 is the default.</p>
+ */
+public class MatrixMarket {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The largest part of a file we map at once.
+   */
+  static final int WINDOW = 1 << 30;
+
+  /**
+   * Powers of ten that doubles represent exactly.
+   */
+  static final double[] POWERS = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+    1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Load a Matrix Market coordinate file.
+   *
+   * @param file
+   *   The file.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the file cannot be read or is malformed.
+   */
+  public static MatrixCSR<Double> load(Path file) throws IOException {
+    return load(file, true, WINDOW);
+  } // load(Path)
+
+  /**
+   * Load a raw coordinate file. The matrix is just large enough to hold
+   * every entry.
+   *
+   * @param file
+   *   The file.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the file cannot be read or is malformed.
+   */
+  public static MatrixCSR<Double> loadCoordinates(Path file) throws IOException {
+    return load(file, false, WINDOW);
+  } // loadCoordinates(Path)
+
+  /**
+   * Parse a Matrix Market coordinate file that is already in memory.
+   *
+   * @param buffer
+   *   The contents of the file, from its position to its limit.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the contents are malformed.
+   */
+  public static MatrixCSR<Double> parse(ByteBuffer buffer) throws IOException {
+    Loader loader = new Loader(true);
+    loader.parse(buffer, buffer.position(), buffer.limit());
+    return loader.finish();
+  } // parse(ByteBuffer)
+
+  /**
+   * Load a file, a window at a time.
+   *
+   * @param file
+   *   The file.
+   * @param market
+   *   True for a Matrix Market file; false for raw coordinates.
+   * @param window
+   *   The largest number of bytes to map at once.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the file cannot be read or is malformed.
+   */
+  static MatrixCSR<Double> load(Path file, boolean market, int window) throws IOException {
+    Loader loader = new Loader(market);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      for (long start = 0; start < size; ) {
+        int length = (int) Math.min(window, size - start);
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        int end = length;
+        if (start + length < size) {
+          while ((end > 0) && (buffer.get(end - 1) != '\n')) {
+            end--;
+          } // while
+          if (end == 0) {
+            throw new IOException("Line longer than " + window + " bytes at " + start);
+          } // if
+        } // if there is more to come, stop at the last full line
+        loader.parse(buffer, 0, end);
+        start += end;
+      } // for
+    } // try
+    return loader.finish();
+  } // load(Path, boolean, int)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * Parses lines into entries and builds the matrix.
+   */
+  static class Loader {
+    // +--------+----------------------------------------------------
+    // | Fields |
+    // +--------+
+
+    /**
+     * True for a Matrix Market file; false for raw coordinates.
+     */
+    final boolean market;
+
+    /**
+     * Whether we have read the banner (for Matrix Market files).
+     */
+    boolean bannerRead;
+
+    /**
+     * Whether we have read the size line (for Matrix Market files).
+     */
+    boolean sizeRead;
+
+    /**
+     * Whether entries carry no value.
+     */
+    boolean pattern;
+
+    /**
+     * 0 for general matrices, 1 for symmetric, -1 for skew-symmetric.
+     */
+    int symmetry;
+
+    /**
+     * The number of columns.
+     */
+    int width;
+
+    /**
+     * The number of rows.
+     */
+    int height;
+
+    /**
+     * The row of each entry.
+     */
+    int[] rows = new int[16];
+
+    /**
+     * The column of each entry.
+     */
+    int[] cols = new int[16];
+
+    /**
+     * The value of each entry.
+     */
+    double[] vals = new double[16];
+
+    /**
+     * The number of entries.
+     */
+    int count;
+
+    /**
+     * The bytes we are parsing.
+     */
+    ByteBuffer buffer;
+
+    /**
+     * Where we are in buffer.
+     */
+    int pos;
+
+    /**
+     * Where the bytes we may parse end.
+     */
+    int end;
+
+    // +-------------+-----------------------------------------------
+    // | Constructor |
+    // +-------------+
+
+    /**
+     * Create a loader.
+     *
+     * @param market
+     *   True for a Matrix Market file; false for raw coordinates.
+     */
+    Loader(boolean market) {
+      this.market = market;
+    } // Loader(boolean)
+
+    // +---------+---------------------------------------------------
+    // | Parsing |
+    // +---------+
+
+    /**
+     * Parse whole lines.
+     *
+     * @param bytes
+     *   The bytes.
+     * @param from
+     *   Where the lines start.
+     * @param to
+     *   Where the lines end.
+     *
+     * @throws IOException
+     *   If a line is malformed.
+     */
+    void parse(ByteBuffer bytes, int from, int to) throws IOException {
+      this.buffer = bytes;
+      this.pos = from;
+      this.end = to;
+      while (this.pos < this.end) {
+        if (this.market && !this.bannerRead) {
+          banner();
+          continue;
+        } // if
+        skipBlanks();
+        if (atEndOfLine() || (this.buffer.get(this.pos) == '%')) {
+          skipLine();
+        } else if (this.market && !this.sizeRead) {
+          this.height = readInt();
+          this.width = readInt();
+          int entries = readInt();
+          int capacity = (this.symmetry == 0) ? entries : 2 * entries;
+          this.rows = new int[Math.max(capacity, 1)];
+          this.cols = new int[Math.max(capacity, 1)];
+          this.vals = new double[Math.max(capacity, 1)];
+          this.sizeRead = true;
+          skipLine();
+        } else {
+          entry();
+        } // if/else
+      } // while
+    } // parse(ByteBuffer, int, int)
+
+    /**
+     * Read the Matrix Market banner. It is the only line we turn into a
+     * String.
+     *
+     * @throws IOException
+     *   If it is not a banner we understand.
+     */
+    void banner() throws IOException {
+      int start = this.pos;
+      skipLine();
+      byte[] line = new byte[this.pos - start];
+      this.buffer.get(start, line);
+      String[] words = new String(line, StandardCharsets.US_ASCII).trim()
+          .toLowerCase(Locale.ROOT).split("\\s+");
+      if ((words.length != 5) || !words[0].equals("%%matrixmarket")
+          || !words[1].equals("matrix") || !words[2].equals("coordinate")) {
+        throw new IOException("Not a Matrix Market coordinate file");
+      } // if
+      if (words[3].equals("pattern")) {
+        this.pattern = true;
+      } else if (!words[3].equals("real") && !words[3].equals("integer")) {
+        throw new IOException("Unsupported field: " + words[3]);
+      } // if/else
+      if (words[4].equals("symmetric")) {
+        this.symmetry = 1;
+      } else if (words[4].equals("skew-symmetric")) {
+        this.symmetry = -1;
+      } else if (!words[4].equals("general")) {
+        throw new IOException("Unsupported symmetry: " + words[4]);
+      } // if/else
+      this.bannerRead = true;
+    } // banner()
+
+    /**
+     * Read one entry line.
+     *
+     * @throws IOException
+     *   If the line is malformed.
+     */
+    void entry() throws IOException {
+      int base = this.market ? 1 : 0;
+      int row = readInt() - base;
+      int col = readInt() - base;
+      double val = this.pattern ? 1.0 : readDouble();
+      skipLine();
+      if ((row < 0) || (col < 0)
+          || (this.market && ((row >= this.height) || (col >= this.width)))) {
+        throw new IOException("Entry out of range: " + (row + base) + " " + (col + base));
+      } // if
+      add(row, col, val);
+      if ((this.symmetry != 0) && (row != col)) {
+        add(col, row, this.symmetry * val);
+      } // if
+    } // entry()
+
+    /**
+     * Skip spaces and tabs.
+     */
+    void skipBlanks() {
+      while (this.pos < this.end) {
+        byte b = this.buffer.get(this.pos);
+        if ((b != ' ') && (b != '\t')) {
+          return;
+        } // if
+        this.pos++;
+      } // while
+    } // skipBlanks()
+
+    /**
+     * Determine if we are at the end of a line.
+     *
+     * @return true if the rest of the line is empty.
+     */
+    boolean atEndOfLine() {
+      if (this.pos >= this.end) {
+        return true;
+      } // if
+      byte b = this.buffer.get(this.pos);
+      return (b == '\n') || (b == '\r');
+    } // atEndOfLine()
+
+    /**
+     * Skip to the start of the next line.
+     */
+    void skipLine() {
+      while ((this.pos < this.end) && (this.buffer.get(this.pos++) != '\n')) {
+        // Keep going
+      } // while
+    } // skipLine()
+
+    /**
+     * Read a non-negative decimal integer.
+     *
+     * @return the integer.
+     *
+     * @throws IOException
+     *   If there is no integer or it is too large.
+     */
+    int readInt() throws IOException {
+      skipBlanks();
+      long result = 0;
+      int start = this.pos;
+      while ((this.pos < this.end) && isDigit(this.buffer.get(this.pos))) {
+        result = result * 10 + (this.buffer.get(this.pos++) - '0');
+        if (result > Integer.MAX_VALUE) {
+          throw new IOException("Integer too large at byte " + start);
+        } // if
+      } // while
+      if (this.pos == start) {
+        throw new IOException("Expected an integer at byte " + start);
+      } // if
+      return (int) result;
+    } // readInt()
+
+    /**
+     * Read a decimal number. We gather up to 19 significant digits into
+     * a long (as an unsigned value). When that mantissa fits in a
+     * double's 53 bits, we did not drop any nonzero digits, and the power
+     * of ten is at most 22, one multiplication or division of exact
+     * doubles gives the correctly rounded result. Otherwise we hand the
+     * bytes to BigDecimal, which rounds correctly too.
+     *
+     * @return the number.
+     *
+     * @throws IOException
+     *   If there is no number.
+     */
+    double readDouble() throws IOException {
+      skipBlanks();
+      int start = this.pos;
+      boolean negative = false;
+      if ((this.pos < this.end) && ((this.buffer.get(this.pos) == '-')
+          || (this.buffer.get(this.pos) == '+'))) {
+        negative = this.buffer.get(this.pos++) == '-';
+      } // if
+      long mantissa = 0;
+      int digits = 0;
+      int scale = 0;
+      boolean truncated = false;
+      boolean seenDigit = false;
+      boolean seenPoint = false;
+      while (this.pos < this.end) {
+        byte b = this.buffer.get(this.pos);
+        if (isDigit(b)) {
+          seenDigit = true;
+          if ((digits > 0) || (b != '0')) {
+            digits++;
+          } // if the digit is significant
+          if (digits <= 19) {
+            mantissa = mantissa * 10 + (b - '0');
+            if (seenPoint) {
+              scale--;
+            } // if
+          } else {
+            truncated |= b != '0';
+            if (!seenPoint) {
+              scale++;
+            } // if
+          } // if/else
+        } else if ((b == '.') && !seenPoint) {
+          seenPoint = true;
+        } else {
+          break;
+        } // if/else
+        this.pos++;
+      } // while
+      if (!seenDigit) {
+        throw new IOException("Expected a number at byte " + start);
+      } // if
+      if ((this.pos < this.end) && ((this.buffer.get(this.pos) | 0x20) == 'e')) {
+        this.pos++;
+        boolean negativeExponent = false;
+        if ((this.pos < this.end) && ((this.buffer.get(this.pos) == '-')
+            || (this.buffer.get(this.pos) == '+'))) {
+          negativeExponent = this.buffer.get(this.pos++) == '-';
+        } // if
+        int exponent = readInt();
+        scale += negativeExponent ? -exponent : exponent;
+      } // if
+      double result;
+      if ((mantissa == 0) && !truncated) {
+        result = 0.0;
+      } else if (!truncated && (Long.compareUnsigned(mantissa, 1L << 53) <= 0)
+          && (scale >= -22) && (scale <= 22)) {
+        result = (scale < 0) ? mantissa / POWERS[-scale] : mantissa * POWERS[scale];
+      } else {
+        return slowDouble(start);
+      } // if/else
+      return negative ? -result : result;
+    } // readDouble()
+
+    /**
+     * Convert the number that runs from start to the current position,
+     * rounding correctly however many digits it has.
+     *
+     * @param start
+     *   The position of the number's first byte.
+     *
+     * @return the number.
+     *
+     * @throws IOException
+     *   If the number is malformed.
+     */
+    double slowDouble(int start) throws IOException {
+      char[] text = new char[this.pos - start];
+      for (int i = 0; i < text.length; i++) {
+        text[i] = (char) this.buffer.get(start + i);
+      } // for
+      try {
+        return new BigDecimal(text).doubleValue();
+      } catch (NumberFormatException e) {
+        throw new IOException("Bad number at byte " + start);
+      } // try/catch
+    } // slowDouble(int)
+
+    /**
+     * Determine if a byte is a decimal digit.
+     *
+     * @param b
+     *   The byte.
+     *
+     * @return true if b is a digit.
+     */
+    static boolean isDigit(byte b) {
+      return (b >= '0') && (b <= '9');
+    } // isDigit(byte)
+
+    // +----------+--------------------------------------------------
+    // | Building |
+    // +----------+
+
+    /**
+     * Record an entry.
+     *
+     * @param row
+     *   The row of the entry.
+     * @param col
+     *   The column of the entry.
+     * @param val
+     *   The value of the entry.
+     */
+    void add(int row, int col, double val) {
+      if (this.count == this.rows.length) {
+        this.rows = Arrays.copyOf(this.rows, this.count * 2);
+        this.cols = Arrays.copyOf(this.cols, this.count * 2);
+        this.vals = Arrays.copyOf(this.vals, this.count * 2);
+      } // if we need more room
+      this.rows[this.count] = row;
+      this.cols[this.count] = col;
+      this.vals[this.count] = val;
+      this.count++;
+      if (!this.market) {
+        this.height = Math.max(this.height, row + 1);
+        this.width = Math.max(this.width, col + 1);
+      } // if the entries determine the size
+    } // add(int, int, double)
+
+    /**
+     * Build the matrix from the entries.
+     *
+     * @return the matrix.
+     *
+     * @throws IOException
+     *   If a Matrix Market file ended before its size line.
+     */
+    MatrixCSR<Double> finish() throws IOException {
+      if (this.market && !this.sizeRead) {
+        throw new IOException("Missing size line");
+      } // if
+      // Sort the entries by column, then (stably) by row.
+      int[] byCol = sortedBy(this.cols, identity(this.count), this.width);
+      int[] order = sortedBy(this.rows, byCol, this.height);
+      int[] rowStarts = new int[this.height + 1];
+      int[] csrCols = new int[this.count];
+      Object[] csrVals = new Object[this.count];
+      int stored = 0;
+      for (int i = 0; i < this.count; i++) {
+        int e = order[i];
+        if ((i + 1 < this.count) && (this.rows[order[i + 1]] == this.rows[e])
+            && (this.cols[order[i + 1]] == this.cols[e])) {
+          continue;
+        } // if a later entry replaces this one
+        if (Double.doubleToLongBits(this.vals[e]) == 0L) {
+          continue;
+        } // if the entry holds the default
+        rowStarts[this.rows[e] + 1]++;
+        csrCols[stored] = this.cols[e];
+        csrVals[stored] = this.vals[e];
+        stored++;
+      } // for
+      for (int row = 0; row < this.height; row++) {
+        rowStarts[row + 1] += rowStarts[row];
+      } // for
+      return new MatrixCSR<Double>(this.width, this.height, 0.0, rowStarts,
+          Arrays.copyOf(csrCols, stored), Arrays.copyOf(csrVals, stored));
+    } // finish()
+
+    /**
+     * Make the array 0, 1, ..., n-1.
+     *
+     * @param n
+     *   The length of the array.
+     *
+     * @return the array.
+     */
+    static int[] identity(int n) {
+      int[] result = new int[n];
+      for (int i = 0; i < n; i++) {
+        result[i] = i;
+      } // for
+      return result;
+    } // identity(int)
+
+    /**
+     * Stably sort entry numbers by a key, with a counting sort.
+     *
+     * @param keys
+     *   The key of each entry, in [0, range).
+     * @param entries
+     *   The entry numbers, in their current order.
+     * @param range
+     *   One more than the largest key.
+     *
+     * @return the entry numbers, sorted by key.
+     */
+    static int[] sortedBy(int[] keys, int[] entries, int range) {
+      int[] starts = new int[range + 1];
+      for (int e : entries) {
+        starts[keys[e] + 1]++;
+      } // for
+      for (int k = 0; k < range; k++) {
+        starts[k + 1] += starts[k];
+      } // for
+      int[] result = new int[entries.length];
+      for (int e : entries) {
+        result[starts[keys[e]]++] = e;
+      } // for
+      return result;
+    } // sortedBy(int[], int[], int)
+  } // class Loader
+} // class MatrixMarket
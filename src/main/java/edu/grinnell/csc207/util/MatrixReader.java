@@ -0,0 +1,158 @@
+package edu.grinnell.csc207.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads matrices in the binary format that MatrixWriter writes. The
+ * reader streams: it stores each value in the new matrix as soon as it
+ * reads it.
+ *
+ * @param <T>
+ *   The type of values stored in the matrices.
+ */
+public class MatrixReader<T> {
+  // +------------+--------------------------------------------------
+  // | Interfaces |
+  // +------------+
+
+  /**
+   * Something that builds the matrices we fill.
+   *
+   * @param <T>
+   *   The type of values stored in the matrices.
+   */
+  public interface Maker<T> {
+    /**
+     * Make a matrix in which every cell holds the default.
+     *
+     * @param width
+     *   The width of the matrix.
+     * @param height
+     *   The height of the matrix.
+     * @param def
+     *   The default value.
+     *
+     * @return the new matrix.
+     */
+    Matrix<T> make(int width, int height, T def);
+  } // interface Maker<T>
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * Where we read.
+   */
+  final DataInput in;
+
+  /**
+   * How we read values.
+   */
+  final MatrixCodec<T> codec;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a reader that reads from a DataInput.
+   *
+   * @param in
+   *   Where to read.
+   * @param codec
+   *   How to read values.
+   */
+  public MatrixReader(DataInput in, MatrixCodec<T> codec) {
+    this.in = in;
+    this.codec = codec;
+  } // MatrixReader(DataInput, MatrixCodec<T>)
+
+  /**
+   * Create a reader that reads from a channel, through a buffer.
+   *
+   * @param channel
+   *   Where to read.
+   * @param codec
+   *   How to read values.
+   */
+  public MatrixReader(ReadableByteChannel channel, MatrixCodec<T> codec) {
+    this(new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel),
+        1 << 16)), codec);
+  } // MatrixReader(ReadableByteChannel, MatrixCodec<T>)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Read a matrix into a MatrixAdaptive, which suits both sparse and
+   * dense matrices.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the matrix cannot be read or is malformed.
+   */
+  public Matrix<T> read() throws IOException {
+    return read(MatrixAdaptive::new);
+  } // read()
+
+  /**
+   * Read a matrix into one built by maker.
+   *
+   * @param maker
+   *   Builds the matrix, given its dimensions and default.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the matrix cannot be read or is malformed.
+   */
+  public Matrix<T> read(Maker<T> maker) throws IOException {
+    if (this.in.readInt() != MatrixWriter.MAGIC) {
+      throw new IOException("Not a matrix");
+    } // if
+    byte version = this.in.readByte();
+    if (version != MatrixWriter.VERSION) {
+      throw new IOException("Unknown matrix format version: " + version);
+    } // if
+    int width = this.in.readInt();
+    int height = this.in.readInt();
+    if ((width < 0) || (height < 0)) {
+      throw new IOException("Invalid size: " + width + "x" + height);
+    } // if
+    T def = (this.in.readByte() == 0) ? null : this.codec.read(this.in);
+    Matrix<T> matrix = maker.make(width, height, def);
+    for (byte kind = this.in.readByte(); kind != MatrixWriter.END;
+        kind = this.in.readByte()) {
+      int row = this.in.readInt();
+      if ((row < 0) || (row >= height)) {
+        throw new IOException("Invalid row: " + row);
+      } // if
+      if (kind == MatrixWriter.DENSE_ROW) {
+        for (int col = 0; col < width; col++) {
+          matrix.set(row, col, this.codec.read(this.in));
+        } // for
+      } else if ((kind == MatrixWriter.SPARSE_ROW) || (kind == MatrixWriter.NULL_CELLS)) {
+        int count = this.in.readInt();
+        for (int i = 0; i < count; i++) {
+          int col = this.in.readInt();
+          if ((col < 0) || (col >= width)) {
+            throw new IOException("Invalid column: " + col);
+          } // if
+          matrix.set(row, col,
+              (kind == MatrixWriter.SPARSE_ROW) ? this.codec.read(this.in) : null);
+        } // for
+      } else {
+        throw new IOException("Unknown block: " + kind);
+      } // if/else
+    } // for
+    return matrix;
+  } // read(Maker<T>)
+} // class MatrixReader<T>
@@ -0,0 +1,242 @@
+package edu.grinnell.csc207.util;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * Draws matrices (or rectangular windows of them) as text tables, for
+ * Matrix.print.
+ *
+ * <p>We make a single pass over the cells, caching the string for each
+ * one and noting the widest. Each line of the table is then assembled
+ * in a reusable character buffer and written with one call, so drawing
+ * a table allocates little beyond the cached strings.</p>
+ */
+class MatrixRenderer {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * Where we print.
+   */
+  final PrintWriter pen;
+
+  /**
+   * Whether to include row and column numbers.
+   */
+  final boolean includeLabels;
+
+  /**
+   * The width of the box around each value (including padding).
+   */
+  int cellWidth;
+
+  /**
+   * The line we are building.
+   */
+  char[] line;
+
+  /**
+   * How much of line we have filled.
+   */
+  int length;
+
+  // +-------------+-------------------------------------------------
+  // | Constructor |
+  // +-------------+
+
+  /**
+   * Create a renderer.
+   *
+   * @param pen
+   *   Where to print.
+   * @param includeLabels
+   *   Whether to include row and column numbers.
+   */
+  MatrixRenderer(PrintWriter pen, boolean includeLabels) {
+    this.pen = pen;
+    this.includeLabels = includeLabels;
+    this.line = new char[80];
+  } // MatrixRenderer(PrintWriter, boolean)
+
+  // +---------+-----------------------------------------------------
+  // | Drawing |
+  // +---------+
+
+  /**
+   * Draw the rows [startRow, endRow) and columns [startCol, endCol) of
+   * a matrix.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param matrix
+   *   The matrix.
+   * @param startRow
+   *   The top edge (inclusive).
+   * @param startCol
+   *   The left edge (inclusive).
+   * @param endRow
+   *   The bottom edge (exclusive).
+   * @param endCol
+   *   The right edge (exclusive).
+   */
+  <T> void render(Matrix<T> matrix, int startRow, int startCol, int endRow, int endCol) {
+    int rows = endRow - startRow;
+    int cols = endCol - startCol;
+
+    // Find the strings and the widest of them.
+    String[] texts = new String[rows * cols];
+    int widest = 0;
+    for (int r = 0; r < rows; r++) {
+      LineView<T> view = matrix.rowView(startRow + r);
+      for (int c = 0; c < cols; c++) {
+        String text = Matrix.toString(view.get(startCol + c));
+        texts[r * cols + c] = text;
+        widest = Math.max(widest, text.length());
+      } // for col
+    } // for row
+    this.cellWidth = widest + 2;
+
+    // The separator is the same every time, so build it once.
+    this.length = 0;
+    margin("");
+    for (int c = 0; c < cols; c++) {
+      put('+');
+      repeat('-', this.cellWidth);
+    } // for
+    put('+');
+    char[] separator = Arrays.copyOf(this.line, this.length);
+
+    if (this.includeLabels) {
+      this.length = 0;
+      margin("");
+      for (int c = startCol; c < endCol; c++) {
+        center(label(c), this.cellWidth + 1);
+      } // for
+      flush();
+    } // if
+
+    for (int r = 0; r < rows; r++) {
+      this.pen.println(separator);
+      this.length = 0;
+      margin(" " + label(startRow + r) + " ");
+      for (int c = 0; c < cols; c++) {
+        put('|');
+        center(texts[r * cols + c], this.cellWidth);
+      } // for
+      put('|');
+      flush();
+    } // for
+    this.pen.println(separator);
+  } // render(Matrix<T>, int, int, int, int)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Format a row or column number the way String.format("%2d") would.
+   *
+   * @param num
+   *   The number.
+   *
+   * @return the label.
+   */
+  static String label(int num) {
+    return ((num >= 0) && (num < 10)) ? " " + num : Integer.toString(num);
+  } // label(int)
+
+  /**
+   * Start a line with the label margin, if we are labeling.
+   *
+   * @param label
+   *   The label for this line; blanks if empty.
+   */
+  void margin(String label) {
+    if (!this.includeLabels) {
+      return;
+    } else if (label.isEmpty()) {
+      repeat(' ', 4);
+    } else {
+      append(label);
+    } // if/else
+  } // margin(String)
+
+  /**
+   * Add a string centered in a box, truncating it if it does not fit.
+   *
+   * @param str
+   *   The string.
+   * @param box
+   *   The width of the box.
+   */
+  void center(String str, int box) {
+    int len = Math.min(str.length(), box);
+    int left = (box - len) / 2;
+    repeat(' ', left);
+    ensure(len);
+    str.getChars(0, len, this.line, this.length);
+    this.length += len;
+    repeat(' ', box - left - len);
+  } // center(String, int)
+
+  /**
+   * Add a string.
+   *
+   * @param str
+   *   The string.
+   */
+  void append(String str) {
+    ensure(str.length());
+    str.getChars(0, str.length(), this.line, this.length);
+    this.length += str.length();
+  } // append(String)
+
+  /**
+   * Add several copies of a character.
+   *
+   * @param ch
+   *   The character.
+   * @param count
+   *   How many copies to add.
+   */
+  void repeat(char ch, int count) {
+    ensure(count);
+    Arrays.fill(this.line, this.length, this.length + count, ch);
+    this.length += count;
+  } // repeat(char, int)
+
+  /**
+   * Add a character.
+   *
+   * @param ch
+   *   The character.
+   */
+  void put(char ch) {
+    ensure(1);
+    this.line[this.length++] = ch;
+  } // put(char)
+
+  /**
+   * Make room for more characters in the line.
+   *
+   * @param extra
+   *   The number of characters we are about to add.
+   */
+  void ensure(int extra) {
+    if (this.length + extra > this.line.length) {
+      this.line = Arrays.copyOf(this.line,
+          Math.max(this.length + extra, 2 * this.line.length));
+    } // if
+  } // ensure(int)
+
+  /**
+   * Print the line and start a new one.
+   */
+  void flush() {
+    this.pen.write(this.line, 0, this.length);
+    this.pen.println();
+    this.length = 0;
+  } // flush()
+} // class MatrixRenderer
@@ -0,0 +1,809 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * An implementation of two-dimensional matrices that stores its cells
+ * in fixed-size square tiles, allocated only once something other than
+ * the default is written to them. Tiles are shared between a matrix
+ * and its clones: cloning takes constant time, and a tile is copied
+ * only when one of the matrices that share it writes to it.
+ *
+ * <p>The tile size (64 unless the client picks another power of two)
+ * also sets the grain of the bulk operations: each parallel task
+ * handles whole bands of tiles, so no two tasks ever touch the same
+ * tile, and mapInPlace skips unallocated tiles rather than visiting
+ * their cells.</p>
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class MatrixTiled<T> extends AbstractMatrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The width (and height) of a tile, unless the client picks another.
+   */
+  static final int DEFAULT_TILE_SIZE = 64;
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * One tile: tileSize rows of tileSize cells, in row-major order, and
+   * the matrix that may write to them.
+   */
+  static class Tile {
+    /**
+     * The cells.
+     */
+    final Object[] cells;
+
+    /**
+     * The owner token of the only matrix that may change these cells.
+     */
+    final Object owner;
+
+    /**
+     * Create a tile filled with one value.
+     *
+     * @param owner
+     *   The owner token of the matrix that may change the tile.
+     * @param val
+     *   The value of every cell.
+     * @param area
+     *   The number of cells.
+     */
+    Tile(Object owner, Object val, int area) {
+      this.owner = owner;
+      this.cells = new Object[area];
+      if (val != null) {
+        Arrays.fill(this.cells, val);
+      } // if
+    } // Tile(Object, Object, int)
+
+    /**
+     * Create a copy of a tile with a new owner.
+     *
+     * @param owner
+     *   The owner token of the matrix that may change the copy.
+     * @param original
+     *   The tile to copy.
+     */
+    Tile(Object owner, Tile original) {
+      this.owner = owner;
+      this.cells = original.cells.clone();
+    } // Tile(Object, Tile)
+  } // class Tile
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of columns.
+   */
+  int width;
+
+  /**
+   * The number of rows.
+   */
+  int height;
+
+  /**
+   * The default value.
+   */
+  T def;
+
+  /**
+   * log2 of the width (and height) of a tile.
+   */
+  final int tileShift;
+
+  /**
+   * The width (and height) of a tile.
+   */
+  final int tileSize;
+
+  /**
+   * Masks a row or column down to its position within a tile.
+   */
+  final int tileMask;
+
+  /**
+   * The number of tiles across the directory.
+   */
+  int tileCols;
+
+  /**
+   * The tiles, in row-major order; null tiles hold only def.
+   */
+  Tile[] tiles;
+
+  /**
+   * True if a clone may also use the tiles array, in which case we copy
+   * it before changing it.
+   */
+  boolean sharedTiles;
+
+  /**
+   * The token that marks tiles this matrix may change in place. A new
+   * token on each clone means neither matrix owns the shared tiles.
+   */
+  Object owner;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default, using tiles of a given size.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   * @param tileSize
+   *   The width (and height) of a tile.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If tileSize is not a positive power of two.
+   */
+  public MatrixTiled(int width, int height, T def, int tileSize) {
+    if ((width < 0) || (height < 0)) {
+      throw new NegativeArraySizeException();
+    } else if ((tileSize <= 0) || ((tileSize & (tileSize - 1)) != 0)) {
+      throw new IllegalArgumentException("Invalid tile size: " + tileSize);
+    } // if/else
+    this.tileShift = Integer.numberOfTrailingZeros(tileSize);
+    this.tileSize = tileSize;
+    this.tileMask = tileSize - 1;
+    this.width = width;
+    this.height = height;
+    this.def = def;
+    this.tileCols = tilesFor(width);
+    this.tiles = new Tile[tilesFor(height) * this.tileCols];
+    this.owner = new Object();
+  } // MatrixTiled(int, int, T, int)
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public MatrixTiled(int width, int height, T def) {
+    this(width, height, def, DEFAULT_TILE_SIZE);
+  } // MatrixTiled(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with
+   * null as the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public MatrixTiled(int width, int height) {
+    this(width, height, null);
+  } // MatrixTiled(int, int)
+
+  // +------------------+--------------------------------------------
+  // | Storage handling |
+  // +------------------+
+
+  /**
+   * Determine how many tiles it takes to cover n rows or columns.
+   *
+   * @param n
+   *   The number of rows or columns.
+   *
+   * @return the number of tiles.
+   */
+  int tilesFor(int n) {
+    return (n + this.tileMask) >>> this.tileShift;
+  } // tilesFor(int)
+
+  /**
+   * Find the tile that holds a cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the position of the tile in tiles.
+   */
+  int tileIndex(int row, int col) {
+    return (row >>> this.tileShift) * this.tileCols + (col >>> this.tileShift);
+  } // tileIndex(int, int)
+
+  /**
+   * Find a cell within its tile.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the position of the cell in its tile's cells.
+   */
+  int cellIndex(int row, int col) {
+    return ((row & this.tileMask) << this.tileShift) | (col & this.tileMask);
+  } // cellIndex(int, int)
+
+  /**
+   * Make sure that no clone shares the tiles array, so that we may
+   * change it.
+   */
+  void ownTiles() {
+    if (this.sharedTiles) {
+      this.tiles = this.tiles.clone();
+      this.sharedTiles = false;
+    } // if
+  } // ownTiles()
+
+  /**
+   * Get a tile that this matrix may change, allocating or copying it
+   * as necessary.
+   *
+   * @param t
+   *   The position of the tile in tiles.
+   *
+   * @return the tile.
+   */
+  Tile writableTile(int t) {
+    ownTiles();
+    Tile tile = this.tiles[t];
+    if (tile == null) {
+      tile = new Tile(this.owner, this.def, this.tileSize * this.tileSize);
+      this.tiles[t] = tile;
+    } else if (tile.owner != this.owner) {
+      tile = new Tile(this.owner, tile);
+      this.tiles[t] = tile;
+    } // if/else
+    return tile;
+  } // writableTile(int)
+
+  /**
+   * Read a cell without checking bounds.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the value in the cell.
+   */
+  @SuppressWarnings({ "unchecked" })
+  T read(int row, int col) {
+    Tile tile = this.tiles[tileIndex(row, col)];
+    return (tile == null) ? this.def : (T) tile.cells[cellIndex(row, col)];
+  } // read(int, int)
+
+  /**
+   * Write a cell without checking bounds. Writing the default to an
+   * unallocated tile does nothing.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   * @param val
+   *   The value to write.
+   */
+  void write(int row, int col, T val) {
+    int t = tileIndex(row, col);
+    if ((this.tiles[t] == null) && Objects.equals(val, this.def)) {
+      return;
+    } // if the cell already holds the default
+    writableTile(t).cells[cellIndex(row, col)] = val;
+  } // write(int, int, T)
+
+  /**
+   * Copy one row over another.
+   *
+   * @param from
+   *   The row to copy.
+   * @param to
+   *   The row to overwrite.
+   */
+  void copyRow(int from, int to) {
+    int fromBase = (from >>> this.tileShift) * this.tileCols;
+    int toBase = (to >>> this.tileShift) * this.tileCols;
+    int fromPos = (from & this.tileMask) << this.tileShift;
+    int toPos = (to & this.tileMask) << this.tileShift;
+    for (int tc = 0; tc < this.tileCols; tc++) {
+      Tile source = this.tiles[fromBase + tc];
+      if (source == null) {
+        if (this.tiles[toBase + tc] != null) {
+          Arrays.fill(writableTile(toBase + tc).cells, toPos, toPos + this.tileSize, this.def);
+        } // if the target needs clearing
+      } else {
+        System.arraycopy(source.cells, fromPos, writableTile(toBase + tc).cells, toPos,
+            this.tileSize);
+      } // if/else
+    } // for
+  } // copyRow(int, int)
+
+  /**
+   * Reset one row to the default value.
+   *
+   * @param row
+   *   The row to clear.
+   */
+  void clearRow(int row) {
+    int base = (row >>> this.tileShift) * this.tileCols;
+    int pos = (row & this.tileMask) << this.tileShift;
+    for (int tc = 0; tc < this.tileCols; tc++) {
+      if (this.tiles[base + tc] != null) {
+        Arrays.fill(writableTile(base + tc).cells, pos, pos + this.tileSize, this.def);
+      } // if
+    } // for
+  } // clearRow(int)
+
+  /**
+   * Determine if every tile in a band of tileSize rows is unallocated.
+   *
+   * @param tileRow
+   *   The band.
+   *
+   * @return true if the band holds only the default.
+   */
+  boolean emptyBand(int tileRow) {
+    int base = tileRow * this.tileCols;
+    for (int tc = 0; tc < this.tileCols; tc++) {
+      if (this.tiles[base + tc] != null) {
+        return false;
+      } // if
+    } // for
+    return true;
+  } // emptyBand(int)
+
+  /**
+   * Lay the tiles out for a new number of rows and columns, keeping
+   * the tiles that still fit.
+   *
+   * @param newWidth
+   *   The new width of the matrix.
+   * @param newHeight
+   *   The new height of the matrix.
+   */
+  void resize(int newWidth, int newHeight) {
+    int newTileCols = tilesFor(newWidth);
+    int newTileRows = tilesFor(newHeight);
+    if ((newTileCols == this.tileCols) && (newTileRows == tilesFor(this.height))) {
+      return;
+    } // if the layout does not change
+    Tile[] newTiles = new Tile[newTileRows * newTileCols];
+    int rows = Math.min(newTileRows, tilesFor(this.height));
+    int cols = Math.min(newTileCols, this.tileCols);
+    for (int tr = 0; tr < rows; tr++) {
+      System.arraycopy(this.tiles, tr * this.tileCols, newTiles, tr * newTileCols, cols);
+    } // for
+    this.tiles = newTiles;
+    this.tileCols = newTileCols;
+    this.sharedTiles = false;
+  } // resize(int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    checkCell(row, col);
+    return read(row, col);
+  } // get(int, int)
+
+  /**
+   * Get the element at the given row and column without checking
+   * bounds.
+   *
+   * @param row
+   *   The row of the element; must be in bounds.
+   * @param col
+   *   The column of the element; must be in bounds.
+   *
+   * @return the value at the specified location.
+   */
+  @Override
+  T cell(int row, int col) {
+    return read(row, col);
+  } // cell(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    checkCell(row, col);
+    write(row, col, val);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Determine the value that fills new cells.
+   *
+   * @return the default value.
+   */
+  public T defaultValue() {
+    return this.def;
+  } // defaultValue()
+
+  /**
+   * Determine the width (and height) of the tiles.
+   *
+   * @return the tile size.
+   */
+  public int tileSize() {
+    return this.tileSize;
+  } // tileSize()
+
+  /**
+   * Insert a row filled with the default value. Moves each row below
+   * it down one, a tile-width segment at a time.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    checkInsertRow(row);
+    resize(this.width, this.height + 1);
+    this.height++;
+    for (int r = this.height - 1; r > row; r--) {
+      copyRow(r - 1, r);
+    } // for
+    clearRow(row);
+  } // insertRow(int)
+
+  /**
+   * Insert a column filled with the default value. Bands of rows that
+   * hold only the default are skipped.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    checkInsertCol(col);
+    resize(this.width + 1, this.height);
+    this.width++;
+    for (int row = 0; row < this.height; row++) {
+      if (((row & this.tileMask) == 0) && emptyBand(row >>> this.tileShift)) {
+        row += this.tileMask;
+        continue;
+      } // if the whole band is empty
+      for (int c = this.width - 1; c > col; c--) {
+        write(row, c, read(row, c - 1));
+      } // for
+      write(row, col, this.def);
+    } // for
+  } // insertCol(int)
+
+  /**
+   * Delete a row. Moves each row below it up one, a tile-width segment
+   * at a time.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    checkRow(row);
+    for (int r = row + 1; r < this.height; r++) {
+      copyRow(r, r - 1);
+    } // for
+    clearRow(this.height - 1);
+    resize(this.width, this.height - 1);
+    this.height--;
+  } // deleteRow(int)
+
+  /**
+   * Delete a column. Bands of rows that hold only the default are
+   * skipped.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    checkCol(col);
+    for (int row = 0; row < this.height; row++) {
+      if (((row & this.tileMask) == 0) && emptyBand(row >>> this.tileShift)) {
+        row += this.tileMask;
+        continue;
+      } // if the whole band is empty
+      for (int c = col + 1; c < this.width; c++) {
+        write(row, c - 1, read(row, c));
+      } // for
+      write(row, this.width - 1, this.def);
+    } // for
+    resize(this.width - 1, this.height);
+    this.width--;
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix, one tile at a time. Tiles
+   * that the region covers completely are replaced outright (or
+   * dropped, when filling with the default).
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    checkRegion(startRow, startCol, endRow, endCol);
+    boolean isDefault = Objects.equals(val, this.def);
+    for (int top = startRow; top < endRow; top = (top | this.tileMask) + 1) {
+      int bottom = Math.min(endRow, (top | this.tileMask) + 1);
+      for (int left = startCol; left < endCol; left = (left | this.tileMask) + 1) {
+        int right = Math.min(endCol, (left | this.tileMask) + 1);
+        int t = tileIndex(top, left);
+        if ((bottom - top == this.tileSize) && (right - left == this.tileSize)) {
+          ownTiles();
+          this.tiles[t] = isDefault ? null
+              : new Tile(this.owner, val, this.tileSize * this.tileSize);
+        } else if (!isDefault || (this.tiles[t] != null)) {
+          Object[] cells = writableTile(t).cells;
+          for (int r = top; r < bottom; r++) {
+            Arrays.fill(cells, cellIndex(r, left), cellIndex(r, right - 1) + 1, val);
+          } // for
+        } // if/else
+      } // for left
+    } // for top
+  } // fillRegion(int, int, int, int, T)
+
+  // +-----------------+---------------------------------------------
+  // | Bulk operations |
+  // +-----------------+
+
+  /**
+   * Determine how many bands of tiles each task handles: enough for
+   * about bandSize rows, but at least one.
+   *
+   * @return the number of bands of tiles per task.
+   */
+  int tileBandsPerTask() {
+    return Math.max(1, this.bandSize >>> this.tileShift);
+  } // tileBandsPerTask()
+
+  /**
+   * Run an action over rows [startRow, endRow), split at tile
+   * boundaries, so that no two pieces share a tile.
+   *
+   * @param startRow
+   *   The first row (inclusive).
+   * @param endRow
+   *   The last row (exclusive).
+   * @param action
+   *   The action.
+   */
+  void forEachTileBand(int startRow, int endRow, Bands.BandAction action) {
+    Bands.forEach(startRow >>> this.tileShift, tilesFor(endRow), tileBandsPerTask(), true,
+        (first, last) -> action.run(Math.max(startRow, first << this.tileShift),
+            Math.min(endRow, last << this.tileShift)));
+  } // forEachTileBand(int, int, Bands.BandAction)
+
+  /**
+   * Fill a rectangular region of the matrix, in parallel bands of
+   * tiles.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void parallelFillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    checkRegion(startRow, startCol, endRow, endCol);
+    ownTiles();
+    forEachTileBand(startRow, endRow,
+        (start, end) -> this.fillRegion(start, startCol, end, endCol, val));
+  } // parallelFillRegion(int, int, int, int, T)
+
+  /**
+   * Replace every cell with the result of applying a function to it,
+   * in parallel bands of tiles. Unallocated tiles cost one call to fun
+   * between them: they stay unallocated if fun maps the default to
+   * itself, and are otherwise filled with whatever it maps the default
+   * to.
+   *
+   * @param fun
+   *   The function to apply.
+   */
+  @Override
+  @SuppressWarnings({ "unchecked" })
+  public void mapInPlace(Function<? super T, ? extends T> fun) {
+    ownTiles();
+    T mappedDef = fun.apply(this.def);
+    boolean keepEmpty = Objects.equals(mappedDef, this.def);
+    forEachTileBand(0, this.height, (startRow, endRow) -> {
+      int end = tilesFor(endRow) * this.tileCols;
+      for (int t = (startRow >>> this.tileShift) * this.tileCols; t < end; t++) {
+        if (this.tiles[t] == null) {
+          if (!keepEmpty) {
+            this.tiles[t] = new Tile(this.owner, mappedDef, this.tileSize * this.tileSize);
+          } // if
+          continue;
+        } // if the tile holds only the default
+        Object[] cells = writableTile(t).cells;
+        int top = (t / this.tileCols) << this.tileShift;
+        int left = (t % this.tileCols) << this.tileShift;
+        int rows = Math.min(this.tileSize, this.height - top);
+        int cols = Math.min(this.tileSize, this.width - left);
+        for (int r = 0; r < rows; r++) {
+          for (int i = r << this.tileShift; i < (r << this.tileShift) + cols; i++) {
+            cells[i] = fun.apply((T) cells[i]);
+          } // for
+        } // for
+      } // for
+    });
+  } // mapInPlace(Function)
+
+  /**
+   * Combine all the cells of the matrix, in parallel bands of tiles.
+   *
+   * @param <R>
+   *   The type of the result.
+   * @param identity
+   *   The starting value for each band.
+   * @param accumulator
+   *   Folds one cell into a partial result.
+   * @param combiner
+   *   Joins two partial results.
+   *
+   * @return the combined result.
+   */
+  @Override
+  public <R> R reduce(R identity, BiFunction<R, ? super T, R> accumulator,
+      BinaryOperator<R> combiner) {
+    return Bands.reduce(0, tilesFor(this.height), tileBandsPerTask(), (first, last) -> {
+      R result = identity;
+      int endRow = Math.min(this.height, last << this.tileShift);
+      for (int row = first << this.tileShift; row < endRow; row++) {
+        for (int col = 0; col < this.width; col++) {
+          result = accumulator.apply(result, read(row, col));
+        } // for col
+      } // for row
+      return result;
+    }, combiner);
+  } // reduce(R, BiFunction, BinaryOperator)
+
+  /**
+   * Apply an action to every cell, in parallel bands of tiles.
+   *
+   * @param action
+   *   The action.
+   */
+  @Override
+  public void forEachCell(Consumer<? super MatrixCell<T>> action) {
+    forEachTileBand(0, this.height, (startRow, endRow) -> {
+      MatrixCell<T> cell = new MatrixCell<T>(0, 0, null);
+      for (int row = startRow; row < endRow; row++) {
+        for (int col = 0; col < this.width; col++) {
+          cell.row = row;
+          cell.col = col;
+          cell.value = read(row, col);
+          action.accept(cell);
+        } // for col
+      } // for row
+    });
+  } // forEachCell(Consumer)
+
+  // +------------------+--------------------------------------------
+  // | Standard methods |
+  // +------------------+
+
+  /**
+   * A make a copy of the matrix. Shares references to the elements.
+   * Takes constant time: the copy shares every tile with this matrix,
+   * and each matrix copies a tile the first time it writes to it.
+   *
+   * @return a copy of the matrix.
+   */
+  public MatrixTiled<T> clone() {
+    MatrixTiled<T> copy = new MatrixTiled<T>(0, 0, this.def, this.tileSize);
+    copy.width = this.width;
+    copy.height = this.height;
+    copy.tileCols = this.tileCols;
+    copy.tiles = this.tiles;
+    copy.sharedTiles = true;
+    this.sharedTiles = true;
+    this.owner = new Object();
+    return copy;
+  } // clone()
+} // class MatrixTiled<T>
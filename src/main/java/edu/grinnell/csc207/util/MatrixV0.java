@@ -1,11 +1,14 @@
 package edu.grinnell.csc207.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.ObjIntConsumer;
 import java.util.function.Predicate;
 
 import edu.grinnell.csc207.util.AArray.AssociativeArray;
-import edu.grinnell.csc207.util.AArray.KeyNotFoundException;
-import edu.grinnell.csc207.util.AArray.NullKeyException;
+import edu.grinnell.csc207.util.AArray.LongAssociativeArray;
 
 /**
  * An implementation of two-dimensional matrices.
@@ -16,7 +19,23 @@ import edu.grinnell.csc207.util.AArray.NullKeyException;
  * @param <T>
  *            The type of values stored in the matrix.
  */
-public class MatrixV0<T> implements Matrix<T> {
+public class MatrixV0<T> extends AbstractMatrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * Regions with at most this many cells are filled cell by cell rather
+   * than recorded as a region.
+   */
+  static final int SMALL_REGION = 64;
+
+  /**
+   * The most regions we keep pending before we write the oldest one
+   * into the row runs.
+   */
+  static final int MAX_REGIONS = 32;
+
   // +--------+------------------------------------------------------
   // | Fields |
   // +--------+
@@ -34,9 +53,41 @@ public class MatrixV0<T> implements Matrix<T> {
   T def = null;
 
   /**
-   * the associative array storing our index value pairs
+   * the cells we have stored values for, kept as runs of equal cells
+   * in each row, so a fill costs one run per row and row and column
+   * edits only touch the stored runs.
+   */
+  SparseRows<T> pairs;
+
+  /**
+   * the filled regions not yet written into pairs, oldest first. a
+   * region hides any cells in pairs that it covers, and newer regions
+   * hide older ones. we write a region into pairs (one run per row)
+   * when a set lands inside it or when there are too many to check.
+   */
+  ArrayList<Region<T>> regions;
+
+  /**
+   * true if regions may also belong to a clone. we copy them (at most
+   * MAX_REGIONS small objects) before the next change. pairs handles
+   * its own sharing, a band and a row at a time, so clone itself takes
+   * constant time and a change copies only the rows it touches.
+   */
+  boolean shared;
+
+  /**
+   * the hash code, when hashValid is true.
+   */
+  int hash;
+
+  /**
+   * true if hash describes the current cells. once hashCode has been
+   * called, every change keeps it up to date from the changes to the
+   * runs' share of the hash (see SparseRows.weigh), so no change ever
+   * visits the cells of a run. while it is true, there are no pending
+   * regions.
    */
-  AssociativeArray<Index, T> pairs;
+  boolean hashValid;
 
   // +--------------+------------------------------------------------
   // | Constructors |
@@ -63,7 +114,8 @@ public class MatrixV0<T> implements Matrix<T> {
     this.height = height;
     this.def = def;
 
-    this.pairs = new AssociativeArray<Index, T>();
+    this.pairs = new SparseRows<T>(height, def);
+    this.regions = new ArrayList<Region<T>>();
 
   } // MatrixV0(int, int, T)
 
@@ -81,8 +133,7 @@ public class MatrixV0<T> implements Matrix<T> {
    *                                    negative.
    */
   public MatrixV0(int width, int height) {
-    this.width = width;
-    this.height = height;
+    this(width, height, null);
   } // MatrixV0
   // +--------------+------------------------------------------------
   // | helper method |
@@ -116,69 +167,112 @@ public class MatrixV0<T> implements Matrix<T> {
     return;
   }// inBounds(row, col)
 
-  private void shiftRow(int shiftFrom, int modifier) throws IndexOutOfBoundsException {
-    int start;
-    Predicate<Integer> pred;
-    int nMod;
-
-    if (modifier > 0) {
-      start = this.height - 1;
-      pred = n -> n >= shiftFrom;
-      nMod = -1;
-    } else {
-      start = shiftFrom;
-      pred = n -> n < this.height;
-      nMod = 1;
-    } // define what direction to start in to avoid overwriting.
-
-    if ((shiftFrom < 0) || (shiftFrom >= this.height)) {
-      throw new IndexOutOfBoundsException();
-    } // check in bounds
-
-    for (int r = start; pred.test(r); r += nMod) {
-      for (int c = 0; c < this.width; c++) {
-        Index cIndex = new Index(r, c);
-        Index newIndex = new Index(r + modifier, c);
-        try {
-          this.pairs.updateKey(cIndex, newIndex);
-
-        } catch (Exception e) {
-        } // try catch to only update as needed
-      }
-    }
-  }
-
-  private void shiftCol(int shiftFrom, int modifier) throws IndexOutOfBoundsException {
-    int start;
-    Predicate<Integer> pred;
-    int nMod;
-
-    if (modifier > 0) {
-      start = this.width - 1;
-      pred = n -> n >= shiftFrom;
-      nMod = -1;
-    } else {
-      start = shiftFrom;
-      pred = n -> n < this.width;
-      nMod = 1;
-    } // define what direction to start in to avoid overwriting.
-
-    if ((shiftFrom < 0) || (shiftFrom >= this.width)) {
-      throw new IndexOutOfBoundsException();
-    } // check in bounds
-
-    for (int c = start; pred.test(c); c += nMod) {
-      for (int r = 0; r < this.width; r++) {
-        Index cIndex = new Index(r, c);
-        Index newIndex = new Index(r, c + modifier);
-        try {
-          this.pairs.updateKey(cIndex, newIndex);
-
-        } catch (Exception e) {
-        } // try catch to only update as needed
-      }
-    }
-  }
+  /**
+   * Make sure that regions belong to this matrix alone, so that a
+   * change cannot leak into a clone.
+   */
+  private void unshare() {
+    if (!this.shared) {
+      return;
+    } // if we already own our regions
+    ArrayList<Region<T>> copies = new ArrayList<Region<T>>(this.regions.size());
+    for (Region<T> region : this.regions) {
+      copies.add(region.copy());
+    } // for
+    this.regions = copies;
+    this.shared = false;
+  } // unshare()
+
+  /**
+   * Compute the hash code from each row's share in pairs, in time
+   * proportional to the height. A matrix of defaults has the hash
+   * width + 7 * height + mix(def) * geometric(COL_WEIGHT, width) *
+   * geometric(ROW_WEIGHT, height); each row adds its excess over that.
+   * There must be no pending regions.
+   */
+  private void rehash() {
+    int code = this.width + 7 * this.height
+        + mix(this.def) * geometric(COL_WEIGHT, this.width) * geometric(ROW_WEIGHT, this.height);
+    int rowWeight = 1;
+    for (int r = 0; r < this.height; r++) {
+      code += rowWeight * this.pairs.excess(r);
+      rowWeight *= ROW_WEIGHT;
+    } // for
+    this.hash = code;
+  } // rehash()
+
+  /**
+   * Find the newest region that covers a cell.
+   *
+   * @param row the row of the cell
+   * @param col the column of the cell
+   * @return the region, or null if no region covers the cell
+   */
+  private Region<T> regionAt(int row, int col) {
+    for (int i = this.regions.size() - 1; i >= 0; i--) {
+      Region<T> region = this.regions.get(i);
+      if (region.contains(row, col)) {
+        return region;
+      } // if
+    } // for
+    return null;
+  } // regionAt(int, int)
+
+  /**
+   * Update the regions after a row or column is inserted or deleted.
+   *
+   * @param rows true if a row was edited and false if a column was
+   * @param line the row or column that was inserted or deleted
+   * @param modifier 1 for an insertion and -1 for a deletion
+   */
+  private void shiftRegions(boolean rows, int line, int modifier) {
+    for (int i = 0; i < this.regions.size(); i++) {
+      Region<T> region = this.regions.get(i);
+      if (modifier > 0) {
+        Region<T> after = region.insert(rows, line);
+        if (after != null) {
+          this.regions.add(++i, after);
+        } // if the region was split in two
+      } else if (!region.delete(rows, line)) {
+        this.regions.remove(i--);
+      } // if/else
+    } // for
+  } // shiftRegions(boolean, int, int)
+
+  /**
+   * Write the oldest regions into pairs, one run per row, and forget
+   * them. The newer regions still hide whatever they cover, so it does
+   * not matter that we write under them.
+   *
+   * @param count the number of regions to write
+   */
+  private void settleRegions(int count) {
+    for (Region<T> oldest : this.regions.subList(0, count)) {
+      for (int r = oldest.startRow; r < oldest.endRow; r++) {
+        this.pairs.fill(r, oldest.startCol, oldest.endCol, oldest.val);
+      } // for
+    } // for
+    this.regions.subList(0, count).clear();
+  } // settleRegions(int)
+
+  /**
+   * Write into pairs every region up to the newest one that overlaps a
+   * rectangle, so that pairs decides the value of every cell in the
+   * rectangle.
+   *
+   * @param startRow the top edge of the rectangle (inclusive)
+   * @param startCol the left edge of the rectangle (inclusive)
+   * @param endRow the bottom edge of the rectangle (exclusive)
+   * @param endCol the right edge of the rectangle (exclusive)
+   */
+  private void settleRegions(int startRow, int startCol, int endRow, int endCol) {
+    for (int i = this.regions.size() - 1; i >= 0; i--) {
+      if (this.regions.get(i).overlaps(startRow, startCol, endRow, endCol)) {
+        settleRegions(i + 1);
+        return;
+      } // if
+    } // for
+  } // settleRegions(int, int, int, int)
 
   // +--------------+------------------------------------------------
   // | Core methods |
@@ -200,14 +294,65 @@ public class MatrixV0<T> implements Matrix<T> {
    */
   public T get(int row, int col) throws IndexOutOfBoundsException {
     inBounds(row, col);
-
-    try {
-      return this.pairs.get(new Index(row, col));
-    } catch (KeyNotFoundException e) {
-      return this.def;
-    } // try/catch
+    return cell(row, col);
   } // get(int, int)
 
+  /**
+   * Get the element at the given row and column without checking
+   * bounds.
+   *
+   * @param row the row of the element; must be in bounds
+   * @param col the column of the element; must be in bounds
+   * @return the value at the specified location
+   */
+  @Override
+  T cell(int row, int col) {
+    Region<T> region = regionAt(row, col);
+    if (region != null) {
+      return region.val;
+    } // if a region covers the cell
+
+    return this.pairs.get(row, col);
+  } // cell(int, int)
+
+  /**
+   * Apply an action to the cells of a row that may differ from the
+   * default, walking the row's runs and the pending regions that cross
+   * it rather than every cell. Their edges cut the row into pieces
+   * whose cells all hold the same value, so we look up each piece once.
+   *
+   * @param row the row to walk; must be in bounds
+   * @param action the action, which receives each value and its column
+   */
+  @Override
+  void forEachStoredInRow(int row, ObjIntConsumer<? super T> action) {
+    SparseRows.Bucket bucket = this.pairs.bucket(row);
+    int runs = (bucket == null) ? 0 : bucket.size;
+    int[] cuts = new int[2 * (runs + this.regions.size())];
+    int count = 0;
+    for (int i = 0; i < runs; i++) {
+      cuts[count++] = bucket.starts[i];
+      cuts[count++] = bucket.ends[i];
+    } // for each run
+    for (Region<T> region : this.regions) {
+      if ((row >= region.startRow) && (row < region.endRow)) {
+        cuts[count++] = region.startCol;
+        cuts[count++] = region.endCol;
+      } // if the region crosses the row
+    } // for each pending region
+    Arrays.sort(cuts, 0, count);
+    for (int i = 0; i + 1 < count; i++) {
+      if (cuts[i] < cuts[i + 1]) {
+        T val = cell(row, cuts[i]);
+        if (!Objects.equals(val, this.def)) {
+          for (int col = cuts[i]; col < cuts[i + 1]; col++) {
+            action.accept(val, col);
+          } // for
+        } // if the piece is not all defaults
+      } // if the piece is not empty
+    } // for each piece
+  } // forEachStoredInRow(int, ObjIntConsumer)
+
   /**
    * Set the element at the given row and column.
    *
@@ -224,10 +369,9 @@ public class MatrixV0<T> implements Matrix<T> {
    */
   public void set(int row, int col, T val) throws IndexOutOfBoundsException {
     inBounds(row, col);
-    try {
-      this.pairs.set(new Index(row, col), val);
-    } catch (NullKeyException e) {
-    } // try catch to deal with the null key exception
+    unshare();
+    settleRegions(row, col, row + 1, col + 1);
+    this.hash += this.pairs.set(row, col, val) * power(ROW_WEIGHT, row);
   } // set(int, int, T)
 
   /**
@@ -248,6 +392,15 @@ public class MatrixV0<T> implements Matrix<T> {
     return this.width; // STUB
   } // width()
 
+  /**
+   * Determine the value that fills new cells.
+   *
+   * @return the default value.
+   */
+  public T defaultValue() {
+    return this.def;
+  } // defaultValue()
+
   /**
    * Insert a row filled with the default value.
    *
@@ -259,9 +412,16 @@ public class MatrixV0<T> implements Matrix<T> {
    *                                   height.
    */
   public void insertRow(int row) throws IndexOutOfBoundsException {
-    rInBounds(row);
+    if (row != this.height) {
+      rInBounds(row);
+    } // inserting just past the last row is fine
+    unshare();
     this.height++;
-    shiftRow(row, 1);
+    this.pairs.insertRow(row);
+    shiftRegions(true, row, 1);
+    if (this.hashValid) {
+      rehash();
+    } // if we are keeping the hash up to date
   } // insertRow(int)
 
   /**
@@ -300,9 +460,16 @@ public class MatrixV0<T> implements Matrix<T> {
    *                                   the width.
    */
   public void insertCol(int col) {
-    cInBounds(col);
+    if (col != this.width) {
+      cInBounds(col);
+    } // inserting just past the last column is fine
+    unshare();
     this.width++;
-    shiftCol(col, 1);
+    this.pairs.insertCol(col);
+    shiftRegions(false, col, 1);
+    if (this.hashValid) {
+      rehash();
+    } // if we are keeping the hash up to date
   } // insertCol(int)
 
   /**
@@ -342,19 +509,13 @@ public class MatrixV0<T> implements Matrix<T> {
    */
   public void deleteRow(int row) {
     rInBounds(row);
-
-    for (int c = 0; c < this.width(); c++) {
-      Index indx = new Index(row, c);
-      try {
-        this.pairs.remove(indx);
-      } catch (Exception e) {
-      }
-
-    } // remove its elements from the list if they exist
-
+    unshare();
+    this.pairs.deleteRow(row);
+    shiftRegions(true, row, -1);
     this.height--;
-    shiftRow(row + 1, -1);
-
+    if (this.hashValid) {
+      rehash();
+    } // if we are keeping the hash up to date
   } // deleteRow(int)
 
   /**
@@ -369,22 +530,43 @@ public class MatrixV0<T> implements Matrix<T> {
    */
   public void deleteCol(int col) {
     cInBounds(col);
-
-    for (int r = 0; r < this.width(); r++) {
-      Index indx = new Index(r, col);
-      try {
-        this.pairs.remove(indx);
-      } catch (Exception e) {
-      }
-
-    } // remove its elements from the list if they exist
-
+    unshare();
+    this.pairs.deleteCol(col);
+    shiftRegions(false, col, -1);
     this.width--;
-    shiftCol(col + 1, -1);
+    if (this.hashValid) {
+      rehash();
+    } // if we are keeping the hash up to date
   } // deleteCol(int)
 
   /**
-   * Fill a rectangular region of the matrix.
+   * Insert and delete many rows and columns at once. We write the
+   * pending regions into pairs and then move the runs in one pass.
+   *
+   * @param rows
+   *             The old row for each new row, or -1.
+   * @param cols
+   *             The old column for each new column, or -1.
+   */
+  @Override
+  void remap(int[] rows, int[] cols) {
+    unshare();
+    settleRegions(this.regions.size());
+    this.pairs.remap(rows, cols, this.width);
+    this.width = cols.length;
+    this.height = rows.length;
+    if (this.hashValid) {
+      rehash();
+    } // if we are keeping the hash up to date
+  } // remap(int[], int[])
+
+  /**
+   * Fill a rectangular region of the matrix, as one run per row. While
+   * we are not keeping the hash up to date, a large region is instead
+   * recorded as a pending region, which takes constant time no matter
+   * how many cells it covers; when there are too many pending regions,
+   * the oldest becomes one run per row. Either way, we never spend
+   * time or space on each cell of a region.
    *
    * @param startRow
    *                 The top edge / row to start with (inclusive).
@@ -402,17 +584,28 @@ public class MatrixV0<T> implements Matrix<T> {
    */
   public void fillRegion(int startRow, int startCol, int endRow, int endCol,
       T val) throws IndexOutOfBoundsException {
-    inBounds(endRow, endCol);
-    inBounds(startRow, startCol);
-    if ((endRow < startRow) || (endCol < startCol)) {
+    if ((startRow < 0) || (startCol < 0) || (endRow > this.height) || (endCol > this.width)
+        || (endRow < startRow) || (endCol < startCol)) {
       throw new IndexOutOfBoundsException();
-    } // check if start and end will lead to an infinite
-
-    for (int r = startRow; r < endRow; r++) {
-      for (int c = startCol; c < endRow; c++) {
-        this.set(r, c, val);
-      } // iterate through columns
-    } // iterate through rows
+    } // check that the region fits in the matrix
+    unshare();
+
+    Region<T> region = new Region<T>(startRow, startCol, endRow, endCol, val);
+    if (this.hashValid || (region.area() <= SMALL_REGION)) {
+      settleRegions(startRow, startCol, endRow, endCol);
+      int rowWeight = power(ROW_WEIGHT, startRow);
+      for (int r = startRow; r < endRow; r++) {
+        this.hash += this.pairs.fill(r, startCol, endCol, val) * rowWeight;
+        rowWeight *= ROW_WEIGHT;
+      } // iterate through rows
+      return;
+    } // if the region is small or we are keeping the hash up to date
+
+    this.regions.removeIf(region::covers);
+    this.regions.add(region);
+    if (this.regions.size() > MAX_REGIONS) {
+      settleRegions(1);
+    } // if there are too many regions to check on every get
   } // fillRegion(int, int, int, int, T)
 
   /**
@@ -439,21 +632,28 @@ public class MatrixV0<T> implements Matrix<T> {
   public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
       int endRow, int endCol, T val) {
 
-    inBounds(endRow, endCol);
     inBounds(startRow, startCol);
+    if ((endRow < -1) || (endRow > this.height) || (endCol < -1) || (endCol > this.width)
+        || ((deltaRow == 0) && (deltaCol == 0))) {
+      throw new IndexOutOfBoundsException();
+    } // if the end is out of range or the line never moves
     Predicate<Integer> cPred;
     Predicate<Integer> rPred;
 
     if (deltaCol > 0){
       cPred = n -> n < endCol;
-    }else{
+    }else if (deltaCol < 0){
       cPred = n -> n > endCol;
+    }else{
+      cPred = n -> true;
     }// set the correct  check depending on the slope
 
     if (deltaRow > 0){
       rPred = n -> n < endRow;
-    }else{
+    }else if (deltaRow < 0){
       rPred = n -> n > endRow;
+    }else{
+      rPred = n -> true;
     }// set the correct row check depending on the slope.
 
 
@@ -471,56 +671,89 @@ public class MatrixV0<T> implements Matrix<T> {
     }
   } // fillLine(int, int, int, int, int, int, T)
 
-  public void changePairs(AssociativeArray<Index, T> newPair){
-    this.pairs = newPair;
-  }
+  /**
+   * Replace the stored cells with the pairs in an associative array,
+   * keyed by Index.pack(row, col). Keys outside the matrix are ignored.
+   *
+   * @param newPair
+   *                The new cells.
+   */
+  public void changePairs(LongAssociativeArray<T> newPair) {
+    unshare();
+    SparseRows<T> rows = new SparseRows<T>(this.height, this.def);
+    newPair.forEach((val, key) -> {
+      int row = Index.unpackRow(key);
+      int col = Index.unpackColumn(key);
+      if ((row >= 0) && (row < this.height) && (col >= 0) && (col < this.width)) {
+        rows.set(row, col, val);
+      } // if the key names a cell of the matrix
+    });
+    this.pairs = rows;
+    if (this.hashValid) {
+      rehash();
+    } // if we are keeping the hash up to date
+  } // changePairs(LongAssociativeArray<T>)
+
+  /**
+   * Replace the stored cells with the pairs in an associative array
+   * keyed by Index. Keys outside the matrix are ignored.
+   *
+   * @param newPair
+   *                The new cells.
+   */
+  public void changePairs(AssociativeArray<Index, T> newPair) {
+    LongAssociativeArray<T> packed = new LongAssociativeArray<T>(newPair.size());
+    newPair.forEach((key, val) -> packed.set(key.pack(), val));
+    changePairs(packed);
+  } // changePairs(AssociativeArray<Index, T>)
 
   /**
-   * A make a copy of the matrix. May share references (e.g., if individual
-   * elements are mutable, mutating them in one matrix may affect the other
-   * matrix) or may not.
+   * A make a copy of the matrix. Shares references to the elements.
+   * The copy starts out sharing this matrix's storage, and each matrix
+   * copies a row (and the band of row references around it) the first
+   * time it changes it, so cloning takes constant time, a change copies
+   * only what it touches, and changes never leak between copies.
    *
    * @return a copy of the matrix.
    */
   public Matrix<T> clone() {
-    MatrixV0<T> newClone = new MatrixV0<T>(this.width, this.height, this.def);
-    newClone.changePairs(this.pairs);
+    MatrixV0<T> newClone = new MatrixV0<T>(this.width, 0, this.def);
+    newClone.height = this.height;
+    newClone.pairs = this.pairs.share();
+    newClone.regions = this.regions;
+    newClone.hash = this.hash;
+    newClone.hashValid = this.hashValid;
+    newClone.shared = true;
+    this.shared = true;
     return newClone; 
   } // clone()
 
   /**
-   * Determine if this object is equal to another object.
-   *
-   * @param other
-   *              The object to compare.
+   * Compute a hash code for this matrix, using the formula from
+   * AbstractMatrix. The first call writes the pending regions into
+   * pairs and adds up the rows' shares, in time proportional to the
+   * height plus the rows of those regions. After that, every change
+   * keeps the hash up to date, so later calls take constant time.
    *
-   * @return true if the other object is a matrix with the same width,
-   *         height, and equal elements; false otherwise.
+   * @return the hash code.
    */
-  public boolean equals(Object other) {
-    return ((this.hashCode() == other.hashCode()));
-  } // equals(Object)
+  public int hashCode() {
+    if (!this.hashValid) {
+      unshare();
+      settleRegions(this.regions.size());
+      rehash();
+      this.hashValid = true;
+    } // if
+    return this.hash;
+  } // hashCode()
 
   /**
-   * Compute a hash code for this matrix. Included because any object
-   * that implements `equals` is expected to implement `hashCode` and
-   * ensure that the hash codes for two equal objects are the same.
+   * Determine if hashCode() can answer without looking at the cells.
    *
-   * @return the hash code.
+   * @return true if the hash code is up to date.
    */
-  public int hashCode() {
-    int multiplier = 7;
-    int code = this.width() + multiplier * this.height();
-    for (int row = 0; row < this.height(); row++) {
-      for (int col = 0; col < this.width(); col++) {
-        T val = this.get(row, col);
-        if (val != null) {
-          // It's okay if the following computation overflows, since
-          // it will overflow uniformly.
-          code = code * multiplier + val.hashCode();
-        } // if
-      } // for col
-    } // for row
-    return code;
-  } // hashCode()
+  @Override
+  boolean hashKnown() {
+    return this.hashValid;
+  } // hashKnown()
 } // class MatrixV0
@@ -0,0 +1,292 @@
+package edu.grinnell.csc207.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Writes matrices in a compact binary format that MatrixReader reads.
+ * The writer streams: it looks at one row at a time and never copies
+ * the matrix. For the matrices in this package, it visits only the
+ * cells each row stores, so a sparse matrix takes time proportional to
+ * its stored cells rather than to its area.
+ *
+ * <p>The format (all numbers big-endian, as DataOutput writes them):</p>
+ *
+ * <pre>
+ *   int   MAGIC ("MTXB")
+ *   byte  VERSION
+ *   int   width
+ *   int   height
+ *   byte  1 if the default is not null, followed by the default; else 0
+ *   block*
+ *   byte  END
+ * </pre>
+ *
+ * <p>where each block starts with a kind byte and a row number:</p>
+ *
+ * <ul>
+ * <li>DENSE_ROW: the row's width values, in order.</li>
+ * <li>SPARSE_ROW: a count, then count (int column, value) pairs.</li>
+ * <li>NULL_CELLS: a count, then count int columns that hold null.</li>
+ * </ul>
+ *
+ * <p>Rows that hold only the default are skipped. Other rows are written
+ * densely when at least half their cells differ from the default, and
+ * sparsely otherwise; null cells (which the codec cannot write) go in a
+ * separate block. Values are written by a pluggable MatrixCodec.</p>
+ *
+ * @param <T>
+ *   The type of values stored in the matrices.
+ */
+public class MatrixWriter<T> implements Flushable {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The first four bytes of every matrix ("MTXB").
+   */
+  static final int MAGIC = 0x4D545842;
+
+  /**
+   * The version of the format.
+   */
+  static final byte VERSION = 1;
+
+  /**
+   * Marks the end of a matrix.
+   */
+  static final byte END = 0;
+
+  /**
+   * Marks a row written in full.
+   */
+  static final byte DENSE_ROW = 1;
+
+  /**
+   * Marks a row written as (column, value) pairs.
+   */
+  static final byte SPARSE_ROW = 2;
+
+  /**
+   * Marks the null cells of a row.
+   */
+  static final byte NULL_CELLS = 3;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * Where we write.
+   */
+  final DataOutput out;
+
+  /**
+   * How we write values.
+   */
+  final MatrixCodec<T> codec;
+
+  /**
+   * The values of the cells of the row we are writing that differ
+   * from the default, reused from row to row.
+   */
+  Object[] row;
+
+  /**
+   * The columns of those cells.
+   */
+  int[] cols;
+
+  /**
+   * The number of those cells.
+   */
+  int count;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a writer that writes to a DataOutput.
+   *
+   * @param out
+   *   Where to write.
+   * @param codec
+   *   How to write values.
+   */
+  public MatrixWriter(DataOutput out, MatrixCodec<T> codec) {
+    this.out = out;
+    this.codec = codec;
+    this.row = new Object[16];
+    this.cols = new int[16];
+  } // MatrixWriter(DataOutput, MatrixCodec<T>)
+
+  /**
+   * Create a writer that writes to a channel, through a buffer. Call
+   * flush after writing.
+   *
+   * @param channel
+   *   Where to write.
+   * @param codec
+   *   How to write values.
+   */
+  public MatrixWriter(WritableByteChannel channel, MatrixCodec<T> codec) {
+    this(new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+        1 << 16)), codec);
+  } // MatrixWriter(WritableByteChannel, MatrixCodec<T>)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Write a matrix.
+   *
+   * @param matrix
+   *   The matrix to write.
+   *
+   * @throws IOException
+   *   If the matrix cannot be written.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public void write(Matrix<T> matrix) throws IOException {
+    int width = matrix.width();
+    int height = matrix.height();
+    T def = matrix.defaultValue();
+    this.out.writeInt(MAGIC);
+    this.out.writeByte(VERSION);
+    this.out.writeInt(width);
+    this.out.writeInt(height);
+    writeNullable(def);
+    for (int r = 0; r < height; r++) {
+      gather(matrix, r, def);
+      int nulls = 0;
+      for (int i = 0; i < this.count; i++) {
+        if (this.row[i] == null) {
+          nulls++;
+        } // if
+      } // for
+      int changed = this.count - nulls;
+      // A dense row hands every cell to the codec, so it may not hold
+      // any nulls, even ones that match a null default.
+      boolean hasNull = (nulls > 0) || ((def == null) && (this.count < width));
+      if ((changed > 0) && !hasNull && (2 * changed >= width)) {
+        this.out.writeByte(DENSE_ROW);
+        this.out.writeInt(r);
+        int i = 0;
+        for (int c = 0; c < width; c++) {
+          if ((i < this.count) && (this.cols[i] == c)) {
+            this.codec.write(this.out, (T) this.row[i++]);
+          } else {
+            this.codec.write(this.out, def);
+          } // if/else
+        } // for
+      } else if (changed > 0) {
+        this.out.writeByte(SPARSE_ROW);
+        this.out.writeInt(r);
+        this.out.writeInt(changed);
+        for (int i = 0; i < this.count; i++) {
+          if (this.row[i] != null) {
+            this.out.writeInt(this.cols[i]);
+            this.codec.write(this.out, (T) this.row[i]);
+          } // if
+        } // for
+      } // if/else
+      if (nulls > 0) {
+        this.out.writeByte(NULL_CELLS);
+        this.out.writeInt(r);
+        this.out.writeInt(nulls);
+        for (int i = 0; i < this.count; i++) {
+          if (this.row[i] == null) {
+            this.out.writeInt(this.cols[i]);
+          } // if
+        } // for
+      } // if
+    } // for
+    this.out.writeByte(END);
+    Arrays.fill(this.row, null);
+  } // write(Matrix<T>)
+
+  /**
+   * Collect the cells of a row that differ from the default into row
+   * and cols. For the matrices in this package, we ask the matrix for
+   * just the cells it stores.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param r
+   *   The row.
+   * @param def
+   *   The default value.
+   */
+  void gather(Matrix<T> matrix, int r, T def) {
+    this.count = 0;
+    if (matrix instanceof AbstractMatrix) {
+      ((AbstractMatrix<T>) matrix).forEachStoredInRow(r, (val, c) -> keep(val, c, def));
+    } else {
+      LineView<T> view = matrix.rowView(r);
+      for (int c = 0; c < view.size(); c++) {
+        keep(view.get(c), c, def);
+      } // for
+    } // if/else
+  } // gather(Matrix<T>, int, T)
+
+  /**
+   * Add a cell to row and cols, unless it holds the default.
+   *
+   * @param val
+   *   The value of the cell.
+   * @param c
+   *   The column of the cell.
+   * @param def
+   *   The default value.
+   */
+  void keep(T val, int c, T def) {
+    if (!Objects.equals(val, def)) {
+      if (this.count == this.row.length) {
+        this.row = Arrays.copyOf(this.row, this.count * 2);
+        this.cols = Arrays.copyOf(this.cols, this.count * 2);
+      } // if we need more room
+      this.row[this.count] = val;
+      this.cols[this.count++] = c;
+    } // if
+  } // keep(T, int, T)
+
+  /**
+   * Write a value that may be null.
+   *
+   * @param val
+   *   The value.
+   *
+   * @throws IOException
+   *   If the value cannot be written.
+   */
+  void writeNullable(T val) throws IOException {
+    if (val == null) {
+      this.out.writeByte(0);
+    } else {
+      this.out.writeByte(1);
+      this.codec.write(this.out, val);
+    } // if/else
+  } // writeNullable(T)
+
+  /**
+   * Push any buffered bytes to the underlying stream or channel.
+   *
+   * @throws IOException
+   *   If the bytes cannot be written.
+   */
+  public void flush() throws IOException {
+    if (this.out instanceof Flushable) {
+      ((Flushable) this.out).flush();
+    } // if
+  } // flush()
+} // class MatrixWriter<T>
@@ -0,0 +1,414 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * The loops behind the element-wise operations and reductions of the
+ * primitive matrices. Each works on the first length elements of one
+ * or two arrays.
+ *
+ * <p>The element-wise loops are plain counted loops over arrays, which
+ * HotSpot's C2 compiler turns into SIMD code for whatever vector width
+ * the machine has. C2 will not reorder floating-point additions, so
+ * the double sums keep four independent partial sums; that lets the
+ * additions overlap, at the cost of rounding slightly differently from
+ * a left-to-right sum.</p>
+ */
+class NumericKernels {
+  // +---------+-----------------------------------------------------
+  // | Doubles |
+  // +---------+
+
+  /**
+   * Add b to a, element by element.
+   *
+   * @param a
+   *   The array to update.
+   * @param b
+   *   The array to add.
+   * @param length
+   *   The number of elements.
+   */
+  static void add(double[] a, double[] b, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] += b[i];
+    } // for
+  } // add(double[], double[], int)
+
+  /**
+   * Multiply a by b, element by element.
+   *
+   * @param a
+   *   The array to update.
+   * @param b
+   *   The array to multiply by.
+   * @param length
+   *   The number of elements.
+   */
+  static void multiply(double[] a, double[] b, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] *= b[i];
+    } // for
+  } // multiply(double[], double[], int)
+
+  /**
+   * Multiply every element of a by a factor.
+   *
+   * @param a
+   *   The array to update.
+   * @param factor
+   *   The factor.
+   * @param length
+   *   The number of elements.
+   */
+  static void scale(double[] a, double factor, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] *= factor;
+    } // for
+  } // scale(double[], double, int)
+
+  /**
+   * Add up the elements of a.
+   *
+   * @param a
+   *   The array.
+   * @param length
+   *   The number of elements.
+   *
+   * @return the sum.
+   */
+  static double sum(double[] a, int length) {
+    double s0 = 0.0;
+    double s1 = 0.0;
+    double s2 = 0.0;
+    double s3 = 0.0;
+    int i = 0;
+    for (; i + 3 < length; i += 4) {
+      s0 += a[i];
+      s1 += a[i + 1];
+      s2 += a[i + 2];
+      s3 += a[i + 3];
+    } // for
+    for (; i < length; i++) {
+      s0 += a[i];
+    } // for
+    return (s0 + s1) + (s2 + s3);
+  } // sum(double[], int)
+
+  /**
+   * Find the smallest element of a, as Math.min would.
+   *
+   * @param a
+   *   The array.
+   * @param length
+   *   The number of elements; at least 1.
+   *
+   * @return the smallest element.
+   */
+  static double min(double[] a, int length) {
+    double min = a[0];
+    for (int i = 1; i < length; i++) {
+      min = Math.min(min, a[i]);
+    } // for
+    return min;
+  } // min(double[], int)
+
+  /**
+   * Find the largest element of a, as Math.max would.
+   *
+   * @param a
+   *   The array.
+   * @param length
+   *   The number of elements; at least 1.
+   *
+   * @return the largest element.
+   */
+  static double max(double[] a, int length) {
+    double max = a[0];
+    for (int i = 1; i < length; i++) {
+      max = Math.max(max, a[i]);
+    } // for
+    return max;
+  } // max(double[], int)
+
+  /**
+   * Compute the dot product of a and b.
+   *
+   * @param a
+   *   One array.
+   * @param b
+   *   The other array.
+   * @param length
+   *   The number of elements.
+   *
+   * @return the sum of the products of corresponding elements.
+   */
+  static double dot(double[] a, double[] b, int length) {
+    double s0 = 0.0;
+    double s1 = 0.0;
+    double s2 = 0.0;
+    double s3 = 0.0;
+    int i = 0;
+    for (; i + 3 < length; i += 4) {
+      s0 += a[i] * b[i];
+      s1 += a[i + 1] * b[i + 1];
+      s2 += a[i + 2] * b[i + 2];
+      s3 += a[i + 3] * b[i + 3];
+    } // for
+    for (; i < length; i++) {
+      s0 += a[i] * b[i];
+    } // for
+    return (s0 + s1) + (s2 + s3);
+  } // dot(double[], double[], int)
+
+  // +----------+----------------------------------------------------
+  // | Integers |
+  // +----------+
+
+  /**
+   * Add b to a, element by element.
+   *
+   * @param a
+   *   The array to update.
+   * @param b
+   *   The array to add.
+   * @param length
+   *   The number of elements.
+   */
+  static void add(int[] a, int[] b, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] += b[i];
+    } // for
+  } // add(int[], int[], int)
+
+  /**
+   * Multiply a by b, element by element.
+   *
+   * @param a
+   *   The array to update.
+   * @param b
+   *   The array to multiply by.
+   * @param length
+   *   The number of elements.
+   */
+  static void multiply(int[] a, int[] b, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] *= b[i];
+    } // for
+  } // multiply(int[], int[], int)
+
+  /**
+   * Multiply every element of a by a factor.
+   *
+   * @param a
+   *   The array to update.
+   * @param factor
+   *   The factor.
+   * @param length
+   *   The number of elements.
+   */
+  static void scale(int[] a, int factor, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] *= factor;
+    } // for
+  } // scale(int[], int, int)
+
+  /**
+   * Add up the elements of a, without overflowing.
+   *
+   * @param a
+   *   The array.
+   * @param length
+   *   The number of elements.
+   *
+   * @return the sum.
+   */
+  static long sum(int[] a, int length) {
+    long sum = 0;
+    for (int i = 0; i < length; i++) {
+      sum += a[i];
+    } // for
+    return sum;
+  } // sum(int[], int)
+
+  /**
+   * Find the smallest element of a.
+   *
+   * @param a
+   *   The array.
+   * @param length
+   *   The number of elements; at least 1.
+   *
+   * @return the smallest element.
+   */
+  static int min(int[] a, int length) {
+    int min = a[0];
+    for (int i = 1; i < length; i++) {
+      min = Math.min(min, a[i]);
+    } // for
+    return min;
+  } // min(int[], int)
+
+  /**
+   * Find the largest element of a.
+   *
+   * @param a
+   *   The array.
+   * @param length
+   *   The number of elements; at least 1.
+   *
+   * @return the largest element.
+   */
+  static int max(int[] a, int length) {
+    int max = a[0];
+    for (int i = 1; i < length; i++) {
+      max = Math.max(max, a[i]);
+    } // for
+    return max;
+  } // max(int[], int)
+
+  /**
+   * Compute the dot product of a and b, without overflowing the
+   * products.
+   *
+   * @param a
+   *   One array.
+   * @param b
+   *   The other array.
+   * @param length
+   *   The number of elements.
+   *
+   * @return the sum of the products of corresponding elements.
+   */
+  static long dot(int[] a, int[] b, int length) {
+    long sum = 0;
+    for (int i = 0; i < length; i++) {
+      sum += (long) a[i] * b[i];
+    } // for
+    return sum;
+  } // dot(int[], int[], int)
+
+  // +-------+-------------------------------------------------------
+  // | Longs |
+  // +-------+
+
+  /**
+   * Add b to a, element by element.
+   *
+   * @param a
+   *   The array to update.
+   * @param b
+   *   The array to add.
+   * @param length
+   *   The number of elements.
+   */
+  static void add(long[] a, long[] b, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] += b[i];
+    } // for
+  } // add(long[], long[], int)
+
+  /**
+   * Multiply a by b, element by element.
+   *
+   * @param a
+   *   The array to update.
+   * @param b
+   *   The array to multiply by.
+   * @param length
+   *   The number of elements.
+   */
+  static void multiply(long[] a, long[] b, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] *= b[i];
+    } // for
+  } // multiply(long[], long[], int)
+
+  /**
+   * Multiply every element of a by a factor.
+   *
+   * @param a
+   *   The array to update.
+   * @param factor
+   *   The factor.
+   * @param length
+   *   The number of elements.
+   */
+  static void scale(long[] a, long factor, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] *= factor;
+    } // for
+  } // scale(long[], long, int)
+
+  /**
+   * Add up the elements of a.
+   *
+   * @param a
+   *   The array.
+   * @param length
+   *   The number of elements.
+   *
+   * @return the sum.
+   */
+  static long sum(long[] a, int length) {
+    long sum = 0;
+    for (int i = 0; i < length; i++) {
+      sum += a[i];
+    } // for
+    return sum;
+  } // sum(long[], int)
+
+  /**
+   * Find the smallest element of a.
+   *
+   * @param a
+   *   The array.
+   * @param length
+   *   The number of elements; at least 1.
+   *
+   * @return the smallest element.
+   */
+  static long min(long[] a, int length) {
+    long min = a[0];
+    for (int i = 1; i < length; i++) {
+      min = Math.min(min, a[i]);
+    } // for
+    return min;
+  } // min(long[], int)
+
+  /**
+   * Find the largest element of a.
+   *
+   * @param a
+   *   The array.
+   * @param length
+   *   The number of elements; at least 1.
+   *
+   * @return the largest element.
+   */
+  static long max(long[] a, int length) {
+    long max = a[0];
+    for (int i = 1; i < length; i++) {
+      max = Math.max(max, a[i]);
+    } // for
+    return max;
+  } // max(long[], int)
+
+  /**
+   * Compute the dot product of a and b.
+   *
+   * @param a
+   *   One array.
+   * @param b
+   *   The other array.
+   * @param length
+   *   The number of elements.
+   *
+   * @return the sum of the products of corresponding elements.
+   */
+  static long dot(long[] a, long[] b, int length) {
+    long sum = 0;
+    for (int i = 0; i < length; i++) {
+      sum += a[i] * b[i];
+    } // for
+    return sum;
+  } // dot(long[], long[], int)
+} // class NumericKernels
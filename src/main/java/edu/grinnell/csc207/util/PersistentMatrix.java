@@ -0,0 +1,1072 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * An immutable matrix. Instead of changing the matrix, the with...
+ * methods return a new version that shares all untouched structure
+ * with this one, so keeping many versions costs little more than the
+ * changes between them.
+ *
+ * <p>The non-default cells live in a LongTrie keyed by physical
+ * (row, column) pairs, so changing a cell copies only a handful of trie
+ * nodes. As in MatrixIndirect, two tables map logical rows and columns
+ * to physical ones; inserting or deleting a row copies the row table
+ * (and removes the deleted row's cells), but shares every cell.</p>
+ *
+ * <p>Filling a region does not touch the trie. Instead, the new version
+ * gets one more Fill, which names the physical rows and columns it
+ * covers; later versions share the Fill, and cells set inside it go in
+ * the Fill's own small trie. So a fill costs time proportional to the
+ * region's height and width rather than its area. Small fills go
+ * straight into the trie, and a new fill removes the trie cells it
+ * covers. Since every lookup checks the fills, we keep at most
+ * MAX_FILLS of them, writing the oldest into the trie when there are
+ * more.</p>
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class PersistentMatrix<T> extends AbstractMatrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * Regions with at most this many cells are filled cell by cell rather
+   * than recorded as a Fill.
+   */
+  static final int SMALL_FILL = 64;
+
+  /**
+   * The most fills a version keeps before it writes the oldest into
+   * the trie.
+   */
+  static final int MAX_FILLS = 32;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of columns.
+   */
+  final int width;
+
+  /**
+   * The number of rows.
+   */
+  final int height;
+
+  /**
+   * The default value.
+   */
+  final T def;
+
+  /**
+   * The non-default cells, keyed by Index.pack(physical row, physical
+   * column).
+   */
+  final LongTrie<T> cells;
+
+  /**
+   * The physical row of each logical row.
+   */
+  final int[] rows;
+
+  /**
+   * The physical column of each logical column.
+   */
+  final int[] cols;
+
+  /**
+   * The next physical row that no version in this line has used.
+   */
+  final int nextRow;
+
+  /**
+   * The next physical column that no version in this line has used.
+   */
+  final int nextCol;
+
+  /**
+   * The filled regions, oldest first. Later fills hide earlier ones
+   * where they overlap, and both hide the cells in the trie.
+   */
+  final Fill<T>[] fills;
+
+  /**
+   * The hash code, computed the first time someone asks for it. As in
+   * String, 0 means "not yet computed", so the cache is a single field
+   * that other threads see either whole or not at all.
+   */
+  int hash;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public PersistentMatrix(int width, int height, T def) {
+    this(width, height, def, new LongTrie<T>(), noFills(), identity(height),
+        identity(width), height, width);
+    if ((width < 0) || (height < 0)) {
+      throw new NegativeArraySizeException();
+    } // if
+  } // PersistentMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with
+   * null as the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public PersistentMatrix(int width, int height) {
+    this(width, height, null);
+  } // PersistentMatrix(int, int)
+
+  /**
+   * Build a version from its parts.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value.
+   * @param cells
+   *   The non-default cells.
+   * @param fills
+   *   The filled regions.
+   * @param rows
+   *   The physical row of each logical row.
+   * @param cols
+   *   The physical column of each logical column.
+   * @param nextRow
+   *   The next unused physical row.
+   * @param nextCol
+   *   The next unused physical column.
+   */
+  PersistentMatrix(int width, int height, T def, LongTrie<T> cells, Fill<T>[] fills,
+      int[] rows, int[] cols, int nextRow, int nextCol) {
+    this.width = width;
+    this.height = height;
+    this.def = def;
+    this.cells = cells;
+    this.fills = fills;
+    this.rows = rows;
+    this.cols = cols;
+    this.nextRow = nextRow;
+    this.nextCol = nextCol;
+  } // PersistentMatrix(int, int, T, LongTrie<T>, Fill<T>[], int[], int[], int, int)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Take an immutable copy of a matrix.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param source
+   *   The matrix to copy.
+   *
+   * @return the copy.
+   */
+  public static <T> PersistentMatrix<T> copyOf(Matrix<T> source) {
+    PersistentMatrix<T> empty =
+        new PersistentMatrix<T>(source.width(), source.height(), source.defaultValue());
+    LongTrie.Editor<T> editor = empty.cells.edit();
+    source.nonDefaultCells().forEach((cell) ->
+        editor.set(Index.pack(cell.row(), cell.col()), cell.value()));
+    return empty.withCells(editor.done());
+  } // copyOf(Matrix<T>)
+
+  /**
+   * Build the table that maps each of n positions to itself.
+   *
+   * @param n
+   *   The number of positions.
+   *
+   * @return the table.
+   */
+  static int[] identity(int n) {
+    int[] table = new int[Math.max(n, 0)];
+    for (int i = 0; i < n; i++) {
+      table[i] = i;
+    } // for
+    return table;
+  } // identity(int)
+
+  /**
+   * Make an empty list of fills.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   *
+   * @return the list.
+   */
+  @SuppressWarnings({ "unchecked" })
+  static <T> Fill<T>[] noFills() {
+    return (Fill<T>[]) new Fill<?>[0];
+  } // noFills()
+
+  /**
+   * Describe the physical numbers in part of a table as sorted
+   * [start, end) runs.
+   *
+   * @param table
+   *   The table.
+   * @param from
+   *   The first position (inclusive).
+   * @param to
+   *   The last position (exclusive).
+   *
+   * @return the runs.
+   */
+  static int[] runs(int[] table, int from, int to) {
+    int[] ids = Arrays.copyOfRange(table, from, to);
+    Arrays.sort(ids);
+    int[] runs = new int[2 * ids.length];
+    int count = 0;
+    for (int id : ids) {
+      if ((count > 0) && (runs[count - 1] == id)) {
+        runs[count - 1]++;
+      } else {
+        runs[count++] = id;
+        runs[count++] = id + 1;
+      } // if/else
+    } // for
+    return Arrays.copyOf(runs, count);
+  } // runs(int[], int, int)
+
+  /**
+   * Determine if a number falls in one of a list of runs.
+   *
+   * @param runs
+   *   The runs, as sorted [start, end) pairs.
+   * @param id
+   *   The number.
+   *
+   * @return true if it does.
+   */
+  static boolean within(int[] runs, int id) {
+    int lo = 0;
+    int hi = runs.length / 2;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (runs[2 * mid] <= id) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      } // if/else
+    } // while
+    // Run lo - 1 is the last one that starts at or before id.
+    return (lo > 0) && (id < runs[2 * lo - 1]);
+  } // within(int[], int)
+
+  /**
+   * Determine if every number in one list of runs is in another.
+   *
+   * @param outer
+   *   The runs that might include the others.
+   * @param inner
+   *   The runs that might be included.
+   *
+   * @return true if outer includes all of inner.
+   */
+  static boolean includes(int[] outer, int[] inner) {
+    int o = 0;
+    for (int i = 0; i < inner.length; i += 2) {
+      while ((o < outer.length) && (outer[o + 1] < inner[i + 1])) {
+        o += 2;
+      } // while the outer run ends before the inner one
+      if ((o == outer.length) || (outer[o] > inner[i])) {
+        return false;
+      } // if
+    } // for
+    return true;
+  } // includes(int[], int[])
+
+  /**
+   * Find the physical numbers that a table uses.
+   *
+   * @param table
+   *   The table.
+   *
+   * @return the set of its entries.
+   */
+  static BitSet live(int[] table) {
+    BitSet result = new BitSet();
+    for (int id : table) {
+      result.set(id);
+    } // for
+    return result;
+  } // live(int[])
+
+  /**
+   * Copy a table with a new entry at position pos.
+   *
+   * @param table
+   *   The table.
+   * @param pos
+   *   Where the new entry goes.
+   * @param id
+   *   The new entry.
+   *
+   * @return the new table.
+   */
+  static int[] inserted(int[] table, int pos, int id) {
+    int[] result = new int[table.length + 1];
+    System.arraycopy(table, 0, result, 0, pos);
+    result[pos] = id;
+    System.arraycopy(table, pos, result, pos + 1, table.length - pos);
+    return result;
+  } // inserted(int[], int, int)
+
+  /**
+   * Copy a table without the entry at position pos.
+   *
+   * @param table
+   *   The table.
+   * @param pos
+   *   The entry to leave out.
+   *
+   * @return the new table.
+   */
+  static int[] deleted(int[] table, int pos) {
+    int[] result = Arrays.copyOf(table, table.length - 1);
+    System.arraycopy(table, pos + 1, result, pos, table.length - pos - 1);
+    return result;
+  } // deleted(int[], int)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * A filled region. It covers the cells whose physical row is in
+   * rowRuns and whose physical column is in colRuns, so rows and columns
+   * inserted inside it later are not part of it. Once made, a Fill never
+   * changes; setting a cell inside it makes a new Fill with one more
+   * override.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  static final class Fill<T> {
+    /**
+     * The physical rows covered, as sorted [start, end) pairs.
+     */
+    final int[] rowRuns;
+
+    /**
+     * The physical columns covered, as sorted [start, end) pairs.
+     */
+    final int[] colRuns;
+
+    /**
+     * The value the region was filled with.
+     */
+    final T val;
+
+    /**
+     * The cells set inside the region since it was filled, keyed by
+     * Index.pack(physical row, physical column).
+     */
+    final LongTrie<T> overrides;
+
+    /**
+     * Create a fill.
+     *
+     * @param rowRuns
+     *   The physical rows covered.
+     * @param colRuns
+     *   The physical columns covered.
+     * @param val
+     *   The value the region was filled with.
+     * @param overrides
+     *   The cells set since.
+     */
+    Fill(int[] rowRuns, int[] colRuns, T val, LongTrie<T> overrides) {
+      this.rowRuns = rowRuns;
+      this.colRuns = colRuns;
+      this.val = val;
+      this.overrides = overrides;
+    } // Fill(int[], int[], T, LongTrie<T>)
+
+    /**
+     * Determine if the region covers a physical cell.
+     *
+     * @param prow
+     *   The physical row.
+     * @param pcol
+     *   The physical column.
+     *
+     * @return true if it does.
+     */
+    boolean covers(int prow, int pcol) {
+      return within(this.rowRuns, prow) && within(this.colRuns, pcol);
+    } // covers(int, int)
+
+    /**
+     * Determine if this region covers all of another.
+     *
+     * @param other
+     *   The other region.
+     *
+     * @return true if it does.
+     */
+    boolean hides(Fill<T> other) {
+      return includes(this.rowRuns, other.rowRuns) && includes(this.colRuns, other.colRuns);
+    } // hides(Fill<T>)
+
+    /**
+     * Get the value of a cell the region covers.
+     *
+     * @param key
+     *   The cell's physical key.
+     *
+     * @return the value.
+     */
+    T get(long key) {
+      return this.overrides.getOrDefault(key, this.val);
+    } // get(long)
+
+    /**
+     * Make a copy of this fill with one covered cell changed.
+     *
+     * @param key
+     *   The cell's physical key.
+     * @param newVal
+     *   The cell's new value.
+     *
+     * @return the new fill.
+     */
+    Fill<T> with(long key, T newVal) {
+      return new Fill<T>(this.rowRuns, this.colRuns, this.val,
+          Objects.equals(newVal, this.val)
+              ? this.overrides.remove(key)
+              : this.overrides.set(key, newVal));
+    } // with(long, T)
+  } // class Fill<T>
+
+  /**
+   * Get the trie key of a logical cell.
+   *
+   * @param row
+   *   The logical row.
+   * @param col
+   *   The logical column.
+   *
+   * @return the key.
+   */
+  long key(int row, int col) {
+    return Index.pack(this.rows[row], this.cols[col]);
+  } // key(int, int)
+
+  /**
+   * Make a version of this matrix with different cells.
+   *
+   * @param newCells
+   *   The cells of the new version.
+   *
+   * @return the new version.
+   */
+  PersistentMatrix<T> withCells(LongTrie<T> newCells) {
+    return new PersistentMatrix<T>(this.width, this.height, this.def, newCells, this.fills,
+        this.rows, this.cols, this.nextRow, this.nextCol);
+  } // withCells(LongTrie<T>)
+
+  /**
+   * Make a version of this matrix with different fills.
+   *
+   * @param newFills
+   *   The fills of the new version.
+   *
+   * @return the new version.
+   */
+  PersistentMatrix<T> withFills(Fill<T>[] newFills) {
+    return new PersistentMatrix<T>(this.width, this.height, this.def, this.cells, newFills,
+        this.rows, this.cols, this.nextRow, this.nextCol);
+  } // withFills(Fill<T>[])
+
+  /**
+   * Write the cells of the oldest of a list of fills into the trie,
+   * skipping those that a newer fill hides and those in deleted rows or
+   * columns. No trie cell lies under a fill, so we need only add cells.
+   *
+   * @param list
+   *   The fills, oldest first.
+   * @param count
+   *   The number of fills in the list.
+   * @param editor
+   *   The editor for the trie.
+   */
+  void settle(Fill<T>[] list, int count, LongTrie.Editor<T> editor) {
+    Fill<T> oldest = list[0];
+    BitSet liveRows = live(this.rows);
+    BitSet liveCols = live(this.cols);
+    for (int r = 0; r < oldest.rowRuns.length; r += 2) {
+      for (int prow = liveRows.nextSetBit(oldest.rowRuns[r]);
+          (prow >= 0) && (prow < oldest.rowRuns[r + 1]);
+          prow = liveRows.nextSetBit(prow + 1)) {
+        for (int c = 0; c < oldest.colRuns.length; c += 2) {
+          for (int pcol = liveCols.nextSetBit(oldest.colRuns[c]);
+              (pcol >= 0) && (pcol < oldest.colRuns[c + 1]);
+              pcol = liveCols.nextSetBit(pcol + 1)) {
+            long key = Index.pack(prow, pcol);
+            T val = oldest.get(key);
+            if (!Objects.equals(val, this.def) && !hidden(list, count, prow, pcol)) {
+              editor.set(key, val);
+            } // if the cell holds something and no newer fill hides it
+          } // for pcol
+        } // for c
+      } // for prow
+    } // for r
+  } // settle(Fill<T>[], int, LongTrie.Editor<T>)
+
+  /**
+   * Determine if any fill but the oldest in a list covers a physical
+   * cell.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param list
+   *   The fills, oldest first.
+   * @param count
+   *   The number of fills in the list.
+   * @param prow
+   *   The physical row.
+   * @param pcol
+   *   The physical column.
+   *
+   * @return true if a newer fill covers the cell.
+   */
+  static <T> boolean hidden(Fill<T>[] list, int count, int prow, int pcol) {
+    for (int i = 1; i < count; i++) {
+      if (list[i].covers(prow, pcol)) {
+        return true;
+      } // if
+    } // for
+    return false;
+  } // hidden(Fill<T>[], int, int, int)
+
+  /**
+   * Find the newest fill that covers a physical cell.
+   *
+   * @param prow
+   *   The physical row.
+   * @param pcol
+   *   The physical column.
+   *
+   * @return the fill's position in fills, or -1 if no fill covers the
+   *   cell.
+   */
+  int covering(int prow, int pcol) {
+    int i = this.fills.length - 1;
+    while ((i >= 0) && !this.fills[i].covers(prow, pcol)) {
+      i--;
+    } // while
+    return i;
+  } // covering(int, int)
+
+  /**
+   * Set one cell through an editor, removing it if it holds the
+   * default.
+   *
+   * @param editor
+   *   The editor.
+   * @param row
+   *   The logical row.
+   * @param col
+   *   The logical column.
+   * @param val
+   *   The value.
+   */
+  void put(LongTrie.Editor<T> editor, int row, int col, T val) {
+    if (Objects.equals(val, this.def)) {
+      editor.remove(key(row, col));
+    } else {
+      editor.set(key(row, col), val);
+    } // if/else
+  } // put(LongTrie.Editor<T>, int, int, T)
+
+  // +----------+----------------------------------------------------
+  // | Versions |
+  // +----------+
+
+  /**
+   * Get a version of this matrix with one cell changed.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   * @param val
+   *   The new value.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public PersistentMatrix<T> with(int row, int col, T val) {
+    checkCell(row, col);
+    long key = key(row, col);
+    int fill = covering(this.rows[row], this.cols[col]);
+    PersistentMatrix<T> result;
+    if (fill >= 0) {
+      Fill<T>[] newFills = this.fills.clone();
+      newFills[fill] = this.fills[fill].with(key, val);
+      result = withFills(newFills);
+    } else if (Objects.equals(val, this.def)) {
+      result = withCells(this.cells.remove(key));
+    } else {
+      result = withCells(this.cells.set(key, val));
+    } // if/else
+    int code = this.hash;
+    if (code != 0) {
+      result.hash = code + (mix(val) - mix(cell(row, col)))
+          * power(ROW_WEIGHT, row) * power(COL_WEIGHT, col);
+    } // if we already know the hash
+    return result;
+  } // with(int, int, T)
+
+  /**
+   * Get a version of this matrix with a row of default values inserted.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public PersistentMatrix<T> withRowInserted(int row) {
+    checkInsertRow(row);
+    return new PersistentMatrix<T>(this.width, this.height + 1, this.def, this.cells,
+        this.fills, inserted(this.rows, row, this.nextRow), this.cols, this.nextRow + 1,
+        this.nextCol);
+  } // withRowInserted(int)
+
+  /**
+   * Get a version of this matrix with a column of default values
+   * inserted.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public PersistentMatrix<T> withColInserted(int col) {
+    checkInsertCol(col);
+    return new PersistentMatrix<T>(this.width + 1, this.height, this.def, this.cells,
+        this.fills, this.rows, inserted(this.cols, col, this.nextCol), this.nextRow,
+        this.nextCol + 1);
+  } // withColInserted(int)
+
+  /**
+   * Get a version of this matrix without one of its rows.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public PersistentMatrix<T> withRowDeleted(int row) {
+    checkRow(row);
+    LongTrie.Editor<T> editor = this.cells.edit();
+    for (int col = 0; col < this.width; col++) {
+      editor.remove(key(row, col));
+    } // for
+    return new PersistentMatrix<T>(this.width, this.height - 1, this.def, editor.done(),
+        this.fills, deleted(this.rows, row), this.cols, this.nextRow, this.nextCol);
+  } // withRowDeleted(int)
+
+  /**
+   * Get a version of this matrix without one of its columns.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public PersistentMatrix<T> withColDeleted(int col) {
+    checkCol(col);
+    LongTrie.Editor<T> editor = this.cells.edit();
+    for (int row = 0; row < this.height; row++) {
+      editor.remove(key(row, col));
+    } // for
+    return new PersistentMatrix<T>(this.width - 1, this.height, this.def, editor.done(),
+        this.fills, this.rows, deleted(this.cols, col), this.nextRow, this.nextCol);
+  } // withColDeleted(int)
+
+  /**
+   * Get a version of this matrix with a rectangular region filled. A
+   * small region is filled cell by cell. Otherwise the new version adds
+   * one Fill, drops any earlier fills it hides completely, and removes
+   * the trie cells it covers (by key if the region has fewer cells than
+   * the trie, and by walking the trie if not).
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public PersistentMatrix<T> withRegionFilled(int startRow, int startCol, int endRow,
+      int endCol, T val) {
+    checkRegion(startRow, startCol, endRow, endCol);
+    long area = (long) (endRow - startRow) * (endCol - startCol);
+    if (area <= SMALL_FILL) {
+      PersistentMatrix<T> result = this;
+      for (int row = startRow; row < endRow; row++) {
+        for (int col = startCol; col < endCol; col++) {
+          result = result.with(row, col, val);
+        } // for col
+      } // for row
+      return result;
+    } // if the region is small
+
+    Fill<T> fill = new Fill<T>(runs(this.rows, startRow, endRow),
+        runs(this.cols, startCol, endCol), val, new LongTrie<T>());
+    LongTrie.Editor<T> editor = this.cells.edit();
+    if (area <= this.cells.size()) {
+      for (int row = startRow; row < endRow; row++) {
+        for (int col = startCol; col < endCol; col++) {
+          editor.remove(key(row, col));
+        } // for col
+      } // for row
+    } else {
+      this.cells.forEach((cell, key) -> {
+        if (fill.covers(Index.unpackRow(key), Index.unpackColumn(key))) {
+          editor.remove(key);
+        } // if
+      });
+    } // if/else
+    Fill<T>[] newFills = Arrays.copyOf(this.fills, this.fills.length + 1);
+    int count = 0;
+    for (Fill<T> old : this.fills) {
+      if (!fill.hides(old)) {
+        newFills[count++] = old;
+      } // if
+    } // for
+    newFills[count++] = fill;
+    int oldest = 0;
+    if (count > MAX_FILLS) {
+      settle(newFills, count, editor);
+      oldest = 1;
+    } // if we have too many fills
+    return new PersistentMatrix<T>(this.width, this.height, this.def, editor.done(),
+        Arrays.copyOfRange(newFills, oldest, count), this.rows, this.cols, this.nextRow,
+        this.nextCol);
+  } // withRegionFilled(int, int, int, int, T)
+
+  /**
+   * Get a version of this matrix with a line filled.
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public PersistentMatrix<T> withLineFilled(int startRow, int startCol, int deltaRow,
+      int deltaCol, int endRow, int endCol, T val) {
+    checkCell(startRow, startCol);
+    if ((endRow < -1) || (endRow > this.height) || (endCol < -1)
+        || (endCol > this.width) || ((deltaRow == 0) && (deltaCol == 0))) {
+      throw new IndexOutOfBoundsException("Invalid line");
+    } // if
+    if (this.fills.length > 0) {
+      PersistentMatrix<T> result = this;
+      for (int row = startRow, col = startCol;
+          before(row, deltaRow, endRow) && before(col, deltaCol, endCol);
+          row += deltaRow, col += deltaCol) {
+        result = result.with(row, col, val);
+      } // for
+      return result;
+    } // if some cells may belong to fills
+    LongTrie.Editor<T> editor = this.cells.edit();
+    for (int row = startRow, col = startCol;
+        before(row, deltaRow, endRow) && before(col, deltaCol, endCol);
+        row += deltaRow, col += deltaCol) {
+      put(editor, row, col, val);
+    } // for
+    return withCells(editor.done());
+  } // withLineFilled(int, int, int, int, int, int, T)
+
+  /**
+   * Determine how many cells hold something other than the default.
+   * Without fills, that is the size of the trie; with them, we have to
+   * count.
+   *
+   * @return the number of non-default cells.
+   */
+  public int size() {
+    if (this.fills.length == 0) {
+      return this.cells.size();
+    } // if
+    try (Stream<MatrixCell<T>> cells = nonDefaultCells()) {
+      return (int) cells.count();
+    } // try
+  } // size()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    checkCell(row, col);
+    return cell(row, col);
+  } // get(int, int)
+
+  /**
+   * Get the element at the given row and column without checking
+   * bounds.
+   *
+   * @param row
+   *   The row of the element; must be in bounds.
+   * @param col
+   *   The column of the element; must be in bounds.
+   *
+   * @return the value at the specified location.
+   */
+  @Override
+  T cell(int row, int col) {
+    int prow = this.rows[row];
+    int pcol = this.cols[col];
+    long key = Index.pack(prow, pcol);
+    int fill = covering(prow, pcol);
+    if (fill >= 0) {
+      return this.fills[fill].get(key);
+    } // if
+    return this.cells.getOrDefault(key, this.def);
+  } // cell(int, int)
+
+  /**
+   * Persistent matrices cannot be changed; use with instead.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void set(int row, int col, T val) {
+    throw new UnsupportedOperationException("PersistentMatrix is immutable; use with");
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Determine the value that fills new cells.
+   *
+   * @return the default value.
+   */
+  public T defaultValue() {
+    return this.def;
+  } // defaultValue()
+
+  /**
+   * Persistent matrices cannot be changed; use withRowInserted instead.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void insertRow(int row) {
+    throw new UnsupportedOperationException("PersistentMatrix is immutable; use withRowInserted");
+  } // insertRow(int)
+
+  /**
+   * Persistent matrices cannot be changed; use withColInserted instead.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void insertCol(int col) {
+    throw new UnsupportedOperationException("PersistentMatrix is immutable; use withColInserted");
+  } // insertCol(int)
+
+  /**
+   * Persistent matrices cannot be changed; use withRowDeleted instead.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void deleteRow(int row) {
+    throw new UnsupportedOperationException("PersistentMatrix is immutable; use withRowDeleted");
+  } // deleteRow(int)
+
+  /**
+   * Persistent matrices cannot be changed; use withColDeleted instead.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void deleteCol(int col) {
+    throw new UnsupportedOperationException("PersistentMatrix is immutable; use withColDeleted");
+  } // deleteCol(int)
+
+  /**
+   * Persistent matrices cannot be changed; use withRegionFilled
+   * instead.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol, T val) {
+    throw new UnsupportedOperationException(
+        "PersistentMatrix is immutable; use withRegionFilled");
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Persistent matrices cannot be changed, so the matrix serves as its
+   * own copy.
+   *
+   * @return this matrix.
+   */
+  public PersistentMatrix<T> clone() {
+    return this;
+  } // clone()
+
+  /**
+   * Compute a hash code for this matrix. Since the matrix never
+   * changes, we only compute it once.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    int code = this.hash;
+    if (code == 0) {
+      code = super.hashCode();
+      this.hash = code;
+    } // if
+    return code;
+  } // hashCode()
+
+  /**
+   * Determine if hashCode() can answer without looking at the cells.
+   *
+   * @return true once the hash code has been computed.
+   */
+  @Override
+  boolean hashKnown() {
+    return this.hash != 0;
+  } // hashKnown()
+} // class PersistentMatrix<T>
@@ -0,0 +1,281 @@
+package edu.grinnell.csc207.util;
+
+import java.lang.reflect.Array;
+import java.util.NoSuchElementException;
+
+/**
+ * A skeletal implementation of matrices of a primitive type, stored in
+ * a single flat primitive array in row-major order. Subclasses supply
+ * the array and the typed accessors; the structural operations here
+ * move cells with System.arraycopy, which works on any array type.
+ *
+ * @param <T>
+ *   The boxed type of values stored in the matrix.
+ */
+public abstract class PrimitiveMatrix<T> extends AbstractMatrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of columns (also the stride between rows).
+   */
+  int width;
+
+  /**
+   * The number of rows.
+   */
+  int height;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Set up the dimensions of a new matrix.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  PrimitiveMatrix(int width, int height) {
+    if ((width < 0) || (height < 0)) {
+      throw new NegativeArraySizeException();
+    } // if
+    this.width = width;
+    this.height = height;
+  } // PrimitiveMatrix(int, int)
+
+  // +------------------+--------------------------------------------
+  // | Storage handling |
+  // +------------------+
+
+  /**
+   * Get the backing array.
+   *
+   * @return the backing array.
+   */
+  abstract Object storage();
+
+  /**
+   * Replace the backing array.
+   *
+   * @param cells
+   *   The new backing array.
+   */
+  abstract void storage(Object cells);
+
+  /**
+   * Create a new array of the backing type.
+   *
+   * @param length
+   *   The length of the array.
+   *
+   * @return the new array.
+   */
+  abstract Object newCells(int length);
+
+  /**
+   * Fill part of the backing array with the default value.
+   *
+   * @param from
+   *   The first position to fill (inclusive).
+   * @param to
+   *   The last position to fill (exclusive).
+   */
+  abstract void fillDefault(int from, int to);
+
+  /**
+   * Determine how many cells the backing array can hold.
+   *
+   * @return the capacity.
+   */
+  int capacity() {
+    return Array.getLength(this.storage());
+  } // capacity()
+
+  /**
+   * Each row lives in its own stretch of the array, so disjoint rows
+   * may be written concurrently.
+   *
+   * @return true.
+   */
+  @Override
+  boolean concurrentRowWrites() {
+    return true;
+  } // concurrentRowWrites()
+
+  /**
+   * Determine how many cells are in use. They are always the first
+   * width * height elements of the backing array.
+   *
+   * @return the number of cells in use.
+   */
+  int used() {
+    return this.width * this.height;
+  } // used()
+
+  /**
+   * Make sure that another matrix has the same shape as this one, so
+   * that the two may be combined element by element.
+   *
+   * @param other
+   *   The other matrix.
+   *
+   * @throws IllegalArgumentException
+   *   If the widths or heights differ.
+   */
+  void checkShape(PrimitiveMatrix<?> other) {
+    if ((other.width != this.width) || (other.height != this.height)) {
+      throw new IllegalArgumentException("Mismatched shapes: " + this.width + "x"
+          + this.height + " and " + other.width + "x" + other.height);
+    } // if
+  } // checkShape(PrimitiveMatrix<?>)
+
+  /**
+   * Make sure that the matrix has at least one cell, so that it has a
+   * smallest and a largest.
+   *
+   * @throws NoSuchElementException
+   *   If the matrix has no cells.
+   */
+  void checkNotEmpty() {
+    if (used() == 0) {
+      throw new NoSuchElementException("Empty matrix");
+    } // if
+  } // checkNotEmpty()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    checkInsertRow(row);
+    int used = this.height * this.width;
+    if (used + this.width > this.capacity()) {
+      Object bigger = newCells(Math.max(used + this.width, this.capacity() * 2));
+      System.arraycopy(this.storage(), 0, bigger, 0, used);
+      this.storage(bigger);
+    } // if we need room for another row
+    int from = row * this.width;
+    System.arraycopy(this.storage(), from, this.storage(), from + this.width, used - from);
+    fillDefault(from, from + this.width);
+    this.height++;
+  } // insertRow(int)
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    checkInsertCol(col);
+    int newWidth = this.width + 1;
+    Object oldCells = this.storage();
+    this.storage(newCells(Math.max(this.capacity(), newWidth * this.height)));
+    for (int row = 0; row < this.height; row++) {
+      int oldStart = row * this.width;
+      int newStart = row * newWidth;
+      System.arraycopy(oldCells, oldStart, this.storage(), newStart, col);
+      fillDefault(newStart + col, newStart + col + 1);
+      System.arraycopy(oldCells, oldStart + col, this.storage(), newStart + col + 1,
+          this.width - col);
+    } // for
+    this.width = newWidth;
+  } // insertCol(int)
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    checkRow(row);
+    int used = this.height * this.width;
+    int from = (row + 1) * this.width;
+    System.arraycopy(this.storage(), from, this.storage(), from - this.width, used - from);
+    this.height--;
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    checkCol(col);
+    int newWidth = this.width - 1;
+    for (int row = 0; row < this.height; row++) {
+      int oldStart = row * this.width;
+      int newStart = row * newWidth;
+      System.arraycopy(this.storage(), oldStart, this.storage(), newStart, col);
+      System.arraycopy(this.storage(), oldStart + col + 1, this.storage(), newStart + col,
+          newWidth - col);
+    } // for
+    this.width = newWidth;
+  } // deleteCol(int)
+
+  /**
+   * Copy the dimensions and used cells of this matrix into another
+   * (freshly constructed) matrix of the same type.
+   *
+   * @param <M>
+   *   The type of the copy.
+   * @param copy
+   *   The matrix to copy into.
+   *
+   * @return copy, for convenience.
+   */
+  <M extends PrimitiveMatrix<T>> M copyInto(M copy) {
+    int used = this.width * this.height;
+    Object cells = copy.newCells(used);
+    System.arraycopy(this.storage(), 0, cells, 0, used);
+    copy.storage(cells);
+    copy.width = this.width;
+    copy.height = this.height;
+    return copy;
+  } // copyInto(M)
+} // class PrimitiveMatrix<T>
@@ -0,0 +1,204 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * A filled rectangle in a matrix: every cell in rows [startRow, endRow)
+ * and columns [startCol, endCol) holds val.
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+class Region<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The top edge (inclusive).
+   */
+  int startRow;
+
+  /**
+   * The left edge (inclusive).
+   */
+  int startCol;
+
+  /**
+   * The bottom edge (exclusive).
+   */
+  int endRow;
+
+  /**
+   * The right edge (exclusive).
+   */
+  int endCol;
+
+  /**
+   * The value that fills the region.
+   */
+  T val;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new region.
+   *
+   * @param startRow
+   *   The top edge (inclusive).
+   * @param startCol
+   *   The left edge (inclusive).
+   * @param endRow
+   *   The bottom edge (exclusive).
+   * @param endCol
+   *   The right edge (exclusive).
+   * @param val
+   *   The value that fills the region.
+   */
+  Region(int startRow, int startCol, int endRow, int endCol, T val) {
+    this.startRow = startRow;
+    this.startCol = startCol;
+    this.endRow = endRow;
+    this.endCol = endCol;
+    this.val = val;
+  } // Region(int, int, int, int, T)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Make a copy of the region.
+   *
+   * @return the copy.
+   */
+  Region<T> copy() {
+    return new Region<T>(this.startRow, this.startCol, this.endRow, this.endCol, this.val);
+  } // copy()
+
+  /**
+   * Determine if the region includes a cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return true if the cell is inside the region.
+   */
+  boolean contains(int row, int col) {
+    return (row >= this.startRow) && (row < this.endRow)
+        && (col >= this.startCol) && (col < this.endCol);
+  } // contains(int, int)
+
+  /**
+   * Determine if the region shares any cell with a rectangle.
+   *
+   * @param startRow
+   *   The top edge of the rectangle (inclusive).
+   * @param startCol
+   *   The left edge of the rectangle (inclusive).
+   * @param endRow
+   *   The bottom edge of the rectangle (exclusive).
+   * @param endCol
+   *   The right edge of the rectangle (exclusive).
+   *
+   * @return true if the two overlap.
+   */
+  boolean overlaps(int startRow, int startCol, int endRow, int endCol) {
+    return (startRow < this.endRow) && (this.startRow < endRow)
+        && (startCol < this.endCol) && (this.startCol < endCol);
+  } // overlaps(int, int, int, int)
+
+  /**
+   * Determine if the region includes every cell of another region.
+   *
+   * @param other
+   *   The other region.
+   *
+   * @return true if other lies within this region.
+   */
+  boolean covers(Region<T> other) {
+    return (other.startRow >= this.startRow) && (other.endRow <= this.endRow)
+        && (other.startCol >= this.startCol) && (other.endCol <= this.endCol);
+  } // covers(Region)
+
+  /**
+   * Determine how many cells the region includes.
+   *
+   * @return the area.
+   */
+  long area() {
+    return ((long) (this.endRow - this.startRow)) * (this.endCol - this.startCol);
+  } // area()
+
+  /**
+   * Update the region after a row or column is inserted. A region that
+   * straddles the new line is split in two: this region keeps the part
+   * before the line and the part after is returned.
+   *
+   * @param rows
+   *   True if a row was inserted and false if a column was.
+   * @param line
+   *   The row or column that was inserted.
+   *
+   * @return the part of the region after the new line, or null if the
+   *   region was not split.
+   */
+  Region<T> insert(boolean rows, int line) {
+    int start = rows ? this.startRow : this.startCol;
+    int end = rows ? this.endRow : this.endCol;
+    Region<T> after = null;
+    if (line <= start) {
+      start++;
+      end++;
+    } else if (line < end) {
+      after = new Region<T>(this.startRow, this.startCol, this.endRow, this.endCol, this.val);
+      if (rows) {
+        after.startRow = line + 1;
+        after.endRow = end + 1;
+      } else {
+        after.startCol = line + 1;
+        after.endCol = end + 1;
+      } // if/else
+      end = line;
+    } // if/else
+    if (rows) {
+      this.startRow = start;
+      this.endRow = end;
+    } else {
+      this.startCol = start;
+      this.endCol = end;
+    } // if/else
+    return after;
+  } // insert(boolean, int)
+
+  /**
+   * Update the region after a row or column is deleted.
+   *
+   * @param rows
+   *   True if a row was deleted and false if a column was.
+   * @param line
+   *   The row or column that was deleted.
+   *
+   * @return false if the region is now empty and true otherwise.
+   */
+  boolean delete(boolean rows, int line) {
+    int start = rows ? this.startRow : this.startCol;
+    int end = rows ? this.endRow : this.endCol;
+    if (line < start) {
+      start--;
+      end--;
+    } else if (line < end) {
+      end--;
+    } // if/else
+    if (rows) {
+      this.startRow = start;
+      this.endRow = end;
+    } else {
+      this.startCol = start;
+      this.endCol = end;
+    } // if/else
+    return start < end;
+  } // delete(boolean, int)
+} // class Region<T>
@@ -0,0 +1,767 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The stored cells of a sparse matrix, bucketed by row. Each row keeps
+ * runs of equal cells: the run [start, end) holds one value in every
+ * column from start (inclusive) to end (exclusive). The runs of a row
+ * do not overlap and are sorted by column, and cells outside every run
+ * hold the default. A single cell is a run of length one, and filling
+ * part of a row replaces whatever runs it covers with one run, so a
+ * rectangular fill costs one run per row rather than one entry per
+ * cell.
+ *
+ * <p>Row edits just move bucket references, and column edits adjust
+ * only the runs that are stored. Structural edits therefore take time
+ * proportional to the number of runs (plus the height), not to the
+ * area of the matrix.</p>
+ *
+ * <p>Stores may share buckets, as clones of one matrix do. The buckets
+ * are grouped into bands of BAND_SIZE rows, and each bucket and band
+ * records the store that owns it. A store copies a bucket or band it
+ * does not own just before it first changes it, so the first change
+ * after a share copies one band of references and one row's runs,
+ * not the whole store.</p>
+ *
+ * <p>Each bucket also keeps its row's share of the hash code (see
+ * AbstractMatrix.rowHash), less the share the row would have if it held
+ * only defaults. Every change to a run updates it in closed form, with
+ * AbstractMatrix.geometric, so the hash never requires visiting the
+ * cells of a run.</p>
+ *
+ * @param <T>
+ *   The type of values stored.
+ */
+class SparseRows<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The capacity of a new bucket.
+   */
+  static final int BUCKET_CAPACITY = 4;
+
+  /**
+   * The base-two logarithm of BAND_SIZE.
+   */
+  static final int BAND_BITS = 6;
+
+  /**
+   * The number of rows in a band.
+   */
+  static final int BAND_SIZE = 1 << BAND_BITS;
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * The runs of one row, sorted by column.
+   */
+  static final class Bucket {
+    /**
+     * The first column of each run, in increasing order.
+     */
+    int[] starts;
+
+    /**
+     * The column just past each run, parallel to starts.
+     */
+    int[] ends;
+
+    /**
+     * The value of each run, parallel to starts.
+     */
+    Object[] vals;
+
+    /**
+     * The number of runs.
+     */
+    int size;
+
+    /**
+     * The sum of weigh(start, end, val) over the runs.
+     */
+    int excess;
+
+    /**
+     * The store that may change the bucket in place.
+     */
+    Object owner;
+
+    /**
+     * Create an empty bucket.
+     *
+     * @param capacity
+     *   The number of runs it can hold before growing.
+     */
+    Bucket(int capacity) {
+      this.starts = new int[capacity];
+      this.ends = new int[capacity];
+      this.vals = new Object[capacity];
+    } // Bucket(int)
+
+    /**
+     * Find the run that holds a column.
+     *
+     * @param col
+     *   The column to look for.
+     *
+     * @return the index of the run, or -1 if no run holds the column.
+     */
+    int find(int col) {
+      int i = Arrays.binarySearch(this.starts, 0, this.size, col);
+      if (i < 0) {
+        i = -i - 2;
+      } // if col is not the start of a run
+      return ((i >= 0) && (col < this.ends[i])) ? i : -1;
+    } // find(int)
+
+    /**
+     * Make room for more runs.
+     *
+     * @param needed
+     *   The number of runs the bucket must be able to hold.
+     */
+    void ensure(int needed) {
+      if (needed > this.starts.length) {
+        int capacity = Math.max(needed, this.starts.length * 2);
+        this.starts = Arrays.copyOf(this.starts, capacity);
+        this.ends = Arrays.copyOf(this.ends, capacity);
+        this.vals = Arrays.copyOf(this.vals, capacity);
+      } // if
+    } // ensure(int)
+
+    /**
+     * Add a run after the others.
+     *
+     * @param start
+     *   The first column of the run.
+     * @param end
+     *   The column just past the run.
+     * @param val
+     *   The value of the run.
+     */
+    void append(int start, int end, Object val) {
+      ensure(this.size + 1);
+      this.starts[this.size] = start;
+      this.ends[this.size] = end;
+      this.vals[this.size++] = val;
+    } // append(int, int, Object)
+
+    /**
+     * Make a copy of the bucket, for another owner.
+     *
+     * @param owner
+     *   The owner of the copy.
+     *
+     * @return the copy.
+     */
+    Bucket copy(Object owner) {
+      Bucket copy = new Bucket(0);
+      int capacity = Math.max(this.size, BUCKET_CAPACITY);
+      copy.starts = Arrays.copyOf(this.starts, capacity);
+      copy.ends = Arrays.copyOf(this.ends, capacity);
+      copy.vals = Arrays.copyOf(this.vals, capacity);
+      copy.size = this.size;
+      copy.excess = this.excess;
+      copy.owner = owner;
+      return copy;
+    } // copy()
+  } // class Bucket
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The value of every cell outside the runs. We never store a run of
+   * the default.
+   */
+  final T def;
+
+  /**
+   * The hash of the default.
+   */
+  final int mixDef;
+
+  /**
+   * The buckets, BAND_SIZE rows to a band. Row r's bucket is
+   * bands[r / BAND_SIZE][r % BAND_SIZE], or null if the row has no
+   * runs. A whole band of such rows may also be null.
+   */
+  Bucket[][] bands;
+
+  /**
+   * The owner of each band.
+   */
+  Object[] bandOwners;
+
+  /**
+   * True if bands and bandOwners belong to this store alone.
+   */
+  boolean ownsBands;
+
+  /**
+   * The token that marks the bands and buckets this store owns.
+   */
+  Object owner;
+
+  /**
+   * The number of rows.
+   */
+  int height;
+
+  /**
+   * The number of runs in all the buckets.
+   */
+  int runs;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create an empty store.
+   *
+   * @param height
+   *   The number of rows.
+   * @param def
+   *   The value of cells outside the runs.
+   */
+  SparseRows(int height, T def) {
+    this.bands = new Bucket[(height >> BAND_BITS) + 1][];
+    this.bandOwners = new Object[this.bands.length];
+    this.ownsBands = true;
+    this.owner = new Object();
+    this.height = height;
+    this.def = def;
+    this.mixDef = AbstractMatrix.mix(def);
+  } // SparseRows(int, T)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Make a copy of the store that shares its bands and buckets. From
+   * now on, neither store owns any of them, so each copies what it
+   * changes.
+   *
+   * @return the copy.
+   */
+  SparseRows<T> share() {
+    SparseRows<T> copy = new SparseRows<T>(0, this.def);
+    copy.bands = this.bands;
+    copy.bandOwners = this.bandOwners;
+    copy.height = this.height;
+    copy.runs = this.runs;
+    copy.ownsBands = false;
+    this.ownsBands = false;
+    this.owner = new Object();
+    return copy;
+  } // share()
+
+  /**
+   * Get the bucket for a row.
+   *
+   * @param row
+   *   The row.
+   *
+   * @return the bucket, or null if the row has no runs.
+   */
+  Bucket bucket(int row) {
+    Bucket[] band = this.bands[row >> BAND_BITS];
+    return (band == null) ? null : band[row & (BAND_SIZE - 1)];
+  } // bucket(int)
+
+  /**
+   * Replace the bucket for a row, first copying the band if another
+   * store may use it.
+   *
+   * @param row
+   *   The row.
+   * @param bucket
+   *   The new bucket, or null for a row with no runs.
+   */
+  void putBucket(int row, Bucket bucket) {
+    int b = row >> BAND_BITS;
+    if ((bucket == null) && (this.bands[b] == null)) {
+      return;
+    } // if there is nothing to change
+    if (!this.ownsBands) {
+      this.bands = this.bands.clone();
+      this.bandOwners = this.bandOwners.clone();
+      this.ownsBands = true;
+    } // if the list of bands is shared
+    if (this.bands[b] == null) {
+      this.bands[b] = new Bucket[BAND_SIZE];
+      this.bandOwners[b] = this.owner;
+    } else if (this.bandOwners[b] != this.owner) {
+      this.bands[b] = this.bands[b].clone();
+      this.bandOwners[b] = this.owner;
+    } // if/else
+    this.bands[b][row & (BAND_SIZE - 1)] = bucket;
+  } // putBucket(int, Bucket)
+
+  /**
+   * Get the bucket for a row so that we may change it, first copying
+   * it if another store may use it.
+   *
+   * @param row
+   *   The row.
+   *
+   * @return the bucket, or null if the row has no runs.
+   */
+  Bucket ownBucket(int row) {
+    Bucket bucket = bucket(row);
+    if ((bucket != null) && (bucket.owner != this.owner)) {
+      bucket = bucket.copy(this.owner);
+      putBucket(row, bucket);
+    } // if the bucket may be shared
+    return bucket;
+  } // ownBucket(int)
+
+  /**
+   * Create an empty bucket for this store.
+   *
+   * @param capacity
+   *   The number of runs it can hold before growing.
+   *
+   * @return the bucket.
+   */
+  Bucket newBucket(int capacity) {
+    Bucket bucket = new Bucket(capacity);
+    bucket.owner = this.owner;
+    return bucket;
+  } // newBucket(int)
+
+  /**
+   * Get the value of a cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the value of the run that holds the cell, or the default.
+   */
+  @SuppressWarnings({ "unchecked" })
+  T get(int row, int col) {
+    Bucket bucket = bucket(row);
+    if (bucket == null) {
+      return this.def;
+    } // if the row has no runs
+    int i = bucket.find(col);
+    return (i < 0) ? this.def : (T) bucket.vals[i];
+  } // get(int, int)
+
+  /**
+   * Set one cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   * @param val
+   *   The value to store.
+   *
+   * @return the change in the row's hash.
+   */
+  int set(int row, int col, T val) {
+    return fill(row, col, col + 1, val);
+  } // set(int, int, T)
+
+  /**
+   * Set the cells [startCol, endCol) of one row, replacing the runs
+   * that held them.
+   *
+   * @param row
+   *   The row.
+   * @param startCol
+   *   The first column (inclusive).
+   * @param endCol
+   *   The last column (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @return the change in the row's hash.
+   */
+  int fill(int row, int startCol, int endCol, T val) {
+    if (startCol >= endCol) {
+      return 0;
+    } // if there is nothing to fill
+    boolean store = !Objects.equals(val, this.def);
+    Bucket bucket = ownBucket(row);
+    if (bucket == null) {
+      if (!store) {
+        return 0;
+      } // if the row stays empty
+      bucket = newBucket(BUCKET_CAPACITY);
+      putBucket(row, bucket);
+      append(bucket, startCol, endCol, val);
+      this.runs++;
+      return bucket.excess;
+    } // if the row has no runs yet
+
+    // Runs [first, last) overlap the columns we fill.
+    int first = Arrays.binarySearch(bucket.ends, 0, bucket.size, startCol);
+    first = (first < 0) ? -first - 1 : first + 1;
+    int last = Arrays.binarySearch(bucket.starts, 0, bucket.size, endCol);
+    last = (last < 0) ? -last - 1 : last;
+
+    // Work out what replaces them: the part of the first run before
+    // startCol, the new run, and the part of the last run after endCol.
+    boolean keepLeft = (first < last) && (bucket.starts[first] < startCol);
+    boolean keepRight = (first < last) && (bucket.ends[last - 1] > endCol);
+    int leftStart = keepLeft ? bucket.starts[first] : 0;
+    Object leftVal = keepLeft ? bucket.vals[first] : null;
+    int rightEnd = keepRight ? bucket.ends[last - 1] : 0;
+    Object rightVal = keepRight ? bucket.vals[last - 1] : null;
+    int count = (keepLeft ? 1 : 0) + (store ? 1 : 0) + (keepRight ? 1 : 0);
+    int delta = store ? weigh(startCol, endCol, val) : 0;
+    for (int i = first; i < last; i++) {
+      delta -= weigh(Math.max(bucket.starts[i], startCol), Math.min(bucket.ends[i], endCol),
+          bucket.vals[i]);
+    } // for each run we overwrite
+
+    int tail = bucket.size - last;
+    bucket.ensure(first + count + tail);
+    System.arraycopy(bucket.starts, last, bucket.starts, first + count, tail);
+    System.arraycopy(bucket.ends, last, bucket.ends, first + count, tail);
+    System.arraycopy(bucket.vals, last, bucket.vals, first + count, tail);
+    int i = first;
+    if (keepLeft) {
+      bucket.starts[i] = leftStart;
+      bucket.ends[i] = startCol;
+      bucket.vals[i++] = leftVal;
+    } // if
+    if (store) {
+      bucket.starts[i] = startCol;
+      bucket.ends[i] = endCol;
+      bucket.vals[i++] = val;
+    } // if
+    if (keepRight) {
+      bucket.starts[i] = endCol;
+      bucket.ends[i] = rightEnd;
+      bucket.vals[i++] = rightVal;
+    } // if
+    int newSize = first + count + tail;
+    if (newSize < bucket.size) {
+      Arrays.fill(bucket.vals, newSize, bucket.size, null);
+    } // if runs were merged away
+    this.runs += newSize - bucket.size;
+    bucket.size = newSize;
+    bucket.excess += delta;
+    if (newSize == 0) {
+      putBucket(row, null);
+    } // if the row is now empty
+    return delta;
+  } // fill(int, int, int, T)
+
+  /**
+   * Insert an empty row. Later rows move down.
+   *
+   * @param row
+   *   The number of the new row.
+   */
+  void insertRow(int row) {
+    if ((this.height >> BAND_BITS) == this.bands.length) {
+      this.bands = Arrays.copyOf(this.bands, this.bands.length * 2);
+      this.bandOwners = Arrays.copyOf(this.bandOwners, this.bands.length);
+      this.ownsBands = true;
+    } // if there is no room for another row
+    for (int r = this.height; r > row; r--) {
+      putBucket(r, bucket(r - 1));
+    } // for
+    putBucket(row, null);
+    this.height++;
+  } // insertRow(int)
+
+  /**
+   * Delete a row and its runs. Later rows move up.
+   *
+   * @param row
+   *   The number of the row to delete.
+   */
+  void deleteRow(int row) {
+    if (bucket(row) != null) {
+      this.runs -= bucket(row).size;
+    } // if the row has runs
+    for (int r = row + 1; r < this.height; r++) {
+      putBucket(r - 1, bucket(r));
+    } // for
+    putBucket(--this.height, null);
+  } // deleteRow(int)
+
+  /**
+   * Insert a column of defaults. Runs in later columns move right, and
+   * a run that spans the new column is split around it.
+   *
+   * @param col
+   *   The number of the new column.
+   */
+  void insertCol(int col) {
+    for (int row = 0; row < this.height; row++) {
+      Bucket bucket = ownBucket(row);
+      if (bucket != null) {
+        int i = bucket.find(col);
+        if ((i >= 0) && (bucket.starts[i] < col)) {
+          splitRun(bucket, i, col);
+          this.runs++;
+          i++;
+        } else if (i < 0) {
+          i = Arrays.binarySearch(bucket.starts, 0, bucket.size, col);
+          i = -i - 1;
+        } // if/else
+        for (; i < bucket.size; i++) {
+          move(bucket, i, 1);
+        } // for
+      } // if the row has runs
+    } // for
+  } // insertCol(int)
+
+  /**
+   * Delete a column and its cells. Runs in later columns move left.
+   *
+   * @param col
+   *   The number of the column to delete.
+   */
+  void deleteCol(int col) {
+    for (int row = 0; row < this.height; row++) {
+      Bucket bucket = ownBucket(row);
+      if (bucket != null) {
+        int i = bucket.find(col);
+        if (i >= 0) {
+          bucket.excess -= weigh(col, bucket.ends[i], bucket.vals[i]);
+          bucket.ends[i]--;
+          if (bucket.starts[i] == bucket.ends[i]) {
+            removeRun(bucket, i);
+            this.runs--;
+          } else {
+            bucket.excess += weigh(col, bucket.ends[i], bucket.vals[i]);
+            i++;
+          } // if/else
+        } else {
+          i = -Arrays.binarySearch(bucket.starts, 0, bucket.size, col) - 1;
+        } // if/else
+        for (; i < bucket.size; i++) {
+          move(bucket, i, -1);
+        } // for
+        if (bucket.size == 0) {
+          putBucket(row, null);
+        } // if the row is now empty
+      } // if the row has runs
+    } // for
+  } // deleteCol(int)
+
+  /**
+   * Insert and delete many rows and columns at once, as
+   * AbstractMatrix.remap describes. Since the surviving columns keep
+   * their order, each run lands on a contiguous range of new columns,
+   * which we split only where new columns were inserted.
+   *
+   * @param rows
+   *   The old row for each new row, or -1.
+   * @param cols
+   *   The old column for each new column, or -1.
+   * @param width
+   *   The old number of columns.
+   */
+  void remap(int[] rows, int[] cols, int width) {
+    int[] newCol = new int[width];
+    Arrays.fill(newCol, -1);
+    int inserted = 0;
+    for (int col = 0; col < cols.length; col++) {
+      if (cols[col] >= 0) {
+        newCol[cols[col]] = col;
+      } else {
+        inserted++;
+      } // if/else
+    } // for
+    int[] added = new int[inserted];
+    inserted = 0;
+    for (int col = 0; col < cols.length; col++) {
+      if (cols[col] < 0) {
+        added[inserted++] = col;
+      } // if
+    } // for
+    // nextKept[c] is the first surviving column at or after c, and
+    // prevKept[c] the last one at or before c.
+    int[] nextKept = new int[width + 1];
+    nextKept[width] = width;
+    for (int col = width - 1; col >= 0; col--) {
+      nextKept[col] = (newCol[col] >= 0) ? col : nextKept[col + 1];
+    } // for
+    int[] prevKept = new int[width];
+    for (int col = 0; col < width; col++) {
+      prevKept[col] = (newCol[col] >= 0) ? col : ((col == 0) ? -1 : prevKept[col - 1]);
+    } // for
+
+    Bucket[] newRows = new Bucket[rows.length];
+    this.runs = 0;
+    for (int row = 0; row < rows.length; row++) {
+      Bucket bucket = (rows[row] < 0) ? null : bucket(rows[row]);
+      if (bucket == null) {
+        continue;
+      } // if the row has no runs
+      Bucket moved = newBucket(Math.max(bucket.size, BUCKET_CAPACITY));
+      for (int i = 0; i < bucket.size; i++) {
+        int first = nextKept[bucket.starts[i]];
+        int last = prevKept[bucket.ends[i] - 1];
+        if (first > last) {
+          continue;
+        } // if every column of the run was deleted
+        int start = newCol[first];
+        int end = newCol[last] + 1;
+        int a = Arrays.binarySearch(added, start);
+        for (a = (a < 0) ? -a - 1 : a; (a < added.length) && (added[a] < end); a++) {
+          if (start < added[a]) {
+            append(moved, start, added[a], bucket.vals[i]);
+          } // if
+          start = added[a] + 1;
+        } // for each new column inside the run
+        append(moved, start, end, bucket.vals[i]);
+      } // for
+      if (moved.size > 0) {
+        newRows[row] = moved;
+        this.runs += moved.size;
+      } // if
+    } // for
+    this.bands = new Bucket[(rows.length >> BAND_BITS) + 1][];
+    this.bandOwners = new Object[this.bands.length];
+    this.ownsBands = true;
+    this.height = rows.length;
+    for (int row = 0; row < rows.length; row++) {
+      if (newRows[row] != null) {
+        putBucket(row, newRows[row]);
+      } // if
+    } // for
+  } // remap(int[], int[], int)
+
+  /**
+   * Add a run after the others in a bucket, and account for its hash.
+   *
+   * @param bucket
+   *   The bucket.
+   * @param start
+   *   The first column of the run.
+   * @param end
+   *   The column just past the run.
+   * @param val
+   *   The value of the run.
+   */
+  void append(Bucket bucket, int start, int end, Object val) {
+    bucket.append(start, end, val);
+    bucket.excess += weigh(start, end, val);
+  } // append(Bucket, int, int, Object)
+
+  /**
+   * Move a run some columns to the right (or left, for a negative
+   * distance), and account for its hash.
+   *
+   * @param bucket
+   *   The bucket.
+   * @param i
+   *   The index of the run.
+   * @param distance
+   *   How many columns to move it.
+   */
+  void move(Bucket bucket, int i, int distance) {
+    bucket.excess -= weigh(bucket.starts[i], bucket.ends[i], bucket.vals[i]);
+    bucket.starts[i] += distance;
+    bucket.ends[i] += distance;
+    bucket.excess += weigh(bucket.starts[i], bucket.ends[i], bucket.vals[i]);
+  } // move(Bucket, int, int)
+
+  /**
+   * Compute how much the cells [start, end) of a row, all holding val,
+   * add to the row's hash beyond what defaults there would add.
+   *
+   * @param start
+   *   The first column.
+   * @param end
+   *   The column just past the last.
+   * @param val
+   *   The value of the cells.
+   *
+   * @return (mix(val) - mix(def)) * (COL_WEIGHT^start + ... +
+   *   COL_WEIGHT^(end - 1)).
+   */
+  int weigh(int start, int end, Object val) {
+    int cols = AbstractMatrix.geometric(AbstractMatrix.COL_WEIGHT, end)
+        - AbstractMatrix.geometric(AbstractMatrix.COL_WEIGHT, start);
+    return (AbstractMatrix.mix(val) - this.mixDef) * cols;
+  } // weigh(int, int, Object)
+
+  /**
+   * Determine a row's share of the hash code, less the share it would
+   * have if it held only defaults.
+   *
+   * @param row
+   *   The row.
+   *
+   * @return the sum of (mix(value) - mix(def)) * COL_WEIGHT^col over
+   *   the row.
+   */
+  int excess(int row) {
+    Bucket bucket = bucket(row);
+    return (bucket == null) ? 0 : bucket.excess;
+  } // excess(int)
+
+  /**
+   * Determine how many runs are stored.
+   *
+   * @return the number of runs.
+   */
+  int runs() {
+    return this.runs;
+  } // runs()
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Split a run in two, leaving a gap of one column for a new column.
+   * The first part ends just before col and the second starts at col;
+   * the caller then moves the second part right.
+   *
+   * @param bucket
+   *   The bucket.
+   * @param i
+   *   The index of the run, which must start before col and end after
+   *   it.
+   * @param col
+   *   The column to split at.
+   */
+  static void splitRun(Bucket bucket, int i, int col) {
+    bucket.ensure(bucket.size + 1);
+    System.arraycopy(bucket.starts, i + 1, bucket.starts, i + 2, bucket.size - i - 1);
+    System.arraycopy(bucket.ends, i + 1, bucket.ends, i + 2, bucket.size - i - 1);
+    System.arraycopy(bucket.vals, i + 1, bucket.vals, i + 2, bucket.size - i - 1);
+    bucket.starts[i + 1] = col;
+    bucket.ends[i + 1] = bucket.ends[i];
+    bucket.vals[i + 1] = bucket.vals[i];
+    bucket.ends[i] = col;
+    bucket.size++;
+  } // splitRun(Bucket, int, int)
+
+  /**
+   * Remove one run from a bucket.
+   *
+   * @param bucket
+   *   The bucket.
+   * @param i
+   *   The index of the run.
+   */
+  static void removeRun(Bucket bucket, int i) {
+    System.arraycopy(bucket.starts, i + 1, bucket.starts, i, bucket.size - i - 1);
+    System.arraycopy(bucket.ends, i + 1, bucket.ends, i, bucket.size - i - 1);
+    System.arraycopy(bucket.vals, i + 1, bucket.vals, i, bucket.size - i - 1);
+    bucket.vals[--bucket.size] = null;
+  } // removeRun(Bucket, int)
+} // class SparseRows<T>
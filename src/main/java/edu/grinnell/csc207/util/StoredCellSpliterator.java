@@ -0,0 +1,182 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over the non-default cells of a range of rows of a
+ * matrix, in row-major order. It asks the matrix for each row's stored
+ * cells (see AbstractMatrix.forEachStoredInRow), so a sparse matrix
+ * costs time proportional to what it stores rather than to its area.
+ * Like CellSpliterator, it hands the same MatrixCell to its consumer
+ * for every cell. Splitting halves the rows.
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+class StoredCellSpliterator<T> implements Spliterator<MatrixCell<T>> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix we walk.
+   */
+  final AbstractMatrix<T> matrix;
+
+  /**
+   * The next row to visit.
+   */
+  int row;
+
+  /**
+   * The row to stop at (exclusive).
+   */
+  final int end;
+
+  /**
+   * The value we skip.
+   */
+  final T def;
+
+  /**
+   * The cell we hand to consumers.
+   */
+  final MatrixCell<T> cell;
+
+  /**
+   * The columns of the cells of the last row we visited that tryAdvance
+   * has not yet handed out.
+   */
+  int[] cols;
+
+  /**
+   * The values of those cells.
+   */
+  Object[] vals;
+
+  /**
+   * The number of cells in cols and vals.
+   */
+  int count;
+
+  /**
+   * The next of those cells to hand out.
+   */
+  int next;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a spliterator over the non-default cells of rows
+   * [row, end).
+   *
+   * @param matrix
+   *   The matrix to walk.
+   * @param row
+   *   The first row (inclusive).
+   * @param end
+   *   The last row (exclusive).
+   * @param def
+   *   The value to skip.
+   */
+  StoredCellSpliterator(AbstractMatrix<T> matrix, int row, int end, T def) {
+    this.matrix = matrix;
+    this.row = row;
+    this.end = end;
+    this.def = def;
+    this.cell = new MatrixCell<T>(0, 0, null);
+  } // StoredCellSpliterator(AbstractMatrix<T>, int, int, T)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  @Override
+  @SuppressWarnings({ "unchecked" })
+  public boolean tryAdvance(Consumer<? super MatrixCell<T>> action) {
+    while (this.next == this.count) {
+      if (this.row >= this.end) {
+        return false;
+      } // if
+      this.count = 0;
+      this.next = 0;
+      this.cell.row = this.row;
+      this.matrix.forEachStoredInRow(this.row++, (val, col) -> {
+        if (!Objects.equals(val, this.def)) {
+          if (this.cols == null) {
+            this.cols = new int[16];
+            this.vals = new Object[16];
+          } else if (this.count == this.cols.length) {
+            this.cols = Arrays.copyOf(this.cols, this.count * 2);
+            this.vals = Arrays.copyOf(this.vals, this.count * 2);
+          } // if/else
+          this.cols[this.count] = col;
+          this.vals[this.count++] = val;
+        } // if
+      });
+    } // while we have no cells from the current row
+    this.cell.col = this.cols[this.next];
+    this.cell.value = (T) this.vals[this.next];
+    this.vals[this.next++] = null;
+    action.accept(this.cell);
+    return true;
+  } // tryAdvance(Consumer)
+
+  /**
+   * Visit the rest of the cells, handing each row's cells straight to
+   * the action.
+   *
+   * @param action
+   *   What to do with each cell.
+   */
+  @Override
+  public void forEachRemaining(Consumer<? super MatrixCell<T>> action) {
+    while (this.next < this.count) {
+      tryAdvance(action);
+    } // while cells of the current row remain
+    for (; this.row < this.end; this.row++) {
+      int r = this.row;
+      this.matrix.forEachStoredInRow(r, (val, col) -> {
+        if (!Objects.equals(val, this.def)) {
+          this.cell.row = r;
+          this.cell.col = col;
+          this.cell.value = val;
+          action.accept(this.cell);
+        } // if
+      });
+    } // for
+  } // forEachRemaining(Consumer)
+
+  @Override
+  public Spliterator<MatrixCell<T>> trySplit() {
+    int mid = this.row + (this.end - this.row) / 2;
+    if ((mid == this.row) || (this.next < this.count)) {
+      return null;
+    } // if there is one row left or we are partway through a row
+    StoredCellSpliterator<T> prefix =
+        new StoredCellSpliterator<T>(this.matrix, this.row, mid, this.def);
+    this.row = mid;
+    return prefix;
+  } // trySplit()
+
+  /**
+   * Estimate how many cells remain. We do not know how many each row
+   * stores, so we guess one per row.
+   *
+   * @return the number of rows left.
+   */
+  @Override
+  public long estimateSize() {
+    return (this.end - this.row) + (this.count - this.next);
+  } // estimateSize()
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  } // characteristics()
+} // class StoredCellSpliterator<T>
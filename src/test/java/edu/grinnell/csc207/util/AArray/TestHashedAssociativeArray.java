@@ -0,0 +1,158 @@
+package edu.grinnell.csc207.util.AArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * A variety of tests for the HashedAssociativeArray class.
+ */
+class TestHashedAssociativeArray {
+  /**
+   * Make sure that set, get, and hasKey agree.
+   */
+  @Test
+  public void testSetGet() throws Exception {
+    AssociativeArray<String, Integer> arr = new HashedAssociativeArray<>();
+    assertFalse(arr.hasKey("a"), "R: empty array has no keys");
+    arr.set("a", 1);
+    arr.set("b", 2);
+    arr.set("a", 3);
+    assertEquals(2, arr.size(), "M: replacing a value keeps the size");
+    assertEquals(3, arr.get("a"), "M: replaced value");
+    assertEquals(2, arr.get("b"), "M: untouched value");
+    assertFalse(arr.hasKey(null), "E: null key never appears");
+    assertThrows(KeyNotFoundException.class, () -> arr.get("c"),
+        "E: get of missing key");
+    assertThrows(NullKeyException.class, () -> arr.set(null, 0),
+        "E: set of null key");
+  } // testSetGet()
+
+  /**
+   * Make sure that lots of keys survive expansion, removal, and reuse
+   * of removed slots.
+   */
+  @Test
+  public void testManyKeys() throws Exception {
+    HashedAssociativeArray<Integer, Integer> arr =
+        new HashedAssociativeArray<>();
+    for (int i = 0; i < 1000; i++) {
+      arr.set(i, i * i);
+    } // for
+    assertEquals(1000, arr.size(), "M: after adding 1000 keys");
+    for (int i = 0; i < 1000; i += 2) {
+      arr.remove(i);
+    } // for
+    assertEquals(500, arr.size(), "M: after removing the even keys");
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i % 2 == 1, arr.hasKey(i), "M: hasKey(" + i + ")");
+    } // for
+    for (int i = 0; i < 10000; i += 2) {
+      arr.set(i, -i);
+      arr.remove(i);
+    } // for
+    assertEquals(500, arr.size(), "M: after churning removed keys");
+    assertTrue(arr.size + arr.removed < arr.pairs.length,
+        "M: tombstones do not fill the table");
+    for (int i = 1; i < 1000; i += 2) {
+      assertEquals(i * i, arr.get(i), "M: get(" + i + ")");
+    } // for
+  } // testManyKeys()
+
+  /**
+   * Make sure that updateKey moves values and that clones are
+   * independent.
+   */
+  @Test
+  public void testUpdateKeyAndClone() throws Exception {
+    HashedAssociativeArray<String, String> arr = new HashedAssociativeArray<>();
+    arr.set("a", "alpha");
+    arr.set("b", "beta");
+    arr.updateKey("a", "c");
+    assertFalse(arr.hasKey("a"), "M: old key is gone");
+    assertEquals("alpha", arr.get("c"), "M: new key has the value");
+    assertThrows(KeyNotFoundException.class, () -> arr.updateKey("a", "d"),
+        "E: updateKey of missing key");
+
+    HashedAssociativeArray<String, String> copy = arr.clone();
+    copy.set("b", "gamma");
+    assertEquals("beta", arr.get("b"), "M: original unaffected by clone");
+    assertEquals("gamma", copy.get("b"), "M: clone updated");
+  } // testUpdateKeyAndClone()
+
+  /**
+   * Make sure that a clone keeps keys that sit past a removed key on
+   * the same probe path. "Aa" and "BB" have the same hash code.
+   */
+  @Test
+  public void testCloneAfterRemove() throws Exception {
+    HashedAssociativeArray<String, Integer> arr = new HashedAssociativeArray<>();
+    arr.set("Aa", 1);
+    arr.set("BB", 2);
+    arr.remove("Aa");
+    HashedAssociativeArray<String, Integer> copy = arr.clone();
+    assertTrue(arr.hasKey("BB"), "M: original keeps BB");
+    assertTrue(copy.hasKey("BB"), "M: clone keeps BB");
+    assertEquals(1, copy.size(), "M: clone size");
+    copy.set("BB", 3);
+    assertEquals(1, copy.size(), "M: set in the clone replaces BB");
+    assertEquals(3, copy.get("BB"), "M: clone has the new value");
+    assertEquals(2, arr.get("BB"), "M: original keeps the old value");
+    copy.set("Aa", 4);
+    assertEquals(2, copy.size(), "M: clone can add Aa back");
+  } // testCloneAfterRemove()
+
+  /**
+   * Make sure that a failed updateKey leaves the old pair alone.
+   */
+  @Test
+  public void testUpdateKeyToNull() throws Exception {
+    HashedAssociativeArray<String, String> arr = new HashedAssociativeArray<>();
+    arr.set("a", "alpha");
+    assertThrows(KeyNotFoundException.class, () -> arr.updateKey("a", null),
+        "E: updateKey to null");
+    assertEquals("alpha", arr.get("a"), "M: old pair survives a failed updateKey");
+    assertEquals(1, arr.size(), "M: size after a failed updateKey");
+  } // testUpdateKeyToNull()
+
+  /**
+   * Make sure that the lookups that report misses without exceptions
+   * agree with get, for both the linear and the hashed arrays, and for
+   * long keys.
+   */
+  @Test
+  public void testMisses() throws Exception {
+    for (AssociativeArray<String, Integer> arr : List.of(
+        new AssociativeArray<String, Integer>(), new HashedAssociativeArray<String, Integer>())) {
+      arr.set("a", 1);
+      arr.set("b", null);
+      assertEquals(1, arr.getOrDefault("a", 5), "M: getOrDefault of a present key");
+      assertEquals(null, arr.getOrDefault("b", 5), "M: getOrDefault of a null value");
+      assertEquals(5, arr.getOrDefault("c", 5), "M: getOrDefault of a missing key");
+      assertEquals(5, arr.getOrDefault(null, 5), "E: getOrDefault of the null key");
+      assertEquals(-1, arr.indexOf("c"), "M: indexOf of a missing key");
+      assertEquals("a", arr.getKey(arr.indexOf("a")), "M: indexOf of a present key");
+      assertEquals(1, arr.computeIfAbsent("a", k -> 9), "M: computeIfAbsent, present");
+      assertEquals(3, arr.computeIfAbsent("ccc", String::length),
+          "M: computeIfAbsent, missing");
+      assertEquals(3, arr.get("ccc"), "M: computeIfAbsent stores the value");
+      assertEquals(3, arr.size(), "M: size after computeIfAbsent");
+    } // for
+
+    LongAssociativeArray<String> longs = new LongAssociativeArray<>();
+    longs.set(1L << 40, "x");
+    assertEquals("x", longs.getOrDefault(1L << 40, "d"), "M: long getOrDefault, present");
+    assertEquals("d", longs.getOrDefault(1L, "d"), "M: long getOrDefault, missing");
+    assertEquals(-1, longs.indexOf(2L), "M: long indexOf, missing");
+    assertEquals("7", longs.computeIfAbsent(7L, Long::toString), "M: long computeIfAbsent");
+    assertFalse(longs.moveKey(3L, 4L), "M: moveKey of a missing key");
+    assertTrue(longs.moveKey(7L, 8L), "M: moveKey of a present key");
+    assertEquals("7", longs.get(8L), "M: moveKey moves the value");
+    assertFalse(longs.hasKey(7L), "M: moveKey removes the old key");
+  } // testMisses()
+} // class TestHashedAssociativeArray
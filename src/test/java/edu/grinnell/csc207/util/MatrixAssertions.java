@@ -2,6 +2,7 @@ package edu.grinnell.csc207.util;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -68,4 +69,105 @@ class MatrixAssertions {
     } // for row
   } // assertMatrixEquals()
 
+  /**
+   * Apply the same pseudo-random sequence of edits to two matrices that
+   * start out equal, and assert that they stay equal.
+   *
+   * @param expected
+   *   A matrix whose behavior we trust.
+   * @param actual
+   *   The matrix we're testing.
+   * @param seed
+   *   The seed for the sequence of edits.
+   * @param steps
+   *   How many edits to make.
+   * @param message
+   *   The message to provide.
+   */
+  static void assertRandomEditsMatch(Matrix<Integer> expected,
+      Matrix<Integer> actual, long seed, int steps, String message) {
+    assertRandomEditsMatch(expected, actual, seed, steps, 12, message);
+  } // assertRandomEditsMatch(Matrix, Matrix, long, int, String)
+
+  /**
+   * Apply the same pseudo-random sequence of edits to two matrices that
+   * start out equal, and assert that they stay equal. Inserts stop once
+   * a dimension reaches maxSize.
+   *
+   * @param expected
+   *   A matrix whose behavior we trust.
+   * @param actual
+   *   The matrix we're testing.
+   * @param seed
+   *   The seed for the sequence of edits.
+   * @param steps
+   *   How many edits to make.
+   * @param maxSize
+   *   The largest width or height to grow to.
+   * @param message
+   *   The message to provide.
+   */
+  static void assertRandomEditsMatch(Matrix<Integer> expected,
+      Matrix<Integer> actual, long seed, int steps, int maxSize, String message) {
+    Random random = new Random(seed);
+    for (int step = 0; step < steps; step++) {
+      int h = expected.height();
+      int w = expected.width();
+      int op = random.nextInt(10);
+      String what;
+      if ((op < 4) && (h > 0) && (w > 0)) {
+        int row = random.nextInt(h);
+        int col = random.nextInt(w);
+        int val = random.nextInt(5);
+        what = String.format("set(%d, %d, %d)", row, col, val);
+        expected.set(row, col, val);
+        actual.set(row, col, val);
+      } else if ((op == 4) && (h < maxSize)) {
+        int row = random.nextInt(h + 1);
+        what = String.format("insertRow(%d)", row);
+        expected.insertRow(row);
+        actual.insertRow(row);
+      } else if ((op == 5) && (w < maxSize)) {
+        int col = random.nextInt(w + 1);
+        what = String.format("insertCol(%d)", col);
+        expected.insertCol(col);
+        actual.insertCol(col);
+      } else if ((op == 6) && (h > 1)) {
+        int row = random.nextInt(h);
+        what = String.format("deleteRow(%d)", row);
+        expected.deleteRow(row);
+        actual.deleteRow(row);
+      } else if ((op == 7) && (w > 1)) {
+        int col = random.nextInt(w);
+        what = String.format("deleteCol(%d)", col);
+        expected.deleteCol(col);
+        actual.deleteCol(col);
+      } else if ((op == 8) && (h > 0) && (w > 0)) {
+        int r0 = random.nextInt(h);
+        int c0 = random.nextInt(w);
+        int r1 = r0 + random.nextInt(h - r0 + 1);
+        int c1 = c0 + random.nextInt(w - c0 + 1);
+        int val = random.nextInt(5);
+        what = String.format("fillRegion(%d, %d, %d, %d, %d)", r0, c0, r1, c1, val);
+        expected.fillRegion(r0, c0, r1, c1, val);
+        actual.fillRegion(r0, c0, r1, c1, val);
+      } else {
+        Matrix<Integer> copy = actual.clone();
+        what = "clone()";
+        assertEquals(actual, copy, message + " [clone]");
+        copy.insertRow(0);
+        if (w > 0) {
+          copy.set(0, 0, 9);
+        } // if
+      } // if/else
+      assertEquals(expected.height(), actual.height(), message + " after " + what);
+      assertEquals(expected.width(), actual.width(), message + " after " + what);
+      for (int row = 0; row < expected.height(); row++) {
+        for (int col = 0; col < expected.width(); col++) {
+          assertEquals(expected.get(row, col), actual.get(row, col),
+              String.format("%s after %s [at (%d,%d)]", message, what, row, col));
+        } // for col
+      } // for row
+    } // for step
+  } // assertRandomEditsMatch(Matrix, Matrix, long, int, int, String)
 } // class MatrixAssertions
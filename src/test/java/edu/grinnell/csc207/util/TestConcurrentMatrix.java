@@ -0,0 +1,129 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the ConcurrentMatrix class.
+ */
+class TestConcurrentMatrix {
+  /**
+   * Make sure that a wrapped matrix still behaves like a matrix.
+   */
+  @Test
+  public void testRandomEdits() {
+    MatrixAssertions.assertRandomEditsMatch(new MatrixDense<Integer>(6, 5, 0),
+        new ConcurrentMatrix<Integer>(6, 5, 0), 207, 1000, "M: striped dense");
+    MatrixAssertions.assertRandomEditsMatch(new MatrixDense<Integer>(6, 5, 0),
+        new ConcurrentMatrix<Integer>(new MatrixV0<Integer>(6, 5, 0)), 207, 1000,
+        "M: wrapped MatrixV0");
+    MatrixAssertions.assertRandomEditsMatch(new MatrixDense<Integer>(6, 5, 0),
+        new ConcurrentMatrix<Integer>(new MatrixDense<Integer>(6, 5, 0), true), 207, 1000,
+        "M: optimistic");
+  } // testRandomEdits()
+
+  /**
+   * Make sure that no writes are lost when many threads write while
+   * another inserts and deletes rows, with striped locks (over both
+   * kinds of storage) and in optimistic mode.
+   *
+   * @throws Exception
+   *   If one of the threads fails.
+   */
+  @Test
+  public void testThreads() throws Exception {
+    for (int trial = 0; trial < 3; trial++) {
+      Matrix<Integer> base = (trial == 1) ? new MatrixV0<Integer>(100, 64, 0)
+          : new MatrixDense<Integer>(100, 64, 0);
+      ConcurrentMatrix<Integer> matrix = new ConcurrentMatrix<Integer>(base, trial == 2);
+      ExecutorService pool = Executors.newFixedThreadPool(10);
+      List<Future<?>> results = new ArrayList<Future<?>>();
+      for (int t = 0; t < 8; t++) {
+        int first = t * 8;
+        results.add(pool.submit(() -> {
+          for (int row = first; row < first + 8; row++) {
+            for (int col = 0; col < 100; col++) {
+              matrix.set(row, col, row * 100 + col);
+            } // for col
+          } // for row
+        }));
+      } // for
+      results.add(pool.submit(() -> {
+        for (int i = 0; i < 200; i++) {
+          matrix.insertRow(64);
+          matrix.deleteRow(64);
+        } // for
+      }));
+      results.add(pool.submit(() -> {
+        for (int i = 0; i < 20000; i++) {
+          int row = i % 64;
+          Integer val = matrix.get(row, 7);
+          if ((val != 0) && (val != row * 100 + 7)) {
+            throw new AssertionError("Read a value that was never written: " + val);
+          } // if
+        } // for
+      }));
+      for (Future<?> result : results) {
+        result.get();
+      } // for
+      pool.shutdown();
+
+      assertEquals(64, matrix.height(), "M: rows inserted and deleted");
+      long expected = 0;
+      for (int i = 0; i < 6400; i++) {
+        expected += i;
+      } // for
+      assertEquals(expected, (long) matrix.reduce(0L, (sum, val) -> sum + val, Long::sum),
+          "M: every write landed");
+    } // for
+  } // testThreads()
+
+  /**
+   * Make sure that readers of a stripe do not wait for each other, but
+   * writers wait for readers.
+   *
+   * @throws Exception
+   *   If one of the threads fails.
+   */
+  @Test
+  public void testSharedReads() throws Exception {
+    ConcurrentMatrix<Integer> matrix =
+        new ConcurrentMatrix<Integer>(new MatrixV0<Integer>(10, 10, 0));
+    matrix.set(3, 4, 7);
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    Future<?> write;
+    matrix.stripe(3).readLock().lock();
+    try {
+      assertEquals(7, pool.submit(() -> matrix.get(3, 4)).get(10, TimeUnit.SECONDS),
+          "M: a reader does not wait for another reader");
+      write = pool.submit(() -> matrix.set(3, 4, 8));
+      assertThrows(TimeoutException.class, () -> write.get(100, TimeUnit.MILLISECONDS),
+          "M: a writer waits for readers");
+    } finally {
+      matrix.stripe(3).readLock().unlock();
+    } // try/finally
+    write.get(10, TimeUnit.SECONDS);
+    assertEquals(8, matrix.get(3, 4), "M: the write lands once the reader leaves");
+
+    ConcurrentMatrix<Integer> dense = new ConcurrentMatrix<Integer>(10, 10, 0);
+    dense.set(3, 4, 7);
+    dense.stripe(3).writeLock().lock();
+    try {
+      assertEquals(7, pool.submit(() -> dense.get(3, 4)).get(10, TimeUnit.SECONDS),
+          "M: reads of row-safe storage skip the stripe");
+    } finally {
+      dense.stripe(3).writeLock().unlock();
+    } // try/finally
+    pool.shutdown();
+  } // testSharedReads()
+} // class TestConcurrentMatrix
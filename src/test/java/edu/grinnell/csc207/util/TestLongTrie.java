@@ -0,0 +1,67 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the LongTrie class.
+ */
+class TestLongTrie {
+  /**
+   * Make sure that a trie agrees with a HashMap through many sets and
+   * removes, and that earlier versions are unaffected.
+   */
+  @Test
+  public void testAgainstHashMap() {
+    Random random = new Random(207);
+    HashMap<Long, Integer> expected = new HashMap<Long, Integer>();
+    LongTrie<Integer> trie = new LongTrie<Integer>();
+    LongTrie<Integer> halfway = null;
+    HashMap<Long, Integer> expectedHalfway = null;
+    for (int step = 0; step < 20000; step++) {
+      long key = random.nextInt(5000) * 0x100000001L;
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        trie = trie.remove(key);
+      } else {
+        expected.put(key, step);
+        trie = trie.set(key, step);
+      } // if/else
+      if (step == 10000) {
+        halfway = trie;
+        expectedHalfway = new HashMap<Long, Integer>(expected);
+      } // if
+    } // for
+    assertEquals(expected.size(), trie.size(), "M: sizes agree");
+    for (long k = 0; k < 5000; k++) {
+      long key = k * 0x100000001L;
+      assertEquals(expected.get(key), trie.getOrDefault(key, null), "M: key " + k);
+      assertEquals(expectedHalfway.get(key), halfway.getOrDefault(key, null),
+          "M: old version, key " + k);
+    } // for
+  } // testAgainstHashMap()
+
+  /**
+   * Make sure that an editor produces the same trie as one change at a
+   * time and leaves its starting point alone.
+   */
+  @Test
+  public void testEditor() {
+    LongTrie<String> start = new LongTrie<String>().set(1, "a").set(2, "b");
+    LongTrie.Editor<String> editor = start.edit();
+    for (long key = 0; key < 3000; key++) {
+      editor.set(key, "k" + key);
+    } // for
+    editor.remove(2);
+    LongTrie<String> done = editor.done();
+    assertEquals(2999, done.size(), "M: edited size");
+    assertEquals("k1", done.getOrDefault(1, null), "M: replaced value");
+    assertEquals(null, done.getOrDefault(2, null), "M: removed key");
+    assertEquals("b", start.getOrDefault(2, null), "M: starting trie unchanged");
+    assertEquals(2, start.size(), "M: starting size unchanged");
+  } // testEditor()
+} // class TestLongTrie
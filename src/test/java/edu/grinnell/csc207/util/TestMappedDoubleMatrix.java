@@ -0,0 +1,89 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the MappedDoubleMatrix class.
+ */
+class TestMappedDoubleMatrix {
+  /**
+   * A place for our files.
+   */
+  @TempDir
+  Path dir;
+
+  /**
+   * Make sure that random edits match those on a DoubleMatrix, and that
+   * the matrix survives closing and reopening.
+   *
+   * @throws IOException
+   *   If the file cannot be used.
+   */
+  @Test
+  public void testRandomEditsAndReopen() throws IOException {
+    Path file = this.dir.resolve("random.mtx");
+    Random random = new Random(207);
+    DoubleMatrix expected = new DoubleMatrix(5, 4, 1.5);
+    MappedDoubleMatrix mapped = new MappedDoubleMatrix(file, 5, 4, 1.5);
+    for (int step = 0; step < 500; step++) {
+      int op = random.nextInt(7);
+      int h = expected.height();
+      int w = expected.width();
+      if ((op == 0) && (h < 10)) {
+        int row = random.nextInt(h + 1);
+        expected.insertRow(row);
+        mapped.insertRow(row);
+      } else if ((op == 1) && (w < 10)) {
+        int col = random.nextInt(w + 1);
+        expected.insertCol(col);
+        mapped.insertCol(col);
+      } else if ((op == 2) && (h > 1)) {
+        int row = random.nextInt(h);
+        expected.deleteRow(row);
+        mapped.deleteRow(row);
+      } else if ((op == 3) && (w > 1)) {
+        int col = random.nextInt(w);
+        expected.deleteCol(col);
+        mapped.deleteCol(col);
+      } else {
+        int row = random.nextInt(h);
+        int col = random.nextInt(w);
+        double val = random.nextInt(100) / 4.0;
+        expected.setDouble(row, col, val);
+        mapped.setDouble(row, col, val);
+      } // if/else
+      assertEquals(expected, mapped, "M: after step " + step);
+    } // for
+    assertEquals(expected, mapped.clone(), "M: clone");
+    mapped.close();
+    assertEquals(MappedDoubleMatrix.HEADER + 8L * expected.width() * expected.height(),
+        Files.size(file), "M: the file holds just the header and cells");
+
+    MappedDoubleMatrix reopened = new MappedDoubleMatrix(file);
+    assertEquals(expected, reopened, "M: reopened");
+    assertEquals(1.5, reopened.defaultValue(), "M: default survives");
+    reopened.close();
+  } // testRandomEditsAndReopen()
+
+  /**
+   * Make sure that we refuse files that do not hold matrices.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  @Test
+  public void testBadFile() throws IOException {
+    Path file = this.dir.resolve("bad.mtx");
+    Files.write(file, new byte[40]);
+    assertThrows(IOException.class, () -> new MappedDoubleMatrix(file), "E: no magic");
+  } // testBadFile()
+} // class TestMappedDoubleMatrix
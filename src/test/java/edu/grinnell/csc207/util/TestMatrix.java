@@ -3,11 +3,21 @@ package edu.grinnell.csc207.util;
 import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import edu.grinnell.csc207.util.AArray.AssociativeArray;
+import edu.grinnell.csc207.util.AArray.HashedAssociativeArray;
+import edu.grinnell.csc207.util.AArray.LongAssociativeArray;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 /**e
@@ -521,4 +531,237 @@ class TestMatrix {
     } // for i
   } // testEquals()
 
+  /**
+   * Make sure that MatrixV0 (including its filled regions and its
+   * shared clones) behaves like a plain array of cells.
+   */
+  @Test
+  void testRandomEdits() {
+    MatrixAssertions.assertRandomEditsMatch(new MatrixDense<Integer>(12, 10, 0),
+        new MatrixV0<Integer>(12, 10, 0), 207, 1500, 20, "M: random edits");
+  } // testRandomEdits()
+
+  /**
+   * Make sure that row and column edits on a huge, nearly empty MatrixV0
+   * touch only the stored cells. (Visiting every cell would take far
+   * too long.)
+   */
+  @Test
+  void testSparseEdits() {
+    Matrix<Integer> matrix = new MatrixV0<Integer>(100000, 100000, 0);
+    for (int i = 1; i <= 100; i++) {
+      matrix.set(i * 997, i * 991, i);
+    } // for
+    matrix.insertRow(0);
+    matrix.insertCol(0);
+    matrix.deleteRow(997 + 1);
+    matrix.deleteCol(50000);
+    matrix.insertCol(99000);
+    for (int i = 2; i <= 100; i++) {
+      int col = i * 991 + 1;
+      col = (col > 50000) ? col - 1 : col;
+      col = (col >= 99000) ? col + 1 : col;
+      assertEquals(i, matrix.get(i * 997, col), "M: cell " + i + " moved");
+    } // for
+    assertEquals(0, matrix.get(997, 991 + 1), "M: deleted row is gone");
+    assertEquals(100000, matrix.height(), "M: height");
+    assertEquals(100001, matrix.width(), "M: width");
+  } // testSparseEdits()
+
+  /**
+   * Make sure that many more than MAX_REGIONS large fills on a huge
+   * MatrixV0 are stored in space proportional to their rows, not their
+   * cells. (Storing each cell would take billions of entries.)
+   */
+  @Test
+  void testManyLargeFills() {
+    Random random = new Random(207);
+    MatrixV0<Integer> matrix = new MatrixV0<Integer>(50000, 50000, 0);
+    int fills = 4 * MatrixV0.MAX_REGIONS;
+    int[][] bounds = new int[fills][];
+    long rows = 0;
+    for (int i = 0; i < fills; i++) {
+      int r0 = random.nextInt(40000);
+      int c0 = random.nextInt(40000);
+      bounds[i] = new int[] {r0, c0, r0 + 1000 + random.nextInt(9000),
+          c0 + 1000 + random.nextInt(9000)};
+      matrix.fillRegion(bounds[i][0], bounds[i][1], bounds[i][2], bounds[i][3], i + 1);
+      rows += bounds[i][2] - bounds[i][0];
+    } // for
+    assertTrue(matrix.regions.size() <= MatrixV0.MAX_REGIONS, "M: pending regions are bounded");
+    assertTrue(matrix.pairs.runs() <= 3 * rows,
+        "M: at most three runs per filled row, but found " + matrix.pairs.runs());
+    for (int probe = 0; probe < 10000; probe++) {
+      int row = random.nextInt(50000);
+      int col = random.nextInt(50000);
+      int expected = 0;
+      for (int i = 0; i < fills; i++) {
+        if ((row >= bounds[i][0]) && (row < bounds[i][2])
+            && (col >= bounds[i][1]) && (col < bounds[i][3])) {
+          expected = i + 1;
+        } // if the fill covers the cell
+      } // for
+      assertEquals(expected, matrix.get(row, col), "M: cell " + row + ", " + col);
+    } // for
+  } // testManyLargeFills()
+
+  /**
+   * Make sure that a change to a clone of a MatrixV0 copies only the
+   * row it changes, and that changes do not leak between the two.
+   */
+  @Test
+  void testCloneSharesRows() {
+    MatrixV0<Integer> original = new MatrixV0<Integer>(1000, 10000, 0);
+    for (int row = 0; row < original.height(); row++) {
+      original.set(row, row % 1000, row);
+    } // for
+    MatrixV0<Integer> copy = (MatrixV0<Integer>) original.clone();
+    copy.set(5000, 3, -1);
+    original.fillRegion(20, 0, 22, 30, 7);
+    assertEquals(0, original.get(5000, 3), "M: original keeps its cell");
+    assertEquals(-1, copy.get(5000, 3), "M: clone has its change");
+    assertEquals(20, copy.get(20, 20), "M: clone keeps its rows");
+    assertEquals(7, original.get(20, 20), "M: original has its fill");
+    int copied = 0;
+    for (int row = 0; row < original.height(); row++) {
+      if (original.pairs.bucket(row) != copy.pairs.bucket(row)) {
+        copied++;
+      } // if the row is no longer shared
+    } // for
+    assertEquals(3, copied, "M: only the changed rows were copied");
+  } // testCloneSharesRows()
+
+  /**
+   * Make sure that MatrixV0 keeps its hash code in step with the hash
+   * code the other matrices compute from scratch.
+   */
+  @Test
+  void testIncrementalHash() {
+    Random random = new Random(207);
+    MatrixV0<Integer> tracked = new MatrixV0<Integer>(8, 6, 0);
+    MatrixDense<Integer> expected = new MatrixDense<Integer>(8, 6, 0);
+    assertEquals(expected.hashCode(), tracked.hashCode(), "M: initial hash");
+    for (int step = 0; step < 800; step++) {
+      int op = random.nextInt(9);
+      if ((op == 0) && (tracked.height() < 12)) {
+        int row = random.nextInt(tracked.height() + 1);
+        tracked.insertRow(row);
+        expected.insertRow(row);
+      } else if ((op == 1) && (tracked.height() > 1)) {
+        int row = random.nextInt(tracked.height());
+        tracked.deleteRow(row);
+        expected.deleteRow(row);
+      } else if ((op == 6) && (tracked.width() < 12)) {
+        int col = random.nextInt(tracked.width() + 1);
+        tracked.insertCol(col);
+        expected.insertCol(col);
+      } else if ((op == 7) && (tracked.width() > 1)) {
+        int col = random.nextInt(tracked.width());
+        tracked.deleteCol(col);
+        expected.deleteCol(col);
+      } else if (op == 8) {
+        int r0 = random.nextInt(tracked.height());
+        int c0 = random.nextInt(tracked.width());
+        int r1 = r0 + 1 + random.nextInt(tracked.height() - r0);
+        int c1 = c0 + 1 + random.nextInt(tracked.width() - c0);
+        Integer val = Integer.valueOf(random.nextInt(3));
+        tracked.fillRegion(r0, c0, r1, c1, val);
+        expected.fillRegion(r0, c0, r1, c1, val);
+      } else if (op == 2) {
+        Matrix<Integer> copy = tracked.clone();
+        copy.set(0, 0, -1);
+        assertFalse(copy.equals(tracked), "E: a changed clone is not equal");
+      } else {
+        int row = random.nextInt(tracked.height());
+        int col = random.nextInt(tracked.width());
+        Integer val = (op == 3) ? null : Integer.valueOf(random.nextInt(4));
+        tracked.set(row, col, val);
+        expected.set(row, col, val);
+      } // if/else
+      assertEquals(expected.hashCode(), tracked.hashCode(), "M: hash after step " + step);
+      assertTrue(tracked.equals(expected), "E: equal after step " + step);
+    } // for
+
+    MatrixV0<Integer> big = new MatrixV0<Integer>(2000, 1500, 0);
+    MatrixDense<Integer> bigExpected = new MatrixDense<Integer>(2000, 1500, 0);
+    big.hashCode();
+    for (int i = 0; i < 40; i++) {
+      int r0 = random.nextInt(1000);
+      int c0 = random.nextInt(1000);
+      big.fillRegion(r0, c0, r0 + 500, c0 + 1000, i % 5);
+      bigExpected.fillRegion(r0, c0, r0 + 500, c0 + 1000, i % 5);
+    } // for
+    big.deleteCol(7);
+    bigExpected.deleteCol(7);
+    big.insertCol(300);
+    bigExpected.insertCol(300);
+    assertTrue(big.hashKnown(), "M: large fills keep the hash");
+    assertEquals(bigExpected.hashCode(), big.hashCode(), "M: hash after large fills");
+  } // testIncrementalHash()
+
+  /**
+   * Make sure that we can print part of a matrix, with labels.
+   */
+  @Test
+  void testPrintWindow() {
+    Matrix<Integer> matrix = new MatrixDense<Integer>(4, 4, 0);
+    matrix.set(1, 1, 42);
+    matrix.set(3, 3, 12345);
+    StringWriter out = new StringWriter();
+    PrintWriter pen = new PrintWriter(out);
+    Matrix.print(pen, matrix, true, 1, 1, 3, 3);
+    pen.flush();
+    String nl = System.lineSeparator();
+    assertEquals("      1    2  " + nl
+        + "    +----+----+" + nl
+        + "  1 | 42 | 0  |" + nl
+        + "    +----+----+" + nl
+        + "  2 | 0  | 0  |" + nl
+        + "    +----+----+" + nl, out.toString(), "M: window with labels");
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> Matrix.print(pen, matrix, false, 0, 0, 5, 1), "E: window too tall");
+  } // testPrintWindow()
+
+  /**
+   * Make sure that both forms of changePairs replace the stored cells.
+   *
+   * @throws Exception
+   *   If the associative array rejects a key.
+   */
+  @Test
+  void testChangePairs() throws Exception {
+    MatrixV0<Integer> matrix = new MatrixV0<Integer>(3, 2, 0);
+    matrix.set(0, 0, 9);
+    AssociativeArray<Index, Integer> byIndex = new HashedAssociativeArray<Index, Integer>();
+    byIndex.set(new Index(1, 2), 5);
+    byIndex.set(new Index(7, 7), 6);
+    matrix.changePairs(byIndex);
+    assertMatrixEquals(new Integer[][] {{0, 0, 0}, {0, 0, 5}}, matrix, "M: keyed by Index");
+
+    LongAssociativeArray<Integer> byLong = new LongAssociativeArray<Integer>();
+    byLong.set(Index.pack(0, 1), 4);
+    matrix.changePairs(byLong);
+    assertMatrixEquals(new Integer[][] {{0, 4, 0}, {0, 0, 0}}, matrix, "M: keyed by long");
+  } // testChangePairs()
+
+  /**
+   * Make sure that distinct indices almost always get distinct hash
+   * codes, including transposed and diagonal ones.
+   */
+  @Test
+  void testIndexHash() {
+    HashSet<Integer> codes = new HashSet<Integer>();
+    for (int row = 0; row < 300; row++) {
+      for (int col = 0; col < 300; col++) {
+        codes.add(new Index(row, col).hashCode());
+      } // for col
+    } // for row
+    assertTrue(codes.size() > 89000, "M: distinct hash codes: " + codes.size());
+    assertFalse(new Index(2, 5).hashCode() == new Index(5, 2).hashCode(),
+        "M: transposed indices");
+    assertFalse(new Index(3, 3).hashCode() == new Index(4, 4).hashCode(),
+        "M: diagonal indices");
+    assertEquals(new Index(8, 9).hashCode(), new Index(8, 9).hashCode(), "M: equal indices");
+  } // testIndexHash()
+
 } // TestMatrix
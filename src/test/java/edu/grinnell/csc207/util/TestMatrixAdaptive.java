@@ -0,0 +1,68 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the MatrixAdaptive class.
+ */
+class TestMatrixAdaptive {
+  /**
+   * Make sure that the matrix switches representation as it fills and
+   * empties, without losing any cells.
+   */
+  @Test
+  public void testSwitching() {
+    MatrixAdaptive<String> matrix = new MatrixAdaptive<String>(4, 4, ".");
+    matrix.set(0, 0, "a");
+    matrix.set(3, 3, "b");
+    assertFalse(matrix.isDense(), "M: a nearly empty matrix is sparse");
+
+    matrix.fillRegion(0, 1, 3, 4, "c");
+    assertTrue(matrix.isDense(), "M: a mostly full matrix is dense");
+    assertMatrixEquals(
+        new String[][]
+            {{"a", "c", "c", "c"},
+             {".", "c", "c", "c"},
+             {".", "c", "c", "c"},
+             {".", ".", ".", "b"}},
+        matrix, "M: after filling most of the matrix");
+
+    matrix.fillRegion(0, 0, 3, 4, ".");
+    assertFalse(matrix.isDense(), "M: clearing most of the matrix demotes it");
+    matrix.insertRow(0);
+    matrix.deleteCol(1);
+    assertMatrixEquals(
+        new String[][]
+            {{".", ".", "."},
+             {".", ".", "."},
+             {".", ".", "."},
+             {".", ".", "."},
+             {".", ".", "b"}},
+        matrix, "M: after clearing and reshaping");
+  } // testSwitching()
+
+  /**
+   * Make sure that the adaptive matrix is equal to the same matrix
+   * stored densely.
+   */
+  @Test
+  public void testEqualsDense() {
+    Matrix<Integer> adaptive = new MatrixAdaptive<Integer>(3, 3, 0);
+    Matrix<Integer> dense = new MatrixDense<Integer>(3, 3, 0);
+    for (int i = 0; i < 3; i++) {
+      adaptive.fillLine(0, i, 1, 0, 3, 3, i);
+      dense.fillLine(0, i, 1, 0, 3, 3, i);
+      assertEquals(dense, adaptive, "M: after filling column " + i);
+    } // for
+    adaptive.deleteRow(1);
+    dense.deleteRow(1);
+    assertEquals(dense, adaptive, "M: after deleting a row");
+    assertEquals(dense.hashCode(), adaptive.hashCode(), "M: equal hash codes");
+  } // testEqualsDense()
+} // class TestMatrixAdaptive
@@ -0,0 +1,166 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for MatrixBatch.
+ */
+class TestMatrixBatch {
+  /**
+   * Make the same random edits directly to one matrix and through
+   * batches to another, and make sure that they agree after each batch.
+   *
+   * @param actual
+   *   The matrix to edit through batches.
+   * @param seed
+   *   The seed for the edits.
+   * @param message
+   *   The message to provide.
+   */
+  static void assertBatchesMatch(Matrix<Integer> actual, long seed, String message) {
+    Random random = new Random(seed);
+    Matrix<Integer> expected = new MatrixDense<Integer>(actual.width(), actual.height(), 0);
+    MatrixBatch<Integer> batch = new MatrixBatch<Integer>(actual);
+    for (int step = 0; step < 2000; step++) {
+      int h = expected.height();
+      int w = expected.width();
+      int op = random.nextInt(12);
+      if ((op < 4) && (h > 0) && (w > 0)) {
+        int row = random.nextInt(h);
+        int col = random.nextInt(w);
+        int val = random.nextInt(5);
+        expected.set(row, col, val);
+        batch.set(row, col, val);
+      } else if ((op == 4) && (h < 20)) {
+        int row = random.nextInt(h + 1);
+        expected.insertRow(row);
+        batch.insertRow(row);
+      } else if ((op == 5) && (w < 20)) {
+        int col = random.nextInt(w + 1);
+        expected.insertCol(col);
+        batch.insertCol(col);
+      } else if ((op == 6) && (h > 1)) {
+        int row = random.nextInt(h);
+        expected.deleteRow(row);
+        batch.deleteRow(row);
+      } else if ((op == 7) && (w > 1)) {
+        int col = random.nextInt(w);
+        expected.deleteCol(col);
+        batch.deleteCol(col);
+      } else if ((op == 8) && (h > 0) && (w > 0)) {
+        int r0 = random.nextInt(h);
+        int c0 = random.nextInt(w);
+        int r1 = r0 + random.nextInt(h - r0 + 1);
+        int c1 = c0 + random.nextInt(w - c0 + 1);
+        int val = random.nextInt(5);
+        expected.fillRegion(r0, c0, r1, c1, val);
+        batch.fillRegion(r0, c0, r1, c1, val);
+      } else if ((op == 9) && (h > 0) && (w > 0)) {
+        int row = random.nextInt(h);
+        int col = random.nextInt(w);
+        int dr = random.nextInt(3) - 1;
+        int dc = (dr == 0) ? 1 : random.nextInt(3) - 1;
+        int val = random.nextInt(5);
+        int endRow = (dr > 0) ? h : -1;
+        int endCol = (dc > 0) ? w : -1;
+        expected.fillLine(row, col, dr, dc, endRow, endCol, val);
+        batch.fillLine(row, col, dr, dc, endRow, endCol, val);
+      } else if (op == 10) {
+        batch.apply();
+        assertEquals(expected, actual, message + " after batch ending at step " + step);
+      } // if/else
+      assertEquals(expected.height(), batch.height(), message + " height at " + step);
+      assertEquals(expected.width(), batch.width(), message + " width at " + step);
+    } // for
+    batch.apply();
+    assertEquals(expected, actual, message + " at the end");
+  } // assertBatchesMatch(Matrix<Integer>, long, String)
+
+  /**
+   * Make sure that batches of random edits have the same effect as the
+   * edits themselves, on matrices that remap in different ways.
+   */
+  @Test
+  public void testRandomBatches() {
+    assertBatchesMatch(new MatrixDense<Integer>(8, 6, 0), 207, "M: MatrixDense");
+    assertBatchesMatch(new MatrixV0<Integer>(8, 6, 0), 207, "M: MatrixV0");
+    assertBatchesMatch(new MatrixTiled<Integer>(8, 6, 0), 151, "M: MatrixTiled");
+    assertBatchesMatch(new ConcurrentMatrix<Integer>(new MatrixV0<Integer>(8, 6, 0)), 161,
+        "M: ConcurrentMatrix");
+  } // testRandomBatches()
+
+  /**
+   * Make sure that the edits apply in order, in the coordinates of the
+   * moment.
+   */
+  @Test
+  public void testOrder() {
+    Matrix<String> matrix = new MatrixV0<String>(3, 3, ".");
+    new MatrixBatch<String>(matrix)
+        .set(0, 0, "a")
+        .insertRow(0)
+        .set(0, 0, "b")
+        .fillRegion(1, 1, 3, 3, "c")
+        .set(2, 2, "d")
+        .insertCol(2)
+        .deleteRow(3)
+        .apply();
+    MatrixAssertions.assertMatrixEquals(new String[][] {
+        {"b", ".", ".", "."},
+        {"a", "c", ".", "c"},
+        {".", "c", ".", "d"}}, matrix, "M: edits in order");
+
+    MatrixBatch<String> batch = new MatrixBatch<String>(matrix);
+    assertThrows(IndexOutOfBoundsException.class, () -> batch.set(3, 0, "x"),
+        "E: set past the end");
+    batch.deleteRow(2);
+    assertThrows(IndexOutOfBoundsException.class, () -> batch.set(2, 0, "x"),
+        "E: set in a deleted row");
+    assertThrows(IndexOutOfBoundsException.class, () -> batch.deleteCol(4),
+        "E: delete past the end");
+    batch.clear();
+    batch.apply();
+    assertEquals(3, matrix.height(), "M: cleared batch does nothing");
+  } // testOrder()
+
+  /**
+   * Make sure that a batch of many small edits keeps only what survives,
+   * and that a fill looks only at the edits in its own rows.
+   */
+  @Test
+  public void testManySmallEdits() {
+    Random random = new Random(207);
+    Matrix<Integer> expected = new MatrixDense<Integer>(1000, 1000, 0);
+    Matrix<Integer> actual = new MatrixV0<Integer>(1000, 1000, 0);
+    MatrixBatch<Integer> batch = new MatrixBatch<Integer>(actual);
+    for (int step = 0; step < 50000; step++) {
+      int row = random.nextInt(999);
+      int col = random.nextInt(998);
+      int val = 1 + random.nextInt(5);
+      if (random.nextBoolean()) {
+        expected.set(row, col, val);
+        batch.set(row, col, val);
+      } else {
+        expected.fillRegion(row, col, row + 1 + (step % 2), col + 2, val);
+        batch.fillRegion(row, col, row + 1 + (step % 2), col + 2, val);
+      } // if/else
+    } // for
+    batch.deleteRow(500);
+    expected.deleteRow(500);
+    batch.apply();
+    assertEquals(expected, actual, "M: many small edits");
+
+    batch.fillRegion(0, 0, 10, 10, 7).set(3, 3, 8).fillRegion(2, 2, 4, 4, 9)
+        .deleteRow(0).fillRegion(0, 0, 9, 10, 6);
+    assertEquals(0, batch.sets.size(), "M: covered set dropped");
+    assertEquals(3, batch.fills.size(), "M: all fills recorded");
+    assertTrue(batch.fills.get(0).dropped, "M: fill covered once its first row is gone");
+    assertTrue(batch.fills.get(1).dropped, "M: covered fill dropped");
+  } // testManySmallEdits()
+} // class TestMatrixBatch
@@ -0,0 +1,61 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the parallel bulk operations.
+ */
+class TestMatrixBulk {
+  /**
+   * Make sure that the bulk operations give the same results whether
+   * or not the matrix works in parallel, and for any band size.
+   */
+  @Test
+  public void testBulkOperations() {
+    for (int band : new int[] {1, 7, 64, 1000}) {
+      Matrix<Integer> dense = new MatrixDense<Integer>(50, 300, 1);
+      Matrix<Integer> ints = new IntMatrix(50, 300, 1);
+      Matrix<Integer> v0 = new MatrixV0<Integer>(50, 300, 1);
+      Matrix<Integer> tiled = new MatrixTiled<Integer>(50, 300, 1, 16);
+      for (Matrix<Integer> matrix : List.of(dense, ints, v0, tiled)) {
+        matrix.setBandSize(band);
+        matrix.parallelFillRegion(100, 10, 200, 20, 3);
+        matrix.mapInPlace((val) -> val * 2);
+        assertEquals(2 * 15000 + 4 * 1000,
+            (int) matrix.reduce(0, (sum, val) -> sum + val, Integer::sum),
+            "M: sum with bands of " + band);
+        assertEquals(6, matrix.get(150, 15), "M: filled and doubled");
+        assertEquals(2, matrix.get(150, 20), "M: outside the fill");
+
+        LongAdder count = new LongAdder();
+        matrix.forEachCell((cell) -> {
+          if (cell.value() == 6) {
+            count.increment();
+          } // if
+        });
+        assertEquals(1000, count.sum(), "M: forEachCell sees every filled cell");
+      } // for
+      assertEquals(dense, ints, "M: dense and int matrices agree");
+      assertEquals(dense, v0, "M: dense and hashed matrices agree");
+      assertEquals(dense, tiled, "M: dense and tiled matrices agree");
+    } // for
+  } // testBulkOperations()
+
+  /**
+   * Make sure that bad arguments are rejected.
+   */
+  @Test
+  public void testErrors() {
+    Matrix<Integer> matrix = new MatrixDense<Integer>(3, 3, 0);
+    assertThrows(IllegalArgumentException.class, () -> matrix.setBandSize(0),
+        "E: empty bands");
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> matrix.parallelFillRegion(0, 0, 4, 3, 1), "E: region too tall");
+  } // testErrors()
+} // class TestMatrixBulk
@@ -0,0 +1,71 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the MatrixCSR class.
+ */
+class TestMatrixCSR {
+  /**
+   * Make sure that a snapshot reads the same as its source and stores
+   * only the non-default cells.
+   */
+  @Test
+  public void testFreeze() {
+    Matrix<String> source = new MatrixDense<String>(4, 3, ".");
+    source.set(0, 3, "a");
+    source.set(0, 1, "b");
+    source.set(2, 2, "c");
+    MatrixCSR<String> snapshot = MatrixCSR.freeze(source, ".");
+    assertEquals(3, snapshot.size(), "R: only non-default cells stored");
+    assertMatrixEquals(
+        new String[][]
+            {{".", "b", ".", "a"},
+             {".", ".", ".", "."},
+             {".", ".", "c", "."}},
+        snapshot, "R: snapshot matches source");
+    assertEquals(source, snapshot, "R: snapshot equals source");
+    assertEquals(source.hashCode(), snapshot.hashCode(), "R: equal hash codes");
+
+    StringBuilder row = new StringBuilder();
+    snapshot.forEachInRow(0, (val, col) -> row.append(col).append(val));
+    assertEquals("1b3a", row.toString(), "R: row walk in column order");
+
+    source.set(1, 1, "d");
+    assertEquals(".", snapshot.get(1, 1), "R: snapshot ignores later edits");
+    assertThrows(UnsupportedOperationException.class,
+        () -> snapshot.set(0, 0, "x"), "E: snapshots are immutable");
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> snapshot.get(3, 0), "E: get out of bounds");
+  } // testFreeze()
+
+  /**
+   * Make sure that freezing a huge sparse matrix visits only its stored
+   * cells, that freezing with another default still stores the right
+   * cells, and that the hash matches the one computed cell by cell.
+   */
+  @Test
+  public void testFreezeSparse() {
+    Matrix<Integer> huge = new MatrixV0<Integer>(100000, 100000, 0);
+    huge.set(99999, 1, 4);
+    huge.fillRegion(3, 0, 5, 100000, 2);
+    MatrixCSR<Integer> snapshot = MatrixCSR.freeze(huge, 0);
+    assertEquals(200001, snapshot.size(), "M: stored cells of a huge matrix");
+    assertEquals(huge.hashCode(), snapshot.hashCode(), "M: hash of a huge snapshot");
+    assertTrue(snapshot.hashKnown(), "M: hash is cached");
+
+    Matrix<Integer> small = new MatrixV0<Integer>(5, 4, 0);
+    small.fillRegion(1, 1, 3, 5, 7);
+    small.set(0, 0, 1);
+    MatrixCSR<Integer> other = MatrixCSR.freeze(small, 7);
+    assertEquals(12, other.size(), "M: cells that differ from another default");
+    assertEquals(small, other, "M: snapshot with another default equals source");
+    assertEquals(small.hashCode(), other.hashCode(), "M: equal hash codes");
+  } // testFreezeSparse()
+} // class TestMatrixCSR
@@ -0,0 +1,71 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the MatrixDense class.
+ */
+class TestMatrixDense {
+  /**
+   * Make sure that row and column insertions and deletions move the
+   * right cells.
+   */
+  @Test
+  public void testInsertDelete() throws ArraySizeException {
+    Matrix<String> matrix = new MatrixDense<String>(3, 2, ".");
+    matrix.set(0, 0, "a");
+    matrix.set(1, 2, "b");
+    matrix.insertRow(1);
+    assertMatrixEquals(
+        new String[][] {{"a", ".", "."}, {".", ".", "."}, {".", ".", "b"}},
+        matrix, "M: after inserting row 1");
+    matrix.insertCol(3, new String[] {"x", "y", "z"});
+    assertMatrixEquals(
+        new String[][]
+            {{"a", ".", ".", "x"}, {".", ".", ".", "y"}, {".", ".", "b", "z"}},
+        matrix, "M: after inserting last column");
+    matrix.deleteCol(0);
+    assertMatrixEquals(
+        new String[][] {{".", ".", "x"}, {".", ".", "y"}, {".", "b", "z"}},
+        matrix, "M: after deleting column 0");
+    matrix.deleteRow(2);
+    matrix.insertRow(0, new String[] {"p", "q", "r"});
+    assertMatrixEquals(
+        new String[][] {{"p", "q", "r"}, {".", ".", "x"}, {".", ".", "y"}},
+        matrix, "M: after deleting the last row and inserting row 0");
+
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.insertRow(4),
+        "E: insert row past the end");
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.deleteCol(3),
+        "E: delete missing column");
+    assertThrows(ArraySizeException.class,
+        () -> matrix.insertCol(0, new String[] {"a"}),
+        "E: insert too-small column");
+  } // testInsertDelete()
+
+  /**
+   * Make sure that fills and clones behave.
+   */
+  @Test
+  public void testFillAndClone() {
+    Matrix<Integer> matrix = new MatrixDense<Integer>(4, 3, 0);
+    matrix.fillRegion(1, 1, 3, 3, 5);
+    matrix.fillLine(0, 0, 1, 1, 3, 4, 7);
+    assertMatrixEquals(
+        new Integer[][] {{7, 0, 0, 0}, {0, 7, 5, 0}, {0, 5, 7, 0}},
+        matrix, "M: after region and diagonal fills");
+
+    Matrix<Integer> copy = matrix.clone();
+    assertEquals(matrix, copy, "M: clone is equal");
+    assertEquals(matrix.hashCode(), copy.hashCode(), "M: clone hashes equal");
+    copy.set(0, 3, 9);
+    assertNotEquals(matrix, copy, "M: clone is independent");
+    assertEquals(0, matrix.get(0, 3), "M: original unchanged");
+  } // testFillAndClone()
+} // class TestMatrixDense
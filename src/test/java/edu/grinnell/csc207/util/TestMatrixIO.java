@@ -0,0 +1,172 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for MatrixWriter and MatrixReader.
+ */
+class TestMatrixIO {
+  /**
+   * A place for our files.
+   */
+  @TempDir
+  Path dir;
+
+  /**
+   * Write a matrix to bytes.
+   *
+   * @param <T>
+   *   The type of values in the matrix.
+   * @param matrix
+   *   The matrix.
+   * @param codec
+   *   How to write values.
+   *
+   * @return the bytes.
+   *
+   * @throws IOException
+   *   If the matrix cannot be written.
+   */
+  static <T> byte[] bytes(Matrix<T> matrix, MatrixCodec<T> codec) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new MatrixWriter<T>(new DataOutputStream(bytes), codec).write(matrix);
+    return bytes.toByteArray();
+  } // bytes(Matrix<T>, MatrixCodec<T>)
+
+  /**
+   * Read a matrix from bytes.
+   *
+   * @param <T>
+   *   The type of values in the matrix.
+   * @param bytes
+   *   The bytes.
+   * @param codec
+   *   How to read values.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the matrix cannot be read.
+   */
+  static <T> Matrix<T> matrix(byte[] bytes, MatrixCodec<T> codec) throws IOException {
+    return new MatrixReader<T>(new DataInputStream(new ByteArrayInputStream(bytes)), codec)
+        .read();
+  } // matrix(byte[], MatrixCodec<T>)
+
+  /**
+   * Make sure that dense rows, sparse rows, null cells, and null
+   * defaults all survive the trip.
+   *
+   * @throws IOException
+   *   If something cannot be written or read.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    Matrix<Integer> ints = new MatrixDense<Integer>(6, 4, 7);
+    ints.fillRegion(1, 0, 2, 6, 3);
+    ints.set(2, 4, 9);
+    ints.set(3, 1, null);
+    ints.set(3, 2, 5);
+    assertEquals(ints, matrix(bytes(ints, MatrixCodec.INTEGERS), MatrixCodec.INTEGERS),
+        "M: integers");
+
+    Matrix<String> strings = new MatrixV0<String>(3, 3);
+    strings.set(0, 2, "alpha");
+    strings.set(2, 0, "");
+    Matrix<String> copy = matrix(bytes(strings, MatrixCodec.STRINGS), MatrixCodec.STRINGS);
+    assertEquals(strings, copy, "M: strings with a null default");
+    assertEquals(null, copy.defaultValue(), "M: null default");
+
+    Matrix<Integer> mostlySet = new MatrixDense<Integer>(4, 2, null);
+    mostlySet.fillRegion(0, 0, 1, 4, 1);
+    mostlySet.set(1, 0, 2);
+    mostlySet.set(1, 1, 3);
+    mostlySet.set(1, 3, 4);
+    assertEquals(mostlySet,
+        matrix(bytes(mostlySet, MatrixCodec.INTEGERS), MatrixCodec.INTEGERS),
+        "M: full and mostly full rows with a null default");
+
+    Matrix<Integer> empty = new MatrixDense<Integer>(0, 0, 0);
+    assertEquals(empty, matrix(bytes(empty, MatrixCodec.INTEGERS), MatrixCodec.INTEGERS),
+        "M: empty");
+  } // testRoundTrip()
+
+  /**
+   * Make sure that sparse matrices stay small, and that we can write
+   * through channels.
+   *
+   * @throws IOException
+   *   If something cannot be written or read.
+   */
+  @Test
+  public void testChannels() throws IOException {
+    DoubleMatrix matrix = new DoubleMatrix(1000, 1000);
+    for (int i = 0; i < 10; i++) {
+      matrix.setDouble(i * 97, i * 13, i + 0.5);
+    } // for
+    Path file = this.dir.resolve("sparse.mtxb");
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE)) {
+      MatrixWriter<Double> writer = new MatrixWriter<Double>(channel, MatrixCodec.DOUBLES);
+      writer.write(matrix);
+      writer.write(matrix.clone());
+      writer.flush();
+      assertTrue(channel.size() < 600, "M: ten cells take little room");
+    } // try
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MatrixReader<Double> reader = new MatrixReader<Double>(channel, MatrixCodec.DOUBLES);
+      for (int i = 0; i < 2; i++) {
+        assertEquals(matrix, reader.read((w, h, def) -> new DoubleMatrix(w, h, def)),
+            "M: matrix " + i);
+      } // for
+    } // try
+  } // testChannels()
+
+  /**
+   * Make sure that writing a huge sparse matrix looks only at the cells
+   * it stores. (Visiting every cell would take far too long.)
+   *
+   * @throws IOException
+   *   If something cannot be written or read.
+   */
+  @Test
+  public void testHugeSparse() throws IOException {
+    Matrix<Integer> matrix = new MatrixV0<Integer>(100000, 100000, 0);
+    matrix.set(5, 99999, 1);
+    matrix.set(99999, 5, null);
+    matrix.fillRegion(50000, 0, 50002, 100000, 2);
+    byte[] bytes = bytes(matrix, MatrixCodec.INTEGERS);
+    assertTrue(bytes.length < 2000000, "M: two full rows and two cells");
+    Matrix<Integer> copy = new MatrixReader<Integer>(
+        new DataInputStream(new ByteArrayInputStream(bytes)), MatrixCodec.INTEGERS)
+        .read((w, h, def) -> new MatrixV0<Integer>(w, h, def));
+    assertEquals(matrix.hashCode(), copy.hashCode(), "M: same hash");
+    assertEquals(200002, copy.nonDefaultCells().count(), "M: same number of cells");
+    assertEquals(null, copy.get(99999, 5), "M: null cell");
+  } // testHugeSparse()
+
+  /**
+   * Make sure that we reject bad input.
+   */
+  @Test
+  public void testErrors() {
+    assertThrows(IOException.class, () -> matrix(new byte[] {1, 2, 3, 4, 5},
+        MatrixCodec.INTEGERS), "E: no magic");
+    assertThrows(IOException.class, () -> matrix(new byte[] {0x4D, 0x54, 0x58, 0x42, 1},
+        MatrixCodec.INTEGERS), "E: truncated");
+  } // testErrors()
+} // class TestMatrixIO
@@ -0,0 +1,36 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static edu.grinnell.csc207.util.MatrixAssertions.assertRandomEditsMatch;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the MatrixIndirect class.
+ */
+class TestMatrixIndirect {
+  /**
+   * Make sure that reused physical rows and columns start out empty.
+   */
+  @Test
+  public void testReuse() {
+    Matrix<String> matrix = new MatrixIndirect<String>(2, 2, ".");
+    matrix.fillRegion(0, 0, 2, 2, "x");
+    matrix.deleteRow(0);
+    matrix.deleteCol(1);
+    matrix.insertRow(1);
+    matrix.insertCol(0);
+    assertMatrixEquals(new String[][] {{".", "x"}, {".", "."}}, matrix,
+        "M: reinserted row and column hold the default");
+  } // testReuse()
+
+  /**
+   * Make sure that MatrixIndirect behaves like MatrixDense under a
+   * long sequence of edits.
+   */
+  @Test
+  public void testRandomEdits() {
+    assertRandomEditsMatch(new MatrixDense<Integer>(5, 4, 0),
+        new MatrixIndirect<Integer>(5, 4, 0), 207, 2000, "M: random edits");
+  } // testRandomEdits()
+} // class TestMatrixIndirect
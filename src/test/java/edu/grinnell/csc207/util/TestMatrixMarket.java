@@ -0,0 +1,190 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the MatrixMarket loader.
+ */
+class TestMatrixMarket {
+  /**
+   * A place for our files.
+   */
+  @TempDir
+  Path dir;
+
+  /**
+   * Parse the contents of a file.
+   *
+   * @param text
+   *   The contents.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the contents are malformed.
+   */
+  static MatrixCSR<Double> parse(String text) throws IOException {
+    return MatrixMarket.parse(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)));
+  } // parse(String)
+
+  /**
+   * Make sure that we read the different kinds of Matrix Market files.
+   *
+   * @throws IOException
+   *   If a file is rejected.
+   */
+  @Test
+  public void testMarket() throws IOException {
+    MatrixCSR<Double> general = parse("%%MatrixMarket matrix coordinate real general\n"
+        + "% a comment\n"
+        + "\n"
+        + "3 4 5\n"
+        + "3 4 -2.5e1\n"
+        + "1 1 1.0\r\n"
+        + "2 3 0.125\n"
+        + "1 1 7\n"
+        + "2 2 0\n");
+    DoubleMatrix expected = new DoubleMatrix(4, 3);
+    expected.setDouble(0, 0, 7.0);
+    expected.setDouble(1, 2, 0.125);
+    expected.setDouble(2, 3, -25.0);
+    assertEquals(expected, general, "M: general, with a repeat and a zero");
+    assertEquals(3, general.size(), "M: stores only non-zero cells");
+
+    MatrixCSR<Double> symmetric = parse("%%MatrixMarket matrix coordinate pattern symmetric\n"
+        + "3 3 2\n"
+        + "2 1\n"
+        + "3 3\n");
+    expected = new DoubleMatrix(3, 3);
+    expected.setDouble(1, 0, 1.0);
+    expected.setDouble(0, 1, 1.0);
+    expected.setDouble(2, 2, 1.0);
+    assertEquals(expected, symmetric, "M: symmetric pattern");
+
+    MatrixCSR<Double> skew = parse("%%MatrixMarket matrix coordinate integer skew-symmetric\n"
+        + "2 2 1\n"
+        + "2 1 3\n");
+    assertEquals(-3.0, skew.get(0, 1), "M: skew-symmetric");
+  } // testMarket()
+
+  /**
+   * Make sure that numbers are read exactly.
+   *
+   * @throws IOException
+   *   If a file is rejected.
+   */
+  @Test
+  public void testNumbers() throws IOException {
+    Random random = new Random(207);
+    StringBuilder text = new StringBuilder("%%MatrixMarket matrix coordinate real general\n");
+    text.append("1 200 200\n");
+    double[] vals = new double[200];
+    for (int i = 0; i < vals.length; i++) {
+      vals[i] = (i % 2 == 0) ? random.nextDouble() * 1000 : random.nextGaussian() * 1e-30;
+      text.append("1 ").append(i + 1).append(' ').append(vals[i]).append('\n');
+    } // for
+    text.append("1 1 123456789012345678901234\n");
+    vals[0] = 123456789012345678901234.0;
+    MatrixCSR<Double> matrix = parse(text.toString());
+    for (int i = 0; i < vals.length; i++) {
+      assertEquals(vals[i], matrix.get(0, i), "M: value " + i);
+    } // for
+  } // testNumbers()
+
+  /**
+   * Make sure that numbers with many digits, huge or tiny exponents, or
+   * values halfway between two doubles round as Double.parseDouble
+   * does.
+   *
+   * @throws IOException
+   *   If a file is rejected.
+   */
+  @Test
+  public void testHardNumbers() throws IOException {
+    List<String> words = new ArrayList<String>(List.of("9007199254740993", "9007199254740995",
+        "1234567890123456789", "9999999999999999999", "18446744073709551615",
+        "0.1000000000000000055511151231257827", "2.2250738585072011e-308",
+        "1.7976931348623157e308", "4.9e-324", "1e23", "8.98846567431158e307", "-0.0",
+        "+.5", "5.", "1e400", "123456789012345678.5e-3", "0.000000000000000000000000001"));
+    Random random = new Random(207);
+    for (int i = 0; i < 500; i++) {
+      double val = Double.longBitsToDouble(random.nextLong() & 0x7fefffffffffffffL);
+      words.add(new BigDecimal(val).round(new MathContext(16 + random.nextInt(10)))
+          .toString());
+    } // for
+    StringBuilder text = new StringBuilder("%%MatrixMarket matrix coordinate real general\n");
+    text.append("1 ").append(words.size()).append(' ').append(words.size()).append('\n');
+    for (int i = 0; i < words.size(); i++) {
+      text.append("1 ").append(i + 1).append(' ').append(words.get(i)).append('\n');
+    } // for
+    MatrixCSR<Double> matrix = parse(text.toString());
+    for (int i = 0; i < words.size(); i++) {
+      assertEquals(Double.parseDouble(words.get(i)), matrix.get(0, i), "M: " + words.get(i));
+    } // for
+  } // testHardNumbers()
+
+  /**
+   * Make sure that files are read across windows, and that raw
+   * coordinate files work.
+   *
+   * @throws IOException
+   *   If a file cannot be written or read.
+   */
+  @Test
+  public void testFiles() throws IOException {
+    Random random = new Random(207);
+    DoubleMatrix expected = new DoubleMatrix(40, 30);
+    StringBuilder market = new StringBuilder("%%MatrixMarket matrix coordinate real general\n");
+    market.append("30 40 300\n");
+    StringBuilder raw = new StringBuilder();
+    for (int i = 0; i < 300; i++) {
+      int row = random.nextInt(30);
+      int col = random.nextInt(40);
+      int val = random.nextInt(9) + 1;
+      expected.setDouble(row, col, val);
+      market.append(row + 1).append(' ').append(col + 1).append(' ').append(val).append('\n');
+      raw.append(row).append('\t').append(col).append('\t').append(val).append('\n');
+    } // for
+    Path marketFile = this.dir.resolve("m.mtx");
+    Files.writeString(marketFile, market);
+    Path rawFile = this.dir.resolve("m.coo");
+    Files.writeString(rawFile, raw);
+
+    assertEquals(expected, MatrixMarket.load(marketFile), "M: one window");
+    assertEquals(expected, MatrixMarket.load(marketFile, true, 64), "M: small windows");
+    MatrixCSR<Double> coo = MatrixMarket.load(rawFile, false, 100);
+    assertEquals(expected, MatrixMarket.loadCoordinates(rawFile), "M: raw");
+    assertEquals(coo, MatrixMarket.loadCoordinates(rawFile), "M: raw, small windows");
+  } // testFiles()
+
+  /**
+   * Make sure that we reject malformed files.
+   */
+  @Test
+  public void testErrors() {
+    assertThrows(IOException.class, () -> parse("1 1 1\n"), "E: no banner");
+    assertThrows(IOException.class,
+        () -> parse("%%MatrixMarket matrix array real general\n1 1\n1\n"), "E: array");
+    assertThrows(IOException.class,
+        () -> parse("%%MatrixMarket matrix coordinate real general\n2 2 1\n3 1 1\n"),
+        "E: out of range");
+    assertThrows(IOException.class,
+        () -> parse("%%MatrixMarket matrix coordinate real general\n2 2 1\n1 x 1\n"),
+        "E: not a number");
+  } // testErrors()
+} // class TestMatrixMarket
@@ -0,0 +1,89 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertRandomEditsMatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the MatrixTiled class.
+ */
+class TestMatrixTiled {
+  /**
+   * Make sure that a tiled matrix behaves like a plain array of cells,
+   * including across tile boundaries.
+   */
+  @Test
+  public void testRandomEdits() {
+    assertRandomEditsMatch(new MatrixDense<Integer>(5, 4, 0),
+        new MatrixTiled<Integer>(5, 4, 0), 207, 2000, "M: small random edits");
+    assertRandomEditsMatch(new MatrixDense<Integer>(130, 70, 0),
+        new MatrixTiled<Integer>(130, 70, 0), 207, 300, 200, "M: large random edits");
+  } // testRandomEdits()
+
+  /**
+   * Make sure that other tile sizes work, and that bad ones are
+   * rejected.
+   */
+  @Test
+  public void testTileSizes() {
+    for (int size : new int[] {1, 2, 8}) {
+      assertRandomEditsMatch(new MatrixDense<Integer>(11, 9, 0),
+          new MatrixTiled<Integer>(11, 9, 0, size), 207 + size, 1000, 24,
+          "M: random edits with tiles of " + size);
+    } // for
+    assertEquals(64, new MatrixTiled<Integer>(3, 3).tileSize(), "M: default tile size");
+    assertThrows(IllegalArgumentException.class, () -> new MatrixTiled<Integer>(3, 3, 0, 6),
+        "E: tile size that is not a power of two");
+    assertThrows(IllegalArgumentException.class, () -> new MatrixTiled<Integer>(3, 3, 0, 0),
+        "E: empty tiles");
+  } // testTileSizes()
+
+  /**
+   * Make sure that mapInPlace leaves unallocated tiles alone when it
+   * can, and fills them when it must.
+   */
+  @Test
+  public void testMapTiles() {
+    MatrixTiled<Integer> matrix = new MatrixTiled<Integer>(20, 20, 0, 8);
+    matrix.set(3, 3, 5);
+    matrix.mapInPlace((val) -> val * 2);
+    assertEquals(10, matrix.get(3, 3), "M: mapped an allocated tile");
+    assertNull(matrix.tiles[matrix.tiles.length - 1], "M: kept an empty tile empty");
+    matrix.mapInPlace((val) -> val + 1);
+    assertEquals(11, matrix.get(3, 3), "M: mapped an allocated tile again");
+    assertEquals(1, matrix.get(19, 19), "M: mapped an empty tile");
+    assertEquals(0, matrix.defaultValue(), "M: default unchanged");
+    matrix.insertRow(20);
+    assertEquals(0, matrix.get(20, 19), "M: new row holds the default");
+    assertEquals(20 * 20 + 10, (int) matrix.reduce(0, (sum, val) -> sum + val, Integer::sum),
+        "M: sum");
+  } // testMapTiles()
+
+  /**
+   * Make sure that clones share tiles until one side writes, and that
+   * writes never leak between copies.
+   */
+  @Test
+  public void testCopyOnWrite() {
+    MatrixTiled<String> original = new MatrixTiled<String>(200, 200, ".");
+    original.fillRegion(0, 0, 200, 200, "a");
+    MatrixTiled<String> copy = original.clone();
+    assertSame(original.tiles[0], copy.tiles[0], "M: clones start out sharing tiles");
+
+    copy.set(5, 5, "b");
+    assertEquals("a", original.get(5, 5), "M: the copy's write stays in the copy");
+    assertEquals("b", copy.get(5, 5), "M: the copy sees its own write");
+    assertSame(original.tiles[1], copy.tiles[1], "M: untouched tiles stay shared");
+
+    original.set(70, 70, "c");
+    assertEquals("a", copy.get(70, 70), "M: the original's write stays in the original");
+    original.deleteRow(0);
+    assertEquals("b", copy.get(5, 5), "M: structural edits stay in the original");
+    assertEquals(copy.height() - 1, original.height(), "M: heights differ");
+  } // testCopyOnWrite()
+} // class TestMatrixTiled
@@ -0,0 +1,139 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the row and column views and the cell streams.
+ */
+class TestMatrixViews {
+  /**
+   * Make sure that the line cursors walk rows and columns in order.
+   */
+  @Test
+  public void testLineViews() {
+    Matrix<String> matrix = new MatrixDense<String>(3, 2, ".");
+    matrix.set(0, 1, "a");
+    matrix.set(1, 2, "b");
+
+    LineView<String> row = matrix.rowView(1);
+    StringBuilder walked = new StringBuilder();
+    while (row.hasNext()) {
+      walked.append(row.index() + 1).append(row.next());
+    } // while
+    assertEquals("0.1.2b", walked.toString(), "M: row 1 left to right");
+    assertFalse(row.hasNext(), "M: cursor is exhausted");
+
+    LineView<String> col = matrix.colView(1);
+    assertEquals(2, col.size(), "M: a column has height cells");
+    assertEquals("a", col.get(0), "M: random access in a column");
+    matrix.set(1, 1, "c");
+    assertEquals("c", col.get(1), "M: views see later sets");
+
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.rowView(2),
+        "E: no such row");
+    assertThrows(IndexOutOfBoundsException.class, () -> col.get(2),
+        "E: past the end of the column");
+  } // testLineViews()
+
+  /**
+   * Make sure that the cell streams visit the right cells for each kind
+   * of matrix.
+   */
+  @Test
+  public void testCellStreams() {
+    Matrix<Integer> v0 = new MatrixV0<Integer>(4, 3, 0);
+    Matrix<Integer> dense = new MatrixDense<Integer>(4, 3, 0);
+    Matrix<Integer> ints = new IntMatrix(4, 3);
+    for (Matrix<Integer> matrix : List.of(v0, dense, ints)) {
+      matrix.set(0, 3, 5);
+      matrix.set(2, 0, 7);
+      assertEquals(12, matrix.cells().count(), "M: every cell");
+      assertEquals(12, matrix.cells().mapToInt(MatrixCell::value).sum(), "M: sum of cells");
+      assertEquals("[(0, 3)=5, (2, 0)=7]",
+          matrix.nonDefaultCells().map(MatrixCell::toString).collect(Collectors.toList())
+              .toString(),
+          "M: non-default cells in row-major order");
+      assertEquals(3, matrix.rows().count(), "M: one view per row");
+    } // for
+  } // testCellStreams()
+
+  /**
+   * Make sure that a parallel stream over a large matrix visits each
+   * cell exactly once.
+   */
+  @Test
+  public void testParallelCells() {
+    Matrix<Integer> matrix = new MatrixDense<Integer>(100, 90, 1);
+    matrix.fillRegion(10, 10, 20, 20, 0);
+    assertEquals(9000 - 100, matrix.cells().parallel().mapToInt(MatrixCell::value).sum(),
+        "M: parallel sum");
+    assertEquals(100, matrix.nonDefaultCells().parallel().count(),
+        "M: parallel non-default count");
+  } // testParallelCells()
+
+  /**
+   * Make sure that the sparse matrices stream their non-default cells
+   * from what they store. (Visiting every cell of these matrices would
+   * take far too long.)
+   */
+  @Test
+  public void testSparseCellStreams() {
+    MatrixV0<Integer> v0 = new MatrixV0<Integer>(100000, 100000, 0);
+    Matrix<Integer> adaptive = new MatrixAdaptive<Integer>(100000, 100000, 0);
+    MatrixIndirect<Integer> indirect = new MatrixIndirect<Integer>(99999, 100001, 0);
+    indirect.insertCol(5);
+    indirect.deleteRow(0);
+    for (Matrix<Integer> matrix : List.of(v0, adaptive, indirect)) {
+      matrix.set(90000, 3, 5);
+      matrix.set(7, 99999, 6);
+      matrix.set(7, 4, 7);
+    } // for
+    List<String> expected = List.of("(7, 4)=7", "(7, 99999)=6", "(90000, 3)=5");
+    MatrixCSR<Integer> csr = new MatrixCSR<Integer>(100000, 100000, 0,
+        rowStarts(100000, 7, 7, 90000), new int[] {4, 99999, 3}, new Object[] {7, 6, 5});
+    for (Matrix<Integer> matrix : List.of(v0, adaptive, indirect, csr)) {
+      assertEquals(expected,
+          matrix.nonDefaultCells().map(MatrixCell::toString).collect(Collectors.toList()),
+          "M: stored cells of " + matrix.getClass().getSimpleName());
+      assertEquals(3, matrix.nonDefaultCells().parallel().count(),
+          "M: parallel count for " + matrix.getClass().getSimpleName());
+      PersistentMatrix<Integer> copy = PersistentMatrix.copyOf(matrix);
+      assertEquals(3, copy.size(), "M: copyOf " + matrix.getClass().getSimpleName());
+      assertEquals(6, copy.get(7, 99999), "M: copied cell");
+    } // for
+
+    v0.fillRegion(7, 2, 9, 5, 8);
+    v0.fillRegion(8, 3, 100000, 4, 0);
+    assertEquals(List.of("(7, 2)=8", "(7, 3)=8", "(7, 4)=8", "(7, 99999)=6", "(8, 2)=8",
+        "(8, 4)=8"),
+        v0.nonDefaultCells().map(MatrixCell::toString).collect(Collectors.toList()),
+        "M: cells of pending regions");
+  } // testSparseCellStreams()
+
+  /**
+   * Build the rowStarts of a MatrixCSR.
+   *
+   * @param height
+   *   The number of rows.
+   * @param rows
+   *   The row of each stored cell, in order.
+   *
+   * @return rowStarts for those cells.
+   */
+  static int[] rowStarts(int height, int... rows) {
+    int[] starts = new int[height + 1];
+    for (int row : rows) {
+      for (int r = row + 1; r <= height; r++) {
+        starts[r]++;
+      } // for
+    } // for
+    return starts;
+  } // rowStarts(int, int...)
+} // class TestMatrixViews
@@ -0,0 +1,209 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the PersistentMatrix class.
+ */
+class TestPersistentMatrix {
+  /**
+   * Make sure that each change makes a new version and leaves the old
+   * one alone.
+   */
+  @Test
+  public void testVersions() {
+    PersistentMatrix<String> v0 = new PersistentMatrix<String>(3, 2, ".");
+    PersistentMatrix<String> v1 = v0.with(0, 1, "a");
+    PersistentMatrix<String> v2 = v1.withRowInserted(0).withRegionFilled(0, 0, 1, 3, "b");
+    PersistentMatrix<String> v3 = v2.withColDeleted(0);
+
+    assertMatrixEquals(new String[][] {{".", ".", "."}, {".", ".", "."}}, v0, "M: v0");
+    assertMatrixEquals(new String[][] {{".", "a", "."}, {".", ".", "."}}, v1, "M: v1");
+    assertMatrixEquals(
+        new String[][] {{"b", "b", "b"}, {".", "a", "."}, {".", ".", "."}}, v2, "M: v2");
+    assertMatrixEquals(new String[][] {{"b", "b"}, {"a", "."}, {".", "."}}, v3, "M: v3");
+    assertEquals(3, v3.size(), "M: v3 stores only non-default cells");
+
+    assertThrows(UnsupportedOperationException.class, () -> v3.set(0, 0, "x"),
+        "E: versions are immutable");
+    assertEquals(v1, PersistentMatrix.copyOf(v1.clone()), "M: copyOf an equal matrix");
+  } // testVersions()
+
+  /**
+   * Make sure that a long history of random versions all keep their
+   * contents.
+   */
+  @Test
+  public void testRandomHistory() {
+    Random random = new Random(207);
+    MatrixDense<Integer> current = new MatrixDense<Integer>(6, 5, 0);
+    PersistentMatrix<Integer> version = new PersistentMatrix<Integer>(6, 5, 0);
+    List<Matrix<Integer>> expected = new ArrayList<Matrix<Integer>>();
+    List<PersistentMatrix<Integer>> history = new ArrayList<PersistentMatrix<Integer>>();
+    for (int step = 0; step < 1000; step++) {
+      int h = current.height();
+      int w = current.width();
+      int op = random.nextInt(8);
+      if ((op < 3) && (h > 0) && (w > 0)) {
+        int row = random.nextInt(h);
+        int col = random.nextInt(w);
+        int val = random.nextInt(4);
+        current.set(row, col, val);
+        version = version.with(row, col, val);
+      } else if ((op == 3) && (h < 12)) {
+        int row = random.nextInt(h + 1);
+        current.insertRow(row);
+        version = version.withRowInserted(row);
+      } else if ((op == 4) && (w < 12)) {
+        int col = random.nextInt(w + 1);
+        current.insertCol(col);
+        version = version.withColInserted(col);
+      } else if ((op == 5) && (h > 1)) {
+        int row = random.nextInt(h);
+        current.deleteRow(row);
+        version = version.withRowDeleted(row);
+      } else if ((op == 6) && (w > 1)) {
+        int col = random.nextInt(w);
+        current.deleteCol(col);
+        version = version.withColDeleted(col);
+      } else if ((h > 0) && (w > 0)) {
+        int r0 = random.nextInt(h);
+        int c0 = random.nextInt(w);
+        int r1 = r0 + random.nextInt(h - r0 + 1);
+        int c1 = c0 + random.nextInt(w - c0 + 1);
+        int val = random.nextInt(4);
+        current.fillRegion(r0, c0, r1, c1, val);
+        version = version.withRegionFilled(r0, c0, r1, c1, val);
+      } // if/else
+      assertEquals(current.hashCode(), version.hashCode(), "M: hash after step " + step);
+      expected.add(current.clone());
+      history.add(version);
+    } // for
+    for (int i = 0; i < history.size(); i++) {
+      assertEquals(expected.get(i), history.get(i), "M: version " + i);
+    } // for
+  } // testRandomHistory()
+
+  /**
+   * Make sure that filling huge regions stores the regions rather than
+   * their cells, and that versions share them.
+   */
+  @Test
+  public void testLargeFills() {
+    PersistentMatrix<Integer> v0 = new PersistentMatrix<Integer>(100000, 100000, 0);
+    PersistentMatrix<Integer> v1 = v0.withRegionFilled(0, 0, 50000, 100000, 1);
+    PersistentMatrix<Integer> v2 = v1.with(10, 10, 2).with(20, 20, 0).with(60000, 5, 3);
+    PersistentMatrix<Integer> v3 = v2.withRowInserted(30).withColDeleted(0)
+        .withRegionFilled(40000, 0, 60000, 100, 4);
+
+    assertEquals(0, v1.cells.size(), "M: a fill stores no cells");
+    assertEquals(1, v2.cells.size(), "M: only the cell outside the fill is in the trie");
+    assertEquals(2, v3.fills.length, "M: v3 has two fills");
+    assertSame(v2.fills[0], v3.fills[0], "M: later versions share fills");
+    assertEquals(1, v1.fills.length, "M: v1 is unchanged");
+
+    assertEquals(1, v1.get(49999, 99999), "M: v1 bottom-right of fill");
+    assertEquals(0, v1.get(50000, 0), "M: v1 below fill");
+    assertEquals(1, v1.get(10, 10), "M: v1 keeps the filled value");
+    assertEquals(2, v2.get(10, 10), "M: v2 set inside fill");
+    assertEquals(0, v2.get(20, 20), "M: v2 cleared inside fill");
+    assertEquals(3, v2.get(60000, 5), "M: v2 set outside fill");
+    assertEquals(2, v3.get(10, 9), "M: v3 set cell moved left");
+    assertEquals(0, v3.get(30, 7), "M: v3 inserted row is not in the fill");
+    assertEquals(1, v3.get(31, 7), "M: v3 row after the inserted one");
+    assertEquals(4, v3.get(45000, 99), "M: v3 newer fill");
+    assertEquals(1, v3.get(45000, 100), "M: v3 older fill beside newer");
+    assertEquals(4, v3.get(59999, 4), "M: v3 bottom of newer fill");
+    assertEquals(0, v3.get(60000, 4), "M: v3 below both fills");
+    assertEquals(3, v3.get(60001, 4), "M: v3 set cell moved down and left");
+
+    PersistentMatrix<Integer> v4 = v2.withRowInserted(30).withRegionFilled(0, 0, 100001,
+        100000, 5);
+    assertEquals(1, v4.fills.length, "M: a covering fill drops the ones it hides");
+    assertEquals(5, v4.get(30, 7), "M: v4 covers the inserted row");
+    assertEquals(5, v4.get(10, 10), "M: v4 hides the set cell");
+  } // testLargeFills()
+
+  /**
+   * Make sure that a long history of fills keeps only a few Fills, that
+   * fills drop the trie cells they cover, and that writing old fills
+   * into the trie keeps every version's contents.
+   */
+  @Test
+  public void testBoundedFills() {
+    PersistentMatrix<Integer> small = new PersistentMatrix<Integer>(1000, 1000, 0);
+    Random random = new Random(207);
+    for (int i = 0; i < 5000; i++) {
+      int row = random.nextInt(996);
+      int col = random.nextInt(996);
+      small = small.withRegionFilled(row, col, row + 4, col + 4, 1 + random.nextInt(3));
+    } // for
+    assertEquals(0, small.fills.length, "M: small fills go straight into the trie");
+    PersistentMatrix<Integer> covered = small.withRegionFilled(0, 0, 500, 1000, 9);
+    assertEquals(small.withRegionFilled(0, 0, 500, 1000, 0).size(), covered.cells.size(),
+        "M: a fill drops the trie cells it covers");
+
+    MatrixDense<Integer> current = new MatrixDense<Integer>(40, 30, 0);
+    PersistentMatrix<Integer> version = new PersistentMatrix<Integer>(40, 30, 0);
+    List<Matrix<Integer>> expected = new ArrayList<Matrix<Integer>>();
+    List<PersistentMatrix<Integer>> history = new ArrayList<PersistentMatrix<Integer>>();
+    for (int step = 0; step < 3000; step++) {
+      int h = current.height();
+      int w = current.width();
+      int op = random.nextInt(10);
+      if (op < 3) {
+        int row = random.nextInt(h);
+        int col = random.nextInt(w);
+        int val = random.nextInt(4);
+        current.set(row, col, val);
+        version = version.with(row, col, val);
+      } else if (op == 3) {
+        int row = random.nextInt(h + 1);
+        current.insertRow(row);
+        version = version.withRowInserted(row);
+      } else if (op == 4) {
+        int col = random.nextInt(w + 1);
+        current.insertCol(col);
+        version = version.withColInserted(col);
+      } else if ((op == 5) && (h > 20)) {
+        int row = random.nextInt(h);
+        current.deleteRow(row);
+        version = version.withRowDeleted(row);
+      } else if ((op == 6) && (w > 20)) {
+        int col = random.nextInt(w);
+        current.deleteCol(col);
+        version = version.withColDeleted(col);
+      } else {
+        int r0 = random.nextInt(h);
+        int c0 = random.nextInt(w);
+        int r1 = r0 + random.nextInt(h - r0 + 1);
+        int c1 = c0 + random.nextInt(w - c0 + 1);
+        int val = random.nextInt(4);
+        current.fillRegion(r0, c0, r1, c1, val);
+        version = version.withRegionFilled(r0, c0, r1, c1, val);
+      } // if/else
+      assertTrue(version.fills.length <= PersistentMatrix.MAX_FILLS,
+          "M: fills after step " + step);
+      if (step % 10 == 0) {
+        expected.add(current.clone());
+        history.add(version);
+      } // if
+    } // for
+    for (int i = 0; i < history.size(); i++) {
+      assertEquals(expected.get(i), history.get(i), "M: version " + (i * 10));
+      assertEquals(expected.get(i).hashCode(), history.get(i).hashCode(),
+          "M: hash of version " + (i * 10));
+    } // for
+  } // testBoundedFills()
+} // class TestPersistentMatrix
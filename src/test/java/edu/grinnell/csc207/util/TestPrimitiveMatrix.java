@@ -0,0 +1,126 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertFigure;
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the primitive matrices (IntMatrix, LongMatrix, DoubleMatrix).
+ */
+class TestPrimitiveMatrix {
+  /**
+   * Make sure that the unboxed accessors and the structural operations
+   * agree with the Matrix view.
+   */
+  @Test
+  public void testIntMatrix() throws ArraySizeException {
+    IntMatrix matrix = new IntMatrix(3, 2, 1);
+    matrix.setInt(0, 0, 5);
+    matrix.set(1, 2, 6);
+    matrix.insertRow(1, new Integer[] {7, 8, 9});
+    matrix.insertCol(0);
+    assertMatrixEquals(
+        new Integer[][] {{1, 5, 1, 1}, {1, 7, 8, 9}, {1, 1, 1, 6}},
+        matrix, "M: after inserting a row and a column");
+    matrix.deleteRow(0);
+    matrix.deleteCol(2);
+    assertEquals(9, matrix.getInt(0, 2), "M: after deleting");
+    assertEquals(matrix, matrix.clone(), "M: clone is equal");
+  } // testIntMatrix()
+
+  /**
+   * Make sure that the other primitive matrices fill and print.
+   */
+  @Test
+  public void testLongAndDouble() {
+    LongMatrix longs = new LongMatrix(2, 2);
+    longs.fillRegion(0, 1, 2, 2, 1L << 40);
+    assertEquals(1L << 40, longs.getLong(1, 1), "M: long fill");
+    assertEquals(0L, longs.getLong(1, 0), "M: long default");
+
+    DoubleMatrix doubles = new DoubleMatrix(2, 1, 0.5);
+    doubles.setDouble(0, 1, 2.0);
+    assertFigure("""
+        +-----+-----+
+        | 0.5 | 2.0 |
+        +-----+-----+
+        """, doubles, "M: printing a double matrix");
+  } // testLongAndDouble()
+
+  /**
+   * Make sure that the element-wise operations and reductions agree
+   * with cell-by-cell loops, and that they ignore the unused end of
+   * the backing array.
+   */
+  @Test
+  public void testNumeric() {
+    Random random = new Random(207);
+    IntMatrix ints = new IntMatrix(7, 5);
+    IntMatrix others = new IntMatrix(7, 5);
+    DoubleMatrix doubles = new DoubleMatrix(7, 5);
+    for (int row = 0; row < 5; row++) {
+      for (int col = 0; col < 7; col++) {
+        ints.setInt(row, col, random.nextInt(2001) - 1000);
+        others.setInt(row, col, random.nextInt(2001) - 1000);
+        doubles.setDouble(row, col, random.nextInt(100) / 4.0);
+      } // for col
+    } // for row
+    ints.setInt(4, 6, Integer.MAX_VALUE);
+    others.setInt(4, 6, Integer.MAX_VALUE);
+    ints.deleteRow(4);
+    others.deleteRow(4);
+    doubles.deleteRow(4);
+
+    long sum = 0;
+    long dot = 0;
+    int min = Integer.MAX_VALUE;
+    double doubleSum = 0;
+    for (int row = 0; row < 4; row++) {
+      for (int col = 0; col < 7; col++) {
+        sum += ints.getInt(row, col);
+        dot += (long) ints.getInt(row, col) * others.getInt(row, col);
+        min = Math.min(min, ints.getInt(row, col));
+        doubleSum += doubles.getDouble(row, col);
+      } // for col
+    } // for row
+    assertEquals(sum, ints.sum(), "M: int sum");
+    assertEquals(dot, ints.dot(others), "M: int dot");
+    assertEquals(min, ints.min(), "M: int min");
+    assertEquals(doubleSum, doubles.sum(), "M: double sum of quarters is exact");
+
+    IntMatrix expected = others.clone();
+    expected.mapInPlace((val) -> 3 * val);
+    for (int row = 0; row < 4; row++) {
+      for (int col = 0; col < 7; col++) {
+        expected.setInt(row, col, expected.getInt(row, col) + ints.getInt(row, col));
+      } // for col
+    } // for row
+    others.scale(3);
+    others.add(ints);
+    assertEquals(expected, others, "M: scale and add");
+    others.multiply(ints);
+    assertEquals(expected.getInt(2, 3) * ints.getInt(2, 3), others.getInt(2, 3),
+        "M: multiply");
+
+    LongMatrix longs = new LongMatrix(3, 3, -2L);
+    longs.fillRegion(1, 0, 3, 3, 5L);
+    assertEquals(-2L, longs.min(), "M: long min");
+    assertEquals(5L, longs.max(), "M: long max, after a whole-row fill");
+    assertEquals(24L, longs.sum(), "M: long sum");
+
+    assertThrows(IllegalArgumentException.class, () -> ints.add(new IntMatrix(4, 7)),
+        "E: add with mismatched shapes");
+    assertThrows(IllegalArgumentException.class, () -> doubles.dot(new DoubleMatrix(7, 3)),
+        "E: dot with mismatched shapes");
+    assertThrows(NoSuchElementException.class, () -> new DoubleMatrix(0, 3).max(),
+        "E: max of an empty matrix");
+    assertEquals(0.0, new DoubleMatrix(3, 0).sum(), "M: sum of an empty matrix");
+  } // testNumeric()
+} // class TestPrimitiveMatrix